@@ -21,7 +21,9 @@ import org.eclipse.che.api.workspace.server.WorkspaceLockService;
 import org.eclipse.che.api.workspace.server.WorkspaceStatusCache;
 import org.eclipse.che.multiuser.api.distributed.JGroupsServiceTermination;
 import org.eclipse.che.multiuser.api.distributed.WorkspaceStopPropagator;
+import org.eclipse.che.multiuser.api.distributed.permission.PermissionsChangesPropagator;
 import org.eclipse.che.multiuser.api.distributed.subscription.DistributedRemoteSubscriptionStorage;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger;
 import org.eclipse.persistence.config.CacheCoordinationProtocol;
 import org.eclipse.persistence.config.PersistenceUnitProperties;
 
@@ -57,5 +59,9 @@ public class ReplicationModule extends AbstractModule {
         .to(JGroupsServiceTermination.class);
 
     bind(WorkspaceStopPropagator.class).asEagerSingleton();
+    bind(PermissionsChangesPropagator.class).asEagerSingleton();
+
+    // workspaces events are not delivered from other masters, so usage can't be kept by events
+    bindConstant().annotatedWith(Names.named(ResourceUsageLedger.MULTI_MASTER)).to(true);
   }
 }
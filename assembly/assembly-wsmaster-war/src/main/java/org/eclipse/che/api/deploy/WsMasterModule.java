@@ -201,6 +201,16 @@ public class WsMasterModule extends AbstractModule {
     bind(org.eclipse.che.api.workspace.server.event.MachineLogJsonRpcMessenger.class)
         .asEagerSingleton();
 
+    Multibinder<String> droppableMethods =
+        Multibinder.newSetBinder(
+            binder(), String.class, Names.named("che.websocket.droppable_methods"));
+    droppableMethods
+        .addBinding()
+        .toInstance(org.eclipse.che.api.workspace.shared.Constants.MACHINE_LOG_METHOD);
+    droppableMethods
+        .addBinding()
+        .toInstance(org.eclipse.che.api.workspace.shared.Constants.INSTALLER_LOG_METHOD);
+
     bind(org.eclipse.che.security.oauth.OAuthAuthenticatorProvider.class)
         .to(org.eclipse.che.security.oauth.OAuthAuthenticatorProviderImpl.class);
 
@@ -14,9 +14,9 @@ package org.eclipse.che.api.core.jsonrpc.impl;
 import static java.util.Collections.emptyList;
 import static org.eclipse.che.api.core.jsonrpc.commons.JsonRpcUtils.cast;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.inject.Singleton;
+import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcComposer;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
@@ -48,7 +48,7 @@ public class GsonJsonRpcComposer implements JsonRpcComposer {
   private <T> T composeOne(Class<T> type, Object paramObject) {
     if (paramObject instanceof JsonElement) {
       JsonElement jsonElement = (JsonElement) paramObject;
-      return DtoFactory.getInstance().createDtoFromJson(jsonElement.toString(), type);
+      return DtoFactory.getInstance().createDtoFromJson(jsonElement, type);
     }
 
     return cast(paramObject);
@@ -60,12 +60,11 @@ public class GsonJsonRpcComposer implements JsonRpcComposer {
     }
 
     if (paramsList.get(0) instanceof JsonElement) {
-      JsonArray jsonArray = new JsonArray();
-      for (int i = 0; i < paramsList.size(); i++) {
-        JsonElement jsonElement = (JsonElement) paramsList.get(i);
-        jsonArray.set(i, jsonElement);
+      List<T> dtos = new ArrayList<>(paramsList.size());
+      for (Object param : paramsList) {
+        dtos.add(DtoFactory.getInstance().createDtoFromJson((JsonElement) param, type));
       }
-      return DtoFactory.getInstance().createListDtoFromJson(jsonArray.toString(), type);
+      return dtos;
     }
 
     return cast(paramsList);
@@ -18,7 +18,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.google.inject.Inject;
 import java.util.List;
@@ -31,12 +30,10 @@ import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResult;
 import org.eclipse.che.dto.server.DtoFactory;
 
 public class GsonJsonRpcMarshaller implements JsonRpcMarshaller {
-  private final JsonParser jsonParser;
   private final Gson gson;
 
   @Inject
-  public GsonJsonRpcMarshaller(JsonParser jsonParser, Gson gson) {
-    this.jsonParser = jsonParser;
+  public GsonJsonRpcMarshaller(Gson gson) {
     this.gson = gson;
   }
 
@@ -166,7 +163,7 @@ public class GsonJsonRpcMarshaller implements JsonRpcMarshaller {
       return new JsonPrimitive((Double) param);
     }
     try {
-      return jsonParser.parse(DtoFactory.getInstance().toJson(param));
+      return DtoFactory.getInstance().toJsonElement(param);
     } catch (IllegalArgumentException e) {
       return gson.toJsonTree(param);
     }
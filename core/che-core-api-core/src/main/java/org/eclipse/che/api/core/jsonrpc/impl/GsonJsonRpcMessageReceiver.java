@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcErrorTransmitter;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessageReceiver;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestDispatcher;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
+import org.eclipse.che.api.core.jsonrpc.commons.ResponseDispatcher;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageReceiver;
+import org.slf4j.Logger;
+
+/**
+ * Server side counterpart of {@link JsonRpcMessageReceiver} which parses an incoming message only
+ * once. Validation, qualification and unmarshalling of requests and responses, including every
+ * message of a batch, are done on the same parsed tree instead of parsing the message text at each
+ * step.
+ */
+@Singleton
+public class GsonJsonRpcMessageReceiver implements WebSocketMessageReceiver {
+  private static final Logger LOGGER = getLogger(GsonJsonRpcMessageReceiver.class);
+
+  private final RequestDispatcher requestDispatcher;
+  private final ResponseDispatcher responseDispatcher;
+  private final JsonRpcErrorTransmitter errorTransmitter;
+  private final GsonJsonRpcUnmarshaller jsonRpcUnmarshaller;
+  private final RequestProcessor requestProcessor;
+  private final JsonParser jsonParser;
+
+  @Inject
+  public GsonJsonRpcMessageReceiver(
+      RequestDispatcher requestDispatcher,
+      ResponseDispatcher responseDispatcher,
+      JsonRpcErrorTransmitter errorTransmitter,
+      GsonJsonRpcUnmarshaller jsonRpcUnmarshaller,
+      RequestProcessor requestProcessor,
+      JsonParser jsonParser) {
+    this.requestDispatcher = requestDispatcher;
+    this.responseDispatcher = responseDispatcher;
+    this.errorTransmitter = errorTransmitter;
+    this.jsonRpcUnmarshaller = jsonRpcUnmarshaller;
+    this.requestProcessor = requestProcessor;
+    this.jsonParser = jsonParser;
+  }
+
+  @Override
+  public void receive(String endpointId, String message) {
+    checkNotNull(endpointId, "Endpoint ID must not be null");
+    checkArgument(!endpointId.isEmpty(), "Endpoint ID name must not be empty");
+    checkNotNull(message, "Message must not be null");
+    checkArgument(!message.isEmpty(), "Message must not be empty");
+
+    LOGGER.debug("Receiving message: {}, from endpoint: {}", message, endpointId);
+    JsonElement json;
+    try {
+      json = jsonParser.parse(message);
+    } catch (JsonParseException e) {
+      LOGGER.debug("Validation failed: {}", e.getMessage(), e);
+      String error = "An error occurred on the server while parsing the JSON text";
+      errorTransmitter.transmit(endpointId, new JsonRpcException(-32700, error));
+      return;
+    }
+
+    if (json.isJsonArray()) {
+      JsonArray batch = json.getAsJsonArray();
+      for (int i = 0; i < batch.size(); i++) {
+        dispatch(endpointId, batch.get(i));
+      }
+    } else {
+      dispatch(endpointId, json);
+    }
+  }
+
+  private void dispatch(String endpointId, JsonElement json) {
+    JsonObject jsonObject = json.isJsonObject() ? json.getAsJsonObject() : null;
+    if (jsonObject != null && jsonObject.has("method")) {
+      requestProcessor.process(() -> processRequest(endpointId, jsonObject));
+    } else if (jsonObject != null && jsonObject.has("error") != jsonObject.has("result")) {
+      processResponse(endpointId, jsonObject);
+    } else {
+      processError();
+    }
+  }
+
+  private void processError() {
+    String error = "Something wen't wrong during incoming websocket message parsing";
+    IllegalStateException exception = new IllegalStateException(error);
+    LOGGER.error(error, exception);
+    throw exception;
+  }
+
+  private void processResponse(String endpointId, JsonObject jsonObject) {
+    JsonRpcResponse response = jsonRpcUnmarshaller.unmarshalResponse(jsonObject);
+    responseDispatcher.dispatch(endpointId, response);
+  }
+
+  private void processRequest(String endpointId, JsonObject jsonObject) {
+    JsonRpcRequest request = null;
+    try {
+      request = jsonRpcUnmarshaller.unmarshalRequest(jsonObject);
+      requestDispatcher.dispatch(endpointId, request);
+    } catch (JsonRpcException e) {
+      if (request == null || request.getId() == null) {
+        errorTransmitter.transmit(endpointId, e);
+      } else {
+        errorTransmitter.transmit(
+            endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
+      }
+    }
+  }
+}
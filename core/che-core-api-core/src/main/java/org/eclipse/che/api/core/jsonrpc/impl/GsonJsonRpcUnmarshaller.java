@@ -20,8 +20,12 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
@@ -42,7 +46,20 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
 
   @Override
   public List<String> unmarshalArray(String message) {
-    return getArray(message, jsonParser.parse(message).isJsonArray());
+    checkNotNull(message, "Message must not be null");
+
+    // array is recognized by the first token, so a single message is not parsed at all
+    if (!startsWithArray(message)) {
+      return singletonList(message);
+    }
+
+    JsonArray jsonArray = jsonParser.parse(message).getAsJsonArray();
+    int size = jsonArray.size();
+    List<String> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(jsonArray.get(i).toString());
+    }
+    return result;
   }
 
   @Override
@@ -50,8 +67,11 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     checkNotNull(message, "Message must not be null");
     checkArgument(!message.isEmpty(), "Message must not be empty");
 
-    JsonObject request = jsonParser.parse(message).getAsJsonObject();
+    return unmarshalRequest(jsonParser.parse(message).getAsJsonObject());
+  }
 
+  /** Creates a request out of an already parsed message. */
+  public JsonRpcRequest unmarshalRequest(JsonObject request) {
     String method = getMethod(request);
     String id = getId(request);
     JsonRpcParams params = getParams(request);
@@ -64,8 +84,11 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     checkNotNull(message, "Message must not be null");
     checkArgument(!message.isEmpty(), "Message must not be empty");
 
-    JsonObject response = jsonParser.parse(message).getAsJsonObject();
+    return unmarshalResponse(jsonParser.parse(message).getAsJsonObject());
+  }
 
+  /** Creates a response out of an already parsed message. */
+  public JsonRpcResponse unmarshalResponse(JsonObject response) {
     String id = getId(response);
     JsonRpcResult result = getResult(response);
     JsonRpcError error = getError(response);
@@ -133,19 +156,15 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     return jsonObject.get("method").getAsString();
   }
 
-  private List<String> getArray(String message, boolean isArray) {
-    if (!isArray) {
-      return singletonList(message);
-    }
-
-    JsonArray jsonArray = jsonParser.parse(message).getAsJsonArray();
-    int size = jsonArray.size();
-    List<String> result = new ArrayList<>(size);
-    for (int i = 0; i < size; i++) {
-      JsonElement jsonElement = jsonArray.get(i);
-      result.add(jsonElement.toString());
+  private static boolean startsWithArray(String message) {
+    JsonReader reader = new JsonReader(new StringReader(message));
+    reader.setLenient(true);
+    try {
+      return reader.peek() == JsonToken.BEGIN_ARRAY;
+    } catch (IOException e) {
+      // not a JSON at all, let further parsing report it
+      return false;
     }
-    return result;
   }
 
   private Object getInnerItem(JsonElement jsonElement) {
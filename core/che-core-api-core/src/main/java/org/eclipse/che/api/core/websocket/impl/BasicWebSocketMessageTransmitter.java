@@ -11,14 +11,35 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.io.IOException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
 import org.slf4j.Logger;
 
 /**
@@ -26,24 +47,70 @@ import org.slf4j.Logger;
  * session is not opened adds messages to re-sender to try to send them when session will be opened
  * again.
  *
+ * <p>Every session has its own bounded queue of outgoing messages which is drained by asynchronous
+ * sends, so a slow client doesn't stall transmission to other clients. When the queue is full,
+ * JSON-RPC notifications of methods from {@code che.websocket.droppable_methods} set (e.g. log
+ * streams) displace the oldest droppable messages, while the other messages (requests, responses)
+ * wait until there is a free space in the queue.
+ *
+ * <p>Consecutive queued notifications are sent as a single JSON-RPC batch array of at most {@code
+ * che.websocket.batch.max_size} messages, if {@code che.websocket.batch.flush_latency_ms} is
+ * positive sending of a notification is postponed for that time to collect a batch. Batching is
+ * disabled when the max size is 1.
+ *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmitter {
   private static final Logger LOG = getLogger(BasicWebSocketMessageTransmitter.class);
 
+  static final int MAX_QUEUED_MESSAGES = 1000;
+  static final long MAX_BLOCKING_MILLIS = 30_000;
+
+  private static final String NOTIFICATION_PREFIX = "{\"jsonrpc\":\"2.0\",\"method\":\"";
+
   private final WebSocketSessionRegistry registry;
   private final MessagesReSender reSender;
+  private final Set<String> droppableMethods;
+  private final int maxBatchSize;
+  private final long flushLatencyMillis;
+  private final ScheduledExecutorService flushScheduler;
+  private final Map<Session, SessionQueue> queues = new ConcurrentHashMap<>();
 
   @Inject
   public BasicWebSocketMessageTransmitter(
-      WebSocketSessionRegistry registry, MessagesReSender reSender) {
+      WebSocketSessionRegistry registry,
+      MessagesReSender reSender,
+      @Named("che.websocket.droppable_methods") Set<String> droppableMethods,
+      @Named("che.websocket.batch.max_size") int maxBatchSize,
+      @Named("che.websocket.batch.flush_latency_ms") long flushLatencyMillis) {
     this.registry = registry;
     this.reSender = reSender;
+    this.droppableMethods = droppableMethods;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.flushLatencyMillis = flushLatencyMillis;
+    if (this.maxBatchSize > 1 && flushLatencyMillis > 0) {
+      flushScheduler =
+          newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setNameFormat("WebSocketBatchFlusher")
+                  .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                  .setDaemon(true)
+                  .build());
+    } else {
+      flushScheduler = null;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (flushScheduler != null) {
+      flushScheduler.shutdownNow();
+    }
   }
 
   @Override
-  public synchronized void transmit(String endpointId, String message) {
+  public void transmit(String endpointId, String message) {
     Optional<Session> sessionOptional = registry.get(endpointId);
 
     if (!sessionOptional.isPresent()) {
@@ -55,13 +122,366 @@ public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmi
 
       reSender.add(endpointId, message);
     } else {
-      LOG.debug("Session registered and open, sending message");
+      LOG.debug("Session registered and open, queueing message");
+
+      Session session = sessionOptional.get();
+      queues.computeIfAbsent(session, SessionQueue::new).offer(newMessage(endpointId, message));
+    }
+  }
+
+  /** Returns statistics of outgoing message queues by endpoint identifiers. */
+  public Map<String, QueueStatistics> getQueueStatistics() {
+    Map<String, QueueStatistics> statistics = new HashMap<>();
+    queues.forEach(
+        (session, queue) ->
+            registry.get(session).ifPresent(id -> statistics.put(id, queue.statistics())));
+    return statistics;
+  }
+
+  @ScheduleDelay(initialDelay = 60, delay = 60)
+  void removeClosedSessionQueues() {
+    queues.values().removeIf(SessionQueue::abandonIfClosed);
+    if (LOG.isDebugEnabled()) {
+      getQueueStatistics().forEach((id, stats) -> LOG.debug("Endpoint {}: {}", id, stats));
+    }
+  }
+
+  private Message newMessage(String endpointId, String text) {
+    String method = getNotificationMethod(text);
+    return new Message(
+        endpointId, text, method != null, method != null && droppableMethods.contains(method));
+  }
+
+  /**
+   * Returns the method of JSON-RPC notification or {@code null} if the message is not a
+   * notification. Messages are composed by JSON-RPC marshaller which always puts the method right
+   * after the protocol version and the identifier after the method, so there is no need to parse
+   * the whole message.
+   */
+  private static String getNotificationMethod(String message) {
+    if (!message.startsWith(NOTIFICATION_PREFIX)) {
+      return null;
+    }
+    int methodEnd = message.indexOf('"', NOTIFICATION_PREFIX.length());
+    if (methodEnd == -1 || message.startsWith(",\"id\"", methodEnd + 1)) {
+      return null;
+    }
+    return message.substring(NOTIFICATION_PREFIX.length(), methodEnd);
+  }
 
+  /** Joins messages of a batch into a JSON-RPC batch array. */
+  private static String toText(List<Message> batch) {
+    if (batch.size() == 1) {
+      return batch.get(0).text;
+    }
+    StringJoiner joiner = new StringJoiner(",", "[", "]");
+    for (Message message : batch) {
+      joiner.add(message.text);
+    }
+    return joiner.toString();
+  }
+
+  private static class Message {
+    final String endpointId;
+    final String text;
+    final boolean notification;
+    final boolean droppable;
+    final long queuedNanos = System.nanoTime();
+
+    Message(String endpointId, String text, boolean notification, boolean droppable) {
+      this.endpointId = endpointId;
+      this.text = text;
+      this.notification = notification;
+      this.droppable = droppable;
+    }
+  }
+
+  /** Outgoing messages of a session, at most one message of the session is being sent at once. */
+  private class SessionQueue {
+    private final Session session;
+    private final ArrayDeque<Message> messages = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    private boolean sending;
+    private long sent;
+    private long dropped;
+    private long maxLatencyNanos;
+    private long totalLatencyNanos;
+
+    SessionQueue(Session session) {
+      this.session = session;
+    }
+
+    void offer(Message message) {
+      lock.lock();
       try {
-        sessionOptional.get().getBasicRemote().sendText(message);
-      } catch (IOException e) {
-        LOG.error("Error while trying to send a message to a basic websocket remote endpoint", e);
+        if (messages.size() >= MAX_QUEUED_MESSAGES && !makeRoomFor(message)) {
+          return;
+        }
+        messages.add(message);
+        if (sending) {
+          return;
+        }
+        sending = true;
+      } finally {
+        lock.unlock();
+      }
+      if (message.notification && flushScheduler != null) {
+        // gives a chance to following notifications to get into the same batch
+        flushScheduler.schedule(this::sendNext, flushLatencyMillis, MILLISECONDS);
+      } else {
+        sendNext();
+      }
+    }
+
+    /** Must be called under the lock, returns {@code false} if the message must be dropped. */
+    private boolean makeRoomFor(Message message) {
+      if (message.droppable) {
+        for (Iterator<Message> it = messages.iterator(); it.hasNext(); ) {
+          if (it.next().droppable) {
+            it.remove();
+            dropped++;
+            return true;
+          }
+        }
+        dropped++;
+        return false;
       }
+
+      long nanos = MILLISECONDS.toNanos(MAX_BLOCKING_MILLIS);
+      try {
+        while (messages.size() >= MAX_QUEUED_MESSAGES) {
+          if (nanos <= 0) {
+            LOG.error(
+                "Outgoing messages queue of endpoint '{}' is full, dropping message",
+                message.endpointId);
+            dropped++;
+            return false;
+          }
+          nanos = notFull.awaitNanos(nanos);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        dropped++;
+        return false;
+      }
+      return true;
+    }
+
+    /**
+     * Sends queued messages one by one. Container may complete a send in the calling thread, so
+     * instead of recursion the loop goes on while sends complete synchronously.
+     */
+    private void sendNext() {
+      while (true) {
+        List<Message> batch = pollBatch();
+        if (batch == null) {
+          return;
+        }
+
+        if (!session.isOpen()) {
+          abandon(batch);
+          return;
+        }
+
+        AtomicInteger phase = new AtomicInteger();
+        try {
+          session
+              .getAsyncRemote()
+              .sendText(
+                  toText(batch),
+                  result -> {
+                    onSent(batch, result);
+                    if (phase.getAndIncrement() == 1) {
+                      sendNext();
+                    }
+                  });
+        } catch (RuntimeException e) {
+          LOG.error(
+              "Error while trying to send a message to an async websocket remote endpoint", e);
+          onFailed(batch);
+          continue;
+        }
+        if (phase.getAndIncrement() == 0) {
+          // the send is not completed yet, its handler continues sending
+          return;
+        }
+      }
+    }
+
+    /**
+     * Polls the next message, if it is a notification polls the following notifications as well
+     * while the batch limit is not reached. Returns {@code null} and stops sending when the queue
+     * is empty.
+     */
+    private List<Message> pollBatch() {
+      lock.lock();
+      try {
+        Message message = messages.poll();
+        if (message == null) {
+          sending = false;
+          return null;
+        }
+        List<Message> batch = new ArrayList<>();
+        batch.add(message);
+        if (message.notification) {
+          while (batch.size() < maxBatchSize
+              && !messages.isEmpty()
+              && messages.peek().notification) {
+            batch.add(messages.poll());
+          }
+        }
+        notFull.signalAll();
+        return batch;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void onSent(List<Message> batch, SendResult result) {
+      if (!result.isOK()) {
+        LOG.error(
+            "Error while trying to send a message to an async websocket remote endpoint",
+            result.getException());
+        onFailed(batch);
+        return;
+      }
+      long now = System.nanoTime();
+      lock.lock();
+      try {
+        for (Message message : batch) {
+          long latency = now - message.queuedNanos;
+          totalLatencyNanos += latency;
+          maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        }
+        sent += batch.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Counts the batch which is failed to be sent as dropped, if the session is closed meanwhile
+     * passes the batch to re-sender instead.
+     */
+    private void onFailed(List<Message> batch) {
+      lock.lock();
+      try {
+        if (session.isOpen()) {
+          dropped += batch.size();
+        } else {
+          for (Message message : batch) {
+            reSender.add(message.endpointId, message.text);
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Passes the batch and the queued messages to re-sender as the session is closed. */
+    private void abandon(List<Message> batch) {
+      lock.lock();
+      try {
+        for (Message message : batch) {
+          reSender.add(message.endpointId, message.text);
+        }
+        for (Message queued : messages) {
+          reSender.add(queued.endpointId, queued.text);
+        }
+        messages.clear();
+        sending = false;
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    boolean abandonIfClosed() {
+      if (session.isOpen()) {
+        return false;
+      }
+      lock.lock();
+      try {
+        if (!sending) {
+          messages.forEach(it -> reSender.add(it.endpointId, it.text));
+          messages.clear();
+        }
+      } finally {
+        lock.unlock();
+      }
+      return true;
+    }
+
+    QueueStatistics statistics() {
+      lock.lock();
+      try {
+        return new QueueStatistics(
+            messages.size(),
+            sent,
+            dropped,
+            sent == 0 ? 0 : NANOSECONDS.toMillis(totalLatencyNanos / sent),
+            NANOSECONDS.toMillis(maxLatencyNanos));
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Statistics of the outgoing messages queue of a session. */
+  public static class QueueStatistics {
+    private final int queued;
+    private final long sent;
+    private final long dropped;
+    private final long averageLatencyMillis;
+    private final long maxLatencyMillis;
+
+    QueueStatistics(
+        int queued, long sent, long dropped, long averageLatencyMillis, long maxLatencyMillis) {
+      this.queued = queued;
+      this.sent = sent;
+      this.dropped = dropped;
+      this.averageLatencyMillis = averageLatencyMillis;
+      this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    /** Returns the number of messages waiting to be sent. */
+    public int getQueued() {
+      return queued;
+    }
+
+    public long getSent() {
+      return sent;
+    }
+
+    public long getDropped() {
+      return dropped;
+    }
+
+    /** Returns average time between queueing of a message and completion of its sending. */
+    public long getAverageLatencyMillis() {
+      return averageLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+      return maxLatencyMillis;
+    }
+
+    @Override
+    public String toString() {
+      return "QueueStatistics{"
+          + "queued="
+          + queued
+          + ", sent="
+          + sent
+          + ", dropped="
+          + dropped
+          + ", averageLatencyMillis="
+          + averageLatencyMillis
+          + ", maxLatencyMillis="
+          + maxLatencyMillis
+          + '}';
     }
   }
 }
@@ -11,8 +11,11 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
+
 import com.google.inject.AbstractModule;
-import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessageReceiver;
+import com.google.inject.name.Names;
+import org.eclipse.che.api.core.jsonrpc.impl.GsonJsonRpcMessageReceiver;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageReceiver;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 
@@ -21,7 +24,9 @@ public class WebSocketModule extends AbstractModule {
   protected void configure() {
     requestStaticInjection(GuiceInjectorEndpointConfigurator.class);
 
-    bind(WebSocketMessageReceiver.class).to(JsonRpcMessageReceiver.class);
+    bind(WebSocketMessageReceiver.class).to(GsonJsonRpcMessageReceiver.class);
     bind(WebSocketMessageTransmitter.class).to(BasicWebSocketMessageTransmitter.class);
+
+    newSetBinder(binder(), String.class, Names.named("che.websocket.droppable_methods"));
   }
 }
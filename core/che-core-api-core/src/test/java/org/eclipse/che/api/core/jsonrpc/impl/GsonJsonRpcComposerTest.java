@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link GsonJsonRpcComposer}. */
+public class GsonJsonRpcComposerTest {
+
+  private GsonJsonRpcComposer composer;
+
+  @BeforeMethod
+  public void setUp() {
+    composer = new GsonJsonRpcComposer();
+  }
+
+  @Test
+  public void shouldComposeDtoFromJsonElement() {
+    Link link = newDto(Link.class).withHref("http://localhost").withRel("self");
+    JsonRpcParams params = new JsonRpcParams(DtoFactory.getInstance().toJsonElement(link));
+
+    Link composed = composer.composeOne(params, Link.class);
+
+    assertEquals(composed, link);
+  }
+
+  @Test
+  public void shouldComposeDtosFromJsonElements() {
+    Link first = newDto(Link.class).withHref("http://localhost/1");
+    Link second = newDto(Link.class).withHref("http://localhost/2");
+    JsonRpcParams params =
+        new JsonRpcParams(
+            asList(
+                DtoFactory.getInstance().toJsonElement(first),
+                DtoFactory.getInstance().toJsonElement(second)));
+
+    List<Link> composed = composer.composeMany(params, Link.class);
+
+    assertEquals(composed, asList(first, second));
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import com.google.gson.JsonParser;
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcErrorTransmitter;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestDispatcher;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
+import org.eclipse.che.api.core.jsonrpc.commons.ResponseDispatcher;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link GsonJsonRpcMessageReceiver} */
+@Listeners(MockitoTestNGListener.class)
+public class GsonJsonRpcMessageReceiverTest {
+  private static final String ENDPOINT_ID = "endpoint-id";
+
+  @Mock private RequestDispatcher requestDispatcher;
+  @Mock private ResponseDispatcher responseDispatcher;
+  @Mock private JsonRpcErrorTransmitter errorTransmitter;
+  @Mock private RequestProcessor requestProcessor;
+
+  private GsonJsonRpcUnmarshaller unmarshaller;
+  private GsonJsonRpcMessageReceiver receiver;
+
+  @BeforeMethod
+  public void setUp() {
+    doAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return null;
+            })
+        .when(requestProcessor)
+        .process(any(Runnable.class));
+    JsonParser jsonParser = new JsonParser();
+    unmarshaller = new GsonJsonRpcUnmarshaller(jsonParser);
+    receiver =
+        new GsonJsonRpcMessageReceiver(
+            requestDispatcher,
+            responseDispatcher,
+            errorTransmitter,
+            unmarshaller,
+            requestProcessor,
+            jsonParser);
+  }
+
+  @Test
+  public void shouldDispatchRequest() throws Exception {
+    receiver.receive(
+        ENDPOINT_ID, "{\"jsonrpc\":\"2.0\",\"method\":\"m\",\"id\":\"1\",\"params\":\"p\"}");
+
+    ArgumentCaptor<JsonRpcRequest> captor = ArgumentCaptor.forClass(JsonRpcRequest.class);
+    verify(requestDispatcher).dispatch(eq(ENDPOINT_ID), captor.capture());
+    assertEquals(captor.getValue().getMethod(), "m");
+    assertEquals(captor.getValue().getId(), "1");
+    assertEquals(captor.getValue().getParams().getOne(), "p");
+  }
+
+  @Test
+  public void shouldDispatchResponse() {
+    receiver.receive(ENDPOINT_ID, "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":true}");
+
+    ArgumentCaptor<JsonRpcResponse> captor = ArgumentCaptor.forClass(JsonRpcResponse.class);
+    verify(responseDispatcher).dispatch(eq(ENDPOINT_ID), captor.capture());
+    assertEquals(captor.getValue().getId(), "1");
+    assertNull(captor.getValue().getError());
+  }
+
+  @Test
+  public void shouldDispatchEveryMessageOfBatch() throws Exception {
+    receiver.receive(
+        ENDPOINT_ID,
+        "[{\"jsonrpc\":\"2.0\",\"method\":\"a\"},"
+            + "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":1},"
+            + "{\"jsonrpc\":\"2.0\",\"method\":\"b\"}]");
+
+    ArgumentCaptor<JsonRpcRequest> captor = ArgumentCaptor.forClass(JsonRpcRequest.class);
+    verify(requestDispatcher, times(2)).dispatch(eq(ENDPOINT_ID), captor.capture());
+    assertEquals(captor.getAllValues().get(0).getMethod(), "a");
+    assertEquals(captor.getAllValues().get(1).getMethod(), "b");
+    verify(responseDispatcher).dispatch(eq(ENDPOINT_ID), any(JsonRpcResponse.class));
+  }
+
+  @Test
+  public void shouldTransmitParseErrorForInvalidJson() throws Exception {
+    receiver.receive(ENDPOINT_ID, "{\"jsonrpc\":");
+
+    ArgumentCaptor<JsonRpcException> captor = ArgumentCaptor.forClass(JsonRpcException.class);
+    verify(errorTransmitter).transmit(eq(ENDPOINT_ID), captor.capture());
+    assertEquals(captor.getValue().getCode(), -32700);
+    verify(requestDispatcher, never()).dispatch(any(), any());
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void shouldFailOnMessageWhichIsNeitherRequestNorResponse() {
+    receiver.receive(ENDPOINT_ID, "{\"jsonrpc\":\"2.0\"}");
+  }
+
+  @Test
+  public void shouldUnmarshalArrayWithoutParsingSingleMessage() {
+    assertEquals(unmarshaller.unmarshalArray("{not parsed"), singletonList("{not parsed"));
+
+    List<String> messages = unmarshaller.unmarshalArray(" [{\"a\":1}, {\"b\":2}]");
+
+    assertEquals(messages.size(), 2);
+    assertEquals(messages.get(0), "{\"a\":1}");
+    assertEquals(messages.get(1), "{\"b\":2}");
+  }
+}
@@ -12,17 +12,29 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.impl.BasicWebSocketMessageTransmitter.QueueStatistics;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -38,17 +50,24 @@ import org.testng.annotations.Test;
 public class BasicWebSocketMessageTransmitterTest {
   private static final String MESSAGE = "message";
   private static final String ENDPOINT_ID = "id";
+  private static final String LOG_METHOD = "log";
 
   @Mock private WebSocketSessionRegistry registry;
   @Mock private MessagesReSender reSender;
-  @InjectMocks private BasicWebSocketMessageTransmitter transmitter;
+  private BasicWebSocketMessageTransmitter transmitter;
 
   @Mock private Session session;
-  @Mock private RemoteEndpoint.Basic remote;
+  @Mock private RemoteEndpoint.Async remote;
+
+  private final List<SendHandler> pendingHandlers = new ArrayList<>();
 
   @BeforeMethod
   public void setUp() throws Exception {
-    when(session.getBasicRemote()).thenReturn(remote);
+    pendingHandlers.clear();
+    transmitter =
+        new BasicWebSocketMessageTransmitter(registry, reSender, singleton(LOG_METHOD), 1, 0);
+
+    when(session.getAsyncRemote()).thenReturn(remote);
     when(session.isOpen()).thenReturn(true);
 
     when(registry.get(ENDPOINT_ID)).thenReturn(Optional.of(session));
@@ -57,10 +76,12 @@ public class BasicWebSocketMessageTransmitterTest {
 
   @Test
   public void shouldSendDirectMessageIfSessionIsOpenAndEndpointIsSet() throws IOException {
+    completeSendsImmediately();
+
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session).getBasicRemote();
-    verify(remote).sendText(MESSAGE);
+    verify(session).getAsyncRemote();
+    verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender, never()).add(eq(ENDPOINT_ID), anyString());
   }
 
@@ -70,8 +91,214 @@ public class BasicWebSocketMessageTransmitterTest {
 
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session, never()).getBasicRemote();
-    verify(remote, never()).sendText(MESSAGE);
+    verify(session, never()).getAsyncRemote();
+    verify(remote, never()).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender).add(ENDPOINT_ID, MESSAGE);
   }
+
+  @Test
+  public void shouldSendQueuedMessagesInOrderOneByOne() {
+    when(registry.get(session)).thenReturn(Optional.of(ENDPOINT_ID));
+    holdSends();
+
+    transmitter.transmit(ENDPOINT_ID, "1");
+    transmitter.transmit(ENDPOINT_ID, "2");
+    transmitter.transmit(ENDPOINT_ID, "3");
+
+    verify(remote).sendText(eq("1"), any(SendHandler.class));
+    verify(remote, never()).sendText(eq("2"), any(SendHandler.class));
+
+    completePendingSend();
+    completePendingSend();
+
+    InOrder inOrder = inOrder(remote);
+    inOrder.verify(remote).sendText(eq("1"), any(SendHandler.class));
+    inOrder.verify(remote).sendText(eq("2"), any(SendHandler.class));
+    inOrder.verify(remote).sendText(eq("3"), any(SendHandler.class));
+    assertEquals(transmitter.getQueueStatistics().get(ENDPOINT_ID).getSent(), 2);
+  }
+
+  @Test
+  public void shouldDropOldestDroppableNotificationsWhenQueueIsFull() {
+    when(registry.get(session)).thenReturn(Optional.of(ENDPOINT_ID));
+    holdSends();
+    transmitter.transmit(ENDPOINT_ID, "first");
+    for (int i = 0; i < BasicWebSocketMessageTransmitter.MAX_QUEUED_MESSAGES; i++) {
+      transmitter.transmit(ENDPOINT_ID, notification(LOG_METHOD, i));
+    }
+
+    transmitter.transmit(ENDPOINT_ID, notification(LOG_METHOD, -1));
+
+    QueueStatistics statistics = transmitter.getQueueStatistics().get(ENDPOINT_ID);
+    assertEquals(statistics.getQueued(), BasicWebSocketMessageTransmitter.MAX_QUEUED_MESSAGES);
+    assertEquals(statistics.getDropped(), 1);
+
+    completeSendsImmediately();
+    completePendingSend();
+
+    verify(remote, never()).sendText(eq(notification(LOG_METHOD, 0)), any(SendHandler.class));
+    verify(remote).sendText(eq(notification(LOG_METHOD, 1)), any(SendHandler.class));
+    verify(remote).sendText(eq(notification(LOG_METHOD, -1)), any(SendHandler.class));
+  }
+
+  @Test
+  public void shouldNotTreatRequestsAsDroppable() {
+    when(registry.get(session)).thenReturn(Optional.of(ENDPOINT_ID));
+    holdSends();
+    transmitter.transmit(ENDPOINT_ID, "first");
+    for (int i = 0; i < BasicWebSocketMessageTransmitter.MAX_QUEUED_MESSAGES - 1; i++) {
+      transmitter.transmit(
+          ENDPOINT_ID, "{\"jsonrpc\":\"2.0\",\"method\":\"log\",\"id\":\"" + i + "\"}");
+    }
+    transmitter.transmit(ENDPOINT_ID, notification(LOG_METHOD, 0));
+
+    transmitter.transmit(ENDPOINT_ID, notification(LOG_METHOD, 1));
+
+    QueueStatistics statistics = transmitter.getQueueStatistics().get(ENDPOINT_ID);
+    assertEquals(statistics.getQueued(), BasicWebSocketMessageTransmitter.MAX_QUEUED_MESSAGES);
+    assertEquals(statistics.getDropped(), 1);
+    completeSendsImmediately();
+    completePendingSend();
+    verify(remote, never()).sendText(eq(notification(LOG_METHOD, 0)), any(SendHandler.class));
+  }
+
+  @Test
+  public void shouldPassQueuedMessagesToReSenderWhenSessionIsClosed() {
+    holdSends();
+    transmitter.transmit(ENDPOINT_ID, "1");
+    transmitter.transmit(ENDPOINT_ID, "2");
+
+    when(session.isOpen()).thenReturn(false);
+    completePendingSend();
+
+    verify(reSender).add(ENDPOINT_ID, "2");
+    verify(remote, never()).sendText(eq("2"), any(SendHandler.class));
+  }
+
+  @Test
+  public void shouldSendConsecutiveNotificationsAsBatch() {
+    when(registry.get(session)).thenReturn(Optional.of(ENDPOINT_ID));
+    transmitter =
+        new BasicWebSocketMessageTransmitter(registry, reSender, singleton(LOG_METHOD), 3, 0);
+    holdSends();
+    transmitter.transmit(ENDPOINT_ID, "first");
+    for (int i = 0; i < 4; i++) {
+      transmitter.transmit(ENDPOINT_ID, notification(LOG_METHOD, i));
+    }
+    transmitter.transmit(ENDPOINT_ID, "last");
+
+    completeSendsImmediately();
+    completePendingSend();
+
+    InOrder inOrder = inOrder(remote);
+    inOrder.verify(remote).sendText(eq("first"), any(SendHandler.class));
+    inOrder
+        .verify(remote)
+        .sendText(
+            eq(
+                "["
+                    + notification(LOG_METHOD, 0)
+                    + ","
+                    + notification(LOG_METHOD, 1)
+                    + ","
+                    + notification(LOG_METHOD, 2)
+                    + "]"),
+            any(SendHandler.class));
+    inOrder.verify(remote).sendText(eq(notification(LOG_METHOD, 3)), any(SendHandler.class));
+    inOrder.verify(remote).sendText(eq("last"), any(SendHandler.class));
+    assertEquals(transmitter.getQueueStatistics().get(ENDPOINT_ID).getSent(), 6);
+  }
+
+  @Test
+  public void shouldPostponeNotificationToCollectBatch() {
+    transmitter =
+        new BasicWebSocketMessageTransmitter(registry, reSender, singleton(LOG_METHOD), 10, 50);
+    completeSendsImmediately();
+
+    try {
+      transmitter.transmit(ENDPOINT_ID, notification(LOG_METHOD, 0));
+      transmitter.transmit(ENDPOINT_ID, notification(LOG_METHOD, 1));
+
+      verify(remote, timeout(5000))
+          .sendText(
+              eq("[" + notification(LOG_METHOD, 0) + "," + notification(LOG_METHOD, 1) + "]"),
+              any(SendHandler.class));
+    } finally {
+      transmitter.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldCountFailedSendAsDropped() {
+    when(registry.get(session)).thenReturn(Optional.of(ENDPOINT_ID));
+    holdSends();
+
+    transmitter.transmit(ENDPOINT_ID, "1");
+    transmitter.transmit(ENDPOINT_ID, "2");
+    pendingHandlers.remove(0).onResult(new SendResult(new IOException("Broken pipe")));
+    completePendingSend();
+
+    QueueStatistics statistics = transmitter.getQueueStatistics().get(ENDPOINT_ID);
+    assertEquals(statistics.getSent(), 1);
+    assertEquals(statistics.getDropped(), 1);
+  }
+
+  @Test
+  public void shouldCountMessageAsDroppedWhenSendThrowsException() {
+    when(registry.get(session)).thenReturn(Optional.of(ENDPOINT_ID));
+    doThrow(new IllegalStateException("Remote endpoint is in invalid state"))
+        .doAnswer(
+            invocation -> {
+              ((SendHandler) invocation.getArgument(1)).onResult(new SendResult());
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+
+    transmitter.transmit(ENDPOINT_ID, "1");
+    transmitter.transmit(ENDPOINT_ID, "2");
+
+    QueueStatistics statistics = transmitter.getQueueStatistics().get(ENDPOINT_ID);
+    assertEquals(statistics.getSent(), 1);
+    assertEquals(statistics.getDropped(), 1);
+  }
+
+  @Test
+  public void shouldPassFailedMessageToReSenderWhenSessionIsClosed() {
+    holdSends();
+
+    transmitter.transmit(ENDPOINT_ID, "1");
+    when(session.isOpen()).thenReturn(false);
+    pendingHandlers.remove(0).onResult(new SendResult(new IOException("Connection closed")));
+
+    verify(reSender).add(ENDPOINT_ID, "1");
+  }
+
+  private static String notification(String method, int number) {
+    return "{\"jsonrpc\":\"2.0\",\"method\":\"" + method + "\",\"params\":" + number + "}";
+  }
+
+  private void holdSends() {
+    doAnswer(
+            invocation -> {
+              pendingHandlers.add(invocation.getArgument(1));
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+  }
+
+  private void completeSendsImmediately() {
+    doAnswer(
+            invocation -> {
+              ((SendHandler) invocation.getArgument(1)).onResult(new SendResult());
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+  }
+
+  private void completePendingSend() {
+    pendingHandlers.remove(0).onResult(new SendResult());
+  }
 }
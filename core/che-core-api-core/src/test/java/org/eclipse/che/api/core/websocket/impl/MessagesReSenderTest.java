@@ -13,13 +13,12 @@ package org.eclipse.che.api.core.websocket.impl;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
-import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -41,18 +40,17 @@ public class MessagesReSenderTest {
   @InjectMocks private MessagesReSender reSender;
 
   @Mock private Session session;
-  @Mock private RemoteEndpoint.Async endpoint;
+  @Mock private WebSocketMessageTransmitter transmitter;
 
   @BeforeMethod
   public void beforeMethod() {
     when(sessionRegistry.get(anyString())).thenReturn(Optional.of(session));
-    when(session.getAsyncRemote()).thenReturn(endpoint);
     when(session.isOpen()).thenReturn(true);
   }
 
   @BeforeMethod
   public void before() {
-    reSender = new MessagesReSender(sessionRegistry);
+    reSender = new MessagesReSender(sessionRegistry, () -> transmitter);
   }
 
   @Test
@@ -64,8 +62,7 @@ public class MessagesReSenderTest {
     reSender.resend(ENDPOINT_ID);
 
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter, never()).transmit(anyString(), anyString());
   }
 
   @Test
@@ -75,14 +72,12 @@ public class MessagesReSenderTest {
     when(session.isOpen()).thenReturn(false);
     reSender.resend(ENDPOINT_ID);
 
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter, never()).transmit(anyString(), anyString());
 
     when(session.isOpen()).thenReturn(true);
     reSender.resend(ENDPOINT_ID);
 
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
@@ -92,8 +87,7 @@ public class MessagesReSenderTest {
     reSender.resend(ENDPOINT_ID);
 
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
@@ -106,8 +100,8 @@ public class MessagesReSenderTest {
 
     verify(sessionRegistry).get(ENDPOINT_ID);
     verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
   }
 
   @Test
@@ -116,13 +110,11 @@ public class MessagesReSenderTest {
 
     reSender.resend(ENDPOINT_ID);
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
@@ -135,15 +127,15 @@ public class MessagesReSenderTest {
 
     verify(sessionRegistry).get(ENDPOINT_ID);
     verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
     reSender.resend("1");
 
     verify(sessionRegistry).get(ENDPOINT_ID);
     verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
   }
 }
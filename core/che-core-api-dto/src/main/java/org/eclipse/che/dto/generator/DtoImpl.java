@@ -203,6 +203,19 @@ abstract class DtoImpl {
     }
   }
 
+  /**
+   * Get the getters of all the fields of the DTO implementation including the fields declared by
+   * the implementations of the super DTO interfaces.
+   */
+  protected List<Method> getAllFieldGetters(Class<?> dto) {
+    final Map<String, Method> getters = new HashMap<>();
+    for (Class<?> current = dto; current != null; current = getSuperDtoInterface(current)) {
+      addDtoGetters(current, getters);
+      addSuperGetters(current, getters);
+    }
+    return new ArrayList<>(getters.values());
+  }
+
   protected List<Method> getInheritedDtoGetters(Class<?> dto) {
     List<Method> getters = new ArrayList<>();
     if (enclosingTemplate.isDtoInterface(dto)) {
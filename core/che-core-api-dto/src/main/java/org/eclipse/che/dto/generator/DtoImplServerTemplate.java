@@ -18,9 +18,11 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.eclipse.che.dto.server.DtoTypeAdapter;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
@@ -34,9 +36,13 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 public class DtoImplServerTemplate extends DtoImpl {
   private static final String JSON_ARRAY_IMPL = JsonArrayImpl.class.getCanonicalName();
   private static final String JSON_MAP_IMPL = JsonStringMapImpl.class.getCanonicalName();
+  private static final String DTO_TYPE_ADAPTER = DtoTypeAdapter.class.getCanonicalName();
   private static final String SERVER_DTO_MARKER =
       "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
 
+  /** Simple name of the type adapter nested in every generated implementation. */
+  static final String TYPE_ADAPTER = "GsonAdapter";
+
   DtoImplServerTemplate(DtoTemplate template, Class<?> superInterface) {
     super(template, superInterface);
   }
@@ -71,6 +77,7 @@ public class DtoImplServerTemplate extends DtoImpl {
     emitDeserializer(methods, builder);
     emitDeserializerShortcut(builder);
     emitCopyConstructor(methods, builder);
+    emitTypeAdapter(getAllFieldGetters(dtoInterface), builder);
     // Delegation DTO methods.
     emitDelegateMethods(builder);
     // "builder" method, it is method that set field and return "this" instance
@@ -377,6 +384,93 @@ public class DtoImplServerTemplate extends DtoImpl {
     builder.append("    }\n\n");
   }
 
+  /**
+   * Emits a nested type adapter which reads and writes the fields of this implementation and its
+   * super classes directly instead of reflection, see {@link DtoTypeAdapter}.
+   */
+  private void emitTypeAdapter(List<Method> getters, StringBuilder builder) {
+    String implClassName = getImplClassName();
+    Map<String, Class<?>> fields = new LinkedHashMap<>();
+    for (Method getter : getters) {
+      fields.putIfAbsent(getJavaFieldName(getter.getName()), getter.getReturnType());
+    }
+    builder
+        .append("    public static class ")
+        .append(TYPE_ADAPTER)
+        .append(" extends ")
+        .append(DTO_TYPE_ADAPTER)
+        .append("<")
+        .append(implClassName)
+        .append("> {\n");
+    builder.append("      public ").append(TYPE_ADAPTER).append("(Gson gson) {\n");
+    builder.append("        super(gson, ").append(implClassName).append(".class, new String[] {");
+    int id = 0;
+    for (String fieldName : fields.keySet()) {
+      if (id++ > 0) {
+        builder.append(", ");
+      }
+      builder.append("\"").append(fieldName).append("\"");
+    }
+    builder.append("});\n");
+    builder.append("      }\n\n");
+    builder.append("      @Override\n");
+    builder.append("      protected ").append(implClassName).append(" newInstance() {\n");
+    builder.append("        return new ").append(implClassName).append("();\n");
+    builder.append("      }\n\n");
+    builder.append("      @Override\n");
+    builder
+        .append("      protected Object get(")
+        .append(implClassName)
+        .append(" dto, int property) {\n");
+    builder.append("        switch (property) {\n");
+    id = 0;
+    for (String fieldName : fields.keySet()) {
+      builder
+          .append("          case ")
+          .append(id++)
+          .append(":\n")
+          .append("            return dto.")
+          .append(fieldName)
+          .append(";\n");
+    }
+    builder.append("          default:\n");
+    builder.append(
+        "            throw new IllegalArgumentException(\"Unknown property \" + property);\n");
+    builder.append("        }\n");
+    builder.append("      }\n\n");
+    builder.append("      @Override\n");
+    builder
+        .append("      protected void set(")
+        .append(implClassName)
+        .append(" dto, int property, Object value) {\n");
+    builder.append("        switch (property) {\n");
+    id = 0;
+    for (Map.Entry<String, Class<?>> field : fields.entrySet()) {
+      builder
+          .append("          case ")
+          .append(id++)
+          .append(":\n")
+          .append("            dto.")
+          .append(field.getKey())
+          .append(" = ");
+      // the types of inherited fields may differ from the types of overridden getters, so the
+      // value is cast to the type of the field by inference, but primitives can't be inferred
+      Class<?> type = field.getValue();
+      if (type.isPrimitive()) {
+        builder.append("(").append(Primitives.wrap(type).getName()).append(") value;\n");
+      } else {
+        builder.append("cast(value);\n");
+      }
+      builder.append("            return;\n");
+    }
+    builder.append("          default:\n");
+    builder.append(
+        "            throw new IllegalArgumentException(\"Unknown property \" + property);\n");
+    builder.append("        }\n");
+    builder.append("      }\n");
+    builder.append("    }\n\n");
+  }
+
   private static StringBuilder appendNaiveCopyJsonExpression(
       String inValue, StringBuilder builder) {
     builder.append("((");
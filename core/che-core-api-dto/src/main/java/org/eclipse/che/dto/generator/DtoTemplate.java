@@ -289,6 +289,16 @@ public class DtoTemplate {
             .append("            return new ")
             .append(dto.getImplClassName())
             .append("(origin);\n");
+        builder.append("        }\n\n");
+        builder
+            .append("        public com.google.gson.TypeAdapter<")
+            .append(dto.getImplClassName())
+            .append("> createTypeAdapter(Gson gson) {\n")
+            .append("            return new ")
+            .append(dto.getImplClassName())
+            .append(".")
+            .append(DtoImplServerTemplate.TYPE_ADAPTER)
+            .append("(gson);\n");
         builder.append("        }\n");
         builder.append("    });\n");
       }
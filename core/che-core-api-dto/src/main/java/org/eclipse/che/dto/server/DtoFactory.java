@@ -104,6 +104,7 @@ public final class DtoFactory {
   private final Map<Class<?>, DtoProvider<?>> dtoImpl2Providers = new ConcurrentHashMap<>();
   private final Gson dtoGson =
       buildDtoParser(
+          new DtoImplTAF(),
           ServiceLoader.load(TypeAdapterFactory.class).iterator(),
           new NullAsEmptyTAF<>(Collection.class, Collections.emptyList()),
           new NullAsEmptyTAF<>(Map.class, Collections.emptyMap()),
@@ -448,6 +449,28 @@ public final class DtoFactory {
     }
   }
 
+  /**
+   * Provides the type adapters generated for DTO implementation classes, so DTOs are read and
+   * written without reflection. Registered before all the other factories, so any of them can still
+   * override the generated adapter. Falls back to Gson's reflective adapter when the provider has
+   * no generated adapter or the generated adapter doesn't match the implementation class.
+   */
+  private class DtoImplTAF implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      DtoProvider<?> prov = dtoImpl2Providers.get(type.getRawType());
+      if (prov == null) {
+        return null;
+      }
+      try {
+        return (TypeAdapter<T>) prov.createTypeAdapter(gson);
+      } catch (IllegalStateException e) {
+        return null;
+      }
+    }
+  }
+
   /**
    * Wraps Gson's default List/Map adapter factories serialize null List/Map fields as empty
    * instead.
@@ -493,8 +516,12 @@ public final class DtoFactory {
   private DtoFactory() {}
 
   private static Gson buildDtoParser(
-      Iterator<TypeAdapterFactory> factoryIterator, TypeAdapterFactory... factories) {
+      TypeAdapterFactory dtoImplFactory,
+      Iterator<TypeAdapterFactory> factoryIterator,
+      TypeAdapterFactory... factories) {
     GsonBuilder builder = new GsonBuilder();
+    // factories registered later take precedence
+    builder.registerTypeAdapterFactory(dtoImplFactory);
 
     for (Iterator<TypeAdapterFactory> it = factoryIterator; it.hasNext(); ) {
       TypeAdapterFactory factory = it.next();
@@ -11,7 +11,9 @@
  */
 package org.eclipse.che.dto.server;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
 
 /**
  * Provides implementation of DTO interface.
@@ -28,4 +30,14 @@ public interface DtoProvider<DTO> {
   DTO newInstance();
 
   DTO clone(DTO origin);
+
+  /**
+   * Creates type adapter of the implementation class, or returns null if the implementation is read
+   * and written by Gson's reflective adapter.
+   *
+   * @param gson gson which provides adapters of the fields of implementation
+   */
+  default TypeAdapter<? extends DTO> createTypeAdapter(Gson gson) {
+    return null;
+  }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import static java.lang.String.format;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of the type adapters generated for DTO implementations. Generated adapters access the
+ * fields of DTO implementations directly, so reading and writing DTOs doesn't need reflection.
+ *
+ * <p>The JSON produced and accepted by the adapter is the same as of Gson's reflective adapter: the
+ * fields are written in the same order using the same JSON names and the same adapters of their
+ * types, so the generated adapter is a drop-in replacement of the reflective one. The fields are
+ * inspected once when the adapter is created, if they don't match the properties known to the
+ * generated adapter, e.g. because the implementation is compiled by a different version of the
+ * generator, the adapter can't be created and the reflective one should be used instead.
+ *
+ * @param <T> type of DTO implementation
+ */
+public abstract class DtoTypeAdapter<T> extends TypeAdapter<T> {
+
+  private final Gson gson;
+  private final Property[] writeOrder;
+  private final Map<String, Property> byJsonName;
+
+  /**
+   * Creates adapter of the DTO implementation.
+   *
+   * @param gson gson which provides adapters of the fields
+   * @param implClass DTO implementation class
+   * @param fieldNames names of the fields of implementation class and its super classes, the index
+   *     of the field is the identifier of the property used by {@link #get} and {@link #set}
+   * @throws IllegalStateException when fields of implementation don't match the given ones
+   */
+  protected DtoTypeAdapter(Gson gson, Class<T> implClass, String[] fieldNames) {
+    this.gson = gson;
+    this.byJsonName = new HashMap<>();
+    Map<String, Integer> ids = new HashMap<>();
+    for (int i = 0; i < fieldNames.length; i++) {
+      ids.put(fieldNames[i], i);
+    }
+    // the same fields in the same order as Gson's reflective adapter uses
+    List<Property> ordered = new ArrayList<>(fieldNames.length);
+    for (Class<?> raw = implClass; raw != Object.class; raw = raw.getSuperclass()) {
+      for (Field field : raw.getDeclaredFields()) {
+        boolean serialize = !gson.excluder().excludeField(field, true);
+        boolean deserialize = !gson.excluder().excludeField(field, false);
+        if (!serialize && !deserialize) {
+          continue;
+        }
+        Integer id = ids.remove(field.getName());
+        if (id == null || !serialize || !deserialize) {
+          throw new IllegalStateException(
+              format("Field '%s' of '%s' is unknown to the adapter", field.getName(), raw));
+        }
+        SerializedName serializedName = field.getAnnotation(SerializedName.class);
+        String jsonName =
+            serializedName != null
+                ? serializedName.value()
+                : gson.fieldNamingStrategy().translateName(field);
+        Property property = new Property(id, jsonName, field, gson);
+        mapJsonName(implClass, jsonName, property);
+        if (serializedName != null) {
+          for (String alternate : serializedName.alternate()) {
+            mapJsonName(implClass, alternate, property);
+          }
+        }
+        ordered.add(property);
+      }
+    }
+    if (!ids.isEmpty()) {
+      throw new IllegalStateException(
+          format("Fields %s are not found in '%s'", ids.keySet(), implClass));
+    }
+    this.writeOrder = ordered.toArray(new Property[ordered.size()]);
+  }
+
+  private void mapJsonName(Class<T> implClass, String jsonName, Property property) {
+    if (byJsonName.put(jsonName, property) != null) {
+      throw new IllegalStateException(
+          format("'%s' declares multiple JSON fields named '%s'", implClass, jsonName));
+    }
+  }
+
+  /** Creates new instance of DTO implementation. */
+  protected abstract T newInstance();
+
+  /** Returns value of the property with the given identifier. */
+  protected abstract Object get(T dto, int property);
+
+  /** Sets value of the property with the given identifier. */
+  protected abstract void set(T dto, int property, Object value);
+
+  /** Casts the value to the type of the field it is assigned to. */
+  @SuppressWarnings("unchecked")
+  protected static <V> V cast(Object value) {
+    return (V) value;
+  }
+
+  @Override
+  public void write(JsonWriter out, T dto) throws IOException {
+    if (dto == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    for (Property property : writeOrder) {
+      Object value = get(dto, property.id);
+      if (value != dto) {
+        out.name(property.jsonName);
+        property.runtimeAdapter(gson, value).write(out, value);
+      }
+    }
+    out.endObject();
+  }
+
+  @Override
+  public T read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    T dto = newInstance();
+    try {
+      in.beginObject();
+      while (in.hasNext()) {
+        Property property = byJsonName.get(in.nextName());
+        if (property == null) {
+          in.skipValue();
+        } else {
+          Object value = property.adapter.read(in);
+          if (value != null || !property.primitive) {
+            set(dto, property.id, value);
+          }
+        }
+      }
+    } catch (IllegalStateException e) {
+      throw new JsonSyntaxException(e);
+    }
+    in.endObject();
+    return dto;
+  }
+
+  private static class Property {
+    final int id;
+    final String jsonName;
+    final Type type;
+    final TypeAdapter<Object> adapter;
+    final boolean primitive;
+    /** Whether the value may be written by the adapter of its runtime type. */
+    final boolean polymorphic;
+
+    @SuppressWarnings("unchecked")
+    Property(int id, String jsonName, Field field, Gson gson) {
+      this.id = id;
+      this.jsonName = jsonName;
+      this.type = field.getGenericType();
+      this.adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(type));
+      this.primitive = field.getType().isPrimitive();
+      this.polymorphic =
+          type instanceof TypeVariable
+              || type instanceof Class
+                  && !primitive
+                  && !Modifier.isFinal(((Class<?>) type).getModifiers());
+    }
+
+    /** Chooses the adapter of the value the same way as Gson's reflective adapter does. */
+    @SuppressWarnings("unchecked")
+    TypeAdapter<Object> runtimeAdapter(Gson gson, Object value) {
+      if (value == null || !polymorphic || value.getClass() == type) {
+        return adapter;
+      }
+      TypeAdapter<Object> runtime =
+          (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(value.getClass()));
+      if (!(runtime instanceof ReflectiveTypeAdapterFactory.Adapter)
+          || adapter instanceof ReflectiveTypeAdapterFactory.Adapter) {
+        return runtime;
+      }
+      return adapter;
+    }
+  }
+}
@@ -13,6 +13,7 @@ package org.eclipse.che.dto;
 
 import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import com.google.gson.Gson;
@@ -21,6 +22,11 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +42,7 @@ import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.DtoTypeAdapter;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -432,6 +439,89 @@ public class ServerDtoTest {
     assertEquals(childDto.getParentField(), "parent-field");
   }
 
+  @Test
+  public void shouldReadAndWriteDtosWithGeneratedTypeAdapters() {
+    Gson gson = dtoFactory.getGson();
+
+    assertTrue(gson.getAdapter(SimpleDto.class) instanceof DtoTypeAdapter);
+    assertTrue(gson.getAdapter(ComplicatedDto.class) instanceof DtoTypeAdapter);
+    assertTrue(gson.getAdapter(GrandchildDto.class) instanceof DtoTypeAdapter);
+    assertTrue(gson.getAdapter(DtoWithFieldNames.class) instanceof DtoTypeAdapter);
+    assertTrue(gson.getAdapter(ModelDto.class) instanceof DtoTypeAdapter);
+  }
+
+  @Test
+  public void shouldWriteTheSameJsonAsReflectiveAdapter() {
+    SimpleDto simpleDto =
+        dtoFactory.createDto(SimpleDto.class).withName("name").withId(1).withDefault("default");
+    ComplicatedDto complicatedDto =
+        dtoFactory
+            .createDto(ComplicatedDto.class)
+            .withStrings(asList("a", "b"))
+            .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+            .withSimpleDtos(asList(simpleDto, simpleDto))
+            .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE)));
+    GrandchildDto grandchildDto = dtoFactory.createDto(GrandchildDto.class);
+    grandchildDto.setShadowedField(dtoFactory.createDto(GrandchildDto.class));
+    grandchildDto.setParentField("parent");
+    DtoWithAny dtoWithAny =
+        dtoFactory
+            .createDto(DtoWithAny.class)
+            .withStuff(createTestValueForAny())
+            .withObjects(createListTestValueForAny());
+
+    for (Object dto : asList(simpleDto, complicatedDto, grandchildDto, dtoWithAny)) {
+      assertEquals(dtoFactory.toJson(dto), reflectiveJson(dto));
+    }
+  }
+
+  @Test
+  public void shouldReadDtoWrittenByGeneratedTypeAdapter() {
+    ComplicatedDto dto =
+        dtoFactory
+            .createDto(ComplicatedDto.class)
+            .withStrings(asList("a", "b"))
+            .withSimpleEnum(ComplicatedDto.SimpleEnum.THREE)
+            .withSimpleDtos(asList(dtoFactory.createDto(SimpleDto.class).withId(5)));
+
+    JsonObject json = dtoFactory.toJsonElement(dto).getAsJsonObject();
+    json.addProperty("unknown", "skipped");
+    ComplicatedDto read = dtoFactory.createDtoFromJson(json, ComplicatedDto.class);
+
+    assertEquals(read, dto);
+  }
+
+  @Test
+  public void shouldKeepDefaultValueOfPrimitiveFieldWhenJsonValueIsNull() {
+    SimpleDto dto = dtoFactory.createDtoFromJson("{\"id\":null,\"name\":null}", SimpleDto.class);
+
+    assertEquals(dto.getId(), 0);
+    assertEquals(dto.getName(), null);
+  }
+
+  /** Serializes the DTO with Gson's reflective adapter skipping the generated one. */
+  @SuppressWarnings("unchecked")
+  private static String reflectiveJson(Object dto) {
+    Gson gson = dtoFactory.getGson();
+    TypeAdapterFactory unknown =
+        new TypeAdapterFactory() {
+          @Override
+          public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            return null;
+          }
+        };
+    TypeAdapter<Object> reflective =
+        (TypeAdapter<Object>) gson.getDelegateAdapter(unknown, TypeToken.get(dto.getClass()));
+    assertFalse(reflective instanceof DtoTypeAdapter);
+    StringWriter writer = new StringWriter();
+    try {
+      reflective.write(gson.newJsonWriter(writer), dto);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return writer.toString();
+  }
+
   @Test(
       expectedExceptions = IllegalArgumentException.class,
       expectedExceptionsMessageRegExp =
@@ -182,10 +182,15 @@ export class JsonRpcClient {
 
   /**
    * Processes response - detects whether it is JSON RPC response or notification.
+   * Batch of messages is processed message by message.
    *
    * @param message
    */
   private processResponse(message: any): void {
+    if (Array.isArray(message)) {
+      message.forEach((batchMessage: any) => this.processResponse(batchMessage));
+      return;
+    }
     if (message.id && this.pendingRequests.has(message.id)) {
       this.processResponseMessage(message);
     } else {
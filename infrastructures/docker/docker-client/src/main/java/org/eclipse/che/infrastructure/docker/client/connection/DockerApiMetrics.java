@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Counts requests to docker API and their latency per API endpoint.
+ *
+ * <p>Endpoint is identified by the request method and path where identifiers of docker objects are
+ * replaced with {@code {id}}, e.g. {@code GET /containers/{id}/json}. Latency is the time from the
+ * request start until the response status is received.
+ */
+public class DockerApiMetrics {
+  private static final Pattern API_VERSION = Pattern.compile("v\\d+(\\.\\d+)*");
+
+  private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+  /**
+   * Records the request.
+   *
+   * @param method request method
+   * @param path request path
+   * @param latencyNanos time until response status is received or request failed
+   * @param failed whether request failed without response
+   */
+  void record(String method, String path, long latencyNanos, boolean failed) {
+    endpoints
+        .computeIfAbsent(toEndpoint(method, path), k -> new EndpointMetrics())
+        .record(latencyNanos, failed);
+  }
+
+  /** Returns copy of metrics collected for each called endpoint. */
+  public Map<String, EndpointMetrics> getEndpoints() {
+    final Map<String, EndpointMetrics> copy = new HashMap<>();
+    endpoints.forEach((endpoint, metrics) -> copy.put(endpoint, metrics.copy()));
+    return copy;
+  }
+
+  /**
+   * Returns endpoint which includes the first segment of path (except for API version) and the last
+   * segment if it is an action name rather than identifier of docker object.
+   */
+  static String toEndpoint(String method, String path) {
+    if (path == null) {
+      return method + " /";
+    }
+    String[] segments = path.split("/");
+    int first = 0;
+    while (first < segments.length
+        && (segments[first].isEmpty() || API_VERSION.matcher(segments[first]).matches())) {
+      first++;
+    }
+    final int count = segments.length - first;
+    if (count == 0) {
+      return method + " /";
+    }
+    final String resource = '/' + segments[first];
+    if (count == 1) {
+      return method + ' ' + resource;
+    }
+    if ("DELETE".equals(method)) {
+      // image names may contain slashes
+      return method + ' ' + resource + "/{id}";
+    }
+    if (count == 2) {
+      // e.g. GET /containers/json
+      return method + ' ' + resource + '/' + segments[first + 1];
+    }
+    return method + ' ' + resource + "/{id}/" + segments[segments.length - 1];
+  }
+
+  /** Metrics of requests to single docker API endpoint. */
+  public static class EndpointMetrics {
+    private long requests;
+    private long failures;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    private synchronized void record(long latencyNanos, boolean failed) {
+      requests++;
+      if (failed) {
+        failures++;
+      }
+      totalLatencyNanos += latencyNanos;
+      maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+    }
+
+    private synchronized EndpointMetrics copy() {
+      final EndpointMetrics copy = new EndpointMetrics();
+      copy.requests = requests;
+      copy.failures = failures;
+      copy.totalLatencyNanos = totalLatencyNanos;
+      copy.maxLatencyNanos = maxLatencyNanos;
+      return copy;
+    }
+
+    /** Returns the number of requests. */
+    public long getRequests() {
+      return requests;
+    }
+
+    /** Returns the number of requests which failed without response. */
+    public long getFailures() {
+      return failures;
+    }
+
+    /** Returns the average latency in milliseconds. */
+    public long getAverageLatencyMillis() {
+      return requests == 0 ? 0 : NANOSECONDS.toMillis(totalLatencyNanos / requests);
+    }
+
+    /** Returns the maximum latency in milliseconds. */
+    public long getMaxLatencyMillis() {
+      return NANOSECONDS.toMillis(maxLatencyNanos);
+    }
+
+    @Override
+    public String toString() {
+      return "EndpointMetrics{"
+          + "requests="
+          + requests
+          + ", failures="
+          + failures
+          + ", averageLatencyMillis="
+          + getAverageLatencyMillis()
+          + ", maxLatencyMillis="
+          + getMaxLatencyMillis()
+          + '}';
+    }
+  }
+}
@@ -26,12 +26,23 @@ import org.eclipse.che.commons.lang.Pair;
  * @author Mykola Morhun
  */
 public abstract class DockerConnection implements Closeable {
+  private final DockerApiMetrics metrics;
+
   private String method;
   private String path;
   private Entity<?> entity;
   private StringBuilder query = new StringBuilder();
   private List<Pair<String, ?>> headers = new LinkedList<>();
 
+  protected DockerConnection() {
+    this(null);
+  }
+
+  /** @param metrics metrics to record requests to, or null if requests should not be recorded */
+  protected DockerConnection(DockerApiMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   public DockerConnection method(String method) {
     this.method = method;
     return this;
@@ -89,7 +100,19 @@ public abstract class DockerConnection implements Closeable {
   }
 
   public DockerResponse request() throws IOException {
-    return request(method, path, query.toString(), headers, entity);
+    if (metrics == null) {
+      return request(method, path, query.toString(), headers, entity);
+    }
+    final long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      final DockerResponse response = request(method, path, query.toString(), headers, entity);
+      response.getStatus();
+      failed = false;
+      return response;
+    } finally {
+      metrics.record(method, path, System.nanoTime() - start, failed);
+    }
   }
 
   protected abstract DockerResponse request(
@@ -108,6 +131,11 @@ public abstract class DockerConnection implements Closeable {
     abstract void writeTo(OutputStream output) throws IOException;
   }
 
+  /** Returns true if the entity can be written again, e.g. to retry the request. */
+  static boolean isRepeatable(Entity<?> entity) {
+    return !(entity instanceof StreamEntity);
+  }
+
   static class StreamEntity extends Entity<InputStream> {
     StreamEntity(InputStream entity) {
       super(entity);
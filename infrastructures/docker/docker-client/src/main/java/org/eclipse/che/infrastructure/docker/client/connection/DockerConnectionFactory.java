@@ -13,7 +13,11 @@ package org.eclipse.che.infrastructure.docker.client.connection;
 
 import com.google.inject.Inject;
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import org.eclipse.che.infrastructure.docker.client.DockerCertificates;
 import org.eclipse.che.infrastructure.docker.client.DockerConnectorConfiguration;
 
@@ -22,13 +26,22 @@ import org.eclipse.che.infrastructure.docker.client.DockerConnectorConfiguration
  *
  * <p>Detects connection implementation by checking docker daemon URI.
  *
+ * <p>Unix socket connections are kept alive in a pool and reused by the subsequent requests to the
+ * same docker daemon. TCP connections are closed after every request to work around <a
+ * href="https://github.com/docker/docker/issues/12845">docker issue 12845</a>.
+ *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
   public static final String CONNECTION_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_timeout_ms";
   public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_read_timeout_ms";
+  public static final String POOL_MAX_IDLE_PROPERTY =
+      "che.docker.connection_pool.max_idle_per_endpoint";
+  public static final String POOL_IDLE_TIMEOUT_MS_PROPERTY =
+      "che.docker.connection_pool.idle_timeout_ms";
 
   @Inject(optional = true)
   @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -38,19 +51,55 @@ public class DockerConnectionFactory {
   @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
   private int connectionReadTimeoutMs = 60000;
 
+  /** Maximum number of idle connections kept per docker socket, 0 disables keep-alive. */
+  @Inject(optional = true)
+  @Named(POOL_MAX_IDLE_PROPERTY)
+  private int poolMaxIdle = 10;
+
+  @Inject(optional = true)
+  @Named(POOL_IDLE_TIMEOUT_MS_PROPERTY)
+  private long poolIdleTimeoutMs = 30000;
+
   private final DockerCertificates dockerCertificates;
+  private final DockerApiMetrics metrics;
+  private final Map<String, UnixSocketConnectionPool> unixSocketPools;
 
   @Inject
   public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
     this.dockerCertificates = connectorConfiguration.getDockerCertificates();
+    this.metrics = new DockerApiMetrics();
+    this.unixSocketPools = new ConcurrentHashMap<>();
   }
 
   public DockerConnection openConnection(URI dockerDaemonUri) {
     if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-      return new UnixSocketConnection(dockerDaemonUri.getPath());
+      final String socketPath = dockerDaemonUri.getPath();
+      if (poolMaxIdle == 0) {
+        return new UnixSocketConnection(socketPath, null, metrics);
+      }
+      return new UnixSocketConnection(
+          socketPath,
+          unixSocketPools.computeIfAbsent(
+              socketPath,
+              path -> new UnixSocketConnectionPool(path, poolMaxIdle, poolIdleTimeoutMs)),
+          metrics);
     } else {
       return new TcpConnection(
-          dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+          dockerDaemonUri,
+          dockerCertificates,
+          connectionTimeoutMs,
+          connectionReadTimeoutMs,
+          metrics);
     }
   }
+
+  /** Returns metrics of the requests made through the connections opened by this factory. */
+  public DockerApiMetrics getMetrics() {
+    return metrics;
+  }
+
+  @PreDestroy
+  void closeIdleConnections() {
+    unixSocketPools.values().forEach(UnixSocketConnectionPool::close);
+  }
 }
@@ -36,6 +36,21 @@ public class TcpConnection extends DockerConnection {
 
   public TcpConnection(
       URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
+    this(baseUri, certificates, connectionTimeoutMs, readTimeoutMs, null);
+  }
+
+  /**
+   * Creates connection which records its requests to the given metrics.
+   *
+   * @param metrics metrics to record requests to, or null if requests should not be recorded
+   */
+  TcpConnection(
+      URI baseUri,
+      DockerCertificates certificates,
+      int connectionTimeoutMs,
+      int readTimeoutMs,
+      DockerApiMetrics metrics) {
+    super(metrics);
     if ("https".equals(baseUri.getScheme())) {
       if (certificates == null) {
         throw new IllegalArgumentException("Certificates are required for https connection.");
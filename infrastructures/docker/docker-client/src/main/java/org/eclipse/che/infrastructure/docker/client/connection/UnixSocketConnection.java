@@ -11,23 +11,14 @@
  */
 package org.eclipse.che.infrastructure.docker.client.connection;
 
-import static org.eclipse.che.infrastructure.docker.client.CLibrary.AF_UNIX;
-import static org.eclipse.che.infrastructure.docker.client.CLibrary.SOCK_STREAM;
-import static org.eclipse.che.infrastructure.docker.client.CLibrary.SockAddrUn;
-import static org.eclipse.che.infrastructure.docker.client.CLibraryFactory.getCLibrary;
-
 import com.google.common.base.Strings;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.net.ConnectException;
 import java.util.List;
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.infrastructure.docker.client.CLibrary;
+import org.eclipse.che.infrastructure.docker.client.connection.UnixSocketConnectionPool.PooledSocket;
 
 /**
  * @author andrew00x
@@ -35,47 +26,84 @@ import org.eclipse.che.infrastructure.docker.client.CLibrary;
  */
 public class UnixSocketConnection extends DockerConnection {
   private final String dockerSocketPath;
+  private final UnixSocketConnectionPool pool;
 
-  private int fd = -1;
+  private PooledSocket socket;
+  private UnixSocketDockerResponse response;
 
   public UnixSocketConnection(String dockerSocketPath) {
     this.dockerSocketPath = dockerSocketPath;
+    this.pool = null;
+  }
+
+  /**
+   * Creates connection which takes the socket from the given pool and returns it back on close if
+   * the whole response is read.
+   */
+  UnixSocketConnection(
+      String dockerSocketPath, UnixSocketConnectionPool pool, DockerApiMetrics metrics) {
+    super(metrics);
+    this.dockerSocketPath = dockerSocketPath;
+    this.pool = pool;
   }
 
   @Override
   protected DockerResponse request(
       String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
       throws IOException {
-    fd = connect();
-    final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
-    writeHttpHeaders(output, method, path, query, headers);
-    if (entity != null) {
-      entity.writeTo(output);
+    socket = pool != null ? pool.acquire() : PooledSocket.connect(dockerSocketPath);
+    boolean written = false;
+    try {
+      write(method, path, query, headers, entity);
+      written = true;
+      return response = read();
+    } catch (IOException ex) {
+      // docker may close an idle connection at any moment, the request is retried on a new one
+      // only if docker can't have processed it, or processing of it has no side effects
+      final boolean retry =
+          socket.isReused() && isRepeatable(entity) && (!written || isIdempotent(method));
+      socket.close();
+      socket = null;
+      if (!retry) {
+        throw ex;
+      }
+      socket = PooledSocket.connect(dockerSocketPath);
+      write(method, path, query, headers, entity);
+      return response = read();
     }
-    return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
   }
 
   @Override
   public void close() {
-    if (fd != -1) {
-      getCLibrary().close(fd);
+    if (socket == null) {
+      return;
     }
+    if (pool != null && response != null && response.isComplete()) {
+      pool.release(socket);
+    } else {
+      socket.close();
+    }
+    socket = null;
   }
 
-  private int connect() throws IOException {
-    final CLibrary cLib = getCLibrary();
-    int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
-    if (fd == -1) {
-      throw new ConnectException(
-          String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
-    }
-    final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
-    int c = cLib.connect(fd, sockAddr, sockAddr.size());
-    if (c == -1) {
-      throw new ConnectException(
-          String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+  private void write(
+      String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+      throws IOException {
+    writeHttpHeaders(socket.output, method, path, query, headers);
+    if (entity != null) {
+      entity.writeTo(socket.output);
     }
-    return fd;
+  }
+
+  private UnixSocketDockerResponse read() throws IOException {
+    final UnixSocketDockerResponse response = new UnixSocketDockerResponse(socket.input);
+    // reads the status line and headers, so a closed connection is detected here
+    response.getInputStream();
+    return response;
+  }
+
+  private static boolean isIdempotent(String method) {
+    return "GET".equals(method) || "HEAD".equals(method);
   }
 
   private void writeHttpHeaders(
@@ -100,12 +128,4 @@ public class UnixSocketConnection extends DockerConnection {
     writer.write("Host: \r\n\r\n");
     writer.flush();
   }
-
-  private InputStream openInputStream(int fd) {
-    return new UnixSocketInputStream(fd);
-  }
-
-  private OutputStream openOutputStream(int fd) {
-    return new UnixSocketOutputStream(fd);
-  }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static org.eclipse.che.infrastructure.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.infrastructure.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.infrastructure.docker.client.CLibraryFactory.getCLibrary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import org.eclipse.che.infrastructure.docker.client.CLibrary;
+import org.eclipse.che.infrastructure.docker.client.CLibrary.SockAddrUn;
+
+/**
+ * Keeps idle connections to a docker unix socket, so they can be reused by the subsequent requests
+ * instead of connecting the socket for every request.
+ *
+ * <p>The pool doesn't limit the number of connections in use, it limits only the number of idle
+ * connections, connections released when the limit is reached are closed. Idle connections which
+ * are not used longer than idle timeout or closed by docker are evicted when the pool is accessed.
+ *
+ * @see UnixSocketConnection
+ */
+class UnixSocketConnectionPool {
+  private static final int MSG_PEEK = 0x02;
+  private static final int MSG_DONTWAIT = 0x40;
+
+  private final String socketPath;
+  private final int maxIdle;
+  private final long idleTimeoutNanos;
+  private final Deque<PooledSocket> idle;
+
+  UnixSocketConnectionPool(String socketPath, int maxIdle, long idleTimeoutMs) {
+    this.socketPath = socketPath;
+    this.maxIdle = maxIdle;
+    this.idleTimeoutNanos = idleTimeoutMs * 1_000_000L;
+    this.idle = new ArrayDeque<>();
+  }
+
+  /** Returns the most recently used idle connection or connects a new one. */
+  PooledSocket acquire() throws IOException {
+    final long now = System.nanoTime();
+    for (; ; ) {
+      final PooledSocket socket;
+      synchronized (idle) {
+        socket = idle.pollFirst();
+      }
+      if (socket == null) {
+        return PooledSocket.connect(socketPath);
+      }
+      if (now - socket.idleSince < idleTimeoutNanos && socket.isAlive()) {
+        return socket;
+      }
+      socket.close();
+    }
+  }
+
+  /**
+   * Returns the connection to the pool. The connection must be ready for the next request, which
+   * means that the whole response to the previous request is read.
+   */
+  void release(PooledSocket socket) {
+    final long now = System.nanoTime();
+    final List<PooledSocket> toClose = new ArrayList<>();
+    synchronized (idle) {
+      for (Iterator<PooledSocket> it = idle.descendingIterator(); it.hasNext(); ) {
+        final PooledSocket oldest = it.next();
+        if (now - oldest.idleSince < idleTimeoutNanos) {
+          break;
+        }
+        it.remove();
+        toClose.add(oldest);
+      }
+      if (idle.size() < maxIdle) {
+        socket.idleSince = now;
+        socket.reused = true;
+        idle.addFirst(socket);
+      } else {
+        toClose.add(socket);
+      }
+    }
+    toClose.forEach(PooledSocket::close);
+  }
+
+  /** Closes all the idle connections. */
+  void close() {
+    final List<PooledSocket> toClose;
+    synchronized (idle) {
+      toClose = new ArrayList<>(idle);
+      idle.clear();
+    }
+    toClose.forEach(PooledSocket::close);
+  }
+
+  /** Returns the number of idle connections. */
+  int getIdleCount() {
+    synchronized (idle) {
+      return idle.size();
+    }
+  }
+
+  /** Connection to the docker unix socket along with the streams buffering its data. */
+  static class PooledSocket {
+    final int fd;
+    final InputStream input;
+    final OutputStream output;
+
+    private long idleSince;
+    private boolean reused;
+
+    private PooledSocket(int fd) {
+      this.fd = fd;
+      this.input = new BufferedInputStream(new UnixSocketInputStream(fd));
+      this.output = new BufferedOutputStream(new UnixSocketOutputStream(fd));
+    }
+
+    static PooledSocket connect(String socketPath) throws IOException {
+      final CLibrary cLib = getCLibrary();
+      int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+      if (fd == -1) {
+        throw new ConnectException(
+            String.format("Unable connect to unix socket: '%s'", socketPath));
+      }
+      final SockAddrUn sockAddr = new SockAddrUn(socketPath);
+      int c = cLib.connect(fd, sockAddr, sockAddr.size());
+      if (c == -1) {
+        cLib.close(fd);
+        throw new ConnectException(
+            String.format("Unable connect to unix socket: '%s'", socketPath));
+      }
+      return new PooledSocket(fd);
+    }
+
+    /** Returns true if this connection was taken from the pool. */
+    boolean isReused() {
+      return reused;
+    }
+
+    /**
+     * Checks without blocking that docker neither closed the idle connection nor sent anything to
+     * it.
+     */
+    boolean isAlive() {
+      return getCLibrary().recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT) == -1;
+    }
+
+    void close() {
+      getCLibrary().close(fd);
+    }
+  }
+}
@@ -109,6 +109,31 @@ public class UnixSocketDockerResponse implements DockerResponse {
     return headers.toArray(new String[headers.size()]);
   }
 
+  /**
+   * Returns true if the whole response is read and docker doesn't close the connection, so the
+   * connection may be used for the next request.
+   */
+  synchronized boolean isComplete() {
+    if (headersFields == null) {
+      return false;
+    }
+    for (String field : headersFields) {
+      if (field.toLowerCase().startsWith("connection:") && field.toLowerCase().contains("close")) {
+        return false;
+      }
+    }
+    if (data == EMPTY) {
+      return true;
+    }
+    if (data instanceof LimitedInputStream) {
+      return ((LimitedInputStream) data).isEof();
+    }
+    if (data instanceof ChunkedInputStream) {
+      return ((ChunkedInputStream) data).isEof();
+    }
+    return false;
+  }
+
   @Override
   public synchronized InputStream getInputStream() throws IOException {
     if (this.headersFields != null) {
@@ -143,8 +168,10 @@ public class UnixSocketDockerResponse implements DockerResponse {
       }
     }
     this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+    final int statusCode = getStatus();
     final int contentLength = getContentLength();
-    if (contentLength == 0) {
+    // responses with 'No Content' and 'Not Modified' statuses never have body
+    if (contentLength == 0 || statusCode == 204 || statusCode == 304) {
       return data = EMPTY;
     }
     if (contentLength > 0) {
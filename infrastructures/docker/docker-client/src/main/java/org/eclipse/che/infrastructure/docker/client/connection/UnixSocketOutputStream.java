@@ -20,6 +20,9 @@ import org.eclipse.che.infrastructure.docker.client.CLibrary;
 
 /** @author andrew00x */
 public class UnixSocketOutputStream extends OutputStream {
+  // report EPIPE instead of raising SIGPIPE when docker has closed the connection
+  private static final int MSG_NOSIGNAL = 0x4000;
+
   private final int fd;
   private final CLibrary cLib = getCLibrary();
 
@@ -40,7 +43,7 @@ public class UnixSocketOutputStream extends OutputStream {
   public void write(byte[] b, int off, int len) throws IOException {
     int n;
     try {
-      n = cLib.send(fd, b, len, 0);
+      n = cLib.send(fd, b, len, MSG_NOSIGNAL);
     } catch (LastErrorException e) {
       throw new IOException("error: " + cLib.strerror(e.getErrorCode()));
     }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Map;
+import org.eclipse.che.infrastructure.docker.client.connection.DockerApiMetrics.EndpointMetrics;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests {@link DockerApiMetrics}. */
+public class DockerApiMetricsTest {
+
+  @Test(dataProvider = "endpoints")
+  public void shouldReplaceIdentifiersInEndpoint(String method, String path, String expected) {
+    assertEquals(DockerApiMetrics.toEndpoint(method, path), expected);
+  }
+
+  @DataProvider
+  public static Object[][] endpoints() {
+    return new Object[][] {
+      {"GET", "/info", "GET /info"},
+      {"GET", "/v1.23/containers/json", "GET /containers/json"},
+      {"GET", "/containers/6d5b2f0c/json", "GET /containers/{id}/json"},
+      {"POST", "/v1.23/containers/6d5b2f0c/start", "POST /containers/{id}/start"},
+      {"GET", "/images/eclipse/che-dev/json", "GET /images/{id}/json"},
+      {"DELETE", "/containers/6d5b2f0c", "DELETE /containers/{id}"},
+      {"DELETE", "/images/eclipse/che-dev", "DELETE /images/{id}"}
+    };
+  }
+
+  @Test
+  public void shouldCountRequestsPerEndpoint() {
+    DockerApiMetrics metrics = new DockerApiMetrics();
+
+    metrics.record("GET", "/containers/a/json", 2_000_000, false);
+    metrics.record("GET", "/containers/b/json", 4_000_000, true);
+    metrics.record("POST", "/containers/a/start", 1_000_000, false);
+
+    Map<String, EndpointMetrics> endpoints = metrics.getEndpoints();
+    assertEquals(endpoints.size(), 2);
+    EndpointMetrics inspect = endpoints.get("GET /containers/{id}/json");
+    assertEquals(inspect.getRequests(), 2);
+    assertEquals(inspect.getFailures(), 1);
+    assertEquals(inspect.getAverageLatencyMillis(), 3);
+    assertEquals(inspect.getMaxLatencyMillis(), 4);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.testng.annotations.Test;
+
+/** Tests {@link UnixSocketDockerResponse}. */
+public class UnixSocketDockerResponseTest {
+
+  @Test
+  public void shouldBeCompleteWhenResponseWithContentLengthIsRead() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nContent-Length: 4\r\n\r\nbodyHTTP/1.1");
+
+    assertEquals(response.getStatus(), 200);
+    assertFalse(response.isComplete());
+    assertEquals(new String(ByteStreams.toByteArray(response.getInputStream()), UTF_8), "body");
+    assertTrue(response.isComplete());
+  }
+
+  @Test
+  public void shouldBeCompleteWhenLastChunkIsRead() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n4\r\nbody\r\n0\r\n\r\n");
+
+    assertFalse(response.isComplete());
+    assertEquals(new String(ByteStreams.toByteArray(response.getInputStream()), UTF_8), "body");
+    assertTrue(response.isComplete());
+  }
+
+  @Test
+  public void shouldBeCompleteWhenResponseHasNoContent() throws Exception {
+    UnixSocketDockerResponse response = response("HTTP/1.1 204 No Content\r\n\r\n");
+
+    assertEquals(response.getStatus(), 204);
+    assertEquals(response.getInputStream().read(), -1);
+    assertTrue(response.isComplete());
+  }
+
+  @Test
+  public void shouldNotBeCompleteWhenResponseLengthIsUnknown() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nContent-Type: application/vnd.docker.raw-stream\r\n\r\n");
+
+    assertEquals(response.getInputStream().read(), -1);
+    assertFalse(response.isComplete());
+  }
+
+  @Test
+  public void shouldNotBeCompleteWhenDockerClosesConnection() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+
+    assertEquals(response.getInputStream().read(), -1);
+    assertFalse(response.isComplete());
+  }
+
+  private static UnixSocketDockerResponse response(String raw) {
+    InputStream input = new ByteArrayInputStream(raw.getBytes(UTF_8));
+    return new UnixSocketDockerResponse(input);
+  }
+}
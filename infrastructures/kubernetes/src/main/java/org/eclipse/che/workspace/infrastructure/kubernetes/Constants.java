@@ -34,6 +34,9 @@ public final class Constants {
   /** The label that contains name of deployment responsible for Pod. */
   public static final String CHE_DEPLOYMENT_NAME_LABEL = "che.deployment_name";
 
+  /** The label of pods which execute jobs on sub-paths of the common workspaces PVC. */
+  public static final String CHE_PVC_JOB_LABEL = "che.pvc_job";
+
   /** The label that contains a value with volume name. */
   public static final String CHE_VOLUME_NAME_LABEL = "che.workspace.volume_name";
 
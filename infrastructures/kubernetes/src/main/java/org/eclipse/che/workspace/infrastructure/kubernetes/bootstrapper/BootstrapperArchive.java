@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.kubernetes.bootstrapper;
+
+import static java.util.Arrays.asList;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates tar archives which contain everything needed to start the bootstrapper in a machine, so
+ * the archive can be streamed to the machine with a single exec.
+ *
+ * <p>The bootstrapper binary is taken from {@code bootstrapper.tar.gz} which is packaged with Che
+ * server, its entries are read once and reused by all the archives. When there is no such resource
+ * archives contain only the configuration and the binary has to be downloaded by the machine.
+ *
+ * <p>Archives are padded up to the whole number of tar records, so the extracting process stops
+ * after reading the end-of-archive marker and doesn't wait for the end of the stream, which can't
+ * be signaled through exec stdin.
+ */
+@Singleton
+public class BootstrapperArchive {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BootstrapperArchive.class);
+
+  static final String BOOTSTRAPPER_ARCHIVE_RESOURCE = "bootstrapper.tar.gz";
+
+  private static final int BLOCK_SIZE = 512;
+  private static final int RECORD_SIZE = 20 * BLOCK_SIZE;
+
+  private final Supplier<byte[]> binaryEntries;
+
+  @Inject
+  public BootstrapperArchive() {
+    this(Thread.currentThread().getContextClassLoader().getResource(BOOTSTRAPPER_ARCHIVE_RESOURCE));
+  }
+
+  BootstrapperArchive(@Nullable URL binaryArchive) {
+    this.binaryEntries = Suppliers.memoize(() -> readEntries(binaryArchive));
+  }
+
+  /** Returns true if created archives contain the bootstrapper binary. */
+  public boolean containsBinary() {
+    return binaryEntries.get().length > 0;
+  }
+
+  /**
+   * Returns stream of the archive which contains the bootstrapper binary, if it is available, and
+   * the given configuration file.
+   *
+   * @param configPath path of the configuration file in the archive
+   * @param config content of the configuration file
+   */
+  public InputStream create(String configPath, byte[] config) {
+    byte[] binary = binaryEntries.get();
+    byte[] configEntry;
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(config.length + 2 * BLOCK_SIZE);
+      TarArchiveOutputStream tarOut = newEntriesStream(out);
+      TarArchiveEntry entry = new TarArchiveEntry(configPath);
+      entry.setSize(config.length);
+      tarOut.putArchiveEntry(entry);
+      tarOut.write(config);
+      tarOut.closeArchiveEntry();
+      tarOut.flush();
+      configEntry = out.toByteArray();
+    } catch (IOException e) {
+      // in-memory stream never fails
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+    int length = binary.length + configEntry.length + 2 * BLOCK_SIZE;
+    byte[] trailer = new byte[2 * BLOCK_SIZE + (RECORD_SIZE - length % RECORD_SIZE) % RECORD_SIZE];
+    return new SequenceInputStream(
+        Collections.enumeration(
+            asList(
+                new ByteArrayInputStream(binary),
+                new ByteArrayInputStream(configEntry),
+                new ByteArrayInputStream(trailer))));
+  }
+
+  /** Returns tar entries of the archive without the end-of-archive marker. */
+  private static byte[] readEntries(@Nullable URL archive) {
+    if (archive == null) {
+      LOG.warn(
+          "Resource '{}' is not found, bootstrapper binary will be downloaded by machines",
+          BOOTSTRAPPER_ARCHIVE_RESOURCE);
+      return new byte[0];
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TarArchiveInputStream tarIn =
+        new TarArchiveInputStream(new GZIPInputStream(archive.openStream()))) {
+      TarArchiveOutputStream tarOut = newEntriesStream(out);
+      for (TarArchiveEntry entry = tarIn.getNextTarEntry();
+          entry != null;
+          entry = tarIn.getNextTarEntry()) {
+        tarOut.putArchiveEntry(entry);
+        IOUtils.copy(tarIn, tarOut);
+        tarOut.closeArchiveEntry();
+      }
+      tarOut.flush();
+    } catch (IOException e) {
+      LOG.warn(
+          "Failed to read bootstrapper binary from '{}', it will be downloaded by machines. Cause: {}",
+          archive,
+          e.getMessage());
+      return new byte[0];
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Stream that writes every block as soon as it is complete, so entries may be concatenated
+   * without finishing the archive.
+   */
+  private static TarArchiveOutputStream newEntriesStream(ByteArrayOutputStream out) {
+    TarArchiveOutputStream tarOut = new TarArchiveOutputStream(out, BLOCK_SIZE, BLOCK_SIZE);
+    tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+    return tarOut;
+  }
+}
@@ -11,6 +11,7 @@
  */
 package org.eclipse.che.workspace.infrastructure.kubernetes.bootstrapper;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
 import com.google.gson.Gson;
@@ -20,6 +21,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
@@ -65,6 +67,8 @@ public class KubernetesBootstrapper extends AbstractBootstrapper {
   private final EventService eventService;
   private final KubernetesNamespace namespace;
   private final StartSynchronizer startSynchronizer;
+  private final boolean injectArchive;
+  private final BootstrapperArchive bootstrapperArchive;
 
   @Inject
   public KubernetesBootstrapper(
@@ -78,8 +82,10 @@ public class KubernetesBootstrapper extends AbstractBootstrapper {
       @Named("che.infra.kubernetes.bootstrapper.installer_timeout_sec") int installerTimeoutSeconds,
       @Named("che.infra.kubernetes.bootstrapper.server_check_period_sec")
           int serverCheckPeriodSeconds,
+      @Named("che.infra.kubernetes.bootstrapper.inject_archive") boolean injectArchive,
       @Named("che.workspace.logs.root_dir") String logsRootPath,
-      EventService eventService) {
+      EventService eventService,
+      BootstrapperArchive bootstrapperArchive) {
     super(
         kubernetesMachine.getName(),
         runtimeIdentity,
@@ -97,58 +103,117 @@ public class KubernetesBootstrapper extends AbstractBootstrapper {
     this.namespace = namespace;
     this.bootstrapperLogsFile = bootstrapperLogsFolder + "/bootstrapper.log";
     this.startSynchronizer = startSynchronizer;
+    this.injectArchive = injectArchive;
+    this.bootstrapperArchive = bootstrapperArchive;
   }
 
   @Override
   protected void doBootstrapAsync(String installerWebsocketEndpoint, String outputWebsocketEndpoint)
       throws InfrastructureException {
+    if (injectArchive) {
+      injectArchiveAndStart(installerWebsocketEndpoint, outputWebsocketEndpoint);
+      return;
+    }
     injectBootstrapper();
 
     startSynchronizer.checkFailure();
-    exec(
-        "sh",
-        "-c",
-        BOOTSTRAPPER_DIR
-            + BOOTSTRAPPER_FILE
-            + " -machine-name "
-            + kubernetesMachine.getName()
-            + " -runtime-id "
-            + String.format(
-                "%s:%s:%s",
-                runtimeIdentity.getWorkspaceId(),
-                runtimeIdentity.getEnvName(),
-                runtimeIdentity.getOwnerId())
-            + " -push-endpoint "
-            + installerWebsocketEndpoint
-            + " -push-logs-endpoint "
-            + outputWebsocketEndpoint
-            + " -server-check-period "
-            + Integer.toString(serverCheckPeriodSeconds)
-            + " -enable-auth"
-            + " -installer-timeout "
-            + Integer.toString(installerTimeoutSeconds)
-            + " -file "
-            + BOOTSTRAPPER_DIR
-            + CONFIG_FILE
-            // redirects command output and makes the bootstrapping process detached,
-            // to avoid the holding of the socket connection for exec watcher.
-            + " > "
-            + bootstrapperLogsFile
-            + " 2>&1 &");
+    exec("sh", "-c", startCommand(installerWebsocketEndpoint, outputWebsocketEndpoint));
   }
 
-  private void injectBootstrapper() throws InfrastructureException {
+  /**
+   * Streams the bootstrapper binary and config in a single archive, then starts the bootstrapper
+   * within the same exec. If the binary isn't available on Che server it is downloaded by the
+   * machine.
+   */
+  private void injectArchiveAndStart(
+      String installerWebsocketEndpoint, String outputWebsocketEndpoint)
+      throws InfrastructureException {
+    final String mName = kubernetesMachine.getName();
+    final String config =
+        installers.stream().map(GSON::toJson).collect(Collectors.joining(",", "[", "]"));
+    final StringBuilder script =
+        new StringBuilder("mkdir -p ")
+            .append(BOOTSTRAPPER_DIR)
+            .append(' ')
+            .append(bootstrapperLogsFolder)
+            .append(" && tar -xmof - -C ")
+            .append(BOOTSTRAPPER_BASE_DIR);
+    if (!bootstrapperArchive.containsBinary()) {
+      script
+          .append(" && curl -fsSo ")
+          .append(BOOTSTRAPPER_DIR + BOOTSTRAPPER_FILE)
+          .append(' ')
+          .append(bootstrapperBinaryUrl);
+    }
+    script
+        .append(" && chmod +x ")
+        .append(BOOTSTRAPPER_DIR + BOOTSTRAPPER_FILE)
+        .append(" && { ")
+        .append(startCommand(installerWebsocketEndpoint, outputWebsocketEndpoint))
+        .append(" }");
+
+    startSynchronizer.checkFailure();
+    LOG.debug("Bootstrapping {}:{}. Injecting bootstrapper archive", runtimeIdentity, mName);
+    namespace
+        .deployments()
+        .exec(
+            kubernetesMachine.getPodName(),
+            kubernetesMachine.getContainerName(),
+            EXEC_TIMEOUT_MIN,
+            new String[] {"sh", "-c", script.toString()},
+            bootstrapperArchive.create(
+                BOOTSTRAPPER_DIR.substring(BOOTSTRAPPER_BASE_DIR.length()) + CONFIG_FILE,
+                config.getBytes(UTF_8)),
+            machineLogsConsumer());
+  }
+
+  private String startCommand(String installerWebsocketEndpoint, String outputWebsocketEndpoint) {
+    return BOOTSTRAPPER_DIR
+        + BOOTSTRAPPER_FILE
+        + " -machine-name "
+        + kubernetesMachine.getName()
+        + " -runtime-id "
+        + String.format(
+            "%s:%s:%s",
+            runtimeIdentity.getWorkspaceId(),
+            runtimeIdentity.getEnvName(),
+            runtimeIdentity.getOwnerId())
+        + " -push-endpoint "
+        + installerWebsocketEndpoint
+        + " -push-logs-endpoint "
+        + outputWebsocketEndpoint
+        + " -server-check-period "
+        + Integer.toString(serverCheckPeriodSeconds)
+        + " -enable-auth"
+        + " -installer-timeout "
+        + Integer.toString(installerTimeoutSeconds)
+        + " -file "
+        + BOOTSTRAPPER_DIR
+        + CONFIG_FILE
+        // redirects command output and makes the bootstrapping process detached,
+        // to avoid the holding of the socket connection for exec watcher.
+        + " > "
+        + bootstrapperLogsFile
+        + " 2>&1 &";
+  }
+
+  /** Returns consumer which publishes command output as machine logs. */
+  private BiConsumer<String, String> machineLogsConsumer() {
     final String mName = kubernetesMachine.getName();
     final RuntimeIdentityDto runtimeIdentityDto = DtoConverter.asDto(runtimeIdentity);
-    final BiConsumer<String, String> outputConsumer =
-        (stream, text) ->
-            eventService.publish(
-                DtoFactory.newDto(MachineLogEvent.class)
-                    .withRuntimeId(runtimeIdentityDto)
-                    .withStream(stream)
-                    .withText(text)
-                    .withTime(ZonedDateTime.now().format(ISO_OFFSET_DATE_TIME))
-                    .withMachineName(mName));
+    return (stream, text) ->
+        eventService.publish(
+            DtoFactory.newDto(MachineLogEvent.class)
+                .withRuntimeId(runtimeIdentityDto)
+                .withStream(stream)
+                .withText(text)
+                .withTime(ZonedDateTime.now().format(ISO_OFFSET_DATE_TIME))
+                .withMachineName(mName));
+  }
+
+  private void injectBootstrapper() throws InfrastructureException {
+    final String mName = kubernetesMachine.getName();
+    final BiConsumer<String, String> outputConsumer = machineLogsConsumer();
     startSynchronizer.checkFailure();
     LOG.debug("Bootstrapping {}:{}. Creating folder for bootstrapper", runtimeIdentity, mName);
     exec(outputConsumer, "mkdir", "-p", BOOTSTRAPPER_DIR, bootstrapperLogsFolder);
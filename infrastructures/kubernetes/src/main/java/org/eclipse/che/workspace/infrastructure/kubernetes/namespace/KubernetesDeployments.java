@@ -34,11 +34,19 @@ import io.fabric8.kubernetes.api.model.extensions.ReplicaSet;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.Watcher.Action;
+import io.fabric8.kubernetes.client.dsl.ContainerResource;
 import io.fabric8.kubernetes.client.dsl.ExecListener;
 import io.fabric8.kubernetes.client.dsl.ExecWatch;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
 import io.fabric8.kubernetes.client.dsl.PodResource;
 import io.fabric8.kubernetes.client.dsl.ScalableResource;
+import io.fabric8.kubernetes.client.dsl.TtyExecOutputErrorable;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.text.ParseException;
@@ -54,12 +62,14 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import okhttp3.Response;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFactory;
 import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesInfrastructureException;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.PodActionHandler;
@@ -73,6 +83,9 @@ import org.slf4j.LoggerFactory;
  * Defines an internal API for managing {@link Pod} and {@link Deployment} instances in {@link
  * KubernetesDeployments#namespace predefined namespace}.
  *
+ * <p>Pods and events are watched with {@link SharedPodInformer}, so the namespace is watched with a
+ * single connection regardless of the number of waiting operations and workspaces which use it.
+ *
  * @author Sergii Leshchenko
  * @author Anton Korneta
  * @author Angel Misevski
@@ -100,17 +113,22 @@ public class KubernetesDeployments {
   protected final String namespace;
   protected final String workspaceId;
   private final KubernetesClientFactory clientFactory;
+  private final SharedPodInformer podInformer;
   private final ConcurrentLinkedQueue<PodActionHandler> podActionHandlers;
   private final ConcurrentLinkedQueue<PodEventHandler> containerEventsHandlers;
-  private Watch podWatch;
-  private Watch containerWatch;
+  private SharedPodInformer.Registration podWatch;
+  private SharedPodInformer.Registration containerWatch;
   private Date watcherInitializationDate;
 
   protected KubernetesDeployments(
-      String namespace, String workspaceId, KubernetesClientFactory clientFactory) {
+      String namespace,
+      String workspaceId,
+      KubernetesClientFactory clientFactory,
+      SharedPodInformer podInformer) {
     this.namespace = namespace;
     this.workspaceId = workspaceId;
     this.clientFactory = clientFactory;
+    this.podInformer = podInformer;
     this.containerEventsHandlers = new ConcurrentLinkedQueue<>();
     this.podActionHandlers = new ConcurrentLinkedQueue<>();
   }
@@ -133,12 +151,9 @@ public class KubernetesDeployments {
     PodSpec podSpec = pod.getSpec();
     podSpec.setRestartPolicy("Always"); // Only allowable value
     final CompletableFuture<Pod> createFuture = new CompletableFuture<>();
-    final Watch createWatch =
-        clientFactory
-            .create(workspaceId)
-            .pods()
-            .inNamespace(namespace)
-            .watch(new CreateWatcher(createFuture, workspaceId, originalName));
+    final SharedPodInformer.Registration createWatch =
+        podInformer.watchPods(
+            namespace, workspaceId, new CreateHandler(createFuture, workspaceId, originalName));
     try {
       clientFactory
           .create(workspaceId)
@@ -201,6 +216,20 @@ public class KubernetesDeployments {
    * @throws InfrastructureException when any exception occurs
    */
   public List<Pod> get() throws InfrastructureException {
+    Map<String, Pod> cached = podInformer.getPods(namespace);
+    if (cached != null) {
+      List<Pod> pods =
+          cached.values().stream().filter(this::isWorkspacePod).collect(Collectors.toList());
+      if (!pods.isEmpty()) {
+        return pods;
+      }
+      // just created pods may be not delivered by the watch yet
+    }
+    return list();
+  }
+
+  /** Returns all existing pods requesting them from the API server. */
+  private List<Pod> list() throws InfrastructureException {
     try {
       return clientFactory
           .create(workspaceId)
@@ -224,8 +253,7 @@ public class KubernetesDeployments {
   public Optional<Pod> get(String name) throws InfrastructureException {
     String podName = getPodName(name);
     try {
-      return Optional.ofNullable(
-          clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(podName).get());
+      return Optional.ofNullable(getPod(podName));
     } catch (KubernetesClientException e) {
       throw new KubernetesInfrastructureException(e);
     }
@@ -248,29 +276,7 @@ public class KubernetesDeployments {
     CompletableFuture<Pod> future = new CompletableFuture<>();
     Watch watch = null;
     try {
-
-      PodResource<Pod, DoneablePod> podResource =
-          clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(podName);
-
-      watch =
-          podResource.watch(
-              new Watcher<Pod>() {
-                @Override
-                public void eventReceived(Action action, Pod pod) {
-                  if (predicate.test(pod)) {
-                    future.complete(pod);
-                  }
-                }
-
-                @Override
-                public void onClose(KubernetesClientException cause) {
-                  future.completeExceptionally(
-                      new InfrastructureException(
-                          "Waiting for pod '" + podName + "' was interrupted"));
-                }
-              });
-
-      Pod actualPod = podResource.get();
+      Pod actualPod = getPod(podName);
       if (actualPod == null) {
         if (name.equals(podName)) { // `name` refers to a bare pod
           throw new InfrastructureException("Specified pod " + podName + " doesn't exist");
@@ -278,7 +284,17 @@ public class KubernetesDeployments {
           throw new InfrastructureException("No pod in deployment " + name + " found.");
         }
       }
-      if (predicate.test(actualPod)) {
+      watch =
+          watchPod(
+              actualPod,
+              (action, pod) -> {
+                if (predicate.test(pod)) {
+                  future.complete(pod);
+                }
+              });
+      // the pod may be changed before the watch is started
+      actualPod = getPod(podName);
+      if (actualPod != null && predicate.test(actualPod)) {
         return actualPod;
       }
       try {
@@ -324,26 +340,15 @@ public class KubernetesDeployments {
     final CompletableFuture<Void> podRunningFuture = new CompletableFuture<>();
     try {
       final String podName = getPodName(name);
-      final PodResource<Pod, DoneablePod> podResource =
-          clientFactory.create().pods().inNamespace(namespace).withName(podName);
-      final Watch watch =
-          podResource.watch(
-              new Watcher<Pod>() {
-                @Override
-                public void eventReceived(Action action, Pod pod) {
-                  handleStartingPodStatus(podRunningFuture, pod);
-                }
-
-                @Override
-                public void onClose(KubernetesClientException cause) {
-                  podRunningFuture.completeExceptionally(
-                      new InfrastructureException(
-                          "Waiting for pod '" + podName + "' was interrupted"));
-                }
-              });
+      final SharedPodInformer.Registration watch =
+          podInformer.watchPod(
+              namespace,
+              workspaceId,
+              podName,
+              (action, pod) -> handleStartingPodStatus(podRunningFuture, pod));
 
       podRunningFuture.whenComplete((ok, ex) -> watch.close());
-      final Pod pod = podResource.get();
+      final Pod pod = getPod(podName);
       if (pod == null) {
         InfrastructureException ex;
         if (name.equals(podName)) { // `name` refers to bare pod
@@ -409,27 +414,15 @@ public class KubernetesDeployments {
    */
   public void watch(PodActionHandler handler) throws InfrastructureException {
     if (podWatch == null) {
-      final Watcher<Pod> watcher =
-          new Watcher<Pod>() {
-            @Override
-            public void eventReceived(Action action, Pod pod) {
-              podActionHandlers.forEach(h -> h.handle(action, pod));
-            }
-
-            @Override
-            public void onClose(KubernetesClientException ignored) {}
-          };
-      try {
-        podWatch =
-            clientFactory
-                .create(workspaceId)
-                .pods()
-                .inNamespace(namespace)
-                .withLabel(CHE_WORKSPACE_ID_LABEL, workspaceId)
-                .watch(watcher);
-      } catch (KubernetesClientException ex) {
-        throw new KubernetesInfrastructureException(ex);
-      }
+      podWatch =
+          podInformer.watchPods(
+              namespace,
+              workspaceId,
+              (action, pod) -> {
+                if (isWorkspacePod(pod)) {
+                  podActionHandlers.forEach(h -> h.handle(action, pod));
+                }
+              });
     }
     podActionHandlers.add(handler);
   }
@@ -442,10 +435,10 @@ public class KubernetesDeployments {
    */
   public void watchEvents(PodEventHandler handler) throws InfrastructureException {
     if (containerWatch == null) {
-      final Watcher<Event> watcher =
-          new Watcher<Event>() {
+      final Consumer<Event> watcher =
+          new Consumer<Event>() {
             @Override
-            public void eventReceived(Action action, Event event) {
+            public void accept(Event event) {
               ObjectReference involvedObject = event.getInvolvedObject();
 
               if (POD_OBJECT_KIND.equals(involvedObject.getKind())) {
@@ -471,9 +464,6 @@ public class KubernetesDeployments {
               }
             }
 
-            @Override
-            public void onClose(KubernetesClientException ignored) {}
-
             /**
              * Returns the container name if the event is related to container. When the event is
              * related to container `fieldPath` field contain information in the following format:
@@ -502,38 +492,23 @@ public class KubernetesDeployments {
               return eventLastTimestampDate.after(watcherInitializationDate);
             }
           };
-      try {
-        watcherInitializationDate = new Date();
-        containerWatch =
-            clientFactory.create(workspaceId).events().inNamespace(namespace).watch(watcher);
-      } catch (KubernetesClientException ex) {
-        throw new KubernetesInfrastructureException(ex);
-      }
+      watcherInitializationDate = new Date();
+      containerWatch = podInformer.watchEvents(namespace, workspaceId, watcher);
     }
     containerEventsHandlers.add(handler);
   }
 
   /** Stops watching the pods inside Kubernetes namespace. */
   public void stopWatch() {
-    try {
-      if (podWatch != null) {
-        podWatch.close();
-      }
-    } catch (KubernetesClientException ex) {
-      LOG.error(
-          "Failed to stop pod watcher for namespace '{}' cause '{}'", namespace, ex.getMessage());
+    if (podWatch != null) {
+      podWatch.close();
+      podWatch = null;
     }
     podActionHandlers.clear();
 
-    try {
-      if (containerWatch != null) {
-        containerWatch.close();
-      }
-    } catch (KubernetesClientException ex) {
-      LOG.error(
-          "Failed to stop pods containers watcher for namespace '{}' cause '{}'",
-          namespace,
-          ex.getMessage());
+    if (containerWatch != null) {
+      containerWatch.close();
+      containerWatch = null;
     }
     containerEventsHandlers.clear();
   }
@@ -558,19 +533,72 @@ public class KubernetesDeployments {
       String[] command,
       BiConsumer<String, String> outputConsumer)
       throws InfrastructureException {
+    exec(name, containerName, timeoutMin, command, null, outputConsumer);
+  }
+
+  /**
+   * Executes command in specified container, the given input is streamed to the command stdin.
+   *
+   * <p>Note that the end of the input can't be signaled to the command, so the command must stop
+   * reading stdin by itself.
+   *
+   * @param name pod name (or name of deployment containing pod) where command will be executed
+   * @param containerName container name where command will be executed
+   * @param timeoutMin timeout to wait until process will be done
+   * @param command command to execute
+   * @param input command input or null if the command doesn't read stdin
+   * @param outputConsumer command output biconsumer, that is accepts stream type and message
+   * @throws InfrastructureException when specified timeout is reached
+   * @throws InfrastructureException when {@link Thread} is interrupted while command executing
+   * @throws InfrastructureException when command error stream is not empty
+   * @throws InfrastructureException when any other exception occurs
+   */
+  public void exec(
+      String name,
+      String containerName,
+      int timeoutMin,
+      String[] command,
+      @Nullable InputStream input,
+      BiConsumer<String, String> outputConsumer)
+      throws InfrastructureException {
     final String podName = getPodName(name);
     final ExecWatchdog watchdog = new ExecWatchdog();
     final ByteArrayOutputStream errStream = new ByteArrayOutputStream(ERROR_BUFF_INITIAL_CAP);
+    try {
+      final ContainerResource<
+              String,
+              LogWatch,
+              InputStream,
+              PipedOutputStream,
+              OutputStream,
+              PipedInputStream,
+              String,
+              ExecWatch>
+          container =
+              clientFactory
+                  .create(workspaceId)
+                  .pods()
+                  .inNamespace(namespace)
+                  .withName(podName)
+                  .inContainer(containerName);
+      final TtyExecOutputErrorable<String, OutputStream, PipedInputStream, ExecWatch> execution =
+          input == null ? container : container.readingInput(input);
+      doExec(execution, errStream, watchdog, command, timeoutMin, outputConsumer);
+    } catch (KubernetesClientException ex) {
+      throw new KubernetesInfrastructureException(ex);
+    }
+  }
+
+  private void doExec(
+      TtyExecOutputErrorable<String, OutputStream, PipedInputStream, ExecWatch> execution,
+      ByteArrayOutputStream errStream,
+      ExecWatchdog watchdog,
+      String[] command,
+      int timeoutMin,
+      BiConsumer<String, String> outputConsumer)
+      throws InfrastructureException {
     try (ExecWatch watch =
-        clientFactory
-            .create(workspaceId)
-            .pods()
-            .inNamespace(namespace)
-            .withName(podName)
-            .inContainer(containerName)
-            .writingError(errStream)
-            .usingListener(watchdog)
-            .exec(encode(command))) {
+        execution.writingError(errStream).usingListener(watchdog).exec(encode(command))) {
       try {
         watchdog.wait(timeoutMin, TimeUnit.MINUTES);
         final byte[] error = errStream.toByteArray();
@@ -585,8 +613,6 @@ public class KubernetesDeployments {
         Thread.currentThread().interrupt();
         throw new InfrastructureException(ex.getMessage(), ex);
       }
-    } catch (KubernetesClientException ex) {
-      throw new KubernetesInfrastructureException(ex);
     }
   }
 
@@ -667,14 +693,7 @@ public class KubernetesDeployments {
   public void delete() throws InfrastructureException {
     try {
       // pods are removed with some delay related to stopping of containers. It is need to wait them
-      List<Pod> pods =
-          clientFactory
-              .create(workspaceId)
-              .pods()
-              .inNamespace(namespace)
-              .withLabel(CHE_WORKSPACE_ID_LABEL, workspaceId)
-              .list()
-              .getItems();
+      List<Pod> pods = list();
       final List<CompletableFuture<Void>> deleteFutures = new ArrayList<>();
       for (Pod pod : pods) {
         deleteFutures.add(doDelete(pod.getMetadata().getName()));
@@ -704,14 +723,21 @@ public class KubernetesDeployments {
     try {
       PodResource<Pod, DoneablePod> podResource =
           clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(podName);
-      Pod pod = podResource.get();
+      Pod pod = getPod(podName);
       if (pod == null) {
         throw new InfrastructureException(
             String.format("No pod found to delete for name %s", name));
       }
       List<OwnerReference> ownerReferences = pod.getMetadata().getOwnerReferences();
       final CompletableFuture<Void> deleteFuture = new CompletableFuture<>();
-      final Watch watch = podResource.watch(new DeleteWatcher(deleteFuture));
+      final Watch watch =
+          watchPod(
+              pod,
+              (action, deleted) -> {
+                if (action == Action.DELETED) {
+                  deleteFuture.complete(null);
+                }
+              });
       toCloseOnException = watch;
 
       Boolean deleteSucceeded = false;
@@ -821,6 +847,25 @@ public class KubernetesDeployments {
    * @see
    */
   private String getPodName(String name) throws InfrastructureException {
+    Map<String, Pod> cached = podInformer.getPods(namespace);
+    if (cached != null) {
+      if (cached.containsKey(name)) {
+        return name;
+      }
+      // pods created by deploy method are labeled with the name of the deployment
+      List<String> deployed =
+          cached
+              .values()
+              .stream()
+              .filter(this::isWorkspacePod)
+              .filter(
+                  pod -> name.equals(pod.getMetadata().getLabels().get(CHE_DEPLOYMENT_NAME_LABEL)))
+              .map(pod -> pod.getMetadata().getName())
+              .collect(Collectors.toList());
+      if (deployed.size() == 1) {
+        return deployed.get(0);
+      }
+    }
     if (clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(name).get()
         != null) {
       return name;
@@ -855,56 +900,84 @@ public class KubernetesDeployments {
     return pods.get(0).getMetadata().getName();
   }
 
-  private static class CreateWatcher implements Watcher<Pod> {
+  /**
+   * Returns pod with the specified name, the pod is taken from the shared informer cache when the
+   * namespace is watched, otherwise it is requested from the API server.
+   */
+  private Pod getPod(String podName) throws InfrastructureException {
+    Map<String, Pod> cached = podInformer.getPods(namespace);
+    if (cached != null) {
+      Pod pod = cached.get(podName);
+      if (pod != null) {
+        return pod;
+      }
+    }
+    // pods without workspace label are not cached
+    return clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(podName).get();
+  }
+
+  /**
+   * Watches actions of the specified pod. Pods labeled with a workspace identifier are watched with
+   * the shared informer, other pods are not seen by the informer, so they are watched by name.
+   */
+  private Watch watchPod(Pod pod, PodActionHandler handler) throws InfrastructureException {
+    String podName = pod.getMetadata().getName();
+    Map<String, String> labels = pod.getMetadata().getLabels();
+    if (labels != null && labels.containsKey(CHE_WORKSPACE_ID_LABEL)) {
+      SharedPodInformer.Registration registration =
+          podInformer.watchPods(
+              namespace,
+              workspaceId,
+              (action, watched) -> {
+                if (podName.equals(watched.getMetadata().getName())) {
+                  handler.handle(action, watched);
+                }
+              });
+      return registration::close;
+    }
+    return clientFactory
+        .create(workspaceId)
+        .pods()
+        .inNamespace(namespace)
+        .withName(podName)
+        .watch(
+            new Watcher<Pod>() {
+              @Override
+              public void eventReceived(Action action, Pod watched) {
+                handler.handle(action, watched);
+              }
+
+              @Override
+              public void onClose(KubernetesClientException cause) {}
+            });
+  }
+
+  private boolean isWorkspacePod(Pod pod) {
+    Map<String, String> labels = pod.getMetadata().getLabels();
+    return labels != null && workspaceId.equals(labels.get(CHE_WORKSPACE_ID_LABEL));
+  }
+
+  private static class CreateHandler implements PodActionHandler {
 
     private final CompletableFuture<Pod> future;
     private final String workspaceId;
     private final String originalName;
 
-    private CreateWatcher(CompletableFuture<Pod> future, String workspaceId, String originalName) {
+    private CreateHandler(CompletableFuture<Pod> future, String workspaceId, String originalName) {
       this.future = future;
       this.workspaceId = workspaceId;
       this.originalName = originalName;
     }
 
     @Override
-    public void eventReceived(Action action, Pod resource) {
+    public void handle(Action action, Pod resource) {
       Map<String, String> labels = resource.getMetadata().getLabels();
-      if (workspaceId.equals(labels.get(CHE_WORKSPACE_ID_LABEL))
+      if (labels != null
+          && workspaceId.equals(labels.get(CHE_WORKSPACE_ID_LABEL))
           && originalName.equals(labels.get(CHE_DEPLOYMENT_NAME_LABEL))) {
         future.complete(resource);
       }
     }
-
-    @Override
-    public void onClose(KubernetesClientException cause) {
-      future.completeExceptionally(
-          new RuntimeException("Websocket connection closed before Pod creation event received"));
-    }
-  }
-
-  private static class DeleteWatcher implements Watcher<Pod> {
-
-    private final CompletableFuture<Void> future;
-
-    private DeleteWatcher(CompletableFuture<Void> future) {
-      this.future = future;
-    }
-
-    @Override
-    public void eventReceived(Action action, Pod hasMetadata) {
-      if (action == Action.DELETED) {
-        future.complete(null);
-      }
-    }
-
-    @Override
-    public void onClose(KubernetesClientException e) {
-      // if event about removing is received then this completion has no effect
-      future.completeExceptionally(
-          new RuntimeException(
-              "Websocket connection is closed. But event about removing is not received.", e));
-    }
   }
 
   private class ExecWatchdog implements ExecListener {
@@ -15,6 +15,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 import org.eclipse.che.commons.annotation.Nullable;
@@ -30,6 +31,7 @@ public class KubernetesNamespaceFactory {
 
   private final String namespaceName;
   private final KubernetesClientFactory clientFactory;
+  private final SharedPodInformer podInformer;
 
   @Inject
   public KubernetesNamespaceFactory(
@@ -37,6 +39,17 @@ public class KubernetesNamespaceFactory {
       KubernetesClientFactory clientFactory) {
     this.namespaceName = namespaceName;
     this.clientFactory = clientFactory;
+    this.podInformer = new SharedPodInformer(clientFactory);
+  }
+
+  /** Returns informer which watches pods of all the namespaces created by this factory. */
+  protected SharedPodInformer getPodInformer() {
+    return podInformer;
+  }
+
+  @PreDestroy
+  void stopPodInformer() {
+    podInformer.shutdown();
   }
 
   /**
@@ -47,6 +60,16 @@ public class KubernetesNamespaceFactory {
     return isNullOrEmpty(namespaceName);
   }
 
+  /**
+   * Returns the name of the namespace which is used by the specified workspace, the namespace is
+   * neither created nor checked for existence.
+   *
+   * @param workspaceId identifier of the workspace
+   */
+  public String getNamespaceName(String workspaceId) {
+    return isNullOrEmpty(namespaceName) ? workspaceId : namespaceName;
+  }
+
   /**
    * Creates a Kubernetes namespace for the specified workspace.
    *
@@ -58,10 +81,9 @@ public class KubernetesNamespaceFactory {
    * @throws InfrastructureException if any exception occurs during namespace preparing
    */
   public KubernetesNamespace create(String workspaceId) throws InfrastructureException {
-    final String namespaceName =
-        isNullOrEmpty(this.namespaceName) ? workspaceId : this.namespaceName;
     KubernetesNamespace namespace =
-        new KubernetesNamespace(clientFactory, namespaceName, workspaceId);
+        new KubernetesNamespace(
+            clientFactory, podInformer, getNamespaceName(workspaceId), workspaceId);
     namespace.prepare();
     return namespace;
   }
@@ -75,6 +97,6 @@ public class KubernetesNamespaceFactory {
    * @return created namespace
    */
   public KubernetesNamespace create(String workspaceId, String namespace) {
-    return new KubernetesNamespace(clientFactory, namespace, workspaceId);
+    return new KubernetesNamespace(clientFactory, podInformer, namespace, workspaceId);
   }
 }
@@ -0,0 +1,569 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.kubernetes.namespace;
+
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_WORKSPACE_ID_LABEL;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.Watcher.Action;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFactory;
+import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesInfrastructureException;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.PodActionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches workspaces pods with a single connection per namespace and keeps the last known state of
+ * the watched pods.
+ *
+ * <p>All the workspaces which use the same namespace share the watch, events are fanned out to the
+ * registered handlers, which are responsible for filtering out the pods they are not interested in.
+ * The watch is opened when the first handler of the namespace is registered and it is closed when
+ * the last one is unregistered. If the watch is closed by the server, pods are listed again and the
+ * watch is restarted from the version of the list, differences between the cached and the listed
+ * pods are delivered to the handlers as usual events. The events watch is shared in the same way,
+ * it is opened by the first events handler of the namespace and closed when the last one is
+ * unregistered.
+ *
+ * @see KubernetesDeployments
+ */
+public class SharedPodInformer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SharedPodInformer.class);
+
+  private static final long MIN_RESYNC_DELAY_MS = 1000;
+  private static final long MAX_RESYNC_DELAY_MS = 30_000;
+  private static final long POD_POLL_PERIOD_MS = 10_000;
+
+  private final KubernetesClientFactory clientFactory;
+  private final ConcurrentMap<String, NamespacePods> namespaces;
+  private final ScheduledExecutorService resyncExecutor;
+  private final long podPollPeriodMs;
+
+  public SharedPodInformer(KubernetesClientFactory clientFactory) {
+    this(clientFactory, POD_POLL_PERIOD_MS);
+  }
+
+  @VisibleForTesting
+  SharedPodInformer(KubernetesClientFactory clientFactory, long podPollPeriodMs) {
+    this.clientFactory = clientFactory;
+    this.podPollPeriodMs = podPollPeriodMs;
+    this.namespaces = new ConcurrentHashMap<>();
+    ScheduledThreadPoolExecutor executor =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder()
+                .setNameFormat("SharedPodInformer")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+    executor.setRemoveOnCancelPolicy(true);
+    this.resyncExecutor = executor;
+  }
+
+  /**
+   * Registers a handler of actions of the workspaces pods of the specified namespace.
+   *
+   * @param namespace namespace which pods should be watched
+   * @param workspaceId identifier of the workspace on behalf of which the namespace is watched
+   * @param handler pod actions handler
+   * @return registration which must be closed when the events are no longer needed
+   * @throws InfrastructureException when the namespace watch can't be started
+   */
+  public Registration watchPods(String namespace, String workspaceId, PodActionHandler handler)
+      throws InfrastructureException {
+    NamespacePods pods = acquire(namespace, workspaceId);
+    pods.podHandlers.add(handler);
+    return new Registration(pods, workspaceId, () -> pods.podHandlers.remove(handler));
+  }
+
+  /**
+   * Registers a handler of actions of the single pod. Besides the shared watch the pod is
+   * periodically requested by name, so the handler receives the pod state even if the watch misses
+   * its update or the pod is not labeled with a workspace identifier.
+   *
+   * @param namespace namespace of the pod
+   * @param workspaceId identifier of the workspace on behalf of which the pod is watched
+   * @param podName name of the pod to watch
+   * @param handler pod actions handler, may receive the same pod state several times
+   * @return registration which must be closed when the pod actions are no longer needed
+   * @throws InfrastructureException when the namespace watch can't be started
+   */
+  public Registration watchPod(
+      String namespace, String workspaceId, String podName, PodActionHandler handler)
+      throws InfrastructureException {
+    PodActionHandler podHandler =
+        (action, pod) -> {
+          if (podName.equals(pod.getMetadata().getName())) {
+            handler.handle(action, pod);
+          }
+        };
+    NamespacePods pods = acquire(namespace, workspaceId);
+    pods.podHandlers.add(podHandler);
+    ScheduledFuture<?> poll;
+    try {
+      poll =
+          resyncExecutor.scheduleWithFixedDelay(
+              () -> pollPod(namespace, workspaceId, podName, handler),
+              podPollPeriodMs,
+              podPollPeriodMs,
+              TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      pods.podHandlers.remove(podHandler);
+      release(pods, workspaceId);
+      throw new InfrastructureException("Pods of namespace '" + namespace + "' are not watched");
+    }
+    return new Registration(
+        pods,
+        workspaceId,
+        () -> {
+          poll.cancel(false);
+          pods.podHandlers.remove(podHandler);
+        });
+  }
+
+  /**
+   * Registers a handler of events of the specified namespace. Events are watched only while there
+   * is at least one registered events handler.
+   *
+   * @param namespace namespace which events should be watched
+   * @param workspaceId identifier of the workspace on behalf of which the namespace is watched
+   * @param handler events handler
+   * @return registration which must be closed when the events are no longer needed
+   * @throws InfrastructureException when the namespace watch can't be started
+   */
+  public Registration watchEvents(String namespace, String workspaceId, Consumer<Event> handler)
+      throws InfrastructureException {
+    NamespacePods pods = acquire(namespace, workspaceId);
+    try {
+      pods.addEventHandler(handler);
+    } catch (KubernetesClientException e) {
+      release(pods, workspaceId);
+      throw new KubernetesInfrastructureException(e);
+    } catch (InfrastructureException e) {
+      release(pods, workspaceId);
+      throw e;
+    }
+    return new Registration(pods, workspaceId, () -> pods.removeEventHandler(handler));
+  }
+
+  /**
+   * Returns the last known workspaces pods of the specified namespace mapped by pod names, or null
+   * if the namespace is not watched or its pods are being resynchronized. Pods without {@link
+   * org.eclipse.che.workspace.infrastructure.kubernetes.Constants#CHE_WORKSPACE_ID_LABEL} are never
+   * cached.
+   */
+  @Nullable
+  public Map<String, Pod> getPods(String namespace) {
+    NamespacePods pods = namespaces.get(namespace);
+    if (pods == null || !pods.synced) {
+      return null;
+    }
+    return Collections.unmodifiableMap(pods.pods);
+  }
+
+  /** Stops watching all the namespaces. */
+  public void shutdown() {
+    resyncExecutor.shutdownNow();
+    for (NamespacePods pods : new ArrayList<>(namespaces.values())) {
+      pods.close();
+    }
+    namespaces.clear();
+  }
+
+  /** Requests the pod by name and passes it to the handler if it exists. */
+  private void pollPod(
+      String namespace, String workspaceId, String podName, PodActionHandler handler) {
+    Pod pod;
+    try {
+      pod = clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(podName).get();
+    } catch (InfrastructureException | KubernetesClientException e) {
+      LOG.warn(
+          "Failed to get pod '{}' of namespace '{}'. Cause: {}",
+          podName,
+          namespace,
+          e.getMessage());
+      return;
+    }
+    if (pod != null) {
+      try {
+        handler.handle(Action.MODIFIED, pod);
+      } catch (RuntimeException e) {
+        LOG.error("Failed to handle action of pod '{}' in namespace '{}'", podName, namespace, e);
+      }
+    }
+  }
+
+  private NamespacePods acquire(String namespace, String workspaceId)
+      throws InfrastructureException {
+    while (true) {
+      NamespacePods pods = namespaces.computeIfAbsent(namespace, NamespacePods::new);
+      synchronized (pods) {
+        if (pods.closed) {
+          // the last registration has been closed concurrently, retry with a new watch
+          continue;
+        }
+        pods.workspaces.add(workspaceId);
+        if (pods.podWatcher == null) {
+          try {
+            pods.sync();
+          } catch (KubernetesClientException e) {
+            release(pods, workspaceId);
+            throw new KubernetesInfrastructureException(e);
+          } catch (InfrastructureException | RuntimeException e) {
+            release(pods, workspaceId);
+            throw e;
+          }
+        }
+      }
+      return pods;
+    }
+  }
+
+  private void release(NamespacePods pods, String workspaceId) {
+    boolean last;
+    synchronized (pods) {
+      pods.workspaces.remove(workspaceId);
+      last = pods.workspaces.isEmpty() && !pods.closed;
+      if (last) {
+        pods.closed = true;
+        namespaces.remove(pods.namespace, pods);
+      }
+    }
+    if (last) {
+      pods.close();
+    }
+  }
+
+  /** Registration of the handler of namespace events. */
+  public class Registration {
+
+    private final NamespacePods pods;
+    private final String workspaceId;
+    private final Runnable removeHandler;
+    private boolean closed;
+
+    private Registration(NamespacePods pods, String workspaceId, Runnable removeHandler) {
+      this.pods = pods;
+      this.workspaceId = workspaceId;
+      this.removeHandler = removeHandler;
+    }
+
+    /** Unregisters the handler, does nothing if the registration is already closed. */
+    public void close() {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+      }
+      removeHandler.run();
+      release(pods, workspaceId);
+    }
+  }
+
+  /** Watched pods of the single namespace. */
+  private class NamespacePods {
+
+    final String namespace;
+    final Map<String, Pod> pods = new ConcurrentHashMap<>();
+    final List<PodActionHandler> podHandlers = new CopyOnWriteArrayList<>();
+    final List<Consumer<Event>> eventHandlers = new CopyOnWriteArrayList<>();
+
+    // the following fields are guarded by this
+    final Multiset<String> workspaces = HashMultiset.create();
+    boolean closed;
+    Watch podWatch;
+    PodWatcher podWatcher;
+    Watch eventWatch;
+    EventWatcher eventWatcher;
+    int failures;
+    int eventFailures;
+
+    volatile boolean synced;
+
+    NamespacePods(String namespace) {
+      this.namespace = namespace;
+    }
+
+    /**
+     * Lists the pods, restarts the watch from the version of the list and delivers the differences
+     * with the previously cached pods to the handlers.
+     */
+    void sync() throws InfrastructureException {
+      List<Runnable> notifications = new ArrayList<>();
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        KubernetesClient client = client();
+        PodList list =
+            client.pods().inNamespace(namespace).withLabel(CHE_WORKSPACE_ID_LABEL).list();
+        Set<String> listed = new HashSet<>();
+        for (Pod pod : list.getItems()) {
+          String name = pod.getMetadata().getName();
+          listed.add(name);
+          Pod cached = pods.put(name, pod);
+          if (cached == null) {
+            notifications.add(() -> dispatch(Action.ADDED, pod));
+          } else if (!Objects.equals(
+              cached.getMetadata().getResourceVersion(), pod.getMetadata().getResourceVersion())) {
+            notifications.add(() -> dispatch(Action.MODIFIED, pod));
+          }
+        }
+        for (Pod cached : new ArrayList<>(pods.values())) {
+          if (!listed.contains(cached.getMetadata().getName())) {
+            pods.remove(cached.getMetadata().getName());
+            notifications.add(() -> dispatch(Action.DELETED, cached));
+          }
+        }
+        closeQuietly(podWatch);
+        podWatcher = new PodWatcher();
+        podWatch =
+            client
+                .pods()
+                .inNamespace(namespace)
+                .withLabel(CHE_WORKSPACE_ID_LABEL)
+                .watch(list.getMetadata().getResourceVersion(), podWatcher);
+        synced = true;
+        failures = 0;
+      }
+      // handlers are notified outside of the lock as they may unregister themselves
+      notifications.forEach(Runnable::run);
+    }
+
+    synchronized void addEventHandler(Consumer<Event> handler) throws InfrastructureException {
+      if (eventWatch == null) {
+        // replaces the watcher which may be waiting for restart
+        EventWatcher watcher = new EventWatcher();
+        eventWatch = client().events().inNamespace(namespace).watch(watcher);
+        eventWatcher = watcher;
+        eventFailures = 0;
+      }
+      eventHandlers.add(handler);
+    }
+
+    /** Unregisters the events handler, the events watch is closed with the last handler. */
+    void removeEventHandler(Consumer<Event> handler) {
+      Watch eventWatchToClose = null;
+      synchronized (this) {
+        eventHandlers.remove(handler);
+        if (eventHandlers.isEmpty()) {
+          eventWatchToClose = eventWatch;
+          eventWatch = null;
+          eventWatcher = null;
+        }
+      }
+      closeQuietly(eventWatchToClose);
+    }
+
+    void close() {
+      Watch podWatchToClose;
+      Watch eventWatchToClose;
+      synchronized (this) {
+        closed = true;
+        synced = false;
+        podWatchToClose = podWatch;
+        eventWatchToClose = eventWatch;
+        podWatch = null;
+        podWatcher = null;
+        eventWatch = null;
+        eventWatcher = null;
+      }
+      closeQuietly(podWatchToClose);
+      closeQuietly(eventWatchToClose);
+      pods.clear();
+    }
+
+    void dispatch(Action action, Pod pod) {
+      for (PodActionHandler handler : podHandlers) {
+        try {
+          handler.handle(action, pod);
+        } catch (RuntimeException e) {
+          LOG.error(
+              "Failed to handle action of pod '{}' in namespace '{}'",
+              pod.getMetadata().getName(),
+              namespace,
+              e);
+        }
+      }
+    }
+
+    /** Schedules resynchronization of the namespace, delays grow with the number of failures. */
+    synchronized void scheduleSync() {
+      if (closed || resyncExecutor.isShutdown()) {
+        return;
+      }
+      long delay = Math.min(MAX_RESYNC_DELAY_MS, MIN_RESYNC_DELAY_MS << Math.min(failures, 5));
+      resyncExecutor.schedule(
+          () -> {
+            try {
+              sync();
+            } catch (InfrastructureException | KubernetesClientException e) {
+              LOG.warn(
+                  "Failed to resynchronize pods of namespace '{}'. Cause: {}",
+                  namespace,
+                  e.getMessage());
+              synchronized (this) {
+                failures++;
+              }
+              scheduleSync();
+            }
+          },
+          delay,
+          TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules restart of the events watch, delays grow with the number of failures. Nothing
+     * happens if the watcher is replaced or removed meanwhile.
+     */
+    synchronized void scheduleEventsRestart(EventWatcher watcher) {
+      if (closed || watcher != eventWatcher || resyncExecutor.isShutdown()) {
+        return;
+      }
+      long delay = Math.min(MAX_RESYNC_DELAY_MS, MIN_RESYNC_DELAY_MS << Math.min(eventFailures, 5));
+      resyncExecutor.schedule(() -> restartEvents(watcher), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void restartEvents(EventWatcher watcher) {
+      synchronized (this) {
+        if (closed || watcher != eventWatcher) {
+          return;
+        }
+        try {
+          eventWatch = client().events().inNamespace(namespace).watch(watcher);
+          eventFailures = 0;
+          return;
+        } catch (InfrastructureException | KubernetesClientException e) {
+          LOG.warn(
+              "Failed to restart events watch of namespace '{}'. Cause: {}",
+              namespace,
+              e.getMessage());
+          eventFailures++;
+        }
+      }
+      scheduleEventsRestart(watcher);
+    }
+
+    /** Returns client of any workspace that currently uses the namespace. */
+    private KubernetesClient client() throws InfrastructureException {
+      return clientFactory.create(workspaces.iterator().next());
+    }
+
+    private void closeQuietly(Watch watch) {
+      if (watch != null) {
+        try {
+          watch.close();
+        } catch (KubernetesClientException e) {
+          LOG.error(
+              "Failed to stop watcher for namespace '{}' cause '{}'", namespace, e.getMessage());
+        }
+      }
+    }
+
+    private class PodWatcher implements Watcher<Pod> {
+
+      @Override
+      public void eventReceived(Action action, Pod pod) {
+        synchronized (NamespacePods.this) {
+          if (this != podWatcher || closed) {
+            // events of the replaced watch
+            return;
+          }
+          if (action == Action.DELETED) {
+            pods.remove(pod.getMetadata().getName());
+          } else {
+            pods.put(pod.getMetadata().getName(), pod);
+          }
+        }
+        dispatch(action, pod);
+      }
+
+      @Override
+      public void onClose(KubernetesClientException cause) {
+        synchronized (NamespacePods.this) {
+          if (cause == null || this != podWatcher) {
+            // closed by the informer
+            return;
+          }
+          synced = false;
+        }
+        LOG.warn(
+            "Pods watch of namespace '{}' is closed, resynchronizing. Cause: {}",
+            namespace,
+            cause.getMessage());
+        scheduleSync();
+      }
+    }
+
+    private class EventWatcher implements Watcher<Event> {
+
+      @Override
+      public void eventReceived(Action action, Event event) {
+        for (Consumer<Event> handler : eventHandlers) {
+          try {
+            handler.accept(event);
+          } catch (RuntimeException e) {
+            LOG.error("Failed to handle event in namespace '{}'", namespace, e);
+          }
+        }
+      }
+
+      @Override
+      public void onClose(KubernetesClientException cause) {
+        synchronized (NamespacePods.this) {
+          if (cause == null || this != eventWatcher) {
+            // closed by the informer
+            return;
+          }
+          // the next events handler reopens the watch if it is not restarted yet
+          eventWatch = null;
+        }
+        LOG.warn(
+            "Events watch of namespace '{}' is closed, restarting. Cause: {}",
+            namespace,
+            cause.getMessage());
+        scheduleEventsRestart(this);
+      }
+    }
+  }
+}
@@ -12,7 +12,10 @@
 package org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc;
 
 import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_PVC_JOB_LABEL;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesObjectUtil.newVolume;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesObjectUtil.newVolumeMount;
 
@@ -21,23 +24,39 @@ import com.google.common.base.Predicate;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.DoneablePod;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.PodStatus;
 import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
-import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesDeployments;
+import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFactory;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesNamespaceFactory;
 import org.eclipse.che.workspace.infrastructure.kubernetes.provision.SecurityContextProvisioner;
 import org.slf4j.Logger;
@@ -50,6 +69,11 @@ import org.slf4j.LoggerFactory;
  * command (either {@code mkdir -p <path>} or {@code rm -rf <path>}). Reports back whether the pod
  * succeeded or failed. Supports multiple paths for one command.
  *
+ * <p>At most {@link #MAX_RUNNING_BATCHES} job pods run per namespace at a time. Requests which come
+ * while they are running are queued and then executed together by the next pod, so the number of
+ * job pods doesn't grow with the number of starting and removed workspaces. Each request is
+ * completed as soon as the pod which executed it is finished.
+ *
  * <p>Note that the commands execution is needed only for {@link CommonPVCStrategy}.
  *
  * @author amisevsk
@@ -63,10 +87,15 @@ public class PVCSubPathHelper {
 
   static final int COUNT_THREADS = 4;
   static final int WAIT_POD_TIMEOUT_MIN = 5;
+  static final int MAX_BATCH_SIZE = 50;
+  /** Max number of job pods which run in the same namespace at once. */
+  static final int MAX_RUNNING_BATCHES = COUNT_THREADS;
 
   static final String[] RM_COMMAND_BASE = new String[] {"rm", "-rf"};
   static final String[] MKDIR_COMMAND_BASE = new String[] {"mkdir", "-p"};
 
+  static final String BATCH_POD_NAME_PREFIX = "pvc-jobs-";
+  static final String JOB_LABEL_VALUE = "true";
   static final String IMAGE_PULL_POLICY = "IfNotPresent";
   static final String POD_RESTART_POLICY = "Never";
   static final String POD_PHASE_SUCCEEDED = "Succeeded";
@@ -77,8 +106,12 @@ public class PVCSubPathHelper {
   private final String jobImage;
   private final String jobMemoryLimit;
   private final KubernetesNamespaceFactory factory;
+  private final KubernetesClientFactory clientFactory;
   private final ExecutorService executor;
 
+  /** Namespace name -> jobs which are waiting for execution or executed in the namespace. */
+  private final Map<String, NamespaceJobs> namespaceJobs;
+
   private final SecurityContextProvisioner securityContextProvisioner;
 
   @Inject
@@ -87,12 +120,15 @@ public class PVCSubPathHelper {
       @Named("che.infra.kubernetes.pvc.jobs.memorylimit") String jobMemoryLimit,
       @Named("che.infra.kubernetes.pvc.jobs.image") String jobImage,
       KubernetesNamespaceFactory factory,
+      KubernetesClientFactory clientFactory,
       SecurityContextProvisioner securityContextProvisioner) {
     this.pvcName = pvcName;
     this.jobMemoryLimit = jobMemoryLimit;
     this.jobImage = jobImage;
     this.factory = factory;
+    this.clientFactory = clientFactory;
     this.securityContextProvisioner = securityContextProvisioner;
+    this.namespaceJobs = new HashMap<>();
     this.executor =
         Executors.newFixedThreadPool(
             COUNT_THREADS,
@@ -118,32 +154,145 @@ public class PVCSubPathHelper {
    *
    * @param workspaceId workspace identifier
    * @param dirs workspace directories to remove
+   * @return future which is completed when the job is finished
    */
   CompletableFuture<Void> removeDirsAsync(String workspaceId, String... dirs) {
-    return CompletableFuture.runAsync(
-        ThreadLocalPropagateContext.wrap(() -> execute(workspaceId, RM_COMMAND_BASE, dirs)),
-        executor);
+    return submit(workspaceId, RM_COMMAND_BASE, dirs);
   }
 
   /**
-   * Executes the job with the specified arguments.
+   * Executes the job with the specified arguments and waits until it finished.
    *
    * @param commandBase the command base to execute
    * @param arguments the list of arguments for the specified job
    */
   @VisibleForTesting
   void execute(String workspaceId, String[] commandBase, String... arguments) {
-    final String jobName = commandBase[0];
-    final String podName = jobName + '-' + workspaceId;
-    final String[] command = buildCommand(commandBase, arguments);
+    try {
+      submit(workspaceId, commandBase, arguments).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      LOG.warn(
+          "Interrupted while waiting for '{}' command for the workspace '{}'",
+          Arrays.toString(commandBase),
+          workspaceId);
+    } catch (ExecutionException ex) {
+      LOG.error(
+          "Unable to perform '{}' command for the workspace '{}' cause: '{}'",
+          Arrays.toString(commandBase),
+          workspaceId,
+          ex.getCause().getMessage());
+    }
+  }
+
+  /**
+   * Queues the job with the specified arguments, the job is started immediately when less than
+   * {@link #MAX_RUNNING_BATCHES} job pods are running in the workspace namespace.
+   */
+  private CompletableFuture<Void> submit(
+      String workspaceId, String[] commandBase, String... arguments) {
+    final JobRequest request = new JobRequest(workspaceId, commandBase, arguments);
+    final String namespace = factory.getNamespaceName(workspaceId);
+    synchronized (namespaceJobs) {
+      namespaceJobs.computeIfAbsent(namespace, key -> new NamespaceJobs()).queue.add(request);
+    }
+    startBatches(namespace);
+    return request.future;
+  }
+
+  /**
+   * Takes the queued jobs of the namespace and executes them in batches, each batch in a single
+   * pod, while the number of running batches doesn't exceed the limit. The namespace jobs are
+   * removed when nothing is queued and running, so the next submitted job is started immediately.
+   */
+  private void startBatches(String namespace) {
+    final List<List<JobRequest>> batches = new ArrayList<>();
+    synchronized (namespaceJobs) {
+      final NamespaceJobs jobs = namespaceJobs.get(namespace);
+      if (jobs == null) {
+        // queued jobs are already taken by the batch which has just finished
+        return;
+      }
+      while (jobs.running < MAX_RUNNING_BATCHES && !jobs.queue.isEmpty()) {
+        final List<JobRequest> batch = new ArrayList<>();
+        while (!jobs.queue.isEmpty() && batch.size() < MAX_BATCH_SIZE) {
+          batch.add(jobs.queue.poll());
+        }
+        jobs.running++;
+        batches.add(batch);
+      }
+      if (jobs.running == 0) {
+        namespaceJobs.remove(namespace);
+      }
+    }
+    for (List<JobRequest> batch : batches) {
+      try {
+        executor.execute(ThreadLocalPropagateContext.wrap(() -> executeBatch(namespace, batch)));
+      } catch (RejectedExecutionException ex) {
+        synchronized (namespaceJobs) {
+          final NamespaceJobs jobs = namespaceJobs.get(namespace);
+          if (jobs != null) {
+            batch.addAll(jobs.queue);
+            jobs.queue.clear();
+            if (--jobs.running == 0) {
+              namespaceJobs.remove(namespace);
+            }
+          }
+        }
+        batch.forEach(request -> request.future.completeExceptionally(ex));
+      }
+    }
+  }
+
+  private void executeBatch(String namespace, List<JobRequest> batch) {
+    final long startedNanos = System.nanoTime();
+    try {
+      doExecute(namespace, batch);
+    } finally {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(
+            "Executed {} PVC job(s) in namespace '{}' within {}ms, the longest queue wait is {}ms",
+            batch.size(),
+            namespace,
+            NANOSECONDS.toMillis(System.nanoTime() - startedNanos),
+            NANOSECONDS.toMillis(startedNanos - batch.get(0).submittedNanos));
+      }
+      batch.forEach(request -> request.future.complete(null));
+      synchronized (namespaceJobs) {
+        namespaceJobs.get(namespace).running--;
+      }
+      startBatches(namespace);
+    }
+  }
+
+  /**
+   * Executes the given jobs in a single pod, jobs are executed in order of their submission. The
+   * pod is created with the plain client and isn't labeled with a workspace identifier, so it is
+   * never seen or removed as a pod of any of the workspaces.
+   */
+  private void doExecute(String namespace, List<JobRequest> batch) {
+    final JobRequest first = batch.get(0);
+    final String podName;
+    final String[] command;
+    if (batch.size() == 1) {
+      // name is unique, so the job doesn't wait for removal of the previous pod of the workspace
+      podName = NameGenerator.generate(first.commandBase[0] + '-' + first.workspaceId + '-', 4);
+      command = buildCommand(first.commandBase, first.arguments);
+    } else {
+      podName = NameGenerator.generate(BATCH_POD_NAME_PREFIX, 8);
+      command = buildBatchCommand(batch);
+    }
     final Pod pod = newPod(podName, command);
     securityContextProvisioner.provision(pod);
 
-    KubernetesDeployments deployments = null;
+    PodResource<Pod, DoneablePod> podResource = null;
     try {
-      deployments = factory.create(workspaceId).deployments();
-      deployments.create(pod);
-      final Pod finished = deployments.wait(podName, WAIT_POD_TIMEOUT_MIN, POD_PREDICATE::apply);
+      // prepares the namespace of the workspace
+      factory.create(first.workspaceId);
+      final KubernetesClient client = clientFactory.create(first.workspaceId);
+      client.pods().inNamespace(namespace).create(pod);
+      podResource = client.pods().inNamespace(namespace).withName(podName);
+      final Pod finished = waitFinished(podResource, podName);
       PodStatus finishedStatus = finished.getStatus();
       if (POD_PHASE_FAILED.equals(finishedStatus.getPhase())) {
         LOG.error(
@@ -151,22 +300,80 @@ public class PVCSubPathHelper {
             Arrays.toString(command),
             finishedStatus);
       }
-    } catch (InfrastructureException ex) {
+    } catch (InfrastructureException | KubernetesClientException ex) {
       LOG.error(
           "Unable to perform '{}' command for the workspace '{}' cause: '{}'",
           Arrays.toString(command),
-          workspaceId,
+          first.workspaceId,
           ex.getMessage());
     } finally {
-      if (deployments != null) {
+      if (podResource != null) {
         try {
-          deployments.delete(podName);
-        } catch (InfrastructureException ignored) {
+          podResource.delete();
+        } catch (KubernetesClientException ex) {
+          LOG.warn("Unable to remove job pod '{}' cause: '{}'", podName, ex.getMessage());
         }
       }
     }
   }
 
+  /** Waits until the job pod is finished, fails if it is not finished in time. */
+  private Pod waitFinished(PodResource<Pod, DoneablePod> podResource, String podName)
+      throws InfrastructureException {
+    final CompletableFuture<Pod> future = new CompletableFuture<>();
+    try (Watch ignored =
+        podResource.watch(
+            new Watcher<Pod>() {
+              @Override
+              public void eventReceived(Action action, Pod pod) {
+                if (POD_PREDICATE.apply(pod)) {
+                  future.complete(pod);
+                }
+              }
+
+              @Override
+              public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                  future.completeExceptionally(cause);
+                }
+              }
+            })) {
+      // the pod may be finished before the watch is started
+      final Pod pod = podResource.get();
+      if (pod == null) {
+        throw new InfrastructureException("Job pod '" + podName + "' doesn't exist");
+      }
+      if (POD_PREDICATE.apply(pod)) {
+        return pod;
+      }
+      return future.get(WAIT_POD_TIMEOUT_MIN, MINUTES);
+    } catch (ExecutionException ex) {
+      throw new InfrastructureException(ex.getCause().getMessage(), ex);
+    } catch (TimeoutException ex) {
+      throw new InfrastructureException("Waiting for pod '" + podName + "' reached timeout");
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InfrastructureException("Waiting for pod '" + podName + "' was interrupted");
+    }
+  }
+
+  /**
+   * Builds the shell command which executes the commands of all the given jobs one by one. Failure
+   * of one command doesn't prevent execution of the others, but fails the whole pod.
+   */
+  @VisibleForTesting
+  String[] buildBatchCommand(List<JobRequest> batch) {
+    final StringBuilder script = new StringBuilder("rc=0;");
+    for (JobRequest request : batch) {
+      for (String arg : buildCommand(request.commandBase, request.arguments)) {
+        script.append(" '").append(arg.replace("'", "'\\''")).append('\'');
+      }
+      script.append(" || rc=1;");
+    }
+    script.append(" exit $rc");
+    return new String[] {"sh", "-c", script.toString()};
+  }
+
   /**
    * Builds the command by given base and paths.
    *
@@ -220,6 +427,7 @@ public class PVCSubPathHelper {
     return new PodBuilder()
         .withNewMetadata()
         .withName(podName)
+        .withLabels(singletonMap(CHE_PVC_JOB_LABEL, JOB_LABEL_VALUE))
         .endMetadata()
         .withNewSpec()
         .withContainers(container)
@@ -229,6 +437,30 @@ public class PVCSubPathHelper {
         .build();
   }
 
+  /** Job which is waiting for execution. */
+  @VisibleForTesting
+  static class JobRequest {
+    final String workspaceId;
+    final String[] commandBase;
+    final String[] arguments;
+    final long submittedNanos;
+    final CompletableFuture<Void> future;
+
+    JobRequest(String workspaceId, String[] commandBase, String[] arguments) {
+      this.workspaceId = workspaceId;
+      this.commandBase = commandBase;
+      this.arguments = arguments;
+      this.submittedNanos = System.nanoTime();
+      this.future = new CompletableFuture<>();
+    }
+  }
+
+  /** Jobs of the single namespace, guarded by the namespace jobs map. */
+  private static class NamespaceJobs {
+    final Queue<JobRequest> queue = new ArrayDeque<>();
+    int running;
+  }
+
   /** Checks whether pod is Failed or Successfully finished command execution */
   static class JobFinishedPredicate implements Predicate<Pod> {
     @Override
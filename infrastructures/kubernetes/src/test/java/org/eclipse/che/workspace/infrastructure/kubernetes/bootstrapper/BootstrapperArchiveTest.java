@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.kubernetes.bootstrapper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link BootstrapperArchive}. */
+public class BootstrapperArchiveTest {
+
+  private static final byte[] BINARY = "binary content".getBytes(UTF_8);
+  private static final byte[] CONFIG = "[{\"id\":\"installer\"}]".getBytes(UTF_8);
+
+  private Path binaryArchive;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    binaryArchive = Files.createTempFile("bootstrapper", ".tar.gz");
+    try (OutputStream out = Files.newOutputStream(binaryArchive);
+        TarArchiveOutputStream tarOut = new TarArchiveOutputStream(new GZIPOutputStream(out))) {
+      tarOut.putArchiveEntry(new TarArchiveEntry("bootstrapper/"));
+      tarOut.closeArchiveEntry();
+      TarArchiveEntry binary = new TarArchiveEntry("bootstrapper/bootstrapper");
+      binary.setSize(BINARY.length);
+      binary.setMode(0100755);
+      tarOut.putArchiveEntry(binary);
+      tarOut.write(BINARY);
+      tarOut.closeArchiveEntry();
+    }
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(binaryArchive);
+  }
+
+  @Test
+  public void shouldCreateArchiveWithBinaryAndConfig() throws Exception {
+    BootstrapperArchive archive = new BootstrapperArchive(binaryArchive.toUri().toURL());
+
+    byte[] content = IOUtils.toByteArray(archive.create("bootstrapper/config.json", CONFIG));
+
+    assertTrue(archive.containsBinary());
+    assertEquals(content.length % (20 * 512), 0);
+    try (TarArchiveInputStream tarIn =
+        new TarArchiveInputStream(new ByteArrayInputStream(content))) {
+      TarArchiveEntry entry = tarIn.getNextTarEntry();
+      assertEquals(entry.getName(), "bootstrapper/");
+      assertTrue(entry.isDirectory());
+
+      entry = tarIn.getNextTarEntry();
+      assertEquals(entry.getName(), "bootstrapper/bootstrapper");
+      assertEquals(entry.getMode(), 0100755);
+      assertEquals(IOUtils.toByteArray(tarIn), BINARY);
+
+      entry = tarIn.getNextTarEntry();
+      assertEquals(entry.getName(), "bootstrapper/config.json");
+      assertEquals(IOUtils.toByteArray(tarIn), CONFIG);
+
+      assertNull(tarIn.getNextTarEntry());
+    }
+  }
+
+  @Test
+  public void shouldCreateArchiveWithConfigOnlyIfBinaryIsNotAvailable() throws Exception {
+    BootstrapperArchive archive = new BootstrapperArchive(null);
+
+    byte[] content = IOUtils.toByteArray(archive.create("bootstrapper/config.json", CONFIG));
+
+    assertFalse(archive.containsBinary());
+    assertEquals(content.length % (20 * 512), 0);
+    try (TarArchiveInputStream tarIn =
+        new TarArchiveInputStream(new ByteArrayInputStream(content))) {
+      TarArchiveEntry entry = tarIn.getNextTarEntry();
+      assertEquals(entry.getName(), "bootstrapper/config.json");
+      assertEquals(IOUtils.toByteArray(tarIn), CONFIG);
+      assertNull(tarIn.getNextTarEntry());
+    }
+  }
+}
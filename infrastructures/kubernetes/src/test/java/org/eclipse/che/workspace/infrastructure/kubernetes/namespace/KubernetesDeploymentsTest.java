@@ -11,27 +11,47 @@
  */
 package org.eclipse.che.workspace.infrastructure.kubernetes.namespace;
 
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_WORKSPACE_ID_LABEL;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.POD_STATUS_PHASE_FAILED;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.POD_STATUS_PHASE_RUNNING;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.POD_STATUS_PHASE_SUCCEEDED;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import io.fabric8.kubernetes.api.model.DoneableEvent;
 import io.fabric8.kubernetes.api.model.DoneablePod;
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.EventList;
+import io.fabric8.kubernetes.api.model.ListMeta;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.api.model.PodStatus;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
@@ -39,6 +59,7 @@ import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFacto
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
@@ -59,6 +80,16 @@ public class KubernetesDeploymentsTest {
 
   @Mock private ObjectMeta metadata;
 
+  @Mock private FilterWatchListDeletable<Pod, PodList, Boolean, Watch, Watcher<Pod>> workspacePods;
+
+  @Mock private PodList podList;
+
+  @Mock private ListMeta podListMetadata;
+
+  @Mock private NonNamespaceOperation namespaceOperation;
+
+  private SharedPodInformer podInformer;
+
   private ArgumentCaptor<Watcher> watcherCaptor;
 
   private Watcher watcher;
@@ -76,11 +107,14 @@ public class KubernetesDeploymentsTest {
     when(clientFactory.create(anyString())).thenReturn(kubernetesClient);
 
     final MixedOperation mixedOperation = mock(MixedOperation.class);
-    final NonNamespaceOperation namespaceOperation = mock(NonNamespaceOperation.class);
     doReturn(mixedOperation).when(kubernetesClient).pods();
     when(mixedOperation.withName(anyString())).thenReturn(podResource);
     when(mixedOperation.inNamespace(anyString())).thenReturn(namespaceOperation);
     when(namespaceOperation.withName(anyString())).thenReturn(podResource);
+    when(namespaceOperation.withLabel(CHE_WORKSPACE_ID_LABEL)).thenReturn(workspacePods);
+    when(workspacePods.list()).thenReturn(podList);
+    when(podList.getMetadata()).thenReturn(podListMetadata);
+    when(podListMetadata.getResourceVersion()).thenReturn("1");
 
     when(pod.getStatus()).thenReturn(status);
     when(pod.getMetadata()).thenReturn(metadata);
@@ -88,7 +122,14 @@ public class KubernetesDeploymentsTest {
     when(podResource.getLog()).thenReturn("Pod fail log");
     watcherCaptor = ArgumentCaptor.forClass(Watcher.class);
 
-    kubernetesDeployments = new KubernetesDeployments("namespace", "workspace123", clientFactory);
+    podInformer = new SharedPodInformer(clientFactory);
+    kubernetesDeployments =
+        new KubernetesDeployments("namespace", "workspace123", clientFactory, podInformer);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    podInformer.shutdown();
   }
 
   @Test
@@ -98,7 +139,7 @@ public class KubernetesDeploymentsTest {
     CompletableFuture future = kubernetesDeployments.waitRunningAsync(POD_NAME);
 
     // when
-    verify(podResource).watch(watcherCaptor.capture());
+    verify(workspacePods).watch(eq("1"), watcherCaptor.capture());
     watcher = watcherCaptor.getValue();
     watcher.eventReceived(Watcher.Action.MODIFIED, pod);
 
@@ -113,7 +154,7 @@ public class KubernetesDeploymentsTest {
     CompletableFuture future = kubernetesDeployments.waitRunningAsync(POD_NAME);
 
     // when
-    verify(podResource).watch(watcherCaptor.capture());
+    verify(workspacePods).watch(eq("1"), watcherCaptor.capture());
     watcher = watcherCaptor.getValue();
     watcher.eventReceived(Watcher.Action.MODIFIED, pod);
 
@@ -137,7 +178,7 @@ public class KubernetesDeploymentsTest {
     CompletableFuture future = kubernetesDeployments.waitRunningAsync(POD_NAME);
 
     // when
-    verify(podResource).watch(watcherCaptor.capture());
+    verify(workspacePods).watch(eq("1"), watcherCaptor.capture());
     watcher = watcherCaptor.getValue();
     watcher.eventReceived(Watcher.Action.MODIFIED, pod);
 
@@ -160,7 +201,7 @@ public class KubernetesDeploymentsTest {
     CompletableFuture future = kubernetesDeployments.waitRunningAsync(POD_NAME);
 
     // when
-    verify(podResource).watch(watcherCaptor.capture());
+    verify(workspacePods).watch(eq("1"), watcherCaptor.capture());
     watcher = watcherCaptor.getValue();
     watcher.eventReceived(Watcher.Action.MODIFIED, pod);
 
@@ -187,7 +228,7 @@ public class KubernetesDeploymentsTest {
         .create();
 
     // when
-    verify(podResource).watch(watcherCaptor.capture());
+    verify(workspacePods).watch(eq("1"), watcherCaptor.capture());
     watcher = watcherCaptor.getValue();
     watcher.eventReceived(Watcher.Action.MODIFIED, pod);
 
@@ -201,4 +242,143 @@ public class KubernetesDeploymentsTest {
           "Pod 'podName' failed to start. Error occurred while fetching pod logs.");
     }
   }
+
+  @Test
+  public void shouldWatchNamespaceOnceForAllWaitingOperations() throws Exception {
+    kubernetesDeployments.waitRunningAsync(POD_NAME);
+    new KubernetesDeployments("namespace", "workspace456", clientFactory, podInformer)
+        .waitRunningAsync(POD_NAME);
+
+    verify(workspacePods).list();
+    verify(workspacePods).watch(eq("1"), any());
+  }
+
+  @Test
+  public void shouldServePodsFromInformerCacheWhileNamespaceIsWatched() throws Exception {
+    when(metadata.getLabels()).thenReturn(singletonMap(CHE_WORKSPACE_ID_LABEL, "workspace123"));
+    kubernetesDeployments.watch((action, pod) -> {});
+    verify(workspacePods).watch(eq("1"), watcherCaptor.capture());
+    watcherCaptor.getValue().eventReceived(Watcher.Action.ADDED, pod);
+
+    assertEquals(kubernetesDeployments.get(), singletonList(pod));
+    assertEquals(kubernetesDeployments.get(POD_NAME), Optional.of(pod));
+    verify(workspacePods).list();
+    verify(podResource, never()).get();
+  }
+
+  @Test
+  public void shouldRequestPodsWhenInformerCacheHasNoPodsOfWorkspace() throws Exception {
+    FilterWatchListDeletable<Pod, PodList, Boolean, Watch, Watcher<Pod>> listed =
+        mock(FilterWatchListDeletable.class);
+    PodList listedPods = mock(PodList.class);
+    when(namespaceOperation.withLabel(CHE_WORKSPACE_ID_LABEL, "workspace123")).thenReturn(listed);
+    when(listed.list()).thenReturn(listedPods);
+    when(listedPods.getItems()).thenReturn(singletonList(pod));
+    kubernetesDeployments.watch((action, pod) -> {});
+
+    assertEquals(kubernetesDeployments.get(), singletonList(pod));
+  }
+
+  @Test
+  public void shouldWatchPodByNameWhenItIsNotSeenByInformer() throws Exception {
+    when(podResource.get()).thenReturn(pod);
+    when(podResource.delete()).thenReturn(true);
+
+    CompletableFuture<Void> deleted = kubernetesDeployments.doDelete(POD_NAME);
+
+    verify(podResource).watch(watcherCaptor.capture());
+    verify(workspacePods, never()).watch(anyString(), any());
+    assertFalse(deleted.isDone());
+    watcherCaptor.getValue().eventReceived(Watcher.Action.DELETED, pod);
+    assertTrue(deleted.isDone());
+  }
+
+  @Test
+  public void shouldStopWatchingNamespaceWhenLastWatcherIsStopped() throws Exception {
+    Watch watch = mock(Watch.class);
+    when(workspacePods.watch(anyString(), any())).thenReturn(watch);
+    kubernetesDeployments.watch((action, pod) -> {});
+    CompletableFuture<Void> future = kubernetesDeployments.waitRunningAsync(POD_NAME);
+
+    kubernetesDeployments.stopWatch();
+    verify(watch, never()).close();
+    future.cancel(true);
+
+    verify(watch).close();
+  }
+
+  @Test
+  public void shouldRequestWaitingPodByNameWhenWatchMissesItsUpdate() throws Exception {
+    Pod pendingPod = mock(Pod.class);
+    when(pendingPod.getStatus()).thenReturn(mock(PodStatus.class));
+    when(podResource.get()).thenReturn(pendingPod, pendingPod, pod);
+    when(status.getPhase()).thenReturn(POD_STATUS_PHASE_RUNNING);
+    podInformer.shutdown();
+    podInformer = new SharedPodInformer(clientFactory, 50);
+    kubernetesDeployments =
+        new KubernetesDeployments("namespace", "workspace123", clientFactory, podInformer);
+
+    CompletableFuture<Void> future = kubernetesDeployments.waitRunningAsync(POD_NAME);
+
+    future.get(5, SECONDS);
+  }
+
+  @Test
+  public void shouldCloseEventsWatchWhenLastEventsHandlerIsRemoved() throws Exception {
+    NonNamespaceOperation<Event, EventList, DoneableEvent, Resource<Event, DoneableEvent>> events =
+        mockEvents();
+    Watch eventsWatch = mock(Watch.class);
+    when(events.watch(any())).thenReturn(eventsWatch);
+    kubernetesDeployments.watchEvents(event -> {});
+
+    kubernetesDeployments.stopWatch();
+
+    verify(eventsWatch).close();
+  }
+
+  @Test
+  public void shouldReopenEventsWatchIfItCanNotBeRestarted() throws Exception {
+    NonNamespaceOperation<Event, EventList, DoneableEvent, Resource<Event, DoneableEvent>> events =
+        mockEvents();
+    when(events.watch(any()))
+        .thenReturn(mock(Watch.class))
+        .thenThrow(new KubernetesClientException("Unavailable"))
+        .thenReturn(mock(Watch.class));
+    kubernetesDeployments.watchEvents(event -> {});
+    verify(events).watch(watcherCaptor.capture());
+
+    watcherCaptor.getValue().onClose(new KubernetesClientException("Closed"));
+    verify(events, timeout(5000).times(2)).watch(any());
+    new KubernetesDeployments("namespace", "workspace456", clientFactory, podInformer)
+        .watchEvents(event -> {});
+
+    verify(events, times(3)).watch(any());
+  }
+
+  @Test
+  public void shouldRetryRestartOfEventsWatch() throws Exception {
+    NonNamespaceOperation<Event, EventList, DoneableEvent, Resource<Event, DoneableEvent>> events =
+        mockEvents();
+    when(events.watch(any()))
+        .thenReturn(mock(Watch.class))
+        .thenThrow(new KubernetesClientException("Unavailable"))
+        .thenReturn(mock(Watch.class));
+    kubernetesDeployments.watchEvents(event -> {});
+    verify(events).watch(watcherCaptor.capture());
+
+    watcherCaptor.getValue().onClose(new KubernetesClientException("Closed"));
+
+    verify(events, timeout(10_000).times(3)).watch(watcherCaptor.getValue());
+  }
+
+  private NonNamespaceOperation<Event, EventList, DoneableEvent, Resource<Event, DoneableEvent>>
+      mockEvents() {
+    MixedOperation<Event, EventList, DoneableEvent, Resource<Event, DoneableEvent>> mixed =
+        mock(MixedOperation.class);
+    NonNamespaceOperation<Event, EventList, DoneableEvent, Resource<Event, DoneableEvent>> events =
+        mock(NonNamespaceOperation.class);
+    doReturn(mixed).when(kubernetesClient).events();
+    when(mixed.inNamespace(anyString())).thenReturn(events);
+    return events;
+  }
 }
@@ -11,6 +11,7 @@
  */
 package org.eclipse.che.workspace.infrastructure.kubernetes.namespace;
 
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_WORKSPACE_ID_LABEL;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
@@ -30,6 +31,7 @@ import io.fabric8.kubernetes.api.model.Namespace;
 import io.fabric8.kubernetes.api.model.NamespaceFluent.MetadataNested;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodListBuilder;
 import io.fabric8.kubernetes.api.model.ServiceAccount;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
@@ -37,6 +39,7 @@ import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.Watcher.Action;
 import io.fabric8.kubernetes.client.dsl.ExtensionsAPIGroupDSL;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.PodResource;
@@ -49,6 +52,7 @@ import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesInfrastruct
 import org.mockito.Mock;
 import org.mockito.stubbing.Answer;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
@@ -88,6 +92,9 @@ public class KubernetesNamespaceTest {
   @Mock private Pod pod;
   @Mock private ObjectMeta podMetadata;
 
+  @Mock private FilterWatchListDeletable workspacePods;
+
+  private SharedPodInformer podInformer;
   private KubernetesNamespace k8sNamespace;
 
   @BeforeMethod
@@ -110,6 +117,10 @@ public class KubernetesNamespaceTest {
     doReturn(podResource).when(podsNamespaceOperation).withName(anyString());
     doReturn(pod).when(podResource).get();
     doReturn(podMetadata).when(pod).getMetadata();
+    doReturn(workspacePods).when(podsNamespaceOperation).withLabel(CHE_WORKSPACE_ID_LABEL);
+    doReturn(new PodListBuilder().withNewMetadata().withResourceVersion("1").endMetadata().build())
+        .when(workspacePods)
+        .list();
 
     doReturn(extensions).when(kubernetesClient).extensions();
     doReturn(deploymentsMixedOperation).when(extensions).deployments();
@@ -118,6 +129,7 @@ public class KubernetesNamespaceTest {
         .inNamespace(anyString());
     doReturn(deploymentResource).when(deploymentsNamespaceOperation).withName(anyString());
 
+    podInformer = new SharedPodInformer(clientFactory);
     k8sNamespace =
         new KubernetesNamespace(
             clientFactory,
@@ -131,11 +143,17 @@ public class KubernetesNamespaceTest {
             configMaps);
   }
 
+  @AfterMethod
+  public void tearDown() {
+    podInformer.shutdown();
+  }
+
   @Test
   public void testKubernetesNamespacePreparingWhenNamespaceExists() throws Exception {
     // given
     prepareNamespace(NAMESPACE);
-    KubernetesNamespace namespace = new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID);
+    KubernetesNamespace namespace =
+        new KubernetesNamespace(clientFactory, podInformer, NAMESPACE, WORKSPACE_ID);
 
     // when
     namespace.prepare();
@@ -148,7 +166,8 @@ public class KubernetesNamespaceTest {
 
     Resource resource = prepareNamespaceResource(NAMESPACE);
     doThrow(new KubernetesClientException("error", 403, null)).when(resource).get();
-    KubernetesNamespace namespace = new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID);
+    KubernetesNamespace namespace =
+        new KubernetesNamespace(clientFactory, podInformer, NAMESPACE, WORKSPACE_ID);
 
     // when
     namespace.prepare();
@@ -198,7 +217,7 @@ public class KubernetesNamespaceTest {
     doThrow(new KubernetesClientException("error", 403, null)).when(resource).get();
     doThrow(KubernetesClientException.class).when(kubernetesClient).serviceAccounts();
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, podInformer, NAMESPACE, WORKSPACE_ID).prepare();
   }
 
   @Test(expectedExceptions = InfrastructureException.class)
@@ -209,7 +228,7 @@ public class KubernetesNamespaceTest {
     doThrow(new KubernetesClientException("error", 403, null)).when(resource).get();
     when(serviceAccountResource.get()).thenReturn(null);
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, podInformer, NAMESPACE, WORKSPACE_ID).prepare();
   }
 
   @Test(expectedExceptions = InfrastructureException.class)
@@ -228,7 +247,7 @@ public class KubernetesNamespaceTest {
         .when(serviceAccountResource)
         .watch(any());
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, podInformer, NAMESPACE, WORKSPACE_ID).prepare();
   }
 
   @Test
@@ -246,7 +265,7 @@ public class KubernetesNamespaceTest {
         .when(serviceAccountResource)
         .watch(any());
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, podInformer, NAMESPACE, WORKSPACE_ID).prepare();
 
     verify(serviceAccountResource).get();
     verify(serviceAccountResource).watch(any());
@@ -261,7 +280,9 @@ public class KubernetesNamespaceTest {
     Watch watch = mock(Watch.class);
     doReturn(watch).when(podResource).watch(any());
 
-    new KubernetesDeployments("", "", clientFactory).doDelete(POD_NAME).get(5, TimeUnit.SECONDS);
+    new KubernetesDeployments("", "", clientFactory, podInformer)
+        .doDelete(POD_NAME)
+        .get(5, TimeUnit.SECONDS);
 
     verify(watch).close();
   }
@@ -276,7 +297,9 @@ public class KubernetesNamespaceTest {
     doReturn(watch).when(podResource).watch(any());
 
     try {
-      new KubernetesDeployments("", "", clientFactory).doDelete(POD_NAME).get(5, TimeUnit.SECONDS);
+      new KubernetesDeployments("", "", clientFactory, podInformer)
+          .doDelete(POD_NAME)
+          .get(5, TimeUnit.SECONDS);
     } catch (KubernetesInfrastructureException e) {
       assertTrue(e.getCause() instanceof KubernetesClientException);
       verify(watch).close();
@@ -295,7 +318,9 @@ public class KubernetesNamespaceTest {
     doReturn(watch).when(podResource).watch(any());
 
     try {
-      new KubernetesDeployments("", "", clientFactory).doDelete(POD_NAME).get(5, TimeUnit.SECONDS);
+      new KubernetesDeployments("", "", clientFactory, podInformer)
+          .doDelete(POD_NAME)
+          .get(5, TimeUnit.SECONDS);
     } catch (RuntimeException e) {
       verify(watch).close();
       return;
@@ -12,28 +12,46 @@
 package org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc;
 
 import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_PVC_JOB_LABEL;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_WORKSPACE_ID_LABEL;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc.PVCSubPathHelper.BATCH_POD_NAME_PREFIX;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc.PVCSubPathHelper.JOB_LABEL_VALUE;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc.PVCSubPathHelper.JOB_MOUNT_PATH;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc.PVCSubPathHelper.MAX_RUNNING_BATCHES;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc.PVCSubPathHelper.MKDIR_COMMAND_BASE;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc.PVCSubPathHelper.POD_PHASE_FAILED;
 import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.pvc.PVCSubPathHelper.POD_PHASE_SUCCEEDED;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
+import io.fabric8.kubernetes.api.model.DoneablePod;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodStatus;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
-import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesDeployments;
-import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesNamespace;
+import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFactory;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesNamespaceFactory;
 import org.eclipse.che.workspace.infrastructure.kubernetes.provision.SecurityContextProvisioner;
 import org.mockito.ArgumentCaptor;
@@ -53,6 +71,7 @@ import org.testng.annotations.Test;
 public class PVCSubPathHelperTest {
 
   private static final String WORKSPACE_ID = "workspace132";
+  private static final String NAMESPACE = "namespace";
   private static final String PVC_NAME = "che-workspace-claim";
   private static final String jobMemoryLimit = "250Mi";
   private static final String jobImage = "centos:centos7";
@@ -61,8 +80,11 @@ public class PVCSubPathHelperTest {
 
   @Mock private SecurityContextProvisioner securityContextProvisioner;
   @Mock private KubernetesNamespaceFactory k8sNamespaceFactory;
-  @Mock private KubernetesNamespace k8sNamespace;
-  @Mock private KubernetesDeployments osDeployments;
+  @Mock private KubernetesClientFactory clientFactory;
+  @Mock private KubernetesClient client;
+  @Mock private NonNamespaceOperation namespacePods;
+  @Mock private PodResource<Pod, DoneablePod> podResource;
+  @Mock private Watch watch;
   @Mock private Pod pod;
   @Mock private PodStatus podStatus;
 
@@ -74,13 +96,21 @@ public class PVCSubPathHelperTest {
   public void setup() throws Exception {
     pvcSubPathHelper =
         new PVCSubPathHelper(
-            PVC_NAME, jobMemoryLimit, jobImage, k8sNamespaceFactory, securityContextProvisioner);
-    when(k8sNamespaceFactory.create(anyString())).thenReturn(k8sNamespace);
-    when(k8sNamespace.deployments()).thenReturn(osDeployments);
+            PVC_NAME,
+            jobMemoryLimit,
+            jobImage,
+            k8sNamespaceFactory,
+            clientFactory,
+            securityContextProvisioner);
+    when(k8sNamespaceFactory.getNamespaceName(anyString())).thenReturn(NAMESPACE);
+    when(clientFactory.create(anyString())).thenReturn(client);
+    final MixedOperation pods = mock(MixedOperation.class);
+    doReturn(pods).when(client).pods();
+    when(pods.inNamespace(NAMESPACE)).thenReturn(namespacePods);
+    when(namespacePods.withName(anyString())).thenReturn(podResource);
+    when(podResource.watch(any())).thenReturn(watch);
+    when(podResource.get()).thenReturn(pod);
     when(pod.getStatus()).thenReturn(podStatus);
-    when(osDeployments.deploy(any(Pod.class))).thenReturn(pod);
-    when(osDeployments.wait(anyString(), anyInt(), any())).thenReturn(pod);
-    doNothing().when(osDeployments).delete(anyString());
   }
 
   @Test
@@ -102,7 +132,8 @@ public class PVCSubPathHelperTest {
 
     pvcSubPathHelper.createDirs(WORKSPACE_ID, WORKSPACE_ID + PROJECTS_PATH);
 
-    verify(osDeployments).create(podCaptor.capture());
+    verify(k8sNamespaceFactory).create(WORKSPACE_ID);
+    verify(namespacePods).create(podCaptor.capture());
     final List<String> actual = podCaptor.getValue().getSpec().getContainers().get(0).getCommand();
     final List<String> expected =
         Stream.concat(
@@ -110,22 +141,34 @@ public class PVCSubPathHelperTest {
                 Stream.of(JOB_MOUNT_PATH + '/' + WORKSPACE_ID + PROJECTS_PATH))
             .collect(toList());
     assertEquals(actual, expected);
-    verify(osDeployments).wait(anyString(), anyInt(), any());
-    verify(podStatus).getPhase();
-    verify(osDeployments).delete(anyString());
+    verify(podResource).watch(any());
+    verify(podResource).delete();
+    verify(watch).close();
     verify(securityContextProvisioner).provision(any());
   }
 
+  @Test
+  public void testLabelsJobPodWithJobLabelInsteadOfWorkspaceId() throws Exception {
+    when(podStatus.getPhase()).thenReturn(POD_PHASE_SUCCEEDED);
+
+    pvcSubPathHelper.createDirs(WORKSPACE_ID, WORKSPACE_ID + PROJECTS_PATH);
+
+    verify(namespacePods).create(podCaptor.capture());
+    final Pod jobPod = podCaptor.getValue();
+    assertEquals(jobPod.getMetadata().getLabels().get(CHE_PVC_JOB_LABEL), JOB_LABEL_VALUE);
+    assertFalse(jobPod.getMetadata().getLabels().containsKey(CHE_WORKSPACE_ID_LABEL));
+  }
+
   @Test
   public void testLogErrorWhenJobExecutionFailed() throws Exception {
     when(podStatus.getPhase()).thenReturn(POD_PHASE_FAILED);
 
     pvcSubPathHelper.execute(WORKSPACE_ID, MKDIR_COMMAND_BASE, WORKSPACE_ID + PROJECTS_PATH);
 
-    verify(osDeployments).create(any());
-    verify(osDeployments).wait(anyString(), anyInt(), any());
-    verify(podStatus).getPhase();
-    verify(osDeployments).delete(anyString());
+    verify(namespacePods).create(any());
+    verify(podResource).watch(any());
+    verify(podStatus, atLeastOnce()).getPhase();
+    verify(podResource).delete();
   }
 
   @Test
@@ -136,32 +179,78 @@ public class PVCSubPathHelperTest {
     pvcSubPathHelper.execute(WORKSPACE_ID, MKDIR_COMMAND_BASE, WORKSPACE_ID + PROJECTS_PATH);
 
     verify(k8sNamespaceFactory).create(WORKSPACE_ID);
-    verify(k8sNamespace, never()).deployments();
+    verify(namespacePods, never()).create(any());
   }
 
   @Test
   public void testLogErrorWhenKubernetesPodCreationFailed() throws Exception {
-    when(osDeployments.create(any()))
-        .thenThrow(new InfrastructureException("Kubernetes pod creation failed"));
+    when(namespacePods.create(any()))
+        .thenThrow(new KubernetesClientException("Kubernetes pod creation failed"));
 
     pvcSubPathHelper.execute(WORKSPACE_ID, MKDIR_COMMAND_BASE, WORKSPACE_ID + PROJECTS_PATH);
 
     verify(k8sNamespaceFactory).create(WORKSPACE_ID);
-    verify(k8sNamespace).deployments();
-    verify(osDeployments).create(any());
-    verify(osDeployments, never()).wait(anyString(), anyInt(), any());
+    verify(namespacePods).create(any());
+    verify(podResource, never()).watch(any());
   }
 
   @Test
   public void testIgnoreExceptionWhenPodJobRemovalFailed() throws Exception {
     when(podStatus.getPhase()).thenReturn(POD_PHASE_SUCCEEDED);
-    doThrow(InfrastructureException.class).when(osDeployments).delete(anyString());
+    when(podResource.delete()).thenThrow(new KubernetesClientException("Pod removal failed"));
 
     pvcSubPathHelper.execute(WORKSPACE_ID, MKDIR_COMMAND_BASE, WORKSPACE_ID + PROJECTS_PATH);
 
-    verify(osDeployments).create(any());
-    verify(osDeployments).wait(anyString(), anyInt(), any());
-    verify(podStatus).getPhase();
-    verify(osDeployments).delete(anyString());
+    verify(namespacePods).create(any());
+    verify(podResource).watch(any());
+    verify(podStatus, atLeastOnce()).getPhase();
+    verify(podResource).delete();
+  }
+
+  @Test(timeOut = 10_000)
+  public void testRunsJobsOfTheSameNamespaceInParallelAndBatchesTheRest() throws Exception {
+    when(podStatus.getPhase()).thenReturn(POD_PHASE_SUCCEEDED);
+    final CountDownLatch runningJobsStarted = new CountDownLatch(MAX_RUNNING_BATCHES);
+    final CountDownLatch runningJobsReleased = new CountDownLatch(1);
+    final AtomicInteger waitedJobs = new AtomicInteger();
+    when(podResource.get())
+        .thenAnswer(
+            invocation -> {
+              if (waitedJobs.getAndIncrement() < MAX_RUNNING_BATCHES) {
+                runningJobsStarted.countDown();
+                runningJobsReleased.await();
+              }
+              return pod;
+            });
+
+    final List<CompletableFuture<Void>> running = new ArrayList<>();
+    for (int i = 0; i < MAX_RUNNING_BATCHES; i++) {
+      running.add(pvcSubPathHelper.removeDirsAsync("running" + i, "running" + i));
+    }
+    // all the jobs are started in parallel though the first ones are not finished
+    runningJobsStarted.await();
+    final CompletableFuture<Void> second =
+        pvcSubPathHelper.removeDirsAsync("workspace1", "workspace1");
+    final CompletableFuture<Void> third =
+        pvcSubPathHelper.removeDirsAsync("workspace2", "workspace2");
+    assertFalse(second.isDone());
+    verify(namespacePods, times(MAX_RUNNING_BATCHES)).create(any());
+    runningJobsReleased.countDown();
+    CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).get();
+    CompletableFuture.allOf(second, third).get();
+
+    verify(namespacePods, times(MAX_RUNNING_BATCHES + 1)).create(podCaptor.capture());
+    final Pod batchPod = podCaptor.getValue();
+    assertTrue(batchPod.getMetadata().getName().startsWith(BATCH_POD_NAME_PREFIX));
+    assertEquals(
+        batchPod.getSpec().getContainers().get(0).getCommand(),
+        Arrays.asList(
+            "sh",
+            "-c",
+            "rc=0; 'rm' '-rf' '"
+                + JOB_MOUNT_PATH
+                + "/workspace1' || rc=1; 'rm' '-rf' '"
+                + JOB_MOUNT_PATH
+                + "/workspace2' || rc=1; exit $rc"));
   }
 }
@@ -39,6 +39,7 @@ import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesI
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesPersistentVolumeClaims;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesSecrets;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesServices;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.SharedPodInformer;
 import org.eclipse.che.workspace.infrastructure.openshift.OpenShiftClientFactory;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -65,6 +66,7 @@ public class OpenShiftProjectTest {
   @Mock private KubernetesSecrets secrets;
   @Mock private KubernetesConfigsMaps configsMaps;
   @Mock private OpenShiftClientFactory clientFactory;
+  @Mock private SharedPodInformer podInformer;
   @Mock private OpenShiftClient openShiftClient;
   @Mock private KubernetesClient kubernetesClient;
   @Mock private Resource<ServiceAccount, DoneableServiceAccount> serviceAccountResource;
@@ -105,7 +107,7 @@ public class OpenShiftProjectTest {
     // given
     prepareProject(PROJECT_NAME);
     OpenShiftProject openShiftProject =
-        new OpenShiftProject(clientFactory, PROJECT_NAME, WORKSPACE_ID);
+        new OpenShiftProject(clientFactory, podInformer, PROJECT_NAME, WORKSPACE_ID);
 
     // when
     openShiftProject.prepare();
@@ -119,7 +121,7 @@ public class OpenShiftProjectTest {
     Resource resource = prepareProjectResource(PROJECT_NAME);
     doThrow(new KubernetesClientException("error", 403, null)).when(resource).get();
     OpenShiftProject openShiftProject =
-        new OpenShiftProject(clientFactory, PROJECT_NAME, WORKSPACE_ID);
+        new OpenShiftProject(clientFactory, podInformer, PROJECT_NAME, WORKSPACE_ID);
 
     // when
     openShiftProject.prepare();
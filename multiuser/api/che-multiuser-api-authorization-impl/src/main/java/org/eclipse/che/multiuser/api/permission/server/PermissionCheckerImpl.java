@@ -11,28 +11,209 @@
  */
 package org.eclipse.che.multiuser.api.permission.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
+import org.eclipse.che.multiuser.api.permission.server.model.impl.AbstractPermissions;
 
 /**
  * Implementation of {@link PermissionChecker} that use {@link PermissionsManager} for checking.
  *
+ * <p>Results of checks are cached per domain, so repeated checks of the same permission don't hit
+ * the database. Cached results of the user for the instance are discarded when {@link
+ * PermissionsChangedEvent} is published for them, and in any case after they are kept for the
+ * configured time, which limits staleness of permissions modified bypassing {@link
+ * PermissionsManager}.
+ *
  * @author Sergii Leschenko
  */
-public class PermissionCheckerImpl implements PermissionChecker {
+@Singleton
+public class PermissionCheckerImpl
+    implements PermissionChecker, EventSubscriber<PermissionsChangedEvent> {
   private final PermissionsManager permissionsManager;
+  private final long maxEntriesPerDomain;
+  private final long expireAfterWriteSec;
+  private final Map<String, Cache<CacheKey, Map<String, Boolean>>> domainCaches;
+  private final AtomicLong invalidations;
 
   @Inject
-  public PermissionCheckerImpl(PermissionsManager permissionsManager) {
+  public PermissionCheckerImpl(
+      PermissionsManager permissionsManager,
+      @Named("che.multiuser.permissions.cache.max_entries_per_domain") long maxEntriesPerDomain,
+      @Named("che.multiuser.permissions.cache.expire_after_write_sec") long expireAfterWriteSec) {
     this.permissionsManager = permissionsManager;
+    this.maxEntriesPerDomain = maxEntriesPerDomain;
+    this.expireAfterWriteSec = expireAfterWriteSec;
+    this.domainCaches = new ConcurrentHashMap<>();
+    this.invalidations = new AtomicLong();
   }
 
   @Override
   public boolean hasPermission(String user, String domain, String instance, String action)
       throws ServerException, NotFoundException, ConflictException {
-    return permissionsManager.exists(user, domain, instance, action)
-        || permissionsManager.exists("*", domain, instance, action);
+    return exists(user, domain, instance, action) || exists("*", domain, instance, action);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When permissions of the user for several instances are not cached, all the user's
+   * permissions of the domain are fetched at once.
+   */
+  @Override
+  public Set<String> hasPermissions(
+      String user, String domain, Collection<String> instances, String action)
+      throws ServerException, NotFoundException, ConflictException {
+    final Map<String, Boolean> fetched = fetchNotCached(user, domain, instances, action);
+    final Set<String> permitted = new HashSet<>();
+    for (String instance : instances) {
+      final Boolean exists = fetched.get(instance);
+      if ((exists != null ? exists : exists(user, domain, instance, action))
+          || exists("*", domain, instance, action)) {
+        permitted.add(instance);
+      }
+    }
+    return permitted;
+  }
+
+  @Override
+  public void onEvent(PermissionsChangedEvent event) {
+    invalidations.incrementAndGet();
+    final Cache<CacheKey, Map<String, Boolean>> cache = domainCaches.get(event.getDomainId());
+    if (cache != null) {
+      cache.invalidate(new CacheKey(event.getInstanceId(), event.getUserId()));
+    }
+  }
+
+  @Inject
+  void subscribe(EventService eventService) {
+    eventService.subscribe(this, PermissionsChangedEvent.class);
+  }
+
+  private boolean exists(String user, String domain, String instance, String action)
+      throws ServerException, NotFoundException, ConflictException {
+    final CacheKey key = new CacheKey(instance, user);
+    final Boolean cached = getCached(domain, key, action);
+    if (cached != null) {
+      return cached;
+    }
+    final long invalidationsBefore = invalidations.get();
+    final boolean exists = permissionsManager.exists(user, domain, instance, action);
+    putCached(domain, key, action, exists, invalidationsBefore);
+    return exists;
+  }
+
+  /**
+   * Fetches permissions of the user for instances which are not cached, if there are several of
+   * them, and returns whether the user has the action for each of these instances.
+   */
+  private Map<String, Boolean> fetchNotCached(
+      String user, String domain, Collection<String> instances, String action)
+      throws ServerException, NotFoundException {
+    final Set<String> notCached = new HashSet<>();
+    for (String instance : instances) {
+      if (getCached(domain, new CacheKey(instance, user), action) == null) {
+        notCached.add(instance);
+      }
+    }
+    final Map<String, Boolean> fetched = new HashMap<>();
+    if (notCached.size() < 2) {
+      return fetched;
+    }
+    final long invalidationsBefore = invalidations.get();
+    final boolean allowed =
+        permissionsManager.getDomain(domain).getAllowedActions().contains(action);
+    final Set<String> withAction = new HashSet<>();
+    for (AbstractPermissions permissions : permissionsManager.getByUser(user, domain)) {
+      if (permissions.getActions().contains(action)) {
+        withAction.add(permissions.getInstanceId());
+      }
+    }
+    for (String instance : notCached) {
+      final boolean exists = allowed && withAction.contains(instance);
+      fetched.put(instance, exists);
+      putCached(domain, new CacheKey(instance, user), action, exists, invalidationsBefore);
+    }
+    return fetched;
+  }
+
+  private Boolean getCached(String domain, CacheKey key, String action) {
+    final Cache<CacheKey, Map<String, Boolean>> cache = domainCaches.get(domain);
+    if (cache == null) {
+      return null;
+    }
+    final Map<String, Boolean> actions = cache.getIfPresent(key);
+    return actions == null ? null : actions.get(action);
+  }
+
+  /**
+   * Caches the result of the check unless permissions were changed since the check was started, as
+   * the result may be already stale in this case.
+   */
+  private void putCached(
+      String domain, CacheKey key, String action, boolean exists, long invalidationsBefore) {
+    if (maxEntriesPerDomain <= 0) {
+      return;
+    }
+    final Cache<CacheKey, Map<String, Boolean>> cache =
+        domainCaches.computeIfAbsent(
+            domain,
+            d -> {
+              final CacheBuilder<Object, Object> builder =
+                  CacheBuilder.newBuilder().maximumSize(maxEntriesPerDomain);
+              if (expireAfterWriteSec > 0) {
+                builder.expireAfterWrite(expireAfterWriteSec, TimeUnit.SECONDS);
+              }
+              return builder.build();
+            });
+    cache.asMap().computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(action, exists);
+    if (invalidations.get() != invalidationsBefore) {
+      cache.invalidate(key);
+    }
+  }
+
+  /** Identifies permissions of the user for the instance of a domain. */
+  private static class CacheKey {
+    private final String instance;
+    private final String user;
+
+    private CacheKey(String instance, String user) {
+      this.instance = instance;
+      this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      final CacheKey that = (CacheKey) obj;
+      return Objects.equals(instance, that.instance) && Objects.equals(user, that.user);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(instance, user);
+    }
   }
 }
@@ -11,15 +11,27 @@
  */
 package org.eclipse.che.multiuser.api.permission.server;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
-import org.mockito.InjectMocks;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
+import org.eclipse.che.multiuser.api.permission.server.model.impl.AbstractPermissions;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
@@ -27,7 +39,12 @@ import org.testng.annotations.Test;
 public class PermissionCheckerImplTest {
   @Mock private PermissionsManager permissionsManager;
 
-  @InjectMocks private PermissionCheckerImpl permissionChecker;
+  private PermissionCheckerImpl permissionChecker;
+
+  @BeforeMethod
+  public void setUp() {
+    permissionChecker = new PermissionCheckerImpl(permissionsManager, 100, 60);
+  }
 
   @Test
   public void shouldCheckExistingDirectUsersPermissions() throws Exception {
@@ -56,4 +73,92 @@ public class PermissionCheckerImplTest {
     verify(permissionsManager).exists("user123", "domain123", "instance123", "test");
     verify(permissionsManager).exists("*", "domain123", "instance123", "test");
   }
+
+  @Test
+  public void shouldCacheResultsOfChecks() throws Exception {
+    when(permissionsManager.exists(eq("user123"), anyString(), anyString(), anyString()))
+        .thenReturn(false);
+    when(permissionsManager.exists(eq("*"), anyString(), anyString(), anyString()))
+        .thenReturn(true);
+
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+    boolean hasPermission =
+        permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    assertEquals(hasPermission, true);
+    verify(permissionsManager).exists("user123", "domain123", "instance123", "test");
+    verify(permissionsManager).exists("*", "domain123", "instance123", "test");
+  }
+
+  @Test
+  public void shouldCheckPermissionAgainAfterItIsChanged() throws Exception {
+    when(permissionsManager.exists(anyString(), anyString(), anyString(), anyString()))
+        .thenReturn(true)
+        .thenReturn(false);
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    permissionChecker.onEvent(new PermissionsChangedEvent("domain123", "instance123", "user123"));
+    boolean hasPermission =
+        permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    assertEquals(hasPermission, false);
+    verify(permissionsManager, times(2)).exists("user123", "domain123", "instance123", "test");
+  }
+
+  @Test
+  public void shouldNotDiscardCachedPermissionsOfOtherUsersWhenPermissionIsChanged()
+      throws Exception {
+    when(permissionsManager.exists(anyString(), anyString(), anyString(), anyString()))
+        .thenReturn(true);
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    permissionChecker.onEvent(new PermissionsChangedEvent("domain123", "instance123", "user321"));
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    verify(permissionsManager).exists("user123", "domain123", "instance123", "test");
+  }
+
+  @Test
+  public void shouldNotCacheResultsOfChecksIfCacheIsDisabled() throws Exception {
+    permissionChecker = new PermissionCheckerImpl(permissionsManager, 0, 60);
+    when(permissionsManager.exists(anyString(), anyString(), anyString(), anyString()))
+        .thenReturn(true);
+
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    verify(permissionsManager, times(2)).exists("user123", "domain123", "instance123", "test");
+  }
+
+  @Test
+  public void shouldFetchPermissionsOfUserOnceWhenCheckingSeveralInstances() throws Exception {
+    AbstractPermissionsDomain domain = mock(AbstractPermissionsDomain.class);
+    when(domain.getAllowedActions()).thenReturn(asList("test", "other"));
+    doReturn(domain).when(permissionsManager).getDomain("domain123");
+    doReturn(
+            asList(
+                permissions("instance1", asList("test", "other")),
+                permissions("instance2", singletonList("other"))))
+        .when(permissionsManager)
+        .getByUser("user123", "domain123");
+    when(permissionsManager.exists(eq("*"), anyString(), anyString(), anyString()))
+        .thenReturn(false);
+    when(permissionsManager.exists("*", "domain123", "instance3", "test")).thenReturn(true);
+
+    Set<String> permitted =
+        permissionChecker.hasPermissions(
+            "user123", "domain123", asList("instance1", "instance2", "instance3"), "test");
+    permissionChecker.hasPermission("user123", "domain123", "instance2", "test");
+
+    assertEquals(permitted, ImmutableSet.of("instance1", "instance3"));
+    verify(permissionsManager).getByUser("user123", "domain123");
+    verify(permissionsManager, never()).exists(eq("user123"), anyString(), any(), anyString());
+  }
+
+  private static AbstractPermissions permissions(String instance, List<String> actions) {
+    AbstractPermissions permissions = mock(AbstractPermissions.class);
+    when(permissions.getInstanceId()).thenReturn(instance);
+    when(permissions.getActions()).thenReturn(actions);
+    return permissions;
+  }
 }
@@ -11,20 +11,49 @@
  */
 package org.eclipse.che.multiuser.api.distributed.lock;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import javax.inject.Named;
 import org.eclipse.che.api.workspace.server.WorkspaceLockService;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.jgroups.Address;
 import org.jgroups.JChannel;
+import org.jgroups.Message;
+import org.jgroups.ReceiverAdapter;
+import org.jgroups.View;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
 import org.jgroups.blocks.locking.LockService;
+import org.jgroups.util.Rsp;
+import org.jgroups.util.RspList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * JGroups based implementation of {@link WorkspaceLockService}.
  *
+ * <p>Write locks are exclusive across the cluster. Read locks are taken locally without any network
+ * communication, so reads scale with the number of Che masters. To keep readers of all the masters
+ * away while a key is written, the writer first takes the cluster-wide JGroups lock and then asks
+ * every other master to block local readers of the key. Each master waits until current readers of
+ * the key are finished and responds, the block is lifted when the writer releases the lock. A block
+ * is a lease, it expires if the writer neither releases it in {@link #LEASE_TIMEOUT_MS} nor stays
+ * in the cluster, so a crashed master can't block readers forever.
+ *
+ * <p>Both locks are reentrant, but a read lock can't be upgraded to the write lock. Each key has
+ * its own local lock which exists only while the key is locked or blocked, so locks of different
+ * keys never wait for each other.
+ *
  * @author Anton Korneta
  */
 @Singleton
@@ -32,54 +61,341 @@ public class JGroupsWorkspaceLockService implements WorkspaceLockService {
   private static final Logger LOG = LoggerFactory.getLogger(JGroupsWorkspaceLockService.class);
 
   private static final String CHANNEL_NAME = "WorkspaceLocks";
+  private static final long LEASE_TIMEOUT_MS = 60_000;
+
+  private static final String BLOCK_READERS = "B";
+  private static final String UNBLOCK_READERS = "U";
 
   private final LockService lockService;
   private final JChannel channel;
+  private final MessageDispatcher dispatcher;
+  /** Local locks of the keys which are locked or blocked, guarded by itself. */
+  private final Map<String, LocalReadWriteLock> locks;
+
+  private final long leaseTimeoutMs;
 
   @Inject
   public JGroupsWorkspaceLockService(@Named("jgroups.config.file") String confFile) {
+    this(newChannel(confFile), LEASE_TIMEOUT_MS);
+  }
+
+  @VisibleForTesting
+  JGroupsWorkspaceLockService(JChannel channel, long leaseTimeoutMs) {
+    this.channel = channel;
+    this.leaseTimeoutMs = leaseTimeoutMs;
+    this.locks = new HashMap<>();
     try {
-      this.channel = new JChannel(confFile);
       this.lockService = new LockService(channel);
+      this.dispatcher = new MessageDispatcher(channel, null, new ViewListener(), this::handle);
       channel.connect(CHANNEL_NAME);
     } catch (Exception ex) {
       throw new RuntimeException(ex);
     }
   }
 
+  private static JChannel newChannel(String confFile) {
+    try {
+      return new JChannel(confFile);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
   @Override
   public Unlocker readLock(String key) {
-    // JGroups lock service does not contain an associated pair of read/write locks, that's why
-    // there no way provide a reliable version of a read lock.
-    return writeLock(key);
+    final LocalReadWriteLock local = acquire(key);
+    local.lockRead();
+    return () -> {
+      try {
+        local.unlockRead();
+      } finally {
+        release(key, local);
+      }
+    };
   }
 
   @Override
   public Unlocker writeLock(String key) {
     final Lock lock = lockService.getLock(key);
     lock.lock();
-    return new UnlockerImpl(lock);
+    final LocalReadWriteLock local = acquire(key);
+    local.lockWrite();
+    if (!blockRemoteReaders(key)) {
+      local.unlockWrite();
+      release(key, local);
+      lock.unlock();
+      throw new IllegalStateException(
+          "Failed to block readers of '" + key + "' on other Che masters");
+    }
+    return () -> {
+      try {
+        cast(UNBLOCK_READERS, key, RequestOptions.ASYNC().setFlags(Message.Flag.OOB));
+      } catch (Exception ex) {
+        LOG.warn("Failed to unblock readers of '{}'. Cause: {}", key, ex.getMessage());
+      } finally {
+        local.unlockWrite();
+        release(key, local);
+        lock.unlock();
+      }
+    };
   }
 
-  private class UnlockerImpl implements Unlocker {
-    private final Lock lock;
+  /** Returns true if readers of all the other cluster members are blocked. */
+  private boolean blockRemoteReaders(String key) {
+    final RspList<Object> responses;
+    try {
+      // out of band, so waiting for readers doesn't delay other messages of this member
+      responses =
+          cast(
+              BLOCK_READERS,
+              key,
+              RequestOptions.SYNC().setTimeout(leaseTimeoutMs).setFlags(Message.Flag.OOB));
+    } catch (Exception ex) {
+      LOG.error("Failed to block readers of '{}'. Cause: {}", key, ex.getMessage());
+      return false;
+    }
+    for (Rsp<Object> response : responses) {
+      if (response.wasReceived() && response.hasException()) {
+        LOG.error(
+            "Failed to block readers of '{}' on '{}'. Cause: {}",
+            key,
+            response.getSender(),
+            response.getException().getMessage());
+        return false;
+      }
+      if (!response.wasReceived() && !response.wasSuspected() && !response.wasUnreachable()) {
+        // the member didn't respond within the lease time, its block is expired anyway
+        LOG.warn("Che master '{}' didn't block readers of '{}'", response.getSender(), key);
+      }
+    }
+    return true;
+  }
 
-    public UnlockerImpl(Lock lock) {
-      this.lock = lock;
+  private RspList<Object> cast(String operation, String key, RequestOptions options)
+      throws Exception {
+    final List<Address> others = new ArrayList<>(channel.getView().getMembers());
+    others.remove(channel.getAddress());
+    if (others.isEmpty()) {
+      return new RspList<>();
     }
+    final Message message = new Message(null, (operation + key).getBytes(UTF_8));
+    // anycast, so the message is sent only to the others, not multicast to this member too
+    return dispatcher.castMessage(others, message, options.setAnycasting(true));
+  }
 
-    @Override
-    public void unlock() {
-      lock.unlock();
+  /** Handles requests of other cluster members. */
+  private Object handle(Message message) {
+    final String request = new String(message.getBuffer(), UTF_8);
+    final String operation = request.substring(0, 1);
+    final String key = request.substring(1);
+    final String owner = message.getSrc() + "/" + key;
+    final LocalReadWriteLock local = acquire(key);
+    try {
+      if (BLOCK_READERS.equals(operation)) {
+        local.block(message.getSrc(), owner, leaseTimeoutMs);
+      } else {
+        local.unblock(owner);
+      }
+    } finally {
+      release(key, local);
+    }
+    return null;
+  }
+
+  /** Returns the local lock of the key, which is kept until it is released by the caller. */
+  private LocalReadWriteLock acquire(String key) {
+    synchronized (locks) {
+      final LocalReadWriteLock local = locks.computeIfAbsent(key, k -> new LocalReadWriteLock());
+      local.refs++;
+      return local;
+    }
+  }
+
+  /** Releases the local lock of the key, the lock is removed once nobody uses or blocks it. */
+  private void release(String key, LocalReadWriteLock local) {
+    synchronized (locks) {
+      if (--local.refs == 0 && !local.hasBlocks()) {
+        locks.remove(key);
+      }
     }
   }
 
   /** Stops the workspace lock service. */
   public void shutdown() {
     try {
+      dispatcher.stop();
       channel.close();
     } catch (RuntimeException ex) {
       LOG.error("Failed to stop workspace locks service. Cause: " + ex.getMessage());
     }
   }
+
+  /** Lifts blocks of the members which left the cluster. */
+  private class ViewListener extends ReceiverAdapter {
+    @Override
+    public void viewAccepted(View view) {
+      synchronized (locks) {
+        for (Iterator<LocalReadWriteLock> it = locks.values().iterator(); it.hasNext(); ) {
+          final LocalReadWriteLock local = it.next();
+          local.retainBlocks(view);
+          if (local.refs == 0 && !local.hasBlocks()) {
+            it.remove();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Reentrant read-write lock of a single key, which additionally blocks readers while other
+   * cluster members write the key.
+   */
+  private static class LocalReadWriteLock {
+    private final Map<Thread, Integer> readHolds = new HashMap<>();
+    private final Map<String, RemoteBlock> remoteBlocks = new HashMap<>();
+    private Thread writer;
+    private int writeHolds;
+
+    /** Number of threads which use or wait for the lock, guarded by the locks map. */
+    int refs;
+
+    synchronized void lockRead() {
+      final Thread current = Thread.currentThread();
+      if (writer != current && !readHolds.containsKey(current)) {
+        boolean interrupted = false;
+        long waitMs;
+        while ((waitMs = readWaitMs()) >= 0) {
+          try {
+            wait(waitMs);
+          } catch (InterruptedException ex) {
+            interrupted = true;
+          }
+        }
+        if (interrupted) {
+          current.interrupt();
+        }
+      }
+      readHolds.merge(current, 1, Integer::sum);
+    }
+
+    synchronized void unlockRead() {
+      final Thread current = Thread.currentThread();
+      final Integer holds = readHolds.get(current);
+      if (holds == null) {
+        throw new IllegalMonitorStateException("Read lock is not held by the current thread");
+      }
+      if (holds == 1) {
+        readHolds.remove(current);
+        notifyAll();
+      } else {
+        readHolds.put(current, holds - 1);
+      }
+    }
+
+    synchronized void lockWrite() {
+      final Thread current = Thread.currentThread();
+      if (writer != current) {
+        boolean interrupted = false;
+        while (writer != null || !readHolds.isEmpty()) {
+          try {
+            wait();
+          } catch (InterruptedException ex) {
+            interrupted = true;
+          }
+        }
+        if (interrupted) {
+          current.interrupt();
+        }
+        writer = current;
+      }
+      writeHolds++;
+    }
+
+    synchronized void unlockWrite() {
+      if (writer != Thread.currentThread()) {
+        throw new IllegalMonitorStateException("Write lock is not held by the current thread");
+      }
+      if (--writeHolds == 0) {
+        writer = null;
+        notifyAll();
+      }
+    }
+
+    /**
+     * Blocks new readers and waits until the current ones are finished, but not longer than lease.
+     */
+    synchronized void block(Address member, String owner, long leaseMs) {
+      final long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseMs);
+      final RemoteBlock block = remoteBlocks.get(owner);
+      if (block != null) {
+        block.holds++;
+      } else {
+        remoteBlocks.put(owner, new RemoteBlock(member, expiresAt));
+      }
+      long waitNanos;
+      while (!readHolds.isEmpty() && (waitNanos = expiresAt - System.nanoTime()) > 0) {
+        try {
+          TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+
+    synchronized void unblock(String owner) {
+      final RemoteBlock block = remoteBlocks.get(owner);
+      if (block != null && --block.holds == 0) {
+        remoteBlocks.remove(owner);
+        notifyAll();
+      }
+    }
+
+    /** Returns true if readers are blocked by other cluster members. */
+    synchronized boolean hasBlocks() {
+      return readWaitMs() >= 0;
+    }
+
+    synchronized void retainBlocks(View view) {
+      if (remoteBlocks.values().removeIf(block -> !view.containsMember(block.member))) {
+        notifyAll();
+      }
+    }
+
+    /**
+     * Returns how long reader should wait for the lock, 0 means wait until notified, negative value
+     * means that the lock is available.
+     */
+    private long readWaitMs() {
+      if (writer != null) {
+        return 0;
+      }
+      final long now = System.nanoTime();
+      long nearestExpiration = Long.MAX_VALUE;
+      for (Iterator<RemoteBlock> it = remoteBlocks.values().iterator(); it.hasNext(); ) {
+        final RemoteBlock block = it.next();
+        if (block.expiresAt - now <= 0) {
+          LOG.warn("Lease of readers block by '{}' is expired", block.member);
+          it.remove();
+        } else {
+          nearestExpiration = Math.min(nearestExpiration, block.expiresAt - now);
+        }
+      }
+      if (nearestExpiration == Long.MAX_VALUE) {
+        return -1;
+      }
+      return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nearestExpiration));
+    }
+  }
+
+  private static class RemoteBlock {
+    final Address member;
+    final long expiresAt;
+    int holds = 1;
+
+    RemoteBlock(Address member, long expiresAt) {
+      this.member = member;
+      this.expiresAt = expiresAt;
+    }
+  }
 }
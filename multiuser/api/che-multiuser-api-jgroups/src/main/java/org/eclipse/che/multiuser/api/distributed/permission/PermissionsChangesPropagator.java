@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.distributed.permission;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
+import org.jgroups.JChannel;
+import org.jgroups.Message;
+import org.jgroups.ReceiverAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Propagates permissions changes between Che Servers instances.
+ *
+ * <p>Each {@link PermissionsChangedEvent} published by this Che Server is sent to the other ones
+ * and published there, so they can discard cached permissions which are changed.
+ *
+ * @see org.eclipse.che.multiuser.api.permission.server.PermissionCheckerImpl
+ */
+@Singleton
+public class PermissionsChangesPropagator extends ReceiverAdapter
+    implements EventSubscriber<PermissionsChangedEvent> {
+  private static final Logger LOG = LoggerFactory.getLogger(PermissionsChangesPropagator.class);
+
+  private static final String CHANNEL_NAME = "PermissionsChanges";
+
+  /** Whether the current thread publishes event received from another Che Server. */
+  private final ThreadLocal<Boolean> receiving = ThreadLocal.withInitial(() -> false);
+
+  private final EventService eventService;
+  private final JChannel channel;
+
+  @Inject
+  public PermissionsChangesPropagator(
+      @Named("jgroups.config.file") String confFile, EventService eventService) {
+    this(newChannel(confFile), eventService);
+  }
+
+  @VisibleForTesting
+  PermissionsChangesPropagator(JChannel channel, EventService eventService) {
+    this.channel = channel;
+    this.eventService = eventService;
+    try {
+      channel.setDiscardOwnMessages(true);
+      channel.setReceiver(this);
+      channel.connect(CHANNEL_NAME);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+    eventService.subscribe(this, PermissionsChangedEvent.class);
+  }
+
+  private static JChannel newChannel(String confFile) {
+    try {
+      return new JChannel(confFile);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  @Override
+  public void onEvent(PermissionsChangedEvent event) {
+    if (receiving.get()) {
+      return;
+    }
+    try {
+      channel.send(new Message(null, encode(event)));
+    } catch (Exception ex) {
+      LOG.error(
+          "Failed to propagate change of permissions of user '{}' for instance '{}' of domain "
+              + "'{}'. Cause: {}",
+          event.getUserId(),
+          event.getInstanceId(),
+          event.getDomainId(),
+          ex.getMessage());
+    }
+  }
+
+  @Override
+  public void receive(Message message) {
+    final PermissionsChangedEvent event;
+    try {
+      event = decode(message.getBuffer());
+    } catch (IOException ex) {
+      LOG.error("Failed to read permissions change from '{}'", message.getSrc());
+      return;
+    }
+    receiving.set(true);
+    try {
+      eventService.publish(event);
+    } finally {
+      receiving.remove();
+    }
+  }
+
+  /** Stops propagation of permissions changes. */
+  public void shutdown() {
+    eventService.unsubscribe(this, PermissionsChangedEvent.class);
+    try {
+      channel.close();
+    } catch (RuntimeException ex) {
+      LOG.error("Failed to stop permissions changes propagation. Cause: " + ex.getMessage());
+    }
+  }
+
+  private static byte[] encode(PermissionsChangedEvent event) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeUTF(event.getDomainId());
+      out.writeBoolean(event.getInstanceId() != null);
+      if (event.getInstanceId() != null) {
+        out.writeUTF(event.getInstanceId());
+      }
+      out.writeUTF(event.getUserId());
+    }
+    return bytes.toByteArray();
+  }
+
+  private static PermissionsChangedEvent decode(byte[] buffer) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer))) {
+      final String domainId = in.readUTF();
+      final String instanceId = in.readBoolean() ? in.readUTF() : null;
+      return new PermissionsChangedEvent(domainId, instanceId, in.readUTF());
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.distributed.lock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.jgroups.JChannel;
+import org.jgroups.protocols.CENTRAL_LOCK;
+import org.jgroups.protocols.SHARED_LOOPBACK;
+import org.jgroups.protocols.SHARED_LOOPBACK_PING;
+import org.jgroups.protocols.UNICAST3;
+import org.jgroups.protocols.pbcast.GMS;
+import org.jgroups.protocols.pbcast.NAKACK2;
+import org.jgroups.protocols.pbcast.STABLE;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests {@link JGroupsWorkspaceLockService} with two cluster members running in the same process.
+ */
+public class JGroupsWorkspaceLockServiceTest {
+
+  private static final String KEY = "workspace123";
+
+  private JGroupsWorkspaceLockService first;
+  private JGroupsWorkspaceLockService second;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    first = new JGroupsWorkspaceLockService(newLocalChannel(), 60_000);
+    second = new JGroupsWorkspaceLockService(newLocalChannel(), 60_000);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    second.shutdown();
+    first.shutdown();
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldBlockReadersOfOtherMembersWhileKeyIsWritten() throws Exception {
+    Unlocker writeLock = first.writeLock(KEY);
+    CountDownLatch readLocked = lockAsync(() -> second.readLock(KEY));
+
+    assertFalse(readLocked.await(300, MILLISECONDS));
+
+    writeLock.unlock();
+    assertTrue(readLocked.await(5, SECONDS));
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldWaitForReadersOfOtherMembersBeforeWriting() throws Exception {
+    Unlocker readLock = second.readLock(KEY);
+    CountDownLatch writeLocked = lockAsync(() -> first.writeLock(KEY));
+
+    assertFalse(writeLocked.await(300, MILLISECONDS));
+
+    readLock.unlock();
+    assertTrue(writeLocked.await(5, SECONDS));
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldNotBlockReadersOfOtherKeysAndReadersOnTheSameMember() throws Exception {
+    CountDownLatch readLocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Void> longRead =
+        CompletableFuture.runAsync(
+            () -> {
+              try (Unlocker ignored = second.readLock(KEY)) {
+                readLocked.countDown();
+                release.await();
+              } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    readLocked.await();
+
+    CompletableFuture.runAsync(() -> second.readLock(KEY).unlock()).get(5, SECONDS);
+    CompletableFuture.runAsync(() -> first.readLock(KEY).unlock()).get(5, SECONDS);
+    CompletableFuture.runAsync(() -> first.writeLock("otherWorkspace").unlock()).get(5, SECONDS);
+
+    release.countDown();
+    longRead.get(5, SECONDS);
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldKeepReadersBlockedUntilOutermostWriteLockIsReleased() throws Exception {
+    Unlocker outer = first.writeLock(KEY);
+    first.writeLock(KEY).unlock();
+    first.readLock(KEY).unlock();
+    CountDownLatch readLocked = lockAsync(() -> second.readLock(KEY));
+
+    assertFalse(readLocked.await(300, MILLISECONDS));
+
+    outer.unlock();
+    assertTrue(readLocked.await(5, SECONDS));
+  }
+
+  @Test(timeOut = 20_000)
+  public void shouldNotLeaveReadersBlockedAfterWriteLocksAreReleased() throws Exception {
+    for (int i = 0; i < 500; i++) {
+      first.writeLock(KEY).unlock();
+    }
+
+    CompletableFuture.runAsync(() -> first.readLock(KEY).unlock()).get(5, SECONDS);
+    CompletableFuture.runAsync(() -> second.readLock(KEY).unlock()).get(5, SECONDS);
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldNotBlockWritersOfKeysWithTheSameHashCode() throws Exception {
+    // "Aa" and "BB" have the same hash code, so they would share a lock of any striping
+    try (Unlocker ignored = first.readLock("Aa")) {
+      first.writeLock("BB").unlock();
+    }
+    try (Unlocker ignored = second.readLock("Aa")) {
+      CompletableFuture.runAsync(() -> first.writeLock("BB").unlock()).get(5, SECONDS);
+    }
+  }
+
+  /**
+   * Acquires and releases the lock in another thread, returns latch which is released once the lock
+   * is acquired. Returns only when the thread is about to acquire the lock.
+   */
+  private static CountDownLatch lockAsync(Supplier<Unlocker> lock) throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch locked = new CountDownLatch(1);
+    CompletableFuture.runAsync(
+        () -> {
+          started.countDown();
+          lock.get().unlock();
+          locked.countDown();
+        });
+    started.await();
+    return locked;
+  }
+
+  /** Returns channel which may be connected only with other channels of the same process. */
+  static JChannel newLocalChannel() throws Exception {
+    return new JChannel(
+        new SHARED_LOOPBACK(),
+        new SHARED_LOOPBACK_PING(),
+        new NAKACK2(),
+        new UNICAST3(),
+        new STABLE(),
+        new GMS().setValue("join_timeout", 500L),
+        new CENTRAL_LOCK());
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.distributed.lock;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+
+/**
+ * Measures throughput of {@link JGroupsWorkspaceLockService} under contention. Runs the given
+ * number of cluster members in the same process, each member has reader threads which poll
+ * workspace statuses and writer threads which change them.
+ *
+ * <p>Usage: {@code WorkspaceLockContentionBenchmark [members] [readers per member] [writers per
+ * member] [workspaces] [seconds] [exclusive]}, where {@code exclusive} makes readers take write
+ * locks as the service did before reads became local.
+ */
+public class WorkspaceLockContentionBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    final int members = intArg(args, 0, 3);
+    final int readers = intArg(args, 1, 8);
+    final int writers = intArg(args, 2, 1);
+    final int workspaces = intArg(args, 3, 100);
+    final int seconds = intArg(args, 4, 10);
+    final boolean exclusive = args.length > 5 && Boolean.parseBoolean(args[5]);
+
+    final List<JGroupsWorkspaceLockService> services = new ArrayList<>(members);
+    for (int i = 0; i < members; i++) {
+      services.add(
+          new JGroupsWorkspaceLockService(
+              JGroupsWorkspaceLockServiceTest.newLocalChannel(), 60_000));
+    }
+    final LongAdder reads = new LongAdder();
+    final LongAdder writes = new LongAdder();
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final ExecutorService executor = Executors.newFixedThreadPool(members * (readers + writers));
+    for (JGroupsWorkspaceLockService service : services) {
+      for (int i = 0; i < readers; i++) {
+        executor.execute(
+            () -> {
+              while (running.get()) {
+                final String key = "workspace" + ThreadLocalRandom.current().nextInt(workspaces);
+                try (Unlocker ignored =
+                    exclusive ? service.writeLock(key) : service.readLock(key)) {
+                  reads.increment();
+                }
+              }
+            });
+      }
+      for (int i = 0; i < writers; i++) {
+        executor.execute(
+            () -> {
+              while (running.get()) {
+                final String key = "workspace" + ThreadLocalRandom.current().nextInt(workspaces);
+                try (Unlocker ignored = service.writeLock(key)) {
+                  writes.increment();
+                }
+              }
+            });
+      }
+    }
+    SECONDS.sleep(seconds);
+    running.set(false);
+    executor.shutdown();
+    executor.awaitTermination(60, SECONDS);
+    services.forEach(JGroupsWorkspaceLockService::shutdown);
+
+    System.out.printf(
+        "members=%d readers=%d writers=%d workspaces=%d exclusive=%b%n"
+            + "reads/s=%d writes/s=%d%n",
+        members,
+        readers,
+        writers,
+        workspaces,
+        exclusive,
+        reads.sum() / seconds,
+        writes.sum() / seconds);
+  }
+
+  private static int intArg(String[] args, int idx, int defaultValue) {
+    return args.length > idx ? Integer.parseInt(args[idx]) : defaultValue;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.distributed.permission;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
+import org.jgroups.JChannel;
+import org.jgroups.protocols.SHARED_LOOPBACK;
+import org.jgroups.protocols.SHARED_LOOPBACK_PING;
+import org.jgroups.protocols.UNICAST3;
+import org.jgroups.protocols.pbcast.GMS;
+import org.jgroups.protocols.pbcast.NAKACK2;
+import org.jgroups.protocols.pbcast.STABLE;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests {@link PermissionsChangesPropagator} with two cluster members running in the same process.
+ */
+public class PermissionsChangesPropagatorTest {
+
+  private EventService firstEvents;
+  private EventService secondEvents;
+  private PermissionsChangesPropagator first;
+  private PermissionsChangesPropagator second;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    firstEvents = new EventService();
+    secondEvents = new EventService();
+    first = new PermissionsChangesPropagator(newLocalChannel(), firstEvents);
+    second = new PermissionsChangesPropagator(newLocalChannel(), secondEvents);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    second.shutdown();
+    first.shutdown();
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldPublishChangesOfPermissionsOnOtherMembers() throws Exception {
+    CountDownLatch received = new CountDownLatch(2);
+    List<PermissionsChangedEvent> events = new CopyOnWriteArrayList<>();
+    secondEvents.subscribe(
+        event -> {
+          events.add(event);
+          received.countDown();
+        },
+        PermissionsChangedEvent.class);
+
+    firstEvents.publish(new PermissionsChangedEvent("workspace", "workspace123", "user123"));
+    firstEvents.publish(new PermissionsChangedEvent("system", null, "*"));
+
+    received.await(5, SECONDS);
+    assertEquals(
+        events.get(0), new PermissionsChangedEvent("workspace", "workspace123", "user123"));
+    assertEquals(events.get(1), new PermissionsChangedEvent("system", null, "*"));
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldNotSendBackChangesReceivedFromOtherMembers() throws Exception {
+    CountDownLatch received = new CountDownLatch(1);
+    secondEvents.subscribe(event -> received.countDown(), PermissionsChangedEvent.class);
+    List<PermissionsChangedEvent> events = new CopyOnWriteArrayList<>();
+    firstEvents.subscribe(events::add, PermissionsChangedEvent.class);
+
+    firstEvents.publish(new PermissionsChangedEvent("workspace", "workspace123", "user123"));
+    received.await(5, SECONDS);
+    Thread.sleep(300);
+
+    assertEquals(events.size(), 1);
+  }
+
+  private static JChannel newLocalChannel() throws Exception {
+    return new JChannel(
+        new SHARED_LOOPBACK(),
+        new SHARED_LOOPBACK_PING(),
+        new NAKACK2(),
+        new UNICAST3(),
+        new STABLE(),
+        new GMS().setValue("join_timeout", 500L));
+  }
+}
@@ -36,6 +36,7 @@ import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.concurrent.StripedLocks;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.eclipse.che.commons.subject.Subject;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
 import org.eclipse.che.multiuser.api.permission.server.event.PermissionsCreatedEvent;
 import org.eclipse.che.multiuser.api.permission.server.event.PermissionsRemovedEvent;
 import org.eclipse.che.multiuser.api.permission.server.model.impl.AbstractPermissions;
@@ -176,6 +177,7 @@ public class PermissionsManager {
       permissions = permissionsDao.get(userId, instanceId);
       permissionsDao.remove(userId, instanceId);
     }
+    eventService.publish(new PermissionsChangedEvent(domainId, instanceId, userId));
     final String initiator = EnvironmentContext.getCurrent().getSubject().getUserName();
     eventService.publish(new PermissionsRemovedEvent(initiator, permissions));
   }
@@ -197,6 +199,21 @@ public class PermissionsManager {
         && getPermissionsDao(domainId).exists(userId, instanceId, action);
   }
 
+  /**
+   * Returns permissions of the user for instances of specified domain
+   *
+   * @param userId user id
+   * @param domainId domain id
+   * @return user's permissions for instances of the domain
+   * @throws NotFoundException when given domainId is unsupported
+   * @throws ServerException when any other error occurs during permissions fetching
+   */
+  @SuppressWarnings("unchecked")
+  public List<AbstractPermissions> getByUser(String userId, String domainId)
+      throws ServerException, NotFoundException {
+    return (List<AbstractPermissions>) getPermissionsDao(domainId).getByUser(userId);
+  }
+
   /**
    * Checks supporting all specified actions by domain with specified id.
    *
@@ -233,6 +250,8 @@ public class PermissionsManager {
         permissionsDomain.newInstance(userId, instanceId, permissions.getActions());
     checkActionsSupporting(permissionsDomain, permission.getActions());
     final Optional<T> existing = dao.store(permission);
+    eventService.publish(
+        new PermissionsChangedEvent(permissionsDomain.getId(), instanceId, userId));
     if (!existing.isPresent()) {
       Subject subject = EnvironmentContext.getCurrent().getSubject();
       final String initiator = subject.isAnonymous() ? null : subject.getUserName();
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.permission.server.event;
+
+import java.util.Objects;
+import org.eclipse.che.commons.annotation.Nullable;
+
+/**
+ * Published after permissions of the user for the instance are added, updated or removed.
+ *
+ * <p>Unlike {@link PermissionsCreatedEvent} and {@link PermissionsRemovedEvent} it is published on
+ * every change of permissions and is not propagated to clients, so components which keep
+ * permissions in memory may use it to discard stale ones.
+ */
+public class PermissionsChangedEvent {
+
+  private final String domainId;
+  private final String instanceId;
+  private final String userId;
+
+  public PermissionsChangedEvent(String domainId, @Nullable String instanceId, String userId) {
+    this.domainId = domainId;
+    this.instanceId = instanceId;
+    this.userId = userId;
+  }
+
+  /** Returns id of the domain of changed permissions. */
+  public String getDomainId() {
+    return domainId;
+  }
+
+  /** Returns id of the instance of changed permissions or null if domain has no instances. */
+  @Nullable
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  /** Returns id of the user whose permissions are changed, {@code *} for public permissions. */
+  public String getUserId() {
+    return userId;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof PermissionsChangedEvent)) {
+      return false;
+    }
+    final PermissionsChangedEvent that = (PermissionsChangedEvent) obj;
+    return Objects.equals(domainId, that.domainId)
+        && Objects.equals(instanceId, that.instanceId)
+        && Objects.equals(userId, that.userId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(domainId, instanceId, userId);
+  }
+
+  @Override
+  public String toString() {
+    return "PermissionsChangedEvent{"
+        + "domainId='"
+        + domainId
+        + '\''
+        + ", instanceId='"
+        + instanceId
+        + '\''
+        + ", userId='"
+        + userId
+        + '\''
+        + '}';
+  }
+}
@@ -0,0 +1,539 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.account.api.AccountManager;
+import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Pages;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceRemovedEvent;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps usage of workspaces, runtimes and RAM resources by accounts.
+ *
+ * <p>Usage of an account is calculated from all the account's workspaces when it is requested for
+ * the first time, then it is updated by workspaces events, so subsequent requests are answered
+ * without fetching workspaces. Usage of each account is periodically recalculated from workspaces
+ * to fix the drift caused by lost events, e.g. workspaces started or stopped by other Che Servers.
+ * The usage may be also recalculated on demand with {@link #recalculate(String)}, e.g. when an
+ * account is near its limits. Usage of accounts which is not requested between two periodic
+ * recalculations is forgotten, so it is calculated again on the next request.
+ *
+ * <p>When the ledger is disabled usage is calculated from workspaces on every request. The ledger
+ * is always disabled when workspaces are run by several Che Servers, see {@link #MULTI_MASTER}.
+ *
+ * @see RamResourceUsageTracker
+ * @see RuntimeResourceUsageTracker
+ * @see WorkspaceResourceUsageTracker
+ */
+@Singleton
+public class ResourceUsageLedger {
+  private static final Logger LOG = LoggerFactory.getLogger(ResourceUsageLedger.class);
+
+  /**
+   * Name of the flag which is bound to true when workspaces are run by several Che Servers. Events
+   * of workspaces run by other Che Servers are not delivered to this one, so the ledger is
+   * disabled, otherwise usage of resources kept by it would be wrong until the next recalculation.
+   */
+  public static final String MULTI_MASTER = "che.limits.usage_ledger.multi_master";
+
+  private final Provider<WorkspaceManager> workspaceManagerProvider;
+  private final AccountManager accountManager;
+  private final EnvironmentRamCalculator environmentRamCalculator;
+  private final EventService eventService;
+  private final Map<String, AccountUsage> namespaces;
+  /** Namespaces of workspaces of the accounts whose usage is kept. */
+  private final Map<String, String> workspaceNamespaces;
+  /** Usages which are being calculated, their workspaces may be not known yet. */
+  private final Set<AccountUsage> calculating;
+
+  private boolean enabled;
+  private final StatusChangesSubscriber statusChangesSubscriber;
+  private final WorkspaceCreatedSubscriber workspaceCreatedSubscriber;
+  private final WorkspaceRemovedSubscriber workspaceRemovedSubscriber;
+
+  @Inject
+  public ResourceUsageLedger(
+      Provider<WorkspaceManager> workspaceManagerProvider,
+      AccountManager accountManager,
+      EnvironmentRamCalculator environmentRamCalculator,
+      EventService eventService,
+      @Named("che.limits.usage_ledger.enabled") boolean enabled) {
+    this.workspaceManagerProvider = workspaceManagerProvider;
+    this.accountManager = accountManager;
+    this.environmentRamCalculator = environmentRamCalculator;
+    this.eventService = eventService;
+    this.enabled = enabled;
+    this.namespaces = new ConcurrentHashMap<>();
+    this.workspaceNamespaces = new ConcurrentHashMap<>();
+    this.calculating = ConcurrentHashMap.newKeySet();
+    this.statusChangesSubscriber = new StatusChangesSubscriber();
+    this.workspaceCreatedSubscriber = new WorkspaceCreatedSubscriber();
+    this.workspaceRemovedSubscriber = new WorkspaceRemovedSubscriber();
+  }
+
+  @Inject(optional = true)
+  void setMultiMaster(@Named(MULTI_MASTER) boolean multiMaster) {
+    if (multiMaster) {
+      enabled = false;
+    }
+  }
+
+  @PostConstruct
+  public void subscribe() {
+    if (enabled) {
+      eventService.subscribe(statusChangesSubscriber);
+      eventService.subscribe(workspaceCreatedSubscriber);
+      eventService.subscribe(workspaceRemovedSubscriber);
+    }
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    eventService.unsubscribe(statusChangesSubscriber);
+    eventService.unsubscribe(workspaceCreatedSubscriber);
+    eventService.unsubscribe(workspaceRemovedSubscriber);
+  }
+
+  /**
+   * Returns usage of resources by the account.
+   *
+   * @param accountId id of account
+   * @throws NotFoundException when account with given id doesn't exist
+   * @throws ServerException when any other error occurs
+   */
+  public Usage getUsage(String accountId) throws NotFoundException, ServerException {
+    final Account account = accountManager.getById(accountId);
+    if (!enabled) {
+      return calculate(account.getName()).toUsage();
+    }
+    final AccountUsage usage =
+        namespaces.computeIfAbsent(account.getName(), namespace -> new AccountUsage());
+    usage.requested = true;
+    synchronized (usage.calculationLock) {
+      if (!usage.calculated) {
+        startTracking(usage);
+        try {
+          final Snapshot snapshot = calculate(account.getName());
+          usage.reconcile(snapshot);
+          indexWorkspaces(account.getName(), snapshot);
+          usage.calculated = true;
+        } finally {
+          stopTracking(usage);
+        }
+      }
+    }
+    return usage.toUsage();
+  }
+
+  /**
+   * Recalculates usage of resources by the account from its workspaces and fixes the kept usage if
+   * differs. Does nothing if usage of the account is not kept yet, so it is calculated on the next
+   * request anyway.
+   *
+   * @param accountId id of account
+   * @throws NotFoundException when account with given id doesn't exist
+   * @throws ServerException when any other error occurs
+   */
+  public void recalculate(String accountId) throws NotFoundException, ServerException {
+    if (!enabled) {
+      return;
+    }
+    final String namespace = accountManager.getById(accountId).getName();
+    final AccountUsage usage = namespaces.get(namespace);
+    if (usage != null) {
+      reconcile(namespace, usage);
+    }
+  }
+
+  /**
+   * Recalculates usage of accounts from their workspaces and fixes the kept usage if differs. Usage
+   * of accounts which is not requested since the previous recalculation is forgotten instead.
+   */
+  @ScheduleDelay(
+      initialDelayParameterName = "che.limits.usage_ledger.reconciliation_period_s",
+      delayParameterName = "che.limits.usage_ledger.reconciliation_period_s")
+  @VisibleForTesting
+  void reconcile() {
+    if (!enabled) {
+      return;
+    }
+    final Set<String> forgotten = new HashSet<>();
+    for (Iterator<Map.Entry<String, AccountUsage>> it = namespaces.entrySet().iterator();
+        it.hasNext(); ) {
+      final Map.Entry<String, AccountUsage> entry = it.next();
+      final AccountUsage usage = entry.getValue();
+      if (!usage.requested) {
+        it.remove();
+        forgotten.add(entry.getKey());
+        continue;
+      }
+      usage.requested = false;
+      try {
+        reconcile(entry.getKey(), usage);
+      } catch (ServerException ex) {
+        LOG.warn(
+            "Failed to reconcile usage of resources by account '{}'. Cause: {}",
+            entry.getKey(),
+            ex.getMessage());
+      }
+    }
+    if (!forgotten.isEmpty()) {
+      workspaceNamespaces.values().removeIf(forgotten::contains);
+    }
+  }
+
+  /** Recalculates usage of the namespace if it is already calculated and fixes the drift. */
+  private void reconcile(String namespace, AccountUsage usage) throws ServerException {
+    synchronized (usage.calculationLock) {
+      if (!usage.calculated) {
+        return;
+      }
+      startTracking(usage);
+      try {
+        final Usage before = usage.toUsage();
+        final Snapshot snapshot = calculate(namespace);
+        indexWorkspaces(namespace, snapshot);
+        if (usage.reconcile(snapshot)) {
+          LOG.warn(
+              "Usage of resources by account '{}' drifted. Kept usage: {}, actual usage: {}",
+              namespace,
+              before,
+              usage.toUsage());
+        }
+      } finally {
+        stopTracking(usage);
+      }
+    }
+  }
+
+  private void startTracking(AccountUsage usage) {
+    usage.startTracking();
+    calculating.add(usage);
+  }
+
+  private void stopTracking(AccountUsage usage) {
+    calculating.remove(usage);
+    usage.stopTracking();
+  }
+
+  private void indexWorkspaces(String namespace, Snapshot snapshot) {
+    for (String workspaceId : snapshot.workspaces) {
+      workspaceNamespaces.put(workspaceId, namespace);
+    }
+  }
+
+  /** Returns kept usage of the account the workspace belongs to or null if it is not kept. */
+  private AccountUsage getUsageOf(String workspaceId) {
+    final String namespace = workspaceNamespaces.get(workspaceId);
+    return namespace == null ? null : namespaces.get(namespace);
+  }
+
+  /** Calculates usage of resources from all the workspaces of the namespace. */
+  private Snapshot calculate(String namespace) throws ServerException {
+    final Snapshot snapshot = new Snapshot();
+    for (WorkspaceImpl workspace :
+        Pages.iterate(
+            (maxItems, skipCount) ->
+                workspaceManagerProvider
+                    .get()
+                    .getByNamespace(namespace, true, maxItems, skipCount))) {
+      snapshot.workspaces.add(workspace.getId());
+      if (STOPPED != workspace.getStatus()) {
+        snapshot.activeRam.put(workspace.getId(), calculateRam(workspace));
+      }
+    }
+    return snapshot;
+  }
+
+  /** Returns RAM used by active workspace in megabytes. */
+  private long calculateRam(WorkspaceImpl workspace) throws ServerException {
+    if (workspace.getRuntime() == null) {
+      return 0;
+    }
+    if (STARTING == workspace.getStatus()) {
+      // starting workspace may not have all machine in runtime
+      // it is need to calculate ram from environment config
+      final EnvironmentImpl startingEnvironment =
+          workspace.getConfig().getEnvironments().get(workspace.getRuntime().getActiveEnv());
+      return environmentRamCalculator.calculate(startingEnvironment);
+    }
+    return environmentRamCalculator.calculate(workspace.getRuntime());
+  }
+
+  /** Updates the kept usage of RAM by the workspace. */
+  private void updateActive(String workspaceId) {
+    WorkspaceImpl workspace = null;
+    final long ram;
+    try {
+      workspace = workspaceManagerProvider.get().getWorkspace(workspaceId);
+      if (STOPPED == workspace.getStatus()) {
+        // already stopped, the ledger is updated by the stop event
+        return;
+      }
+      ram = calculateRam(workspace);
+    } catch (NotFoundException ex) {
+      return;
+    } catch (ServerException ex) {
+      LOG.warn(
+          "Failed to calculate RAM used by workspace '{}', usage of resources will be "
+              + "recalculated. Cause: {}",
+          workspaceId,
+          ex.getMessage());
+      // forget usage of the workspace's account, so it is recalculated on the next request
+      final String namespace =
+          workspace != null ? workspace.getNamespace() : workspaceNamespaces.get(workspaceId);
+      if (namespace != null) {
+        namespaces.remove(namespace);
+      }
+      return;
+    }
+    final AccountUsage usage = namespaces.get(workspace.getNamespace());
+    if (usage != null) {
+      workspaceNamespaces.put(workspaceId, workspace.getNamespace());
+      usage.setActive(workspaceId, ram);
+    }
+  }
+
+  /** Usage of resources by an account. */
+  public static class Usage {
+    private final long workspaces;
+    private final long runtimes;
+    private final long ram;
+
+    private Usage(long workspaces, long runtimes, long ram) {
+      this.workspaces = workspaces;
+      this.runtimes = runtimes;
+      this.ram = ram;
+    }
+
+    /** Returns the number of workspaces. */
+    public long getWorkspaces() {
+      return workspaces;
+    }
+
+    /** Returns the number of active workspaces. */
+    public long getRuntimes() {
+      return runtimes;
+    }
+
+    /** Returns RAM used by active workspaces in megabytes. */
+    public long getRam() {
+      return ram;
+    }
+
+    @Override
+    public String toString() {
+      return "Usage{"
+          + "workspaces="
+          + workspaces
+          + ", runtimes="
+          + runtimes
+          + ", ram="
+          + ram
+          + '}';
+    }
+  }
+
+  /** Usage of resources calculated from workspaces. */
+  private static class Snapshot {
+    private final Set<String> workspaces = new HashSet<>();
+    private final Map<String, Long> activeRam = new HashMap<>();
+
+    private Usage toUsage() {
+      return new Usage(
+          workspaces.size(),
+          activeRam.size(),
+          activeRam.values().stream().mapToLong(Long::longValue).sum());
+    }
+  }
+
+  /**
+   * Usage of resources by an account which is kept up to date by events.
+   *
+   * <p>While usage is calculated from workspaces, changes of workspaces caused by events are
+   * tracked, so the calculated state of these workspaces, which may be already stale, doesn't
+   * override the state set by events.
+   */
+  private static class AccountUsage {
+    private final Object calculationLock = new Object();
+    private final Set<String> workspaces = new HashSet<>();
+    private final Map<String, Long> activeRam = new HashMap<>();
+    private long ram;
+    private Set<String> createdOrRemoved;
+    private Set<String> startedOrStopped;
+
+    /** Whether the usage is requested since the previous periodic recalculation. */
+    private volatile boolean requested = true;
+
+    /** Guarded by {@link #calculationLock}. */
+    private boolean calculated;
+
+    private synchronized void startTracking() {
+      createdOrRemoved = new HashSet<>();
+      startedOrStopped = new HashSet<>();
+    }
+
+    private synchronized void stopTracking() {
+      createdOrRemoved = null;
+      startedOrStopped = null;
+    }
+
+    private synchronized void addWorkspace(String workspaceId) {
+      track(createdOrRemoved, workspaceId);
+      workspaces.add(workspaceId);
+    }
+
+    private synchronized void removeWorkspace(String workspaceId) {
+      track(createdOrRemoved, workspaceId);
+      workspaces.remove(workspaceId);
+      setInactive(workspaceId);
+    }
+
+    private synchronized void setActive(String workspaceId, long workspaceRam) {
+      track(startedOrStopped, workspaceId);
+      workspaces.add(workspaceId);
+      final Long previous = activeRam.put(workspaceId, workspaceRam);
+      ram += workspaceRam - (previous == null ? 0 : previous);
+    }
+
+    private synchronized void setInactive(String workspaceId) {
+      track(startedOrStopped, workspaceId);
+      final Long previous = activeRam.remove(workspaceId);
+      if (previous != null) {
+        ram -= previous;
+      }
+    }
+
+    /**
+     * Applies the state of workspaces calculated from workspaces, except for the changes of
+     * workspaces tracked since the tracking is started.
+     *
+     * @return true if the kept state of any workspace differed from the calculated one
+     */
+    private synchronized boolean reconcile(Snapshot snapshot) {
+      boolean drifted = false;
+      final Set<String> all = new HashSet<>(workspaces);
+      all.addAll(snapshot.workspaces);
+      for (String workspaceId : all) {
+        if (!createdOrRemoved.contains(workspaceId)) {
+          if (!snapshot.workspaces.contains(workspaceId)) {
+            drifted |= workspaces.remove(workspaceId);
+          } else {
+            drifted |= workspaces.add(workspaceId);
+          }
+        }
+        if (startedOrStopped.contains(workspaceId) || createdOrRemoved.contains(workspaceId)) {
+          continue;
+        }
+        final Long actualRam = snapshot.activeRam.get(workspaceId);
+        final Long keptRam = activeRam.get(workspaceId);
+        if (actualRam == null && keptRam != null) {
+          activeRam.remove(workspaceId);
+          ram -= keptRam;
+          drifted = true;
+        } else if (actualRam != null && !actualRam.equals(keptRam)) {
+          activeRam.put(workspaceId, actualRam);
+          ram += actualRam - (keptRam == null ? 0 : keptRam);
+          drifted = true;
+        }
+      }
+      return drifted;
+    }
+
+    private synchronized Usage toUsage() {
+      return new Usage(workspaces.size(), activeRam.size(), ram);
+    }
+
+    private static void track(Set<String> changes, String workspaceId) {
+      if (changes != null) {
+        changes.add(workspaceId);
+      }
+    }
+  }
+
+  private class StatusChangesSubscriber implements EventSubscriber<WorkspaceStatusEvent> {
+    @Override
+    public void onEvent(WorkspaceStatusEvent event) {
+      switch (event.getStatus()) {
+        case STARTING:
+        case RUNNING:
+          updateActive(event.getWorkspaceId());
+          break;
+        case STOPPED:
+          // the event doesn't provide account of the workspace
+          final AccountUsage usage = getUsageOf(event.getWorkspaceId());
+          if (usage != null) {
+            usage.setInactive(event.getWorkspaceId());
+          } else {
+            // the workspace may belong to an account whose usage is being calculated
+            for (AccountUsage calculated : calculating) {
+              calculated.setInactive(event.getWorkspaceId());
+            }
+          }
+          break;
+        default:
+          // usage of resources is not changed
+      }
+    }
+  }
+
+  private class WorkspaceCreatedSubscriber implements EventSubscriber<WorkspaceCreatedEvent> {
+    @Override
+    public void onEvent(WorkspaceCreatedEvent event) {
+      final String namespace = event.getWorkspace().getNamespace();
+      final AccountUsage usage = namespaces.get(namespace);
+      if (usage != null) {
+        workspaceNamespaces.put(event.getWorkspace().getId(), namespace);
+        usage.addWorkspace(event.getWorkspace().getId());
+      }
+    }
+  }
+
+  private class WorkspaceRemovedSubscriber implements EventSubscriber<WorkspaceRemovedEvent> {
+    @Override
+    public void onEvent(WorkspaceRemovedEvent event) {
+      workspaceNamespaces.remove(event.getWorkspace().getId());
+      final AccountUsage usage = namespaces.get(event.getWorkspace().getNamespace());
+      if (usage != null) {
+        usage.removeWorkspace(event.getWorkspace().getId());
+      }
+    }
+  }
+}
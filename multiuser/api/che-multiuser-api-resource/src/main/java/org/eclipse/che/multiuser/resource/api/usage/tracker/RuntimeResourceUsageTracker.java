@@ -11,18 +11,11 @@
  */
 package org.eclipse.che.multiuser.resource.api.usage.tracker;
 
-import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
-
 import java.util.Optional;
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.inject.Singleton;
-import org.eclipse.che.account.api.AccountManager;
-import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.Pages;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.multiuser.resource.api.ResourceUsageTracker;
 import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
 import org.eclipse.che.multiuser.resource.model.Resource;
@@ -31,36 +24,25 @@ import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
 /**
  * Tracks usage of {@link RuntimeResourceType} resource.
  *
+ * <p>Each workspace which is not stopped uses a runtime.
+ *
  * @author Sergii Leschenko
  */
 @Singleton
 public class RuntimeResourceUsageTracker implements ResourceUsageTracker {
-  private final Provider<WorkspaceManager> workspaceManagerProvider;
-  private final AccountManager accountManager;
+  private final ResourceUsageLedger usageLedger;
 
   @Inject
-  public RuntimeResourceUsageTracker(
-      Provider<WorkspaceManager> workspaceManagerProvider, AccountManager accountManager) {
-    this.workspaceManagerProvider = workspaceManagerProvider;
-    this.accountManager = accountManager;
+  public RuntimeResourceUsageTracker(ResourceUsageLedger usageLedger) {
+    this.usageLedger = usageLedger;
   }
 
   @Override
   public Optional<Resource> getUsedResource(String accountId)
       throws NotFoundException, ServerException {
-    final Account account = accountManager.getById(accountId);
-    final long currentlyUsedRuntimes =
-        Pages.stream(
-                (maxItems, skipCount) ->
-                    workspaceManagerProvider
-                        .get()
-                        .getByNamespace(account.getName(), false, maxItems, skipCount))
-            .filter(ws -> STOPPED != ws.getStatus())
-            .count();
-    if (currentlyUsedRuntimes > 0) {
-      return Optional.of(
-          new ResourceImpl(
-              RuntimeResourceType.ID, currentlyUsedRuntimes, RuntimeResourceType.UNIT));
+    final long used = usageLedger.getUsage(accountId).getRuntimes();
+    if (used > 0) {
+      return Optional.of(new ResourceImpl(RuntimeResourceType.ID, used, RuntimeResourceType.UNIT));
     } else {
       return Optional.empty();
     }
@@ -47,6 +47,7 @@ import org.eclipse.che.multiuser.resource.api.type.WorkspaceResourceType;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
 import org.eclipse.che.multiuser.resource.api.usage.ResourcesLocks;
 import org.eclipse.che.multiuser.resource.api.usage.tracker.EnvironmentRamCalculator;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger;
 import org.eclipse.che.multiuser.resource.model.Resource;
 import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
 
@@ -65,6 +66,7 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
   private final EnvironmentRamCalculator environmentRamCalculator;
   private final ResourceManager resourceManager;
   private final ResourcesLocks resourcesLocks;
+  private final ResourceUsageLedger usageLedger;
   private final AccountManager accountManager;
 
   private final long maxRamPerEnvMB;
@@ -80,12 +82,14 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
       @Named("che.limits.workspace.env.ram") String maxRamPerEnv,
       EnvironmentRamCalculator environmentRamCalculator,
       ResourceManager resourceManager,
-      ResourcesLocks resourcesLocks) {
+      ResourcesLocks resourcesLocks,
+      ResourceUsageLedger usageLedger) {
     super(workspaceDao, runtimes, eventService, accountManager, workspaceValidator);
     this.environmentRamCalculator = environmentRamCalculator;
     this.maxRamPerEnvMB = "-1".equals(maxRamPerEnv) ? -1 : Size.parseSizeToMegabytes(maxRamPerEnv);
     this.resourceManager = resourceManager;
     this.resourcesLocks = resourcesLocks;
+    this.usageLedger = usageLedger;
     this.accountManager = accountManager;
   }
 
@@ -189,7 +193,7 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
             environmentRamCalculator.calculate(environment),
             RamResourceType.UNIT);
     try {
-      resourceManager.checkResourcesAvailability(accountId, singletonList(ramToUse));
+      checkResourcesAvailability(accountId, singletonList(ramToUse));
     } catch (NoEnoughResourcesException e) {
       final Resource requiredRam =
           e.getRequiredResources().get(0); // starting of workspace requires only RAM resource
@@ -219,7 +223,7 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
   void checkWorkspaceResourceAvailability(String accountId)
       throws NotFoundException, ServerException {
     try {
-      resourceManager.checkResourcesAvailability(
+      checkResourcesAvailability(
           accountId,
           singletonList(new ResourceImpl(WorkspaceResourceType.ID, 1, WorkspaceResourceType.UNIT)));
     } catch (NoEnoughResourcesException e) {
@@ -231,7 +235,7 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
   void checkRuntimeResourceAvailability(String accountId)
       throws NotFoundException, ServerException {
     try {
-      resourceManager.checkResourcesAvailability(
+      checkResourcesAvailability(
           accountId,
           singletonList(new ResourceImpl(RuntimeResourceType.ID, 1, RuntimeResourceType.UNIT)));
     } catch (NoEnoughResourcesException e) {
@@ -239,6 +243,34 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
     }
   }
 
+  /**
+   * Checks that the account has the resources available. Usage kept by {@link ResourceUsageLedger}
+   * may miss workspaces started by other Che servers since its last reconciliation, so when the
+   * account is near the limit of any of the resources, the usage is recalculated from workspaces
+   * before the check. Must be called under the account's resources lock.
+   */
+  private void checkResourcesAvailability(String accountId, List<? extends Resource> resources)
+      throws NotFoundException, NoEnoughResourcesException, ServerException {
+    if (isNearLimit(resourceManager.getAvailableResources(accountId), resources)) {
+      usageLedger.recalculate(accountId);
+    }
+    resourceManager.checkResourcesAvailability(accountId, resources);
+  }
+
+  /** Returns true if any of required resources is available in less than twice the amount. */
+  private boolean isNearLimit(
+      List<? extends Resource> availableResources, List<? extends Resource> requiredResources) {
+    for (Resource required : requiredResources) {
+      final long available =
+          getResourceOrDefault(availableResources, required.getType(), 0, required.getUnit())
+              .getAmount();
+      if (available != -1 && available < 2 * required.getAmount()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Returns resource with specified type from list or resource with specified default amount if
    * list doesn't contain it
@@ -39,6 +39,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.Runtime;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.model.workspace.config.Environment;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
 import org.eclipse.che.api.workspace.server.model.impl.MachineConfigImpl;
@@ -46,9 +47,9 @@ import org.eclipse.che.api.workspace.server.model.impl.MachineImpl;
 import org.eclipse.che.api.workspace.server.model.impl.RuntimeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.multiuser.resource.api.type.RamResourceType;
 import org.eclipse.che.multiuser.resource.model.Resource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -74,11 +75,17 @@ public class RamResourceUsageTrackerTest {
   @Mock private AccountManager accountManager;
   @Mock private EnvironmentRamCalculator envRamCalculator;
 
-  @InjectMocks private RamResourceUsageTracker ramUsageTracker;
+  @Mock private EventService eventService;
+
+  private RamResourceUsageTracker ramUsageTracker;
 
   @BeforeMethod
   public void setUp() throws Exception {
     when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    ramUsageTracker =
+        new RamResourceUsageTracker(
+            new ResourceUsageLedger(
+                workspaceManagerProvider, accountManager, envRamCalculator, eventService, true));
     when(accountManager.getById(ACCOUNT_ID)).thenReturn(account);
     when(account.getName()).thenReturn(ACCOUNT_NAME);
   }
@@ -169,6 +176,7 @@ public class RamResourceUsageTrackerTest {
       machineConfigs.put(machineName, createMachineConfig(machineRam));
     }
     return WorkspaceImpl.builder()
+        .setId(NameGenerator.generate("workspace", 8))
         .setConfig(
             WorkspaceConfigImpl.builder()
                 .setEnvironments(
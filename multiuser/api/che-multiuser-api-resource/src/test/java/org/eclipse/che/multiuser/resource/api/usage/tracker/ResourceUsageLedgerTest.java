@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import javax.inject.Provider;
+import org.eclipse.che.account.api.AccountManager;
+import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.workspace.Runtime;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.model.workspace.config.Environment;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.RuntimeImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceRemovedEvent;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger.Usage;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link ResourceUsageLedger}. */
+@Listeners(MockitoTestNGListener.class)
+public class ResourceUsageLedgerTest {
+
+  private static final String ACCOUNT_ID = "account123";
+  private static final String NAMESPACE = "testAccount";
+  private static final String ENV_NAME = "default";
+
+  @Mock private Account account;
+  @Mock private Provider<WorkspaceManager> workspaceManagerProvider;
+  @Mock private WorkspaceManager workspaceManager;
+  @Mock private AccountManager accountManager;
+  @Mock private EnvironmentRamCalculator envRamCalculator;
+
+  private EventService eventService;
+  private ResourceUsageLedger ledger;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    when(accountManager.getById(ACCOUNT_ID)).thenReturn(account);
+    when(account.getName()).thenReturn(NAMESPACE);
+    eventService = new EventService();
+    ledger =
+        new ResourceUsageLedger(
+            workspaceManagerProvider, accountManager, envRamCalculator, eventService, true);
+    ledger.subscribe();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    ledger.unsubscribe();
+  }
+
+  @Test
+  public void shouldCalculateUsageFromWorkspacesOnlyOnce() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", RUNNING), createWorkspace("ws2", STOPPED));
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1000L);
+
+    ledger.getUsage(ACCOUNT_ID);
+    Usage usage = ledger.getUsage(ACCOUNT_ID);
+
+    assertUsage(usage, 2, 1, 1000);
+    verify(workspaceManager).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateUsageOnWorkspaceStatusChanges() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    ledger.getUsage(ACCOUNT_ID);
+    when(envRamCalculator.calculate(any(Environment.class))).thenReturn(2000L);
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1500L);
+
+    when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", STARTING));
+    publishStatus("ws1", STARTING);
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 1, 2000);
+
+    when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", RUNNING));
+    publishStatus("ws1", RUNNING);
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 1, 1500);
+
+    publishStatus("ws1", STOPPED);
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 0, 0);
+    verify(workspaceManager).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateUsageWhenWorkspacesAreCreatedOrRemoved() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    ledger.getUsage(ACCOUNT_ID);
+
+    eventService.publish(new WorkspaceCreatedEvent(createWorkspace("ws2", STOPPED)));
+    eventService.publish(new WorkspaceCreatedEvent(createWorkspace("ws3", STOPPED)));
+    eventService.publish(new WorkspaceRemovedEvent(createWorkspace("ws1", STOPPED)));
+
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 2, 0, 0);
+  }
+
+  @Test
+  public void shouldNotOverrideChangesMadeWhileUsageIsCalculated() throws Exception {
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1000L);
+    doAnswer(
+            invocation -> {
+              // the workspace is stopped after it is fetched
+              publishStatus("ws1", STOPPED);
+              return new Page<>(asList(createWorkspace("ws1", RUNNING)), 0, 1, 1);
+            })
+        .when(workspaceManager)
+        .getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 0, 0);
+  }
+
+  @Test
+  public void shouldFixDriftOnReconciliation() throws Exception {
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1000L);
+    mockWorkspaces(createWorkspace("ws1", RUNNING));
+    ledger.getUsage(ACCOUNT_ID);
+
+    // the workspace is stopped by another Che Server
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    ledger.reconcile();
+
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 0, 0);
+    verify(workspaceManager, times(2)).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldForgetUsageOfAccountNotRequestedSinceLastReconciliation() throws Exception {
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1000L);
+    mockWorkspaces(createWorkspace("ws1", RUNNING));
+    ledger.getUsage(ACCOUNT_ID);
+
+    ledger.reconcile();
+    ledger.reconcile();
+    ledger.reconcile();
+    publishStatus("ws1", STOPPED);
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 0, 0);
+    // calculated on the first request, reconciled once, calculated again after it is forgotten
+    verify(workspaceManager, times(3)).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateOnlyUsageOfAccountOfStoppedWorkspace() throws Exception {
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1000L);
+    Account other = mock(Account.class);
+    when(other.getName()).thenReturn("otherAccount");
+    when(accountManager.getById("account456")).thenReturn(other);
+    when(workspaceManager.getByNamespace(eq("otherAccount"), eq(true), anyInt(), anyLong()))
+        .thenReturn(new Page<>(asList(createWorkspace("ws2", RUNNING)), 0, 1, 1));
+    mockWorkspaces(createWorkspace("ws1", RUNNING));
+    ledger.getUsage(ACCOUNT_ID);
+    ledger.getUsage("account456");
+
+    publishStatus("ws1", STOPPED);
+
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 0, 0);
+    assertUsage(ledger.getUsage("account456"), 1, 1, 1000);
+  }
+
+  @Test
+  public void shouldRecalculateUsageOfAccountOnDemand() throws Exception {
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1000L);
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    ledger.getUsage(ACCOUNT_ID);
+
+    // the workspace is started by another Che Server
+    mockWorkspaces(createWorkspace("ws1", RUNNING));
+    ledger.recalculate(ACCOUNT_ID);
+
+    assertUsage(ledger.getUsage(ACCOUNT_ID), 1, 1, 1000);
+  }
+
+  @Test
+  public void shouldForgetOnlyUsageOfAccountWhoseWorkspaceCanNotBeFetched() throws Exception {
+    Account other = mock(Account.class);
+    when(other.getName()).thenReturn("otherAccount");
+    when(accountManager.getById("account456")).thenReturn(other);
+    when(workspaceManager.getByNamespace(eq("otherAccount"), eq(true), anyInt(), anyLong()))
+        .thenReturn(new Page<>(emptyList(), 0, 1, 0));
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    ledger.getUsage(ACCOUNT_ID);
+    ledger.getUsage("account456");
+
+    when(workspaceManager.getWorkspace("ws1")).thenThrow(new ServerException("test"));
+    publishStatus("ws1", STARTING);
+    ledger.getUsage(ACCOUNT_ID);
+    ledger.getUsage("account456");
+
+    verify(workspaceManager, times(2)).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+    verify(workspaceManager).getByNamespace(eq("otherAccount"), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldCalculateUsageFromWorkspacesOnEachRequestWhenDisabled() throws Exception {
+    ledger =
+        new ResourceUsageLedger(
+            workspaceManagerProvider, accountManager, envRamCalculator, eventService, false);
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+
+    ledger.getUsage(ACCOUNT_ID);
+    ledger.getUsage(ACCOUNT_ID);
+
+    verify(workspaceManager, times(2)).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldCalculateUsageFromWorkspacesOnEachRequestWhenRunByMultipleMasters()
+      throws Exception {
+    ledger.unsubscribe();
+    ledger =
+        new ResourceUsageLedger(
+            workspaceManagerProvider, accountManager, envRamCalculator, eventService, true);
+    ledger.setMultiMaster(true);
+    ledger.subscribe();
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+
+    ledger.getUsage(ACCOUNT_ID);
+    ledger.getUsage(ACCOUNT_ID);
+
+    verify(workspaceManager, times(2)).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+  }
+
+  private void publishStatus(String workspaceId, WorkspaceStatus status) {
+    eventService.publish(
+        DtoFactory.newDto(WorkspaceStatusEvent.class)
+            .withWorkspaceId(workspaceId)
+            .withStatus(status));
+  }
+
+  private void mockWorkspaces(WorkspaceImpl... workspaces) throws Exception {
+    when(workspaceManager.getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong()))
+        .thenReturn(new Page<>(asList(workspaces), 0, workspaces.length, workspaces.length));
+  }
+
+  private static void assertUsage(Usage usage, long workspaces, long runtimes, long ram) {
+    assertEquals(usage.getWorkspaces(), workspaces);
+    assertEquals(usage.getRuntimes(), runtimes);
+    assertEquals(usage.getRam(), ram);
+  }
+
+  private static WorkspaceImpl createWorkspace(String id, WorkspaceStatus status) {
+    return WorkspaceImpl.builder()
+        .setId(id)
+        .setAccount(new AccountImpl(ACCOUNT_ID, NAMESPACE, "test"))
+        .setConfig(
+            WorkspaceConfigImpl.builder()
+                .setEnvironments(
+                    ImmutableMap.of(ENV_NAME, new EnvironmentImpl(null, new HashMap<>())))
+                .build())
+        .setRuntime(STOPPED == status ? null : new RuntimeImpl(ENV_NAME, new HashMap<>(), null))
+        .setStatus(status)
+        .build();
+  }
+}
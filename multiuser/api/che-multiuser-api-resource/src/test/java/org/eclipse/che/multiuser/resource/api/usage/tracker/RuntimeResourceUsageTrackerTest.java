@@ -34,11 +34,11 @@ import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
 import org.eclipse.che.multiuser.resource.model.Resource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -57,11 +57,18 @@ public class RuntimeResourceUsageTrackerTest {
   @Mock private AccountManager accountManager;
   @Mock private Account account;
 
-  @InjectMocks private RuntimeResourceUsageTracker runtimeResourceUsageTracker;
+  @Mock private EnvironmentRamCalculator envRamCalculator;
+  @Mock private EventService eventService;
+
+  private RuntimeResourceUsageTracker runtimeResourceUsageTracker;
 
   @BeforeMethod
   public void setUp() throws Exception {
     when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    runtimeResourceUsageTracker =
+        new RuntimeResourceUsageTracker(
+            new ResourceUsageLedger(
+                workspaceManagerProvider, accountManager, envRamCalculator, eventService, true));
   }
 
   @Test(
@@ -108,11 +115,11 @@ public class RuntimeResourceUsageTrackerTest {
         usedRuntimes.getAmount(), WorkspaceStatus.values().length - 1); // except stopped workspaces
     assertEquals(usedRuntimes.getUnit(), RuntimeResourceType.UNIT);
     verify(accountManager).getById(eq("account123"));
-    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(false), anyInt(), anyLong());
+    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(true), anyInt(), anyLong());
   }
 
   /** Creates users workspace object based on the status. */
   public static WorkspaceImpl createWorkspace(WorkspaceStatus status) {
-    return WorkspaceImpl.builder().setStatus(status).build();
+    return WorkspaceImpl.builder().setId("workspace_" + status).setStatus(status).build();
   }
 }
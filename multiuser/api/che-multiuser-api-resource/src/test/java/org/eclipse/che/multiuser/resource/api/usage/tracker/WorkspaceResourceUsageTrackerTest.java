@@ -31,11 +31,12 @@ import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.multiuser.resource.api.type.WorkspaceResourceType;
 import org.eclipse.che.multiuser.resource.model.Resource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -53,11 +54,18 @@ public class WorkspaceResourceUsageTrackerTest {
   @Mock private AccountManager accountManager;
   @Mock private Account account;
 
-  @InjectMocks private WorkspaceResourceUsageTracker workspaceResourceUsageTracker;
+  @Mock private EnvironmentRamCalculator envRamCalculator;
+  @Mock private EventService eventService;
+
+  private WorkspaceResourceUsageTracker workspaceResourceUsageTracker;
 
   @BeforeMethod
   public void setUp() throws Exception {
     when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    workspaceResourceUsageTracker =
+        new WorkspaceResourceUsageTracker(
+            new ResourceUsageLedger(
+                workspaceManagerProvider, accountManager, envRamCalculator, eventService, true));
   }
 
   @Test(
@@ -92,7 +100,10 @@ public class WorkspaceResourceUsageTrackerTest {
     when(workspaceManager.getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong()))
         .thenReturn(
             new Page<>(
-                Arrays.asList(new WorkspaceImpl(), new WorkspaceImpl(), new WorkspaceImpl()),
+                Arrays.asList(
+                    createWorkspace("workspace1"),
+                    createWorkspace("workspace2"),
+                    createWorkspace("workspace3")),
                 0,
                 3,
                 3));
@@ -106,6 +117,10 @@ public class WorkspaceResourceUsageTrackerTest {
     assertEquals(usedWorkspaces.getAmount(), 3);
     assertEquals(usedWorkspaces.getUnit(), WorkspaceResourceType.UNIT);
     verify(accountManager).getById(eq("account123"));
-    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(false), anyInt(), anyLong());
+    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(true), anyInt(), anyLong());
+  }
+
+  private static WorkspaceImpl createWorkspace(String id) {
+    return WorkspaceImpl.builder().setId(id).setStatus(WorkspaceStatus.STOPPED).build();
   }
 }
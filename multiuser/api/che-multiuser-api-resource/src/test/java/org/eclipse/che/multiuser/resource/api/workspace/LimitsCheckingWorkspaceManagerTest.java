@@ -18,6 +18,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -32,6 +33,7 @@ import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
 import org.eclipse.che.multiuser.resource.api.type.WorkspaceResourceType;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
 import org.eclipse.che.multiuser.resource.api.usage.tracker.EnvironmentRamCalculator;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger;
 import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -53,6 +55,7 @@ public class LimitsCheckingWorkspaceManagerTest {
   public static final String ACCOUNT_ID = "accountId";
   @Mock private EnvironmentRamCalculator environmentRamCalculator;
   @Mock private ResourceManager resourceManager;
+  @Mock private ResourceUsageLedger usageLedger;
 
   @Test
   public void shouldUseRamOfSpecifiedEnvironmentOnCheckingAvailabilityOfRamResource()
@@ -215,6 +218,43 @@ public class LimitsCheckingWorkspaceManagerTest {
     manager.checkRuntimeResourceAvailability(ACCOUNT_ID);
   }
 
+  @Test
+  public void shouldRecalculateUsageBeforeCheckingResourcesWhenAccountIsNearLimit()
+      throws Exception {
+    doReturn(singletonList(new ResourceImpl(RamResourceType.ID, 3000L, RamResourceType.UNIT)))
+        .when(resourceManager)
+        .getAvailableResources(ACCOUNT_ID);
+    when(environmentRamCalculator.calculate(any(Environment.class))).thenReturn(2000L);
+    LimitsCheckingWorkspaceManager manager =
+        managerBuilder()
+            .setResourceManager(resourceManager)
+            .setEnvironmentRamCalculator(environmentRamCalculator)
+            .setUsageLedger(usageLedger)
+            .build();
+
+    manager.checkRamResourcesAvailability(ACCOUNT_ID, NAMESPACE, createConfig("2gb"), null);
+
+    verify(usageLedger).recalculate(ACCOUNT_ID);
+  }
+
+  @Test
+  public void shouldNotRecalculateUsageWhenAccountIsFarFromLimit() throws Exception {
+    doReturn(singletonList(new ResourceImpl(RamResourceType.ID, 5000L, RamResourceType.UNIT)))
+        .when(resourceManager)
+        .getAvailableResources(ACCOUNT_ID);
+    when(environmentRamCalculator.calculate(any(Environment.class))).thenReturn(2000L);
+    LimitsCheckingWorkspaceManager manager =
+        managerBuilder()
+            .setResourceManager(resourceManager)
+            .setEnvironmentRamCalculator(environmentRamCalculator)
+            .setUsageLedger(usageLedger)
+            .build();
+
+    manager.checkRamResourcesAvailability(ACCOUNT_ID, NAMESPACE, createConfig("2gb"), null);
+
+    verify(usageLedger, never()).recalculate(anyString());
+  }
+
   @Test(
       expectedExceptions = LimitExceededException.class,
       expectedExceptionsMessageRegExp = "You are only allowed to use 2048 mb. RAM per workspace.")
@@ -253,9 +293,11 @@ public class LimitsCheckingWorkspaceManagerTest {
     private String maxRamPerEnv;
     private EnvironmentRamCalculator environmentRamCalculator;
     private ResourceManager resourceManager;
+    private ResourceUsageLedger usageLedger;
 
     ManagerBuilder() throws ServerException {
       maxRamPerEnv = "1gb";
+      usageLedger = mock(ResourceUsageLedger.class);
     }
 
     public LimitsCheckingWorkspaceManager build() {
@@ -269,7 +311,8 @@ public class LimitsCheckingWorkspaceManagerTest {
               maxRamPerEnv,
               environmentRamCalculator,
               resourceManager,
-              null));
+              null,
+              usageLedger));
     }
 
     ManagerBuilder setMaxRamPerEnv(String maxRamPerEnv) {
@@ -286,5 +329,10 @@ public class LimitsCheckingWorkspaceManagerTest {
       this.resourceManager = resourceManager;
       return this;
     }
+
+    ManagerBuilder setUsageLedger(ResourceUsageLedger usageLedger) {
+      this.usageLedger = usageLedger;
+      return this;
+    }
   }
 }
@@ -54,8 +54,9 @@ public class MultiUserWorkspaceActivityManager extends WorkspaceActivityManager
       EventService eventService,
       AccountManager accountManager,
       ResourceManager resourceManager,
-      @Named("che.limits.workspace.idle.timeout") long defaultTimeout) {
-    super(workspaceManager, activityDao, eventService, defaultTimeout);
+      @Named("che.limits.workspace.idle.timeout") long defaultTimeout,
+      @Named("che.workspace.activity_flush_period_s") long flushPeriod) {
+    super(workspaceManager, activityDao, eventService, defaultTimeout, flushPeriod);
     this.accountManager = accountManager;
     this.resourceManager = resourceManager;
     this.defaultTimeout = defaultTimeout;
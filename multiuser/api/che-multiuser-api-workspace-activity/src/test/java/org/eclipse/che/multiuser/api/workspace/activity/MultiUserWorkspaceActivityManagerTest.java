@@ -65,7 +65,8 @@ public class MultiUserWorkspaceActivityManagerTest {
             eventService,
             accountManager,
             resourceManager,
-            DEFAULT_TIMEOUT);
+            DEFAULT_TIMEOUT,
+            -1);
 
     when(account.getName()).thenReturn("accountName");
     when(account.getId()).thenReturn("account123");
@@ -248,6 +248,14 @@ public class JpaEntitiesCascadeRemovalTest {
                 MapBinder.newMapBinder(binder(), String.class, InternalEnvironmentFactory.class);
                 bind(PermissionsManager.class);
                 bind(PermissionChecker.class).to(PermissionCheckerImpl.class);
+                bindConstant()
+                    .annotatedWith(
+                        Names.named("che.multiuser.permissions.cache.max_entries_per_domain"))
+                    .to(10_000L);
+                bindConstant()
+                    .annotatedWith(
+                        Names.named("che.multiuser.permissions.cache.expire_after_write_sec"))
+                    .to(300L);
                 bind(AccountManager.class);
                 bind(Boolean.class)
                     .annotatedWith(Names.named("che.workspace.auto_snapshot"))
@@ -84,6 +84,18 @@ public class ProjectApiUtils {
                 bind(File.class)
                     .annotatedWith(Names.named("vfs.local.fs_index_root_dir"))
                     .toInstance(indexDir);
+                bind(Boolean.class)
+                    .annotatedWith(Names.named("che.search.index.store_text"))
+                    .toInstance(true);
+                bind(Boolean.class)
+                    .annotatedWith(Names.named("che.fs.tree_walker.event_driven"))
+                    .toInstance(false);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.fs.zip.compression_level"))
+                    .toInstance(-1);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.fs.unzip.threads"))
+                    .toInstance(1);
                 bind(String.class).annotatedWith(Names.named("che.api")).toInstance("api-endpoint");
                 bind(String.class)
                     .annotatedWith(Names.named("project.importer.default_importer_id"))
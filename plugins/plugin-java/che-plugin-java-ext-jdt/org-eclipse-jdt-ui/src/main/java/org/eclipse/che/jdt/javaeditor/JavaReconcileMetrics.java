@@ -0,0 +1,110 @@
+/**
+ * ***************************************************************************** Copyright (c)
+ * 2012-2015 Red Hat, Inc. All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * <p>Contributors: Red Hat, Inc. - initial API and implementation
+ * *****************************************************************************
+ */
+package org.eclipse.che.jdt.javaeditor;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Counts reconciles of edited java files and their latency.
+ *
+ * <p>Latency is the time from the first editor change which is not yet reconciled until the
+ * reconcile result is sent to the client, so it includes the time the change waits for the
+ * subsequent changes to be coalesced with.
+ */
+public class JavaReconcileMetrics {
+  private long completed;
+  private long canceled;
+  private long failed;
+  private long coalescedChanges;
+  private long totalLatencyNanos;
+  private long maxLatencyNanos;
+
+  /**
+   * Records completed reconcile.
+   *
+   * @param changes the number of editor changes reconciled at once
+   * @param latencyNanos time from the first of the changes until the result is sent
+   */
+  synchronized void recordCompleted(int changes, long latencyNanos) {
+    completed++;
+    coalescedChanges += changes;
+    totalLatencyNanos += latencyNanos;
+    maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+  }
+
+  /** Records reconcile canceled because of newer changes. */
+  synchronized void recordCanceled() {
+    canceled++;
+  }
+
+  /** Records reconcile failed with an error. */
+  synchronized void recordFailed() {
+    failed++;
+  }
+
+  /** Returns the number of completed reconciles. */
+  public synchronized long getCompleted() {
+    return completed;
+  }
+
+  /** Returns the number of reconciles canceled because of newer changes. */
+  public synchronized long getCanceled() {
+    return canceled;
+  }
+
+  /** Returns the number of failed reconciles. */
+  public synchronized long getFailed() {
+    return failed;
+  }
+
+  /** Returns the number of editor changes reconciled by completed reconciles. */
+  public synchronized long getCoalescedChanges() {
+    return coalescedChanges;
+  }
+
+  /** Returns average latency of completed reconciles in milliseconds. */
+  public synchronized long getAverageLatencyMs() {
+    return completed == 0 ? 0 : NANOSECONDS.toMillis(totalLatencyNanos / completed);
+  }
+
+  /** Returns max latency of completed reconciles in milliseconds. */
+  public synchronized long getMaxLatencyMs() {
+    return NANOSECONDS.toMillis(maxLatencyNanos);
+  }
+
+  synchronized JavaReconcileMetrics copy() {
+    JavaReconcileMetrics copy = new JavaReconcileMetrics();
+    copy.completed = completed;
+    copy.canceled = canceled;
+    copy.failed = failed;
+    copy.coalescedChanges = coalescedChanges;
+    copy.totalLatencyNanos = totalLatencyNanos;
+    copy.maxLatencyNanos = maxLatencyNanos;
+    return copy;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "JavaReconcileMetrics{"
+        + "completed="
+        + completed
+        + ", canceled="
+        + canceled
+        + ", failed="
+        + failed
+        + ", coalescedChanges="
+        + coalescedChanges
+        + ", averageLatencyMs="
+        + getAverageLatencyMs()
+        + ", maxLatencyMs="
+        + getMaxLatencyMs()
+        + '}';
+  }
+}
@@ -13,14 +13,25 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.Comparator.comparingLong;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
 import static org.eclipse.che.jdt.javaeditor.JavaReconciler.Mode.ACTIVATED;
 import static org.eclipse.che.jdt.javaeditor.JavaReconciler.Mode.DEACTIVATED;
 import static org.eclipse.jdt.core.IJavaElement.COMPILATION_UNIT;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import javax.annotation.PreDestroy;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
@@ -42,6 +53,9 @@ import org.eclipse.che.ide.ext.java.shared.dto.HighlightedPosition;
 import org.eclipse.che.ide.ext.java.shared.dto.Problem;
 import org.eclipse.che.ide.ext.java.shared.dto.ReconcileResult;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClasspathEntry;
@@ -59,12 +73,23 @@ import org.eclipse.jdt.internal.core.ClassFileWorkingCopy;
 import org.eclipse.jdt.internal.core.JavaModel;
 import org.eclipse.jdt.internal.core.JavaModelManager;
 import org.eclipse.jdt.internal.ui.javaeditor.DocumentAdapter;
+import org.eclipse.text.edits.DeleteEdit;
+import org.eclipse.text.edits.InsertEdit;
 import org.eclipse.text.edits.ReplaceEdit;
 import org.eclipse.text.edits.TextEdit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Reconciles java files edited on the client and sends the problems and semantic highlighting of
+ * the files to the client.
+ *
+ * <p>Editor changes are not reconciled one by one. The changes of a file are coalesced until no new
+ * change arrives for {@link #RECONCILE_DELAY_MS}, and a reconcile which is in progress is canceled
+ * when a newer change arrives, so fast typing doesn't queue reconciles whose results are already
+ * stale. Every edited file keeps its own working copy while the file is open, only the editor
+ * changes are applied to it instead of replacing its whole content on every reconcile.
+ *
  * @author Evgen Vidolob
  * @author Roman Nikitenko
  */
@@ -76,6 +101,9 @@ public class JavaReconciler {
   private static final String RECONCILE_ERROR_METHOD = "event:java-reconcile-error";
   private static final String RECONCILE_STATE_CHANGED_METHOD = "event:java-reconcile-state-changed";
 
+  /** How long editor changes are coalesced before they are reconciled. */
+  static final long RECONCILE_DELAY_MS = 300;
+
   private final List<EventSubscriber> subscribers = new ArrayList<>(2);
 
   private final EventService eventService;
@@ -83,8 +111,12 @@ public class JavaReconciler {
   private final ProjectManager projectManager;
   private final EditorWorkingCopyManager editorWorkingCopyManager;
   private final SemanticHighlightingReconciler semanticHighlighting;
+  private final Map<String, EditorReconcile> editorReconciles = new ConcurrentHashMap<>();
+  private final JavaReconcileMetrics metrics = new JavaReconcileMetrics();
+  private final ScheduledExecutorService executor;
+  private final long reconcileDelayMs;
 
-  private Mode mode = ACTIVATED;
+  private volatile Mode mode = ACTIVATED;
 
   @Inject
   public JavaReconciler(
@@ -93,6 +125,28 @@ public class JavaReconciler {
       RequestTransmitter transmitter,
       ProjectManager projectManager,
       EditorWorkingCopyManager editorWorkingCopyManager) {
+    this(
+        semanticHighlighting,
+        eventService,
+        transmitter,
+        projectManager,
+        editorWorkingCopyManager,
+        RECONCILE_DELAY_MS);
+  }
+
+  @VisibleForTesting
+  JavaReconciler(
+      SemanticHighlightingReconciler semanticHighlighting,
+      EventService eventService,
+      RequestTransmitter transmitter,
+      ProjectManager projectManager,
+      EditorWorkingCopyManager editorWorkingCopyManager,
+      long reconcileDelayMs) {
+    this.reconcileDelayMs = reconcileDelayMs;
+    // reconciles are serialized, so the reconciles of a file never run concurrently
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("JavaReconciler-%d").setDaemon(true).build());
     this.semanticHighlighting = semanticHighlighting;
     this.eventService = eventService;
     this.transmitter = transmitter;
@@ -123,6 +177,14 @@ public class JavaReconciler {
   @PreDestroy
   private void unsubscribe() {
     subscribers.forEach(eventService::unsubscribe);
+    editorReconciles.values().forEach(EditorReconcile::close);
+    editorReconciles.clear();
+    executor.shutdownNow();
+  }
+
+  /** Returns copy of metrics of the reconciles of edited files. */
+  public JavaReconcileMetrics getMetrics() {
+    return metrics.copy();
   }
 
   public ReconcileResult reconcile(IJavaProject javaProject, String fqn) throws JavaModelException {
@@ -194,16 +256,13 @@ public class JavaReconciler {
   }
 
   private void onEditorContentUpdated(EditorWorkingCopyUpdatedEvent event) {
-    if (mode == DEACTIVATED) {
-      return;
-    }
-
-    String endpointId = event.getEndpointId();
     EditorChangesDto editorChanges = event.getChanges();
     String filePath = editorChanges.getFileLocation();
     String projectPath = editorChanges.getProjectPath();
 
-    reconcileAndTransmit(filePath, projectPath, endpointId);
+    EditorReconcile editorReconcile =
+        editorReconciles.computeIfAbsent(filePath, path -> new EditorReconcile(path, projectPath));
+    editorReconcile.onChanges(event, mode == ACTIVATED);
   }
 
   private void onFileOperation(String endpointId, FileTrackingOperationDto operation) {
@@ -224,7 +283,21 @@ public class JavaReconciler {
               throw new NotFoundException("The project is not recognized for " + filePath);
             }
 
-            reconcileAndTransmit(filePath, projectPath, endpointId);
+            editorReconciles
+                .computeIfAbsent(filePath, path -> new EditorReconcile(path, projectPath))
+                .schedule(endpointId, 0);
+            break;
+          }
+
+        case STOP:
+          {
+            closeEditorReconcile(operation.getPath());
+            break;
+          }
+
+        case MOVE:
+          {
+            closeEditorReconcile(operation.getOldPath());
             break;
           }
 
@@ -252,34 +325,10 @@ public class JavaReconciler {
     }
   }
 
-  private void reconcileAndTransmit(String filePath, String projectPath, String endpointId) {
-    ICompilationUnit compilationUnit;
-    try {
-      compilationUnit = getCompilationUnit(filePath, projectPath);
-      if (compilationUnit == null) {
-        return;
-      }
-    } catch (JavaModelException e) {
-      return; // ignore - we haven't compilation unit to reconcile
-    }
-
-    try {
-      ReconcileResult reconcileResult = reconcile(compilationUnit, getJavaProject(projectPath));
-      transmitter
-          .newRequest()
-          .endpointId(endpointId)
-          .methodName(RECONCILE_STATE_CHANGED_METHOD)
-          .paramsAsDto(reconcileResult)
-          .sendAndSkipResult();
-    } catch (JavaModelException e) {
-      String errorMessage =
-          format(
-              "Can't reconcile class: %s in project: %s, the reason is %s",
-              filePath, projectPath, e.getLocalizedMessage());
-
-      LOG.error(errorMessage);
-
-      transmitError(500, errorMessage, endpointId);
+  private void closeEditorReconcile(String filePath) {
+    EditorReconcile editorReconcile = editorReconciles.remove(filePath);
+    if (editorReconcile != null) {
+      editorReconcile.close();
     }
   }
 
@@ -383,6 +432,271 @@ public class JavaReconciler {
     return type;
   }
 
+  /**
+   * Reconciles a single edited file. Editor changes are collected under the lock of this object and
+   * applied to the working copy by the reconcile thread, which is the only one accessing the
+   * working copy.
+   */
+  private class EditorReconcile {
+    private final String filePath;
+    private final String projectPath;
+
+    /** Guarded by this, changes which are not applied to the working copy yet. */
+    private List<EditorWorkingCopyUpdatedEvent> pendingChanges = new ArrayList<>();
+    /** Guarded by this, whether the working copy must get the whole content of the editor. */
+    private boolean resync;
+    /** Guarded by this, when the first of not reconciled changes arrived, or 0. */
+    private long pendingSince;
+
+    private String endpointId;
+    private ScheduledFuture<?> scheduled;
+    private IProgressMonitor inProgress;
+    private boolean closed;
+
+    private ICompilationUnit workingCopy;
+    private WorkingCopyOwner workingCopyOwner;
+    private ProblemRequestor problemRequestor;
+    private int unreportedChanges;
+    /** The version of editor working copy the working copy is synchronized with. */
+    private long appliedVersion;
+
+    EditorReconcile(String filePath, String projectPath) {
+      this.filePath = filePath;
+      this.projectPath = projectPath;
+    }
+
+    /**
+     * Collects editor changes which are already applied to editor working copy. Concurrent changes
+     * may be collected out of order, they are ordered by version when applied.
+     */
+    synchronized void onChanges(EditorWorkingCopyUpdatedEvent changes, boolean activated) {
+      if (!activated) {
+        // the changes are not reconciled while the reconciler is deactivated, so the working copy
+        // must be synchronized with the whole editor content when reconcile is requested next time
+        pendingChanges.clear();
+        resync = true;
+        return;
+      }
+      pendingChanges.add(changes);
+      schedule(changes.getEndpointId(), reconcileDelayMs);
+    }
+
+    /** Schedules reconcile canceling the reconcile which is already in progress. */
+    synchronized void schedule(String endpointId, long delayMs) {
+      if (closed) {
+        return;
+      }
+      this.endpointId = endpointId;
+      if (pendingSince == 0) {
+        pendingSince = System.nanoTime();
+      }
+      if (inProgress != null) {
+        inProgress.setCanceled(true);
+      }
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+      scheduled = executor.schedule(this::reconcileAndTransmit, delayMs, MILLISECONDS);
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (inProgress != null) {
+        inProgress.setCanceled(true);
+      }
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+      // the working copy is discarded by the reconcile thread which owns it
+      executor.execute(this::discardWorkingCopy);
+    }
+
+    private void reconcileAndTransmit() {
+      final List<EditorWorkingCopyUpdatedEvent> changes;
+      final boolean fullSync;
+      final long since;
+      final String endpointId;
+      final IProgressMonitor monitor = new NullProgressMonitor();
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        changes = pendingChanges;
+        pendingChanges = new ArrayList<>();
+        fullSync = resync || workingCopy == null;
+        resync = false;
+        since = pendingSince;
+        pendingSince = 0;
+        endpointId = this.endpointId;
+        inProgress = monitor;
+        scheduled = null;
+      }
+
+      try {
+        if (fullSync) {
+          if (!openWorkingCopy()) {
+            return;
+          }
+          synchronizeContent();
+        } else {
+          applyChanges(changes);
+        }
+        unreportedChanges += changes.size();
+
+        ReconcileResult reconcileResult = reconcile(monitor);
+        if (monitor.isCanceled()) {
+          throw new OperationCanceledException();
+        }
+        transmitter
+            .newRequest()
+            .endpointId(endpointId)
+            .methodName(RECONCILE_STATE_CHANGED_METHOD)
+            .paramsAsDto(reconcileResult)
+            .sendAndSkipResult();
+        metrics.recordCompleted(unreportedChanges, System.nanoTime() - since);
+        unreportedChanges = 0;
+      } catch (OperationCanceledException e) {
+        metrics.recordCanceled();
+        // newer reconcile is already scheduled, it reports the changes of this one
+        synchronized (this) {
+          if (pendingSince == 0 || since - pendingSince < 0) {
+            pendingSince = since;
+          }
+        }
+      } catch (JavaModelException | RuntimeException e) {
+        metrics.recordFailed();
+        synchronized (this) {
+          resync = true;
+        }
+        String errorMessage =
+            format(
+                "Can't reconcile class: %s in project: %s, the reason is %s",
+                filePath, projectPath, e.getLocalizedMessage());
+
+        LOG.error(errorMessage);
+
+        transmitError(500, errorMessage, endpointId);
+      } finally {
+        synchronized (this) {
+          if (inProgress == monitor) {
+            inProgress = null;
+          }
+        }
+      }
+    }
+
+    /** Opens working copy of the file, returns false if the file is not a compilation unit. */
+    private boolean openWorkingCopy() throws JavaModelException {
+      if (workingCopy != null) {
+        return true;
+      }
+      ICompilationUnit compilationUnit;
+      try {
+        compilationUnit = getCompilationUnit(filePath, projectPath);
+      } catch (JavaModelException e) {
+        return false; // ignore - we haven't compilation unit to reconcile
+      }
+      if (compilationUnit == null) {
+        return false;
+      }
+      problemRequestor = new ProblemRequestor();
+      workingCopyOwner = createWorkingCopyOwner(problemRequestor);
+      workingCopy = compilationUnit.getWorkingCopy(workingCopyOwner, null);
+      return true;
+    }
+
+    /**
+     * Replaces the content of the working copy with the editor content and drops the pending
+     * changes which the editor content already contains.
+     */
+    private void synchronizeContent() throws JavaModelException {
+      EditorWorkingCopy editorWorkingCopy = editorWorkingCopyManager.getWorkingCopy(filePath);
+      if (editorWorkingCopy == null) {
+        return;
+      }
+      String content;
+      long version;
+      synchronized (editorWorkingCopy) {
+        content = editorWorkingCopy.getContentAsString();
+        version = editorWorkingCopy.getVersion();
+      }
+      synchronized (this) {
+        pendingChanges.removeIf(changes -> changes.getVersion() <= version);
+      }
+      IBuffer buffer = workingCopy.getBuffer();
+      workingCopy.applyTextEdit(new ReplaceEdit(0, buffer.getLength(), content), null);
+      appliedVersion = version;
+    }
+
+    /**
+     * Applies editor changes to the working copy in the order of their versions. If some changes
+     * are missed, e.g. the content was updated not by the editor, or the working copy diverges from
+     * the editor content, its whole content is synchronized.
+     */
+    private void applyChanges(List<EditorWorkingCopyUpdatedEvent> changes)
+        throws JavaModelException {
+      changes.sort(comparingLong(EditorWorkingCopyUpdatedEvent::getVersion));
+      EditorWorkingCopyUpdatedEvent last = null;
+      for (EditorWorkingCopyUpdatedEvent event : changes) {
+        if (event.getVersion() <= appliedVersion) {
+          // the change is already contained in the synchronized content
+          continue;
+        }
+        if (event.getVersion() != appliedVersion + 1) {
+          LOG.debug("Working copy of '{}' missed changes of the editor content", filePath);
+          synchronizeContent();
+          return;
+        }
+        EditorChangesDto change = event.getChanges();
+        int offset = change.getOffset();
+        if (change.getType() == INSERT) {
+          workingCopy.applyTextEdit(new InsertEdit(offset, change.getText()), null);
+        } else if (change.getType() == REMOVE && change.getRemovedCharCount() > 0) {
+          workingCopy.applyTextEdit(new DeleteEdit(offset, change.getRemovedCharCount()), null);
+        }
+        appliedVersion = event.getVersion();
+        last = event;
+      }
+
+      if (last != null && last.getLength() != workingCopy.getBuffer().getLength()) {
+        LOG.debug("Working copy of '{}' diverged from the editor content", filePath);
+        synchronizeContent();
+      }
+    }
+
+    private ReconcileResult reconcile(IProgressMonitor monitor) throws JavaModelException {
+      problemRequestor.reset();
+      CompilationUnit unit = workingCopy.reconcile(AST.JLS8, true, workingCopyOwner, monitor);
+      if (monitor.isCanceled()) {
+        throw new OperationCanceledException();
+      }
+      List<HighlightedPosition> positions = semanticHighlighting.reconcileSemanticHighlight(unit);
+
+      if (workingCopy instanceof ClassFileWorkingCopy) {
+        // we don't wont to show any errors from ".class" files
+        problemRequestor.reset();
+      }
+
+      return DtoFactory.getInstance()
+          .createDto(ReconcileResult.class)
+          .withFileLocation(workingCopy.getPath().toOSString())
+          .withProblems(convertProblems(problemRequestor.problems))
+          .withHighlightedPositions(positions);
+    }
+
+    private void discardWorkingCopy() {
+      if (workingCopy != null && workingCopy.isWorkingCopy()) {
+        try {
+          workingCopy.getBuffer().close();
+          workingCopy.discardWorkingCopy();
+        } catch (JavaModelException e) {
+          // ignore
+        }
+      }
+      workingCopy = null;
+    }
+  }
+
   enum Mode {
     /** The state when the reconciler is turned on. */
     ACTIVATED,
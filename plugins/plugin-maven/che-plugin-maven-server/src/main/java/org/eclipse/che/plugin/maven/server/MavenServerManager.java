@@ -22,6 +22,7 @@ import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.annotation.PreDestroy;
@@ -44,7 +45,14 @@ import org.eclipse.che.rmi.RmiObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** @author Evgen Vidolob */
+/**
+ * Manages the processes running maven servers. The first process is used for reading of the
+ * projects models, the maven servers used for resolving of the projects are distributed over all
+ * the processes, so several projects may be resolved in parallel. All the processes share the same
+ * local repository.
+ *
+ * @author Evgen Vidolob
+ */
 @Singleton
 public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
   private static final Logger LOG = LoggerFactory.getLogger(MavenServerManager.class);
@@ -58,13 +66,26 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
   private boolean loggerExported;
   private boolean listenerExported;
   private final String mavenServerPath;
+  /** Processes additional to the one wrapped by this manager. */
+  private final List<MavenServerProcess> processes;
+
   private File localRepository;
 
+  public MavenServerManager(String mavenServerPath, String mavenServerJavaOptions) {
+    this(mavenServerPath, mavenServerJavaOptions, 1);
+  }
+
   @Inject
   public MavenServerManager(
       @Named("che.maven.server.path") String mavenServerPath,
-      @Named("che.workspace.maven_server_java_options") String mavenServerJavaOptions) {
+      @Named("che.workspace.maven_server_java_options") String mavenServerJavaOptions,
+      @Named("che.maven.server.processes") int processes) {
     this.mavenServerPath = mavenServerPath;
+    List<MavenServerProcess> additionalProcesses = new ArrayList<>();
+    for (int i = 1; i < processes; i++) {
+      additionalProcesses.add(new MavenServerProcess());
+    }
+    this.processes = Collections.unmodifiableList(additionalProcesses);
 
     this.client =
         new RmiClient<MavenRemoteServer>(MavenRemoteServer.class) {
@@ -104,7 +125,21 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
     };
   }
 
+  /** Returns the number of processes running maven servers. */
+  public int getProcessesCount() {
+    return processes.size() + 1;
+  }
+
   public MavenServerWrapper createMavenServer() {
+    return createMavenServer(0);
+  }
+
+  /**
+   * Creates maven server in the given process.
+   *
+   * @param process index of the process, from 0 to {@link #getProcessesCount()} exclusive
+   */
+  public MavenServerWrapper createMavenServer(int process) {
     return new MavenServerWrapper() {
       @Override
       protected MavenServer create() throws RemoteException {
@@ -120,7 +155,7 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
         if (localRepository != null) {
           mavenSettings.setLocalRepository(localRepository);
         }
-        return MavenServerManager.this.getOrCreateWrappedObject().createServer(mavenSettings);
+        return getOrCreateRemoteServer(process).createServer(mavenSettings);
       }
     };
   }
@@ -149,20 +184,41 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
                 .applyProfiles(model, projectDir, explicitProfiles, alwaysOnProfiles));
   }
 
+  private MavenRemoteServer getOrCreateRemoteServer(int process) throws RemoteException {
+    if (process == 0) {
+      return getOrCreateWrappedObject();
+    }
+    return processes.get(process - 1).getOrCreateRemoteServer();
+  }
+
   @PreDestroy
   public void shutdown() {
     client.stopAll(false);
     cleanUp();
+    unexportCallbacks();
   }
 
   @Override
   protected MavenRemoteServer create() throws RemoteException {
+    return startServer(this);
+  }
+
+  /** Starts the process identified by the given key. */
+  private MavenRemoteServer startServer(Object processKey) throws RemoteException {
     MavenRemoteServer server;
     try {
-      server = client.acquire(this, "");
+      server = client.acquire(processKey, "");
     } catch (Exception e) {
       throw new RemoteException("Can't start maven server", e);
     }
+    exportCallbacks();
+    server.configure(rmiLogger, rmiDownloadListener);
+
+    return server;
+  }
+
+  /** Exports the logger and the download listener shared by all the processes. */
+  private synchronized void exportCallbacks() throws RemoteException {
     if (!loggerExported) {
       Remote loggerRemote = UnicastRemoteObject.exportObject(rmiLogger, 0);
       if (!(loggerExported = loggerRemote != null)) {
@@ -175,16 +231,9 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
         throw new RemoteException("Can't export download listener");
       }
     }
-
-    server.configure(rmiLogger, rmiDownloadListener);
-
-    return server;
   }
 
-  @Override
-  protected synchronized void cleanUp() {
-    super.cleanUp();
-
+  private synchronized void unexportCallbacks() {
     if (loggerExported) {
       try {
         UnicastRemoteObject.unexportObject(rmiLogger, true);
@@ -249,6 +298,19 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
     T perform() throws RemoteException;
   }
 
+  /** Process additional to the one wrapped by the manager. */
+  private class MavenServerProcess extends RmiObjectWrapper<MavenRemoteServer> {
+
+    @Override
+    protected MavenRemoteServer create() throws RemoteException {
+      return startServer(this);
+    }
+
+    MavenRemoteServer getOrCreateRemoteServer() throws RemoteException {
+      return getOrCreateWrappedObject();
+    }
+  }
+
   private class RmiLogger extends RmiObject implements MavenServerLogger {
 
     @Override
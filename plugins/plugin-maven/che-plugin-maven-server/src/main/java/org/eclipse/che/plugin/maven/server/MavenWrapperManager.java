@@ -19,7 +19,8 @@ import java.util.Map;
 import java.util.Set;
 
 /**
- * Manages and cache MavenServerWrapper instances
+ * Manages and cache MavenServerWrapper instances. Every type of servers has a cached server in each
+ * of the maven server processes, so the servers used concurrently run in different processes.
  *
  * @author Evgen Vidolob
  */
@@ -27,7 +28,7 @@ import java.util.Set;
 public class MavenWrapperManager {
 
   private final MavenServerManager serverManager;
-  private final Map<ServerType, MavenServerWrapper> cache = new HashMap<>();
+  private final Map<ServerType, MavenServerWrapper[]> cache = new HashMap<>();
   private final Set<MavenServerWrapper> usedServers = new HashSet<>();
 
   @Inject
@@ -36,19 +37,21 @@ public class MavenWrapperManager {
   }
 
   public synchronized MavenServerWrapper getMavenServer(ServerType type) {
-    MavenServerWrapper wrapper = cache.get(type);
-    if (wrapper == null) {
-      wrapper = serverManager.createMavenServer();
-      cache.put(type, wrapper);
+    MavenServerWrapper[] wrappers =
+        cache.computeIfAbsent(
+            type, key -> new MavenServerWrapper[serverManager.getProcessesCount()]);
+    for (int process = 0; process < wrappers.length; process++) {
+      if (wrappers[process] == null) {
+        wrappers[process] = serverManager.createMavenServer(process);
+      }
+      if (!usedServers.contains(wrappers[process])) {
+        usedServers.add(wrappers[process]);
+        return wrappers[process];
+      }
     }
 
-    if (usedServers.contains(wrapper)) {
-      // need to warn here
-      return serverManager.createMavenServer();
-    }
-
-    usedServers.add(wrapper);
-    return wrapper;
+    // need to warn here
+    return serverManager.createMavenServer();
   }
 
   public synchronized void release(MavenServerWrapper wrapper) {
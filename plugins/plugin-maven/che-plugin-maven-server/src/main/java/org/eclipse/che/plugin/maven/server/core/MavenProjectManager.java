@@ -16,6 +16,7 @@ import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
@@ -486,6 +487,42 @@ public class MavenProjectManager {
     }
   }
 
+  /**
+   * Returns the projects each of the given projects depends on, only the given projects are taken
+   * into account. A project depends on its parent project and on the projects it declares
+   * dependencies on.
+   *
+   * @param projects the projects to build dependency graph of
+   * @return map of each of the given projects to the projects it depends on
+   */
+  public Map<MavenProject, Set<MavenProject>> findDependencies(Collection<MavenProject> projects) {
+    Map<MavenKey, MavenProject> keyToProject = new HashMap<>();
+    for (MavenProject project : projects) {
+      if (project.getMavenKey() != null) {
+        keyToProject.put(project.getMavenKey(), project);
+      }
+    }
+
+    Map<MavenProject, Set<MavenProject>> result = new HashMap<>();
+    for (MavenProject project : projects) {
+      Set<MavenProject> dependencies = new HashSet<>();
+      if (project.getParentKey() != null) {
+        dependencies.add(keyToProject.get(project.getParentKey()));
+      }
+      if (project.getDependencies() != null) {
+        for (MavenArtifact artifact : project.getDependencies()) {
+          MavenKey key =
+              new MavenKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+          dependencies.add(keyToProject.get(key));
+        }
+      }
+      dependencies.remove(null);
+      dependencies.remove(project);
+      result.put(project, dependencies);
+    }
+    return result;
+  }
+
   private boolean contains(
       Set<MavenKey> mavenKeys, String artifactId, String groupId, String version) {
     return mavenKeys
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.maven.server.core;
+
+import static java.util.Collections.emptyList;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import javax.annotation.PreDestroy;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.plugin.maven.server.MavenServerManager;
+import org.eclipse.che.plugin.maven.server.core.project.MavenProject;
+import org.eclipse.core.resources.IProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves maven projects in order of their dependencies. A project is resolved when all the
+ * projects it depends on are resolved, the projects which don't depend on each other are resolved
+ * in parallel by the maven servers running in different processes, see {@link
+ * MavenServerManager#getProcessesCount()}.
+ */
+@Singleton
+public class MavenResolveScheduler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MavenResolveScheduler.class);
+
+  private final MavenProjectManager projectManager;
+  private final ExecutorService executor;
+
+  @Inject
+  public MavenResolveScheduler(
+      MavenProjectManager projectManager, MavenServerManager serverManager) {
+    this.projectManager = projectManager;
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder()
+            .setNameFormat("Maven Resolver - %d")
+            .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+            .build();
+    this.executor = Executors.newFixedThreadPool(serverManager.getProcessesCount(), threadFactory);
+  }
+
+  /**
+   * Resolves the given projects and waits until all of them are resolved. The projects which are
+   * failed to be resolved don't prevent resolving of the projects depending on them.
+   *
+   * @param projects projects to resolve
+   * @param afterResolve called in the calling thread for every resolved project, the projects a
+   *     project depends on are passed before the project
+   * @param progress receives the fraction of the processed projects in the calling thread
+   */
+  public void resolve(
+      Collection<MavenProject> projects,
+      Consumer<MavenProject> afterResolve,
+      DoubleConsumer progress) {
+    Map<MavenProject, Set<MavenProject>> waiting = projectManager.findDependencies(projects);
+    Map<MavenProject, List<MavenProject>> dependents = new HashMap<>();
+    Deque<MavenProject> ready = new ArrayDeque<>();
+    for (Iterator<Map.Entry<MavenProject, Set<MavenProject>>> it = waiting.entrySet().iterator();
+        it.hasNext(); ) {
+      Map.Entry<MavenProject, Set<MavenProject>> entry = it.next();
+      for (MavenProject dependency : entry.getValue()) {
+        dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(entry.getKey());
+      }
+      if (entry.getValue().isEmpty()) {
+        ready.add(entry.getKey());
+        it.remove();
+      }
+    }
+
+    CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+    Map<Future<Boolean>, MavenProject> running = new HashMap<>();
+    int total = ready.size() + waiting.size();
+    int done = 0;
+    try {
+      while (done < total) {
+        if (ready.isEmpty() && running.isEmpty()) {
+          LOG.warn("Projects {} depend on each other", waiting.keySet());
+          ready.addAll(waiting.keySet());
+          waiting.clear();
+        }
+        for (MavenProject project : ready) {
+          running.put(completionService.submit(() -> resolve(project)), project);
+        }
+        ready.clear();
+
+        Future<Boolean> future = completionService.take();
+        MavenProject project = running.remove(future);
+        done++;
+        if (isResolved(future)) {
+          try {
+            afterResolve.accept(project);
+          } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+          }
+        }
+        progress.accept((double) done / (double) total);
+
+        for (MavenProject dependent : dependents.getOrDefault(project, emptyList())) {
+          Set<MavenProject> dependencies = waiting.get(dependent);
+          if (dependencies != null && dependencies.remove(project) && dependencies.isEmpty()) {
+            waiting.remove(dependent);
+            ready.add(dependent);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      running.keySet().forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean resolve(MavenProject mavenProject) {
+    IProject project = mavenProject.getProject();
+    if (!project.exists()) {
+      return false;
+    }
+    try {
+      projectManager.resolveMavenProject(project, mavenProject);
+      return true;
+    } catch (RuntimeException e) {
+      LOG.error(e.getMessage(), e);
+      return false;
+    }
+  }
+
+  private static boolean isResolved(Future<Boolean> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      LOG.error(e.getCause().getMessage(), e.getCause());
+      return false;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -31,6 +31,11 @@ public class MavenTaskExecutor {
   private final Queue<MavenProjectTask> queue = new LinkedList<>();
   private boolean isWorking;
 
+  /** Share of the executor's progress taken by the finished tasks. */
+  private volatile double finishedPercent;
+  /** Share of the executor's progress taken by the performed task. */
+  private volatile double taskPercent;
+
   public MavenTaskExecutor(MavenExecutorService service, MavenProgressNotifier notifier) {
     this.service = service;
     this.notifier = notifier;
@@ -76,7 +81,9 @@ public class MavenTaskExecutor {
         restTasks = queue.size();
       }
 
-      notifier.setPercent((double) taskDone / (double) (restTasks + taskDone));
+      taskPercent = 1.0 / (double) (restTasks + taskDone);
+      finishedPercent = (double) (taskDone - 1) * taskPercent;
+      notifier.setPercent(finishedPercent);
       try {
         task.perform();
       } catch (Throwable throwable) {
@@ -95,6 +102,15 @@ public class MavenTaskExecutor {
     }
   }
 
+  /**
+   * Reports progress of the performed task within its share of the executor's progress.
+   *
+   * @param percent progress of the task, from 0 to 1
+   */
+  public void setTaskPercent(double percent) {
+    notifier.setPercent(finishedPercent + percent * taskPercent);
+  }
+
   public void waitForEndAllTasks() {
     if (!isWorking) {
       return;
@@ -65,6 +65,7 @@ public class MavenWorkspace {
   private final MavenProjectManager manager;
   private final Provider<ProjectManager> projectManagerProvider;
   private final ClasspathManager classpathManager;
+  private final MavenResolveScheduler resolveScheduler;
 
   private MavenTaskExecutor resolveExecutor;
   private MavenTaskExecutor classPathExecutor;
@@ -76,6 +77,7 @@ public class MavenWorkspace {
       MavenProjectManager manager,
       MavenProgressNotifier notifier,
       MavenExecutorService executorService,
+      MavenResolveScheduler resolveScheduler,
       Provider<ProjectManager> projectManagerProvider,
       ClasspathManager classpathManager,
       EventService eventService,
@@ -83,6 +85,7 @@ public class MavenWorkspace {
     this.projectManagerProvider = projectManagerProvider;
     this.classpathManager = classpathManager;
     this.manager = manager;
+    this.resolveScheduler = resolveScheduler;
     resolveExecutor = new MavenTaskExecutor(executorService, notifier);
     eventService.subscribe(
         new EventSubscriber<ProjectDeletedEvent>() {
@@ -185,18 +188,21 @@ public class MavenWorkspace {
     // TODO synchronise on projectsToResolve change
     Set<MavenProject> needResolve = new HashSet<>(projectsToResolve);
     projectsToResolve.clear();
-
-    for (MavenProject mavenProject : needResolve) {
-
-      resolveExecutor.submitTask(
-          new MavenProjectResolveTask(
-              mavenProject,
-              manager,
-              () -> {
-                addSourcesFromBuildHelperPlugin(mavenProject);
-                classpathManager.updateClasspath(mavenProject);
-              }));
+    if (needResolve.isEmpty()) {
+      return;
     }
+
+    // the projects are resolved in parallel, but classpath of Java projects is updated
+    // in the executor's thread
+    resolveExecutor.submitTask(
+        () ->
+            resolveScheduler.resolve(
+                needResolve,
+                mavenProject -> {
+                  addSourcesFromBuildHelperPlugin(mavenProject);
+                  classpathManager.updateClasspath(mavenProject);
+                },
+                resolveExecutor::setTaskPercent));
   }
 
   private void updateJavaProject(MavenProject project) {
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.maven.server.core;
+
+import static java.util.Arrays.asList;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.che.plugin.maven.server.MavenServerManager;
+import org.eclipse.che.plugin.maven.server.core.project.MavenProject;
+import org.eclipse.core.resources.IProject;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link MavenResolveScheduler}. */
+@Listeners(value = {MockitoTestNGListener.class})
+public class MavenResolveSchedulerTest {
+
+  @Mock private MavenProjectManager projectManager;
+
+  @Mock private MavenServerManager serverManager;
+
+  private MavenResolveScheduler scheduler;
+
+  private List<MavenProject> resolved;
+
+  private List<MavenProject> afterResolved;
+
+  private List<Double> progress;
+
+  @BeforeMethod
+  public void setUp() {
+    when(serverManager.getProcessesCount()).thenReturn(2);
+    scheduler = new MavenResolveScheduler(projectManager, serverManager);
+    resolved = Collections.synchronizedList(new ArrayList<>());
+    afterResolved = new ArrayList<>();
+    progress = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              resolved.add(invocation.getArgument(1));
+              return null;
+            })
+        .when(projectManager)
+        .resolveMavenProject(any(IProject.class), any(MavenProject.class));
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void shouldResolveDependenciesBeforeDependents() {
+    MavenProject parent = mockProject();
+    MavenProject child = mockProject();
+    MavenProject grandChild = mockProject();
+    Map<MavenProject, Set<MavenProject>> dependencies = new HashMap<>();
+    dependencies.put(grandChild, dependencies(child));
+    dependencies.put(child, dependencies(parent));
+    dependencies.put(parent, dependencies());
+    when(projectManager.findDependencies(any())).thenReturn(dependencies);
+
+    scheduler.resolve(asList(grandChild, child, parent), afterResolved::add, progress::add);
+
+    assertThat(resolved).containsExactly(parent, child, grandChild);
+    assertThat(afterResolved).containsExactly(parent, child, grandChild);
+    assertThat(progress).containsExactly(1.0 / 3.0, 2.0 / 3.0, 1.0);
+  }
+
+  @Test
+  public void shouldResolveDependentsOfFailedProject() {
+    MavenProject failed = mockProject();
+    IProject failedProject = failed.getProject();
+    MavenProject dependent = mockProject();
+    Map<MavenProject, Set<MavenProject>> dependencies = new HashMap<>();
+    dependencies.put(dependent, dependencies(failed));
+    dependencies.put(failed, dependencies());
+    when(projectManager.findDependencies(any())).thenReturn(dependencies);
+    doThrow(new RuntimeException("Failed to resolve"))
+        .when(projectManager)
+        .resolveMavenProject(any(IProject.class), eq(failed));
+
+    scheduler.resolve(asList(dependent, failed), afterResolved::add, progress::add);
+
+    verify(projectManager).resolveMavenProject(failedProject, failed);
+    assertThat(resolved).containsExactly(dependent);
+    assertThat(afterResolved).containsExactly(dependent);
+    assertThat(progress).containsExactly(0.5, 1.0);
+  }
+
+  @Test
+  public void shouldNotResolveProjectWhichDoesNotExist() {
+    MavenProject removed = mockProject();
+    when(removed.getProject().exists()).thenReturn(false);
+    MavenProject dependent = mockProject();
+    Map<MavenProject, Set<MavenProject>> dependencies = new HashMap<>();
+    dependencies.put(dependent, dependencies(removed));
+    dependencies.put(removed, dependencies());
+    when(projectManager.findDependencies(any())).thenReturn(dependencies);
+
+    scheduler.resolve(asList(dependent, removed), afterResolved::add, progress::add);
+
+    assertThat(resolved).containsExactly(dependent);
+    assertThat(afterResolved).containsExactly(dependent);
+  }
+
+  @Test
+  public void shouldResolveProjectsWhichDependOnEachOther() {
+    MavenProject independent = mockProject();
+    MavenProject first = mockProject();
+    MavenProject second = mockProject();
+    Map<MavenProject, Set<MavenProject>> dependencies = new HashMap<>();
+    dependencies.put(independent, dependencies());
+    dependencies.put(first, dependencies(second));
+    dependencies.put(second, dependencies(first));
+    when(projectManager.findDependencies(any())).thenReturn(dependencies);
+
+    scheduler.resolve(asList(independent, first, second), afterResolved::add, progress::add);
+
+    assertThat(resolved.get(0)).isEqualTo(independent);
+    assertThat(resolved).hasSize(3).contains(first, second);
+    assertThat(afterResolved).hasSize(3).contains(independent, first, second);
+    assertThat(progress).containsExactly(1.0 / 3.0, 2.0 / 3.0, 1.0);
+  }
+
+  private static MavenProject mockProject() {
+    IProject project = mock(IProject.class);
+    when(project.exists()).thenReturn(true);
+    MavenProject mavenProject = mock(MavenProject.class);
+    when(mavenProject.getProject()).thenReturn(project);
+    return mavenProject;
+  }
+
+  private static Set<MavenProject> dependencies(MavenProject... projects) {
+    return new HashSet<>(asList(projects));
+  }
+}
@@ -17,8 +17,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import org.eclipse.che.maven.data.MavenArtifact;
 import org.eclipse.che.maven.data.MavenConstants;
 import org.eclipse.che.maven.data.MavenKey;
 import org.eclipse.che.plugin.maven.server.MavenServerManager;
@@ -224,4 +227,41 @@ public class MavenProjectManagerTest {
     projectManager.update(Collections.singletonList(project), true);
     verify(listener).projectUpdated(mapArgument.capture(), any());
   }
+
+  @Test
+  public void testFindDependencies() throws Exception {
+    MavenProject parent = mockMavenProject(new MavenKey("org.test", "parent", "1.0"), null);
+    MavenProject api =
+        mockMavenProject(new MavenKey("org.test", "api", "1.0"), parent.getMavenKey());
+    MavenProject impl =
+        mockMavenProject(
+            new MavenKey("org.test", "impl", "1.0"),
+            parent.getMavenKey(),
+            mockArtifact("org.test", "api", "1.0"),
+            mockArtifact("junit", "junit", "4.12"));
+
+    Map<MavenProject, Set<MavenProject>> dependencies =
+        projectManager.findDependencies(Arrays.asList(parent, api, impl));
+
+    assertThat(dependencies.get(parent)).isEmpty();
+    assertThat(dependencies.get(api)).containsOnly(parent);
+    assertThat(dependencies.get(impl)).containsOnly(parent, api);
+  }
+
+  private static MavenProject mockMavenProject(
+      MavenKey key, MavenKey parentKey, MavenArtifact... dependencies) {
+    MavenProject mavenProject = mock(MavenProject.class);
+    when(mavenProject.getMavenKey()).thenReturn(key);
+    when(mavenProject.getParentKey()).thenReturn(parentKey);
+    when(mavenProject.getDependencies()).thenReturn(Arrays.asList(dependencies));
+    return mavenProject;
+  }
+
+  private static MavenArtifact mockArtifact(String groupId, String artifactId, String version) {
+    MavenArtifact artifact = mock(MavenArtifact.class);
+    when(artifact.getGroupId()).thenReturn(groupId);
+    when(artifact.getArtifactId()).thenReturn(artifactId);
+    when(artifact.getVersion()).thenReturn(version);
+    return artifact;
+  }
 }
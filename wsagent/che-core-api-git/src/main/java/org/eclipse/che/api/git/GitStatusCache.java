@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.nio.file.Files.isDirectory;
+import static java.util.Collections.emptyList;
+import static org.eclipse.che.api.fs.server.WsPathUtils.SEPARATOR;
+import static org.eclipse.che.api.fs.server.WsPathUtils.absolutize;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.git.exception.GitException;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+
+/**
+ * Keeps the last computed git status of each project, so the status is computed once per change and
+ * shared between all its consumers instead of running a status command for every request.
+ *
+ * <p>Changes of the working tree reported by the file watcher invalidate only the changed paths,
+ * the next lookup recomputes the status of those paths and patches them into the cached status.
+ * Changes of the index, the references or the ignore rules invalidate the whole status. Besides
+ * that the size and the modification time of the index file are checked on every lookup, which
+ * catches the index changes not yet reported by the file watcher. As git does with racily clean
+ * entries, the status computed within {@link #RACY_THRESHOLD_MS} after the index modification is
+ * not trusted, since a subsequent change of the index may keep its modification time. Changes of
+ * paths excluded from the file watching are not reported, so the status older than {@link
+ * #MAX_AGE_MS} is recomputed anyway.
+ */
+@Singleton
+public class GitStatusCache {
+
+  private static final String GIT_DIR = ".git";
+  private static final String INDEX_FILE = "index";
+  private static final String REFS_DIR = "refs";
+  private static final String INFO_DIR = "info";
+  private static final String EXCLUDE_FILE = "exclude";
+  private static final String GITIGNORE_FILE = ".gitignore";
+  private static final Set<String> REFERENCE_FILES =
+      ImmutableSet.of(INDEX_FILE, "HEAD", "ORIG_HEAD", "MERGE_HEAD", "packed-refs");
+
+  @VisibleForTesting static final long RACY_THRESHOLD_MS = 2_000;
+  @VisibleForTesting static final long MAX_AGE_MS = 60_000;
+
+  private final GitConnectionFactory gitConnectionFactory;
+  private final PathTransformer pathTransformer;
+  private final FileWatcherManager manager;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private int watcherId;
+
+  @Inject
+  public GitStatusCache(
+      GitConnectionFactory gitConnectionFactory,
+      PathTransformer pathTransformer,
+      FileWatcherManager manager) {
+    this.gitConnectionFactory = gitConnectionFactory;
+    this.pathTransformer = pathTransformer;
+    this.manager = manager;
+  }
+
+  @PostConstruct
+  public void startWatcher() {
+    Consumer<String> consumer = this::onChange;
+    watcherId = manager.registerByMatcher(directoryMatcher(), consumer, consumer, consumer);
+  }
+
+  @PreDestroy
+  public void stopWatcher() {
+    manager.unRegisterByMatcher(watcherId);
+  }
+
+  /**
+   * Returns status of the project's repository. The returned status is shared, so it must not be
+   * modified.
+   *
+   * @param projectWsPath workspace path of the project
+   * @throws GitException when status can't be computed
+   */
+  public Status getStatus(String projectWsPath) throws GitException {
+    String wsPath = absolutize(projectWsPath);
+    Entry entry = entries.computeIfAbsent(wsPath, Entry::new);
+    synchronized (entry.computeLock) {
+      boolean full;
+      Set<String> dirty;
+      synchronized (entry) {
+        full = entry.stale || !entry.isValid(System.currentTimeMillis());
+        dirty = entry.dirty;
+        entry.stale = false;
+        entry.dirty = new HashSet<>();
+      }
+      if (!full && dirty.isEmpty()) {
+        return entry.dto;
+      }
+      try (GitConnection connection =
+          gitConnectionFactory.getConnection(pathTransformer.transform(wsPath).toString())) {
+        if (full) {
+          entry.recompute(connection);
+        } else {
+          entry.patch(connection, new ArrayList<>(dirty));
+        }
+      } catch (GitException | RuntimeException e) {
+        entry.invalidate();
+        throw e;
+      }
+      return entry.dto;
+    }
+  }
+
+  /**
+   * Invalidates the whole cached status of the project.
+   *
+   * @param projectWsPath workspace path of the project
+   */
+  public void invalidate(String projectWsPath) {
+    Entry entry = entries.get(absolutize(projectWsPath));
+    if (entry != null) {
+      entry.invalidate();
+    }
+  }
+
+  @VisibleForTesting
+  void onChange(String wsPath) {
+    String[] segments = wsPath.split(SEPARATOR);
+    int gitDir = -1;
+    for (int i = 0; i < segments.length; i++) {
+      if (GIT_DIR.equals(segments[i])) {
+        gitDir = i;
+        break;
+      }
+    }
+    if (gitDir >= 0) {
+      // repository may be located above the project, so invalidate all of them
+      if (isReference(segments, gitDir) || isExcludeFile(segments, gitDir)) {
+        entries.values().forEach(Entry::invalidate);
+      }
+      return;
+    }
+    if (GITIGNORE_FILE.equals(segments[segments.length - 1])) {
+      // ignore rules may change status of any path below them
+      String dir = wsPath.substring(0, wsPath.lastIndexOf(SEPARATOR));
+      for (Entry entry : entries.values()) {
+        if (isSameOrDescendant(entry.wsPath, dir) || isSameOrDescendant(dir, entry.wsPath)) {
+          entry.invalidate();
+        }
+      }
+      return;
+    }
+    for (Entry entry : entries.values()) {
+      String prefix = entry.wsPath + SEPARATOR;
+      if (wsPath.startsWith(prefix)) {
+        synchronized (entry) {
+          entry.dirty.add(wsPath.substring(prefix.length()));
+        }
+      } else if (entry.wsPath.equals(wsPath) || entry.wsPath.startsWith(wsPath + SEPARATOR)) {
+        entry.invalidate();
+      }
+    }
+  }
+
+  private static boolean isReference(String[] segments, int gitDir) {
+    if (segments.length == gitDir + 2) {
+      return REFERENCE_FILES.contains(segments[gitDir + 1]);
+    }
+    return segments.length > gitDir + 2 && REFS_DIR.equals(segments[gitDir + 1]);
+  }
+
+  private static boolean isExcludeFile(String[] segments, int gitDir) {
+    return segments.length == gitDir + 3
+        && INFO_DIR.equals(segments[gitDir + 1])
+        && EXCLUDE_FILE.equals(segments[gitDir + 2]);
+  }
+
+  private static boolean isSameOrDescendant(String path, String ancestor) {
+    return path.equals(ancestor) || path.startsWith(ancestor + SEPARATOR);
+  }
+
+  /**
+   * Matches the directories of working trees, the events of all their entries are reported to the
+   * cache, and the directories of the repositories which contain the index, the references and the
+   * exclude file.
+   */
+  private static PathMatcher directoryMatcher() {
+    return it -> {
+      if (!isDirectory(it)) {
+        return false;
+      }
+      for (Path dir = it.getParent(); dir != null; dir = dir.getParent()) {
+        if (dir.getFileName() != null && GIT_DIR.equals(dir.getFileName().toString())) {
+          return it.startsWith(dir.resolve(REFS_DIR)) || it.equals(dir.resolve(INFO_DIR));
+        }
+      }
+      return true;
+    };
+  }
+
+  /** Cached status of a single project. */
+  private static class Entry {
+    final String wsPath;
+    final Object computeLock = new Object();
+
+    /** Guarded by this entry. */
+    boolean stale = true;
+    /** Guarded by this entry, paths relative to the project which need to be recomputed. */
+    Set<String> dirty = new HashSet<>();
+
+    /** Guarded by compute lock. */
+    File indexFile;
+
+    volatile Status dto;
+    volatile long computedAt;
+    volatile long indexModified;
+    volatile long indexLength;
+
+    String branchName;
+    String refName;
+    String repositoryState;
+    Set<String> added;
+    Set<String> changed;
+    Set<String> removed;
+    Set<String> missing;
+    Set<String> modified;
+    Set<String> untracked;
+    Set<String> untrackedFolders;
+    Set<String> conflicting;
+
+    Entry(String wsPath) {
+      this.wsPath = wsPath;
+    }
+
+    synchronized void invalidate() {
+      stale = true;
+    }
+
+    /** Returns true if neither the cached status is expired nor the index is changed. */
+    boolean isValid(long now) {
+      if (dto == null || now - computedAt >= MAX_AGE_MS) {
+        return false;
+      }
+      if (indexFile == null) {
+        return true;
+      }
+      long lastModified = indexFile.lastModified();
+      return lastModified == indexModified
+          && indexFile.length() == indexLength
+          && computedAt - lastModified >= RACY_THRESHOLD_MS;
+    }
+
+    void recompute(GitConnection connection) throws GitException {
+      if (indexFile == null) {
+        indexFile = new File(new File(connection.getWorkingDir(), GIT_DIR), INDEX_FILE);
+      }
+      // the index is checked before computing the status, so its changes made during computation
+      // cause recomputation of the status on the next lookup
+      long now = System.currentTimeMillis();
+      long lastModified = indexFile.lastModified();
+      long length = indexFile.length();
+      Status status = connection.status(emptyList());
+      branchName = status.getBranchName();
+      refName = status.getRefName();
+      repositoryState = status.getRepositoryState();
+      added = new LinkedHashSet<>(status.getAdded());
+      changed = new LinkedHashSet<>(status.getChanged());
+      removed = new LinkedHashSet<>(status.getRemoved());
+      missing = new LinkedHashSet<>(status.getMissing());
+      modified = new LinkedHashSet<>(status.getModified());
+      untracked = new LinkedHashSet<>(status.getUntracked());
+      untrackedFolders = new LinkedHashSet<>(status.getUntrackedFolders());
+      conflicting = new LinkedHashSet<>(status.getConflicting());
+      indexModified = lastModified;
+      indexLength = length;
+      computedAt = now;
+      dto = toDto();
+    }
+
+    void patch(GitConnection connection, List<String> paths) throws GitException {
+      Status status = connection.status(paths);
+      replace(added, paths, status.getAdded());
+      replace(changed, paths, status.getChanged());
+      replace(removed, paths, status.getRemoved());
+      replace(missing, paths, status.getMissing());
+      replace(modified, paths, status.getModified());
+      replace(untracked, paths, status.getUntracked());
+      replace(untrackedFolders, paths, status.getUntrackedFolders());
+      replace(conflicting, paths, status.getConflicting());
+      dto = toDto();
+    }
+
+    /** Replaces the given paths and their descendants in the set with the recomputed ones. */
+    private static void replace(Set<String> files, List<String> paths, List<String> recomputed) {
+      files.removeIf(file -> isAffected(file, paths));
+      files.addAll(recomputed);
+    }
+
+    private static boolean isAffected(String file, List<String> paths) {
+      for (String path : paths) {
+        if (file.equals(path) || file.startsWith(path + SEPARATOR)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private Status toDto() {
+      Status status = newDto(Status.class);
+      status.setBranchName(branchName);
+      status.setRefName(refName);
+      status.setRepositoryState(repositoryState);
+      status.setAdded(new ArrayList<>(added));
+      status.setChanged(new ArrayList<>(changed));
+      status.setRemoved(new ArrayList<>(removed));
+      status.setMissing(new ArrayList<>(missing));
+      status.setModified(new ArrayList<>(modified));
+      status.setUntracked(new ArrayList<>(untracked));
+      status.setUntrackedFolders(new ArrayList<>(untrackedFolders));
+      status.setConflicting(new ArrayList<>(conflicting));
+      status.setClean(
+          added.isEmpty()
+              && changed.isEmpty()
+              && removed.isEmpty()
+              && missing.isEmpty()
+              && modified.isEmpty()
+              && untracked.isEmpty()
+              && conflicting.isEmpty());
+      return status;
+    }
+  }
+}
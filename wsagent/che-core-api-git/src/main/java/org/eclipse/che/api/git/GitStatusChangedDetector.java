@@ -13,7 +13,6 @@ package org.eclipse.che.api.git;
 
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.nio.file.Files.isDirectory;
-import static java.util.Collections.emptyList;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -64,6 +63,7 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
   private final PathTransformer pathTransformer;
   private final ProjectManager projectManager;
   private final GitConnectionFactory gitConnectionFactory;
+  private final GitStatusCache statusCache;
   private final EventService eventService;
 
   private final Set<String> endpointIds = newConcurrentHashSet();
@@ -78,12 +78,14 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
       PathTransformer pathTransformer,
       ProjectManager projectManager,
       GitConnectionFactory gitConnectionFactory,
+      GitStatusCache statusCache,
       EventService eventService) {
     this.transmitter = transmitter;
     this.manager = manager;
     this.pathTransformer = pathTransformer;
     this.projectManager = projectManager;
     this.gitConnectionFactory = gitConnectionFactory;
+    this.statusCache = statusCache;
     this.eventService = eventService;
   }
 
@@ -144,29 +146,32 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
   }
 
   private Consumer<String> fsEventConsumer() {
-    return it -> endpointIds.forEach(transmitConsumer(it));
+    return it -> {
+      if (endpointIds.isEmpty()) {
+        return;
+      }
+      StatusChangedEventDto statusChangedEventDto = createEvent(it);
+      if (statusChangedEventDto != null) {
+        endpointIds.forEach(id -> transmit(statusChangedEventDto, id));
+      }
+    };
   }
 
-  private Consumer<String> transmitConsumer(String wsPath) {
-    return id -> {
-      try {
-        ProjectConfig project =
-            projectManager
-                .getClosest(wsPath)
-                .orElseThrow(() -> new NotFoundException("Can't find a project"));
-
-        String projectFsPath = pathTransformer.transform(project.getPath()).toString();
-        GitConnection connection = gitConnectionFactory.getConnection(projectFsPath);
-        Status status = connection.status(emptyList());
-        Status statusDto = newDto(Status.class);
-        statusDto.setAdded(status.getAdded());
-        statusDto.setUntracked(status.getUntracked());
-        statusDto.setChanged(status.getChanged());
-        statusDto.setModified(status.getModified());
-        statusDto.setMissing(status.getMissing());
-        statusDto.setRemoved(status.getRemoved());
-        statusDto.setConflicting(status.getConflicting());
-
+  /**
+   * Creates the event of the project which contains the changed file, the event is shared by all
+   * the endpoints, so the status is computed once per change.
+   */
+  private StatusChangedEventDto createEvent(String wsPath) {
+    try {
+      ProjectConfig project =
+          projectManager
+              .getClosest(wsPath)
+              .orElseThrow(() -> new NotFoundException("Can't find a project"));
+
+      statusCache.invalidate(project.getPath());
+      Status status = statusCache.getStatus(project.getPath());
+      String projectFsPath = pathTransformer.transform(project.getPath()).toString();
+      try (GitConnection connection = gitConnectionFactory.getConnection(projectFsPath)) {
         Map<String, List<EditedRegion>> modifiedFiles = new HashMap<>();
         for (String file : status.getChanged()) {
           modifiedFiles.put(file, connection.getEditedRegions(file));
@@ -175,21 +180,19 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
           modifiedFiles.put(file, connection.getEditedRegions(file));
         }
 
-        StatusChangedEventDto statusChangeEventDto =
-            newDto(StatusChangedEventDto.class)
-                .withProjectName(connection.getWorkingDir().getName())
-                .withStatus(status)
-                .withModifiedFiles(modifiedFiles);
-
-        transmit(statusChangeEventDto, id);
-      } catch (GitCommitInProgressException
-          | GitCheckoutInProgressException
-          | GitInvalidRepositoryException e) {
-        // Silent ignore
-      } catch (ServerException | NotFoundException e) {
-        LOG.error(e.getMessage());
+        return newDto(StatusChangedEventDto.class)
+            .withProjectName(connection.getWorkingDir().getName())
+            .withStatus(status)
+            .withModifiedFiles(modifiedFiles);
       }
-    };
+    } catch (GitCommitInProgressException
+        | GitCheckoutInProgressException
+        | GitInvalidRepositoryException e) {
+      // Silent ignore
+    } catch (ServerException | NotFoundException e) {
+      LOG.error(e.getMessage());
+    }
+    return null;
   }
 
   @Override
@@ -11,7 +11,6 @@
  */
 package org.eclipse.che.api.git;
 
-import static java.util.Collections.singletonList;
 import static org.eclipse.che.api.fs.server.WsPathUtils.SEPARATOR;
 import static org.eclipse.che.api.fs.server.WsPathUtils.absolutize;
 import static org.eclipse.che.api.fs.server.WsPathUtils.resolve;
@@ -21,13 +20,14 @@ import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.NOT
 import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.UNTRACKED;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
-import org.eclipse.che.api.fs.server.PathTransformer;
 import org.eclipse.che.api.git.exception.GitException;
 import org.eclipse.che.api.git.shared.Status;
 import org.eclipse.che.api.project.server.ProjectManager;
@@ -40,17 +40,12 @@ import org.eclipse.che.api.project.server.VcsStatusProvider;
  */
 public class GitStatusProvider implements VcsStatusProvider {
 
-  private final GitConnectionFactory gitConnectionFactory;
-  private final PathTransformer pathTransformer;
+  private final GitStatusCache statusCache;
   private final ProjectManager projectManager;
 
   @Inject
-  public GitStatusProvider(
-      GitConnectionFactory gitConnectionFactory,
-      PathTransformer pathTransformer,
-      ProjectManager projectManager) {
-    this.gitConnectionFactory = gitConnectionFactory;
-    this.pathTransformer = pathTransformer;
+  public GitStatusProvider(GitStatusCache statusCache, ProjectManager projectManager) {
+    this.statusCache = statusCache;
     this.projectManager = projectManager;
   }
 
@@ -66,11 +61,9 @@ public class GitStatusProvider implements VcsStatusProvider {
           projectManager
               .getClosest(wsPath)
               .orElseThrow(() -> new NotFoundException("Can't find project"));
-      String projectFsPath = pathTransformer.transform(project.getPath()).toString();
       wsPath = wsPath.substring(wsPath.startsWith(SEPARATOR) ? 1 : 0);
       String itemPath = wsPath.substring(wsPath.indexOf(SEPARATOR) + 1);
-      Status status =
-          gitConnectionFactory.getConnection(projectFsPath).status(singletonList(itemPath));
+      Status status = statusCache.getStatus(project.getPath());
       if (status.getUntracked().contains(itemPath)) {
         return UNTRACKED;
       } else if (status.getAdded().contains(itemPath)) {
@@ -95,16 +88,19 @@ public class GitStatusProvider implements VcsStatusProvider {
           projectManager
               .getClosest(absolutize(wsPath))
               .orElseThrow(() -> new NotFoundException("Can't find project"));
-      String projectFsPath = pathTransformer.transform(project.getPath()).toString();
-      Status status = gitConnectionFactory.getConnection(projectFsPath).status(paths);
+      Status status = statusCache.getStatus(project.getPath());
+      Set<String> untracked = new HashSet<>(status.getUntracked());
+      Set<String> added = new HashSet<>(status.getAdded());
+      Set<String> modified = new HashSet<>(status.getModified());
+      modified.addAll(status.getChanged());
       paths.forEach(
           path -> {
             String itemWsPath = resolve(project.getPath(), path);
-            if (status.getUntracked().contains(path)) {
+            if (untracked.contains(path)) {
               statusMap.put(itemWsPath, UNTRACKED);
-            } else if (status.getAdded().contains(path)) {
+            } else if (added.contains(path)) {
               statusMap.put(itemWsPath, ADDED);
-            } else if (status.getModified().contains(path) || status.getChanged().contains(path)) {
+            } else if (modified.contains(path)) {
               statusMap.put(itemWsPath, MODIFIED);
             } else {
               statusMap.put(itemWsPath, NOT_MODIFIED);
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link GitStatusCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class GitStatusCacheTest {
+
+  private static final String PROJECT = "/project";
+
+  @Mock private GitConnectionFactory gitConnectionFactory;
+  @Mock private GitConnection gitConnection;
+  @Mock private PathTransformer pathTransformer;
+  @Mock private FileWatcherManager manager;
+
+  private Path workingDir;
+  private File index;
+  private GitStatusCache statusCache;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    workingDir = Files.createTempDirectory("git-status-cache");
+    Files.createDirectory(workingDir.resolve(".git"));
+    index = Files.write(workingDir.resolve(".git").resolve("index"), new byte[] {1}).toFile();
+    setIndexModified(System.currentTimeMillis() - 10_000);
+
+    when(pathTransformer.transform(PROJECT)).thenReturn(workingDir);
+    when(gitConnectionFactory.getConnection(workingDir.toString())).thenReturn(gitConnection);
+    when(gitConnection.getWorkingDir()).thenReturn(workingDir.toFile());
+
+    statusCache = new GitStatusCache(gitConnectionFactory, pathTransformer, manager);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    IoUtil.deleteRecursive(workingDir.toFile());
+  }
+
+  @Test
+  public void shouldComputeStatusOnceUntilChanged() throws Exception {
+    Status status = status(asList("a", "b"), singletonList("c"));
+    when(gitConnection.status(emptyList())).thenReturn(status);
+
+    Status first = statusCache.getStatus(PROJECT);
+    Status second = statusCache.getStatus(PROJECT);
+
+    assertSame(second, first);
+    assertEquals(first.getModified(), asList("a", "b"));
+    assertEquals(first.getUntracked(), singletonList("c"));
+    assertFalse(first.isClean());
+    verify(gitConnection).status(emptyList());
+  }
+
+  @Test
+  public void shouldRecomputeOnlyChangedPaths() throws Exception {
+    Status status = status(asList("a", "dir/b", "dir/c"), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(status);
+    Status partial = status(emptyList(), singletonList("dir/d"));
+    when(gitConnection.status(singletonList("dir"))).thenReturn(partial);
+    statusCache.getStatus(PROJECT);
+
+    statusCache.onChange(PROJECT + "/dir");
+    Status patched = statusCache.getStatus(PROJECT);
+
+    assertEquals(patched.getModified(), singletonList("a"));
+    assertEquals(patched.getUntracked(), singletonList("dir/d"));
+    verify(gitConnection).status(emptyList());
+  }
+
+  @Test
+  public void shouldBecomeCleanWhenAllChangedPathsAreReverted() throws Exception {
+    Status status = status(singletonList("a"), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(status);
+    Status reverted = status(emptyList(), emptyList());
+    when(gitConnection.status(singletonList("a"))).thenReturn(reverted);
+    statusCache.getStatus(PROJECT);
+
+    statusCache.onChange(PROJECT + "/a");
+
+    assertTrue(statusCache.getStatus(PROJECT).isClean());
+  }
+
+  @Test
+  public void shouldRecomputeStatusWhenIndexIsChanged() throws Exception {
+    Status clean = status(emptyList(), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(clean);
+    statusCache.getStatus(PROJECT);
+
+    setIndexModified(System.currentTimeMillis() - 5_000);
+    statusCache.getStatus(PROJECT);
+
+    verify(gitConnection, times(2)).status(emptyList());
+  }
+
+  @Test
+  public void shouldNotTrustRacilyCleanIndex() throws Exception {
+    Status clean = status(emptyList(), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(clean);
+    setIndexModified(System.currentTimeMillis());
+
+    statusCache.getStatus(PROJECT);
+    statusCache.getStatus(PROJECT);
+
+    verify(gitConnection, times(2)).status(emptyList());
+  }
+
+  @Test
+  public void shouldRecomputeStatusWhenReferencesAreChanged() throws Exception {
+    Status clean = status(emptyList(), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(clean);
+    statusCache.getStatus(PROJECT);
+
+    statusCache.onChange(PROJECT + "/.git/objects/ab/cdef");
+    statusCache.getStatus(PROJECT);
+    statusCache.onChange(PROJECT + "/.git/refs/heads/master");
+    statusCache.getStatus(PROJECT);
+
+    verify(gitConnection, times(2)).status(emptyList());
+  }
+
+  @Test
+  public void shouldRecomputeStatusWhenIgnoreRulesAreChanged() throws Exception {
+    Status clean = status(emptyList(), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(clean);
+    statusCache.getStatus(PROJECT);
+
+    statusCache.onChange(PROJECT + "/dir/.gitignore");
+    statusCache.getStatus(PROJECT);
+    statusCache.onChange(PROJECT + "/.git/info/exclude");
+    statusCache.getStatus(PROJECT);
+
+    verify(gitConnection, times(3)).status(emptyList());
+    verify(gitConnection, never()).status(singletonList("dir/.gitignore"));
+  }
+
+  @Test
+  public void shouldCloseConnectionAfterComputingStatus() throws Exception {
+    Status clean = status(emptyList(), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(clean);
+
+    statusCache.getStatus(PROJECT);
+
+    verify(gitConnection).close();
+  }
+
+  @Test
+  public void shouldRecomputeStatusWhenInvalidated() throws Exception {
+    Status clean = status(emptyList(), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(clean);
+    statusCache.getStatus(PROJECT);
+
+    statusCache.invalidate(PROJECT);
+    statusCache.getStatus(PROJECT);
+
+    verify(gitConnection, times(2)).status(emptyList());
+  }
+
+  private void setIndexModified(long time) {
+    assertTrue(index.setLastModified(time));
+  }
+
+  private static Status status(List<String> modified, List<String> untracked) {
+    Status status = mock(Status.class);
+    when(status.getModified()).thenReturn(modified);
+    when(status.getUntracked()).thenReturn(untracked);
+    return status;
+  }
+}
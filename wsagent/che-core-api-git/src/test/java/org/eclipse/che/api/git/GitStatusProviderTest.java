@@ -13,19 +13,15 @@ package org.eclipse.che.api.git;
 
 import static java.util.Collections.singletonList;
 import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.*;
-import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertTrue;
 
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import org.eclipse.che.api.fs.server.PathTransformer;
 import org.eclipse.che.api.git.shared.Status;
 import org.eclipse.che.api.project.server.ProjectManager;
 import org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus;
@@ -44,9 +40,7 @@ public class GitStatusProviderTest {
   private static final String NORMALIZED_PATH = "folder/file";
 
   private @Mock RegisteredProject registeredProject;
-  private @Mock GitConnection gitConnection;
-  private @Mock GitConnectionFactory gitConnectionFactory;
-  private @Mock PathTransformer pathTransformer;
+  private @Mock GitStatusCache statusCache;
   private @Mock ProjectManager projectManager;
   private @Mock Status statusDto;
   private @InjectMocks GitStatusProvider gitStatusProvider;
@@ -55,11 +49,7 @@ public class GitStatusProviderTest {
   public void setup() throws Exception {
     when(projectManager.getClosest(anyString())).thenReturn(Optional.of(registeredProject));
     when(registeredProject.getPath()).thenReturn("/project");
-    Path path = mock(Path.class);
-    when(path.toString()).thenReturn("/fsPath/project");
-    when(pathTransformer.transform("/project")).thenReturn(path);
-    when(gitConnectionFactory.getConnection("/fsPath/project")).thenReturn(gitConnection);
-    when(gitConnection.status(singletonList(NORMALIZED_PATH))).thenReturn(statusDto);
+    when(statusCache.getStatus("/project")).thenReturn(statusDto);
   }
 
   @Test
@@ -131,7 +121,6 @@ public class GitStatusProviderTest {
     when(statusDto.getAdded()).thenReturn(singletonList(NORMALIZED_PATH + "2"));
     when(statusDto.getModified()).thenReturn(singletonList(NORMALIZED_PATH + "3"));
     when(statusDto.getChanged()).thenReturn(singletonList(NORMALIZED_PATH + "4"));
-    when(gitConnection.status(anyList())).thenReturn(statusDto);
 
     List<String> paths = new ArrayList<>();
     paths.add(NORMALIZED_PATH + "1");
@@ -11,11 +11,22 @@
  */
 package org.eclipse.che.api.languageserver;
 
+import static java.util.stream.Collectors.joining;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.languageserver.RegistryContainer.Registry;
@@ -23,12 +34,33 @@ import org.eclipse.che.api.languageserver.RegistryContainer.Registry;
 /**
  * Utility class that simplifies finding language server id.
  *
+ * <p>Ids are looked up in an index built from the registered patterns, the index is rebuilt when
+ * the pattern registry is modified. Patterns which match files by extension, e.g. {@code .*\.py} or
+ * {@code .*\.(ts|tsx)$}, are resolved with a single map lookup. The rest of the patterns are joined
+ * into one pattern, so a path which matches none of them is rejected with a single pass and the
+ * patterns are checked one by one only if some of them matches. Results of the recent lookups are
+ * cached.
+ *
  * @author Dmytro Kulieshov
  */
 @Singleton
 class FindId {
+  private static final int CACHE_SIZE = 1_000;
+
+  /** Matches source of the patterns which match path by extension, e.g. {@code .*\.(ts|tsx)$}. */
+  private static final Pattern EXTENSION_PATTERN =
+      Pattern.compile("\\^?\\.\\*\\\\\\.(?:(\\w+)|\\((\\w+(?:\\|\\w+)*)\\))\\$?");
+
+  /** Characters which are not matched by '.' of the patterns. */
+  private static final Pattern LINE_TERMINATOR = Pattern.compile("[\n\r\u0085\u2028\u2029]");
+
+  /** Group references which would refer to other groups once the patterns are joined. */
+  private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+
   private final Registry<Set<Pattern>> patterns;
 
+  private volatile Index index;
+
   @Inject
   FindId(RegistryContainer registryContainer) {
     this.patterns = registryContainer.patternRegistry;
@@ -41,19 +73,127 @@ class FindId {
    * @return set of language server ids
    */
   Set<String> byPath(String wsPath) {
-    Set<String> ids = new HashSet<>();
+    Index current = index;
+    if (current == null || current.revision != patterns.getRevision()) {
+      current = rebuild();
+    }
+    return current.find(wsPath);
+  }
 
-    for (Entry<String, Set<Pattern>> entry : patterns.getAll().entrySet()) {
-      String id = entry.getKey();
-      Set<Pattern> patterns = entry.getValue();
+  private synchronized Index rebuild() {
+    // revision is read before the patterns, so concurrent registration causes one more rebuild
+    long revision = patterns.getRevision();
+    if (index == null || index.revision != revision) {
+      index = new Index(revision, patterns.getAll());
+    }
+    return index;
+  }
 
-      for (Pattern pattern : patterns) {
-        if (pattern.matcher(wsPath).matches()) {
-          ids.add(id);
+  /** Returns extensions matched by the pattern or null if it is not an extension pattern. */
+  private static Set<String> parseExtensions(Pattern pattern) {
+    if (pattern.flags() != 0) {
+      return null;
+    }
+    Matcher matcher = EXTENSION_PATTERN.matcher(pattern.pattern());
+    if (!matcher.matches()) {
+      return null;
+    }
+    if (matcher.group(1) != null) {
+      return ImmutableSet.of(matcher.group(1));
+    }
+    return ImmutableSet.copyOf(matcher.group(2).split("\\|"));
+  }
+
+  /**
+   * Joins the patterns into one which matches a path if any of them does, returns null if the
+   * patterns can't be joined without changing their meaning.
+   */
+  private static Pattern combine(List<Entry<String, Pattern>> patterns) {
+    if (patterns.isEmpty()) {
+      return null;
+    }
+    for (Entry<String, Pattern> entry : patterns) {
+      if (entry.getValue().flags() != 0
+          || BACK_REFERENCE.matcher(entry.getValue().pattern()).find()) {
+        return null;
+      }
+    }
+    try {
+      return Pattern.compile(
+          patterns.stream().map(e -> "(?:" + e.getValue().pattern() + ")").collect(joining("|")));
+    } catch (PatternSyntaxException e) {
+      // e.g. the same group name is used by multiple patterns
+      return null;
+    }
+  }
+
+  /** Index of the patterns of a single registry revision. */
+  private static class Index {
+    final long revision;
+    final Map<String, Set<Pattern>> all;
+    final Map<String, Set<String>> idsByExtension = new HashMap<>();
+    final List<Entry<String, Pattern>> others = new ArrayList<>();
+    final Pattern combined;
+    final Cache<String, Set<String>> cache =
+        CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+    Index(long revision, Map<String, Set<Pattern>> all) {
+      this.revision = revision;
+      this.all = all;
+      for (Entry<String, Set<Pattern>> entry : all.entrySet()) {
+        for (Pattern pattern : entry.getValue()) {
+          Set<String> extensions = parseExtensions(pattern);
+          if (extensions == null) {
+            others.add(new SimpleImmutableEntry<>(entry.getKey(), pattern));
+          } else {
+            for (String extension : extensions) {
+              idsByExtension.computeIfAbsent(extension, k -> new HashSet<>()).add(entry.getKey());
+            }
+          }
+        }
+      }
+      this.combined = combine(others);
+    }
+
+    Set<String> find(String wsPath) {
+      Set<String> ids = cache.getIfPresent(wsPath);
+      if (ids == null) {
+        ids = LINE_TERMINATOR.matcher(wsPath).find() ? matchAll(wsPath) : match(wsPath);
+        cache.put(wsPath, ids);
+      }
+      return ids;
+    }
+
+    private Set<String> match(String wsPath) {
+      Set<String> ids = new HashSet<>();
+      int dot = wsPath.lastIndexOf('.');
+      if (dot != -1) {
+        Set<String> extensionIds = idsByExtension.get(wsPath.substring(dot + 1));
+        if (extensionIds != null) {
+          ids.addAll(extensionIds);
         }
       }
+      if (!others.isEmpty() && (combined == null || combined.matcher(wsPath).matches())) {
+        for (Entry<String, Pattern> entry : others) {
+          if (!ids.contains(entry.getKey()) && entry.getValue().matcher(wsPath).matches()) {
+            ids.add(entry.getKey());
+          }
+        }
+      }
+      return ImmutableSet.copyOf(ids);
     }
 
-    return ImmutableSet.copyOf(ids);
+    /** Checks every pattern, used for the paths the extension lookup is not valid for. */
+    private Set<String> matchAll(String wsPath) {
+      Set<String> ids = new HashSet<>();
+      for (Entry<String, Set<Pattern>> entry : all.entrySet()) {
+        for (Pattern pattern : entry.getValue()) {
+          if (pattern.matcher(wsPath).matches()) {
+            ids.add(entry.getKey());
+          }
+        }
+      }
+      return ImmutableSet.copyOf(ids);
+    }
   }
 }
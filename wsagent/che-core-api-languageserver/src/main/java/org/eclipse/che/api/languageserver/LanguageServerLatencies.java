@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.inject.Singleton;
+import org.eclipse.che.api.languageserver.util.LSOperation;
+
+/**
+ * Collects latency histograms of requests to language servers, so the servers can be ordered by
+ * their responsiveness.
+ *
+ * <p>Latency is recorded when a request is completed, failed or cancelled, so the servers which are
+ * cancelled for not responding before the deadline are treated as slow ones. Histogram buckets are
+ * powers of two milliseconds, percentiles are approximated with the upper bound of the bucket.
+ */
+@Singleton
+class LanguageServerLatencies {
+  private static final int BUCKETS = 20;
+
+  private final Map<String, AtomicLongArray> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * Records the latency of a request to a language server.
+   *
+   * @param id language server id
+   * @param latencyNanos time from the request start until it is finished
+   */
+  void record(String id, long latencyNanos) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    histograms.computeIfAbsent(id, k -> new AtomicLongArray(BUCKETS)).incrementAndGet(bucket);
+  }
+
+  /**
+   * Returns the approximate latency percentile of the language server requests.
+   *
+   * @param id language server id
+   * @param percentile percentile in range (0, 1]
+   * @return latency in milliseconds or 0 if no requests were recorded
+   */
+  long getPercentileMillis(String id, double percentile) {
+    AtomicLongArray histogram = histograms.get(id);
+    if (histogram == null) {
+      return 0;
+    }
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += histogram.get(i);
+    }
+    long threshold = (long) Math.ceil(total * percentile);
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += histogram.get(i);
+      if (count >= threshold && count > 0) {
+        return (1L << i) - 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Orders the language servers by their median latency, the servers without recorded requests go
+   * first.
+   *
+   * @param servers language servers to order
+   * @return servers ordered from the fastest to the slowest one
+   */
+  List<ExtendedLanguageServer> fastestFirst(Collection<ExtendedLanguageServer> servers) {
+    return servers
+        .stream()
+        .sorted(comparingLong(server -> getPercentileMillis(server.getId(), 0.5)))
+        .collect(toList());
+  }
+
+  /**
+   * Wraps the operation, so the latencies of its requests are recorded.
+   *
+   * @param op operation to wrap
+   * @return operation which records latencies
+   */
+  <R> LSOperation<ExtendedLanguageServer, R> measured(LSOperation<ExtendedLanguageServer, R> op) {
+    return new LSOperation<ExtendedLanguageServer, R>() {
+      @Override
+      public boolean canDo(ExtendedLanguageServer element) {
+        return op.canDo(element);
+      }
+
+      @Override
+      public CompletableFuture<R> start(ExtendedLanguageServer element) {
+        return measured(element.getId(), op.start(element));
+      }
+
+      @Override
+      public boolean handleResult(ExtendedLanguageServer element, R result) {
+        return op.handleResult(element, result);
+      }
+    };
+  }
+
+  /**
+   * Records the latency of the request once it is finished.
+   *
+   * @param id language server id
+   * @param request request to the language server
+   * @return the same request
+   */
+  <R> CompletableFuture<R> measured(String id, CompletableFuture<R> request) {
+    long start = System.nanoTime();
+    request.whenComplete((result, error) -> record(id, System.nanoTime() - start));
+    return request;
+  }
+}
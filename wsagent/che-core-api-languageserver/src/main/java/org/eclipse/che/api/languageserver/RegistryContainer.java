@@ -19,6 +19,7 @@ import java.io.OutputStream;
 import java.nio.file.PathMatcher;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import javax.inject.Singleton;
 import org.eclipse.che.api.languageserver.LanguageServerConfig.CommunicationProvider;
@@ -53,6 +54,7 @@ class RegistryContainer {
    */
   class Registry<T> {
     private final Map<String, T> innerRegistry = newConcurrentMap();
+    private final AtomicLong revision = new AtomicLong();
 
     /**
      * Add an element to the registry
@@ -63,6 +65,7 @@ class RegistryContainer {
      */
     String add(String id, T t) {
       innerRegistry.put(id, t);
+      revision.incrementAndGet();
       return id;
     }
 
@@ -119,5 +122,15 @@ class RegistryContainer {
     Map<String, T> getAll() {
       return ImmutableMap.copyOf(innerRegistry);
     }
+
+    /**
+     * Get the number of modifications of the registry, so data derived from the registry can be
+     * checked for being up to date.
+     *
+     * @return registry revision
+     */
+    long getRevision() {
+      return revision.get();
+    }
   }
 }
@@ -99,13 +99,20 @@ import org.slf4j.LoggerFactory;
 public class TextDocumentService {
   private static final Logger LOG = LoggerFactory.getLogger(TextDocumentService.class);
 
+  private static final long COMPLETION_RESOLVE_TIMEOUT_MS = 5000;
+
   private final FindServer findServer;
   private final RequestHandlerConfigurator requestHandler;
+  private final LanguageServerLatencies latencies;
 
   @Inject
-  public TextDocumentService(FindServer findServer, RequestHandlerConfigurator requestHandler) {
+  public TextDocumentService(
+      FindServer findServer,
+      RequestHandlerConfigurator requestHandler,
+      LanguageServerLatencies latencies) {
     this.findServer = findServer;
     this.requestHandler = requestHandler;
+    this.latencies = latencies;
   }
 
   @PostConstruct
@@ -245,7 +252,10 @@ public class TextDocumentService {
         };
 
     Set<ExtendedLanguageServer> languageServers = findServer.byPath(wsPath);
-    OperationUtil.doInSequence(languageServers, lsOperation, 10000);
+    if (!OperationUtil.doInParallel(languageServers, latencies.measured(lsOperation), 10000)) {
+      // some of the servers didn't respond in time, so the client should ask for completion again
+      result[0].setInComplete(true);
+    }
 
     return result[0];
   }
@@ -358,22 +368,25 @@ public class TextDocumentService {
   }
 
   private ExtendedCompletionItemDto completionItemResolve(ExtendedCompletionItem unresolved) {
+    ExtendedLanguageServer languageServer = findServer.byId(unresolved.getLanguageServerId());
+    if (languageServer == null) {
+      return new ExtendedCompletionItemDto(unresolved);
+    }
+    CompletableFuture<CompletionItem> resolved =
+        latencies.measured(
+            languageServer.getId(),
+            languageServer.getTextDocumentService().resolveCompletionItem(unresolved.getItem()));
     try {
-      ExtendedLanguageServer languageServer = findServer.byId(unresolved.getLanguageServerId());
-
-      if (languageServer == null) {
-        return new ExtendedCompletionItemDto(unresolved);
-      } else {
-        ExtendedCompletionItem res = new ExtendedCompletionItem();
-        res.setItem(
-            languageServer
-                .getTextDocumentService()
-                .resolveCompletionItem(unresolved.getItem())
-                .get());
-        res.setLanguageServerId(unresolved.getLanguageServerId());
-        return new ExtendedCompletionItemDto(res);
-      }
+      ExtendedCompletionItem res = new ExtendedCompletionItem();
+      res.setItem(resolved.get(COMPLETION_RESOLVE_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+      res.setLanguageServerId(unresolved.getLanguageServerId());
+      return new ExtendedCompletionItemDto(res);
+    } catch (TimeoutException e) {
+      resolved.cancel(true);
+      LOG.debug("Completion item is not resolved by '{}' in time", languageServer.getId());
+      return new ExtendedCompletionItemDto(unresolved);
     } catch (InterruptedException | ExecutionException e) {
+      resolved.cancel(true);
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
@@ -389,27 +402,28 @@ public class TextDocumentService {
     Set<ExtendedLanguageServer> servers = findServer.byPath(uri);
     OperationUtil.doInParallel(
         servers,
-        new LSOperation<ExtendedLanguageServer, Hover>() {
-
-          @Override
-          public boolean canDo(ExtendedLanguageServer element) {
-            return truish(element.getCapabilities().getHoverProvider());
-          }
-
-          @Override
-          public CompletableFuture<Hover> start(ExtendedLanguageServer element) {
-            return element.getTextDocumentService().hover(positionParams);
-          }
-
-          @Override
-          public boolean handleResult(ExtendedLanguageServer element, Hover hover) {
-            if (hover != null) {
-              HoverDto hoverDto = new HoverDto(hover);
-              result.getContents().addAll(hoverDto.getContents());
-            }
-            return true;
-          }
-        },
+        latencies.measured(
+            new LSOperation<ExtendedLanguageServer, Hover>() {
+
+              @Override
+              public boolean canDo(ExtendedLanguageServer element) {
+                return truish(element.getCapabilities().getHoverProvider());
+              }
+
+              @Override
+              public CompletableFuture<Hover> start(ExtendedLanguageServer element) {
+                return element.getTextDocumentService().hover(positionParams);
+              }
+
+              @Override
+              public boolean handleResult(ExtendedLanguageServer element, Hover hover) {
+                if (hover != null) {
+                  HoverDto hoverDto = new HoverDto(hover);
+                  result.getContents().addAll(hoverDto.getContents());
+                }
+                return true;
+              }
+            }),
         10000);
     return result;
   }
@@ -443,7 +457,7 @@ public class TextDocumentService {
             return false;
           }
         };
-    OperationUtil.doInSequence(servers, op, 10000);
+    OperationUtil.doFirstInParallel(servers, latencies.measured(op), 10000);
     return result[0];
   }
 
@@ -629,7 +643,7 @@ public class TextDocumentService {
             return !list.isEmpty();
           }
         };
-    OperationUtil.doInSequence(findServer.byPath(wsPath), op, 10000);
+    OperationUtil.doInSequence(latencies.fastestFirst(findServer.byPath(wsPath)), op, 10000);
 
     if (!result[0].isEmpty()) {
       return result[0].get(0);
@@ -11,41 +11,77 @@
  */
 package org.eclipse.che.api.languageserver.util;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Executes operations against collections of language servers.
+ *
+ * <p>Operations are executed with one of the strategies:
+ *
+ * <ul>
+ *   <li>{@link #doInSequence} - priority ordered, elements are processed one by one in the order of
+ *       the collection until the first valid result
+ *   <li>{@link #doInParallel} - merge all, all the elements are processed at once and every result
+ *       received before the deadline is handled
+ *   <li>{@link #doFirstInParallel} - first success, all the elements are processed at once until
+ *       the first valid result
+ * </ul>
+ *
+ * <p>Each strategy enforces the overall deadline, operations which are not finished by the deadline
+ * are cancelled and their results are ignored.
+ */
 public class OperationUtil {
   private static final Logger LOG = LoggerFactory.getLogger(OperationUtil.class);
 
+  private static final ScheduledExecutorService DEADLINES =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("LanguageServerOperationDeadline")
+              .setDaemon(true)
+              .build());
+
   /**
    * Execute the given operation on each element of the collection in sequence. Stops as soon as
-   * {@link LSOperation#canDo(Object)} returns true.
+   * {@link LSOperation#handleResult(Object, Object)} returns true or the timeout is exceeded.
    *
    * @param collection
    * @param op
-   * @param timeoutMillis
+   * @param timeoutMillis overall timeout of the operation on all the elements
    */
   public static <C, R> void doInSequence(
       Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
     long endTime = System.currentTimeMillis() + timeoutMillis;
     for (C element : collection) {
+      long remaining = endTime - System.currentTimeMillis();
+      if (remaining <= 0) {
+        return;
+      }
       if (op.canDo(element)) {
         CompletableFuture<R> future = op.start(element);
         try {
-          R result = future.get(Math.max(endTime - timeoutMillis, 1), TimeUnit.MILLISECONDS);
+          R result = future.get(remaining, MILLISECONDS);
           if (op.handleResult(element, result)) {
             return;
           }
         } catch (InterruptedException e) {
           LOG.info("Thread interrupted", e);
+          future.cancel(true);
           Thread.currentThread().interrupt();
+          return;
         } catch (ExecutionException e) {
           LOG.info("Exception occurred in op", e);
         } catch (TimeoutException e) {
@@ -62,59 +98,134 @@ public class OperationUtil {
    * @param collection
    * @param op
    * @param timeoutMillis
+   * @return true if all the operations finished before the timeout
    */
-  public static <C, R> void doInParallel(
+  public static <C, R> boolean doInParallel(
       Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
-    Object lock = new Object();
-    List<CompletableFuture<?>> pendingResponses = new ArrayList<>();
+    return await(startInParallel(collection, op, timeoutMillis, false));
+  }
 
-    for (C element : collection) {
-      if (op.canDo(element)) {
-        CompletableFuture<R> future = op.start(element);
-        synchronized (lock) {
-          pendingResponses.add(future);
-          lock.notifyAll();
-        }
-        future
-            .thenAccept(
-                result -> {
-                  synchronized (lock) {
-                    if (!future.isCancelled()) {
-                      op.handleResult(element, result);
-                      pendingResponses.remove(future);
-                      lock.notifyAll();
-                    }
-                  }
-                })
-            .exceptionally(
-                (t) -> {
-                  LOG.info("Exception occurred in request", t);
-                  synchronized (lock) {
-                    pendingResponses.remove(future);
-                    lock.notifyAll();
-                  }
-                  return null;
-                });
-      }
-    }
+  /**
+   * Executes the given operation in parallel for each element in the collection until {@link
+   * LSOperation#handleResult(Object, Object)} returns true for one of the elements, operations on
+   * the rest of the elements are cancelled. Failures in any of the operations are ignored.
+   *
+   * @param collection
+   * @param op
+   * @param timeoutMillis
+   * @return true if one of the results was valid, false otherwise
+   */
+  public static <C, R> boolean doFirstInParallel(
+      Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
+    return await(startInParallel(collection, op, timeoutMillis, true));
+  }
 
-    long endTime = System.currentTimeMillis() + 5000;
+  /**
+   * Starts the given operation in parallel for each element in the collection without waiting for
+   * the results. Results are handled one at a time, no result is handled once the returned future
+   * is completed. Cancellation of the returned future cancels pending operations.
+   *
+   * @param collection
+   * @param op
+   * @param timeoutMillis
+   * @param untilFirstSuccess whether to stop once one of the results is valid
+   * @return future which is completed with true when all the operations are finished or the first
+   *     valid result is handled if {@code untilFirstSuccess} is true, and with false when the
+   *     timeout is exceeded
+   */
+  public static <C, R> CompletableFuture<Boolean> startInParallel(
+      Collection<C> collection,
+      LSOperation<C, R> op,
+      long timeoutMillis,
+      boolean untilFirstSuccess) {
+    return new ParallelOperation<>(op, untilFirstSuccess).start(collection, timeoutMillis);
+  }
 
+  private static boolean await(CompletableFuture<Boolean> operation) {
     try {
-      synchronized (lock) {
-        while (System.currentTimeMillis() < endTime && pendingResponses.size() > 0) {
-          lock.wait(endTime - System.currentTimeMillis());
-        }
-      }
+      return operation.get();
     } catch (InterruptedException e) {
       LOG.info("Thread interrupted", e);
+      operation.cancel(true);
       Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException | CancellationException e) {
+      return false;
+    }
+  }
+
+  /** State of the operation which is executed on the elements in parallel. */
+  private static class ParallelOperation<C, R> {
+    private final LSOperation<C, R> op;
+    private final boolean untilFirstSuccess;
+    private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+    private final List<CompletableFuture<R>> pending = new ArrayList<>();
+    private boolean allStarted;
+
+    ParallelOperation(LSOperation<C, R> op, boolean untilFirstSuccess) {
+      this.op = op;
+      this.untilFirstSuccess = untilFirstSuccess;
     }
-    synchronized (lock) {
-      for (CompletableFuture<?> pending : new ArrayList<>(pendingResponses)) {
-        pending.cancel(true);
+
+    CompletableFuture<Boolean> start(Collection<C> collection, long timeoutMillis) {
+      ScheduledFuture<?> deadline =
+          DEADLINES.schedule(() -> finish(false), timeoutMillis, MILLISECONDS);
+      done.whenComplete((result, error) -> cancelPending(deadline));
+      for (C element : collection) {
+        if (done.isDone()) {
+          break;
+        }
+        if (op.canDo(element)) {
+          CompletableFuture<R> future;
+          try {
+            future = op.start(element);
+          } catch (RuntimeException e) {
+            LOG.info("Exception occurred in op", e);
+            continue;
+          }
+          synchronized (this) {
+            pending.add(future);
+          }
+          future.whenComplete((result, error) -> handle(element, future, result, error));
+        }
+      }
+      synchronized (this) {
+        allStarted = true;
+        if (pending.isEmpty()) {
+          done.complete(!untilFirstSuccess);
+        }
+      }
+      return done;
+    }
+
+    private synchronized void handle(
+        C element, CompletableFuture<R> future, R result, Throwable error) {
+      if (done.isDone() || !pending.remove(future)) {
+        return;
+      }
+      if (error != null) {
+        LOG.info("Exception occurred in request", error);
+      } else if (op.handleResult(element, result) && untilFirstSuccess) {
+        done.complete(true);
+        return;
+      }
+      if (allStarted && pending.isEmpty()) {
+        done.complete(!untilFirstSuccess);
+      }
+    }
+
+    private synchronized void finish(boolean result) {
+      done.complete(result);
+    }
+
+    private void cancelPending(ScheduledFuture<?> deadline) {
+      deadline.cancel(false);
+      List<CompletableFuture<R>> toCancel;
+      synchronized (this) {
+        toCancel = new ArrayList<>(pending);
+        pending.clear();
       }
-      lock.notifyAll();
+      toCancel.forEach(future -> future.cancel(true));
     }
   }
 }
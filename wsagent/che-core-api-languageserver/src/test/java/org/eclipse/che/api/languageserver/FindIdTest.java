@@ -15,6 +15,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Pattern;
 import org.mockito.testng.MockitoTestNGListener;
@@ -72,4 +73,60 @@ public class FindIdTest {
 
     assertTrue(ids.isEmpty());
   }
+
+  @Test
+  public void shouldMatchPathByExtension() {
+    registryContainer.patternRegistry.add(ID_1, ImmutableSet.of(Pattern.compile(".*\\.py")));
+    registryContainer.patternRegistry.add(ID_2, ImmutableSet.of(Pattern.compile(".*\\.(ts|tsx)$")));
+
+    assertEquals(findId.byPath("/a/b/c/name.py"), ImmutableSet.of(ID_1));
+    assertEquals(findId.byPath("/a/b/c/name.tsx"), ImmutableSet.of(ID_2));
+    assertTrue(findId.byPath("/a/b/c/name.tsxx").isEmpty());
+    assertTrue(findId.byPath("/a/b.py/c/name").isEmpty());
+    assertTrue(findId.byPath("py").isEmpty());
+  }
+
+  @Test
+  public void shouldMatchPathByExtensionAndByOtherPattern() {
+    registryContainer.patternRegistry.add(ID_1, ImmutableSet.of(Pattern.compile(".*\\.xml")));
+    registryContainer.patternRegistry.add(
+        ID_2, ImmutableSet.of(Pattern.compile(".*[/\\\\]+pom\\.xml")));
+
+    assertEquals(findId.byPath("/a/pom.xml"), ImmutableSet.of(ID_1, ID_2));
+    assertEquals(findId.byPath("/a/web.xml"), ImmutableSet.of(ID_1));
+  }
+
+  @Test
+  public void shouldFindIdsRegisteredAfterPreviousLookup() {
+    registryContainer.patternRegistry.add(ID_1, ImmutableSet.of(Pattern.compile(".*\\.go")));
+    assertEquals(findId.byPath("/a/main.go"), ImmutableSet.of(ID_1));
+
+    registryContainer.patternRegistry.add(ID_2, ImmutableSet.of(Pattern.compile(".*main\\.go")));
+
+    assertEquals(findId.byPath("/a/main.go"), ImmutableSet.of(ID_1, ID_2));
+  }
+
+  @Test
+  public void shouldMatchPathsTheSameWayAsPatterns() {
+    Set<Pattern> patterns_1 =
+        ImmutableSet.of(Pattern.compile(".*\\.(c|h)$"), Pattern.compile("(a+)b\\1.*"));
+    Set<Pattern> patterns_2 =
+        ImmutableSet.of(Pattern.compile("^.*\\.h"), Pattern.compile("(?i).*\\.CPP"));
+    registryContainer.patternRegistry.add(ID_1, patterns_1);
+    registryContainer.patternRegistry.add(ID_2, patterns_2);
+
+    for (String path :
+        new String[] {
+          "/a/b.c", "/a/b.h", "/a/b.cpp", "/a/b.CPP", "aaba", "aabaa.x", "/a\nb.c", "/a/b.c\n", ""
+        }) {
+      Set<String> expected = new HashSet<>();
+      if (patterns_1.stream().anyMatch(p -> p.matcher(path).matches())) {
+        expected.add(ID_1);
+      }
+      if (patterns_2.stream().anyMatch(p -> p.matcher(path).matches())) {
+        expected.add(ID_2);
+      }
+      assertEquals(findId.byPath(path), expected, "Path: " + path);
+    }
+  }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link LanguageServerLatencies}. */
+public class LanguageServerLatenciesTest {
+
+  private LanguageServerLatencies latencies;
+
+  @BeforeMethod
+  public void setUp() {
+    latencies = new LanguageServerLatencies();
+  }
+
+  @Test
+  public void shouldApproximatePercentilesWithBucketBounds() {
+    for (int i = 0; i < 9; i++) {
+      latencies.record("ls", MILLISECONDS.toNanos(5));
+    }
+    latencies.record("ls", MILLISECONDS.toNanos(700));
+
+    assertEquals(latencies.getPercentileMillis("ls", 0.5), 7);
+    assertEquals(latencies.getPercentileMillis("ls", 0.9), 7);
+    assertEquals(latencies.getPercentileMillis("ls", 1), 1023);
+    assertEquals(latencies.getPercentileMillis("unknown", 0.5), 0);
+  }
+
+  @Test
+  public void shouldOrderServersByMedianLatency() {
+    ExtendedLanguageServer slow = new ExtendedLanguageServer("slow", null, null);
+    ExtendedLanguageServer fast = new ExtendedLanguageServer("fast", null, null);
+    ExtendedLanguageServer unknown = new ExtendedLanguageServer("unknown", null, null);
+    latencies.record("slow", MILLISECONDS.toNanos(300));
+    latencies.record("fast", MILLISECONDS.toNanos(20));
+
+    assertEquals(latencies.fastestFirst(asList(slow, fast, unknown)), asList(unknown, fast, slow));
+  }
+
+  @Test
+  public void shouldRecordLatencyOfCancelledRequest() throws Exception {
+    CompletableFuture<String> request = latencies.measured("ls", new CompletableFuture<>());
+    Thread.sleep(20);
+
+    request.cancel(true);
+
+    assertTrue(latencies.getPercentileMillis("ls", 1) >= 15);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.util;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link OperationUtil}. */
+public class OperationUtilTest {
+
+  private Map<String, CompletableFuture<String>> requests;
+  private List<String> handled;
+
+  @BeforeMethod
+  public void setUp() {
+    requests = new ConcurrentHashMap<>();
+    handled = new CopyOnWriteArrayList<>();
+  }
+
+  @Test
+  public void shouldStopSequenceOnceTimeoutIsExceeded() {
+    long start = System.currentTimeMillis();
+
+    OperationUtil.doInSequence(asList("slow-1", "slow-2", "slow-3"), new TestOperation(), 300);
+
+    long elapsed = System.currentTimeMillis() - start;
+    assertTrue(elapsed >= 300 && elapsed < 3000, "Elapsed: " + elapsed);
+    assertTrue(requests.get("slow-1").isCancelled());
+    assertFalse(requests.containsKey("slow-2"));
+    assertTrue(handled.isEmpty());
+  }
+
+  @Test
+  public void shouldStopSequenceOnFirstValidResult() {
+    OperationUtil.doInSequence(asList("empty", "valid", "other"), new TestOperation(), 1000);
+
+    assertEquals(handled, asList("empty", "valid"));
+    assertFalse(requests.containsKey("other"));
+  }
+
+  @Test
+  public void shouldHandleResultsReceivedBeforeTimeoutAndCancelTheRest() {
+    long start = System.currentTimeMillis();
+
+    boolean completed =
+        OperationUtil.doInParallel(asList("valid", "slow", "empty"), new TestOperation(), 300);
+
+    long elapsed = System.currentTimeMillis() - start;
+    assertFalse(completed);
+    assertTrue(elapsed >= 300 && elapsed < 3000, "Elapsed: " + elapsed);
+    assertEquals(handled.size(), 2);
+    assertTrue(handled.containsAll(asList("valid", "empty")));
+    assertTrue(requests.get("slow").isCancelled());
+  }
+
+  @Test
+  public void shouldReturnOnceAllResultsAreHandled() {
+    boolean completed =
+        OperationUtil.doInParallel(asList("valid", "empty", "failing"), new TestOperation(), 5000);
+
+    assertTrue(completed);
+    assertEquals(handled.size(), 2);
+  }
+
+  @Test
+  public void shouldCancelOtherRequestsOnFirstValidResult() {
+    long start = System.currentTimeMillis();
+
+    boolean found =
+        OperationUtil.doFirstInParallel(
+            asList("slow", "empty", "valid"), new TestOperation(), 5000);
+
+    assertTrue(found);
+    assertTrue(System.currentTimeMillis() - start < 3000);
+    assertTrue(handled.contains("valid"));
+    assertTrue(requests.get("slow").isCancelled());
+  }
+
+  @Test
+  public void shouldReturnFalseIfThereIsNoValidResult() {
+    boolean found =
+        OperationUtil.doFirstInParallel(asList("empty", "failing"), new TestOperation(), 5000);
+
+    assertFalse(found);
+    assertEquals(handled, asList("empty"));
+  }
+
+  /**
+   * Operation which is never completed for elements starting with 'slow', fails for 'failing' and
+   * returns valid result only for 'valid'.
+   */
+  private class TestOperation implements LSOperation<String, String> {
+    @Override
+    public boolean canDo(String element) {
+      return true;
+    }
+
+    @Override
+    public CompletableFuture<String> start(String element) {
+      CompletableFuture<String> request = new CompletableFuture<>();
+      requests.put(element, request);
+      if (element.equals("failing")) {
+        request.completeExceptionally(new RuntimeException("failed"));
+      } else if (!element.startsWith("slow")) {
+        CompletableFuture.runAsync(() -> request.complete(element));
+      }
+      return request;
+    }
+
+    @Override
+    public boolean handleResult(String element, String result) {
+      handled.add(result);
+      return "valid".equals(result);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Progress of the initial search indexing of the workspace root.
+ *
+ * @since 6.10.1
+ */
+@DTO
+public interface SearchIndexingProgressDto {
+
+  /** Number of files discovered while walking the workspace root. */
+  long getDiscovered();
+
+  void setDiscovered(long discovered);
+
+  SearchIndexingProgressDto withDiscovered(long discovered);
+
+  /** Number of files (re)indexed because they are new or changed since the last checkpoint. */
+  long getIndexed();
+
+  void setIndexed(long indexed);
+
+  SearchIndexingProgressDto withIndexed(long indexed);
+
+  /** Number of files skipped because they are unchanged since the last checkpoint. */
+  long getSkipped();
+
+  void setSkipped(long skipped);
+
+  SearchIndexingProgressDto withSkipped(long skipped);
+
+  /** Number of index entries removed because their files no longer exist. */
+  long getRemoved();
+
+  void setRemoved(long removed);
+
+  SearchIndexingProgressDto withRemoved(long removed);
+
+  /** Time spent on initial indexing so far, or in total when it is completed. */
+  long getElapsedTimeMillis();
+
+  void setElapsedTimeMillis(long elapsedTimeMillis);
+
+  SearchIndexingProgressDto withElapsedTimeMillis(long elapsedTimeMillis);
+
+  boolean isCompleted();
+
+  void setCompleted(boolean completed);
+
+  SearchIndexingProgressDto withCompleted(boolean completed);
+}
@@ -19,19 +19,29 @@ import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.Arrays;
+import org.apache.commons.io.input.ReaderInputStream;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
 
 /**
  * In-memory implementation of working copy for opened editor on client.
  *
+ * <p>The original content is kept as bytes until the first editor change, then the content is kept
+ * as a {@link TextRope}, so that changes are applied without copying the whole text. The flattened
+ * content is cached until the next change, so consumers reading it after the same change share one
+ * copy.
+ *
  * @author Roman Nikitenko
  */
 public class EditorWorkingCopy {
   private String path;
   private String projectPath;
   private byte[] content;
+  private TextRope text;
+  private String flattened;
+  private long version;
 
   /**
    * Creates a working copy for opened editor on client.
@@ -51,7 +61,10 @@ public class EditorWorkingCopy {
    *
    * @return content ot the working copy
    */
-  public byte[] getContentAsBytes() {
+  public synchronized byte[] getContentAsBytes() {
+    if (text != null) {
+      return getContentAsString().getBytes();
+    }
     if (content == null) {
       content = new byte[0];
     }
@@ -63,8 +76,24 @@ public class EditorWorkingCopy {
    *
    * @return content ot the working copy
    */
-  public String getContentAsString() {
-    return new String(getContentAsBytes());
+  public synchronized String getContentAsString() {
+    if (flattened == null) {
+      flattened = text != null ? text.toString() : new String(getContentAsBytes());
+    }
+    return flattened;
+  }
+
+  /**
+   * Returns the number of characters of the working copy. The content is not copied after the first
+   * editor change, before it the content is decoded once and cached.
+   */
+  public synchronized int getLength() {
+    return text != null ? text.length() : getContentAsString().length();
+  }
+
+  /** Returns the version of the content, which is incremented by every update of the content. */
+  public synchronized long getVersion() {
+    return version;
   }
 
   /**
@@ -72,7 +101,10 @@ public class EditorWorkingCopy {
    *
    * @return content ot the working copy
    */
-  public InputStream getContent() {
+  public synchronized InputStream getContent() {
+    if (text != null) {
+      return new ReaderInputStream(text.newReader(), Charset.defaultCharset());
+    }
     return new ByteArrayInputStream(getContentAsBytes());
   }
 
@@ -82,8 +114,11 @@ public class EditorWorkingCopy {
    * @param content content
    * @return current working copy after updating content
    */
-  EditorWorkingCopy updateContent(byte[] content) {
+  synchronized EditorWorkingCopy updateContent(byte[] content) {
     this.content = content;
+    this.text = null;
+    this.flattened = null;
+    this.version++;
     return this;
   }
 
@@ -123,26 +158,31 @@ public class EditorWorkingCopy {
    */
   void applyChanges(EditorChangesDto changes) {
     synchronized (this) {
-      String text = changes.getText();
+      String insertedText = changes.getText();
       int offset = changes.getOffset();
       int removedCharCount = changes.getRemovedCharCount();
 
-      String newContent = null;
-      String oldContent = getContentAsString();
       EditorChangesDto.Type type = changes.getType();
       if (type == INSERT) {
-        newContent = new StringBuilder(oldContent).insert(offset, text).toString();
+        text = getText().insert(offset, insertedText);
+        content = null;
+        flattened = null;
       }
 
       if (type == REMOVE && removedCharCount > 0) {
-        newContent =
-            new StringBuilder(oldContent).delete(offset, offset + removedCharCount).toString();
+        text = getText().remove(offset, removedCharCount);
+        content = null;
+        flattened = null;
       }
+      version++;
+    }
+  }
 
-      if (newContent != null) {
-        updateContent(newContent);
-      }
+  private TextRope getText() {
+    if (text == null) {
+      text = TextRope.of(getContentAsString());
     }
+    return text;
   }
 
   /** Returns the path to the persistent working copy */
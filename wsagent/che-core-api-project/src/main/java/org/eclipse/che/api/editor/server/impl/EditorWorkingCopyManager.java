@@ -112,8 +112,16 @@ public class EditorWorkingCopyManager {
         workingCopy = createWorkingCopy(filePath);
       }
 
-      workingCopy.applyChanges(changes);
-      eventService.publish(new EditorWorkingCopyUpdatedEvent(endpointId, changes));
+      // subscribers may reconcile the content synchronously, so they are notified out of the lock
+      // of the working copy with the snapshot of its state right after the changes
+      EditorWorkingCopyUpdatedEvent event;
+      synchronized (workingCopy) {
+        workingCopy.applyChanges(changes);
+        event =
+            new EditorWorkingCopyUpdatedEvent(
+                endpointId, changes, workingCopy.getVersion(), workingCopy.getLength());
+      }
+      eventService.publish(event);
 
     } catch (IOException | ForbiddenException | ConflictException | ServerException e) {
       String errorMessage = "Can not handle editor changes: " + e.getLocalizedMessage();
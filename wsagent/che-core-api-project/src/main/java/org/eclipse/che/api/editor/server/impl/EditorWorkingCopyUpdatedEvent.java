@@ -22,11 +22,16 @@ import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
 public class EditorWorkingCopyUpdatedEvent {
   private final String endpointId;
   private final EditorChangesDto textChange;
+  private final long version;
+  private final int length;
 
   /** Creates event which contains info about changes of editor working copy */
-  EditorWorkingCopyUpdatedEvent(String endpointId, EditorChangesDto textChange) {
+  EditorWorkingCopyUpdatedEvent(
+      String endpointId, EditorChangesDto textChange, long version, int length) {
     this.endpointId = endpointId;
     this.textChange = textChange;
+    this.version = version;
+    this.length = length;
   }
 
   public String getEndpointId() {
@@ -37,4 +42,19 @@ public class EditorWorkingCopyUpdatedEvent {
   public EditorChangesDto getChanges() {
     return textChange;
   }
+
+  /**
+   * Returns the version of editor working copy right after the changes were applied. The events may
+   * be delivered out of order, the version allows consumers to restore the order.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the number of characters of editor working copy right after the changes were applied.
+   */
+  public int getLength() {
+    return length;
+  }
 }
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.editor.server.impl;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable rope of text chunks.
+ *
+ * <p>Rope is a treap ordered by position of the chunks, every node keeps a chunk of text and the
+ * length of its subtree, so the chunk containing an offset is found in O(log n). Modifications copy
+ * only the path to the changed node and return a new rope, so a rope can be safely read while it is
+ * being modified by another thread. Typing is handled by replacing a single chunk which length is
+ * limited by {@link #MAX_CHUNK_LENGTH}.
+ */
+final class TextRope {
+
+  static final TextRope EMPTY = new TextRope(null);
+
+  static final int MAX_CHUNK_LENGTH = 1024;
+
+  private final Node root;
+
+  private TextRope(Node root) {
+    this.root = root;
+  }
+
+  /** Creates rope that contains given text. */
+  static TextRope of(CharSequence text) {
+    return text.length() == 0 ? EMPTY : new TextRope(build(text, 0, text.length()));
+  }
+
+  /** Returns the number of chars of the text. */
+  int length() {
+    return length(root);
+  }
+
+  /**
+   * Returns a rope with given text inserted at given offset.
+   *
+   * @throws IndexOutOfBoundsException if offset is negative or greater than the length
+   */
+  TextRope insert(int offset, CharSequence text) {
+    checkOffset(offset);
+    if (text.length() == 0) {
+      return this;
+    }
+    Node inserted = insertIntoChunk(root, offset, text);
+    if (inserted == null) {
+      Node[] parts = split(root, offset);
+      inserted = merge(merge(parts[0], build(text, 0, text.length())), parts[1]);
+    }
+    return compactIfFragmented(inserted);
+  }
+
+  /**
+   * Returns a rope with given number of chars removed starting from given offset, if the range
+   * exceeds the text, chars are removed up to the end of the text.
+   *
+   * @throws IndexOutOfBoundsException if offset is negative or greater than the length
+   */
+  TextRope remove(int offset, int count) {
+    checkOffset(offset);
+    count = Math.min(count, length() - offset);
+    if (count <= 0) {
+      return this;
+    }
+    Node removed = removeFromChunk(root, offset, count);
+    if (removed == null) {
+      Node[] head = split(root, offset);
+      Node[] tail = split(head[1], count);
+      removed = merge(head[0], tail[1]);
+    }
+    return compactIfFragmented(removed);
+  }
+
+  /** Returns a reader of the text, reading doesn't copy the whole text. */
+  Reader newReader() {
+    return new ChunkReader(root);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(length());
+    appendTo(root, builder);
+    return builder.toString();
+  }
+
+  private void checkOffset(int offset) {
+    if (offset < 0 || offset > length()) {
+      throw new IndexOutOfBoundsException(
+          "Offset " + offset + " is out of text bounds [0, " + length() + "]");
+    }
+  }
+
+  /**
+   * Many small chunks are left by modifications which don't fit into a single chunk, when there are
+   * too many of them the rope is rebuilt.
+   */
+  private static TextRope compactIfFragmented(Node root) {
+    if (root == null) {
+      return EMPTY;
+    }
+    if (root.count > 64 && root.count > 4 * (root.length / MAX_CHUNK_LENGTH + 1)) {
+      StringBuilder builder = new StringBuilder(root.length);
+      appendTo(root, builder);
+      return of(builder);
+    }
+    return new TextRope(root);
+  }
+
+  private static Node insertIntoChunk(Node node, int offset, CharSequence text) {
+    if (node == null) {
+      return null;
+    }
+    int leftLength = length(node.left);
+    int chunkLength = node.chunk.length();
+    if (offset < leftLength) {
+      Node left = insertIntoChunk(node.left, offset, text);
+      return left == null ? null : new Node(node.chunk, left, node.right, node.priority);
+    }
+    if (offset > leftLength + chunkLength) {
+      Node right = insertIntoChunk(node.right, offset - leftLength - chunkLength, text);
+      return right == null ? null : new Node(node.chunk, node.left, right, node.priority);
+    }
+    if (chunkLength + text.length() > MAX_CHUNK_LENGTH) {
+      return null;
+    }
+    int position = offset - leftLength;
+    String chunk =
+        new StringBuilder(chunkLength + text.length())
+            .append(node.chunk, 0, position)
+            .append(text)
+            .append(node.chunk, position, chunkLength)
+            .toString();
+    return new Node(chunk, node.left, node.right, node.priority);
+  }
+
+  private static Node removeFromChunk(Node node, int offset, int count) {
+    int leftLength = length(node.left);
+    int chunkLength = node.chunk.length();
+    if (offset < leftLength) {
+      if (offset + count > leftLength) {
+        return null;
+      }
+      Node left = removeFromChunk(node.left, offset, count);
+      return left == null ? null : new Node(node.chunk, left, node.right, node.priority);
+    }
+    if (offset >= leftLength + chunkLength) {
+      Node right = removeFromChunk(node.right, offset - leftLength - chunkLength, count);
+      return right == null ? null : new Node(node.chunk, node.left, right, node.priority);
+    }
+    int position = offset - leftLength;
+    if (position + count >= chunkLength) {
+      // removing the whole chunk or its tail, let split and merge deal with the node
+      return null;
+    }
+    String chunk = node.chunk.substring(0, position) + node.chunk.substring(position + count);
+    return new Node(chunk, node.left, node.right, node.priority);
+  }
+
+  /** Splits the tree so that the first node contains the first {@code offset} chars. */
+  private static Node[] split(Node node, int offset) {
+    if (node == null) {
+      return new Node[2];
+    }
+    int leftLength = length(node.left);
+    int chunkLength = node.chunk.length();
+    if (offset <= leftLength) {
+      Node[] parts = split(node.left, offset);
+      parts[1] = new Node(node.chunk, parts[1], node.right, node.priority);
+      return parts;
+    }
+    if (offset >= leftLength + chunkLength) {
+      Node[] parts = split(node.right, offset - leftLength - chunkLength);
+      parts[0] = new Node(node.chunk, node.left, parts[0], node.priority);
+      return parts;
+    }
+    int position = offset - leftLength;
+    return new Node[] {
+      new Node(node.chunk.substring(0, position), node.left, null, node.priority),
+      new Node(node.chunk.substring(position), null, node.right, node.priority)
+    };
+  }
+
+  private static Node merge(Node left, Node right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      return new Node(left.chunk, left.left, merge(left.right, right), left.priority);
+    }
+    return new Node(right.chunk, merge(left, right.left), right.right, right.priority);
+  }
+
+  /** Builds a tree of chunks of the text range with random priorities. */
+  private static Node build(CharSequence text, int start, int end) {
+    int chunks = (end - start + MAX_CHUNK_LENGTH / 2 - 1) / (MAX_CHUNK_LENGTH / 2);
+    int[] priorities = new int[chunks];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < chunks; i++) {
+      priorities[i] = random.nextInt();
+    }
+    return build(text, start, end, priorities, 0, chunks);
+  }
+
+  private static Node build(
+      CharSequence text, int start, int end, int[] priorities, int from, int to) {
+    if (from == to) {
+      return null;
+    }
+    int top = from;
+    for (int i = from + 1; i < to; i++) {
+      if (priorities[i] > priorities[top]) {
+        top = i;
+      }
+    }
+    int chunkStart = start + top * (MAX_CHUNK_LENGTH / 2);
+    int chunkEnd = Math.min(end, chunkStart + MAX_CHUNK_LENGTH / 2);
+    return new Node(
+        text.subSequence(chunkStart, chunkEnd).toString(),
+        build(text, start, end, priorities, from, top),
+        build(text, start, end, priorities, top + 1, to),
+        priorities[top]);
+  }
+
+  private static void appendTo(Node node, StringBuilder builder) {
+    for (ChunkIterator it = new ChunkIterator(node); it.hasNext(); ) {
+      builder.append(it.next());
+    }
+  }
+
+  private static int length(Node node) {
+    return node == null ? 0 : node.length;
+  }
+
+  private static final class Node {
+    final String chunk;
+    final Node left;
+    final Node right;
+    final int priority;
+    final int length;
+    final int count;
+
+    Node(String chunk, Node left, Node right, int priority) {
+      this.chunk = chunk;
+      this.left = left;
+      this.right = right;
+      this.priority = priority;
+      this.length = length(left) + chunk.length() + length(right);
+      this.count = (left == null ? 0 : left.count) + 1 + (right == null ? 0 : right.count);
+    }
+  }
+
+  /** Iterates chunks in the text order. */
+  private static final class ChunkIterator {
+    private final Deque<Node> stack = new ArrayDeque<>();
+
+    ChunkIterator(Node root) {
+      pushLeft(root);
+    }
+
+    boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    String next() {
+      Node node = stack.pop();
+      pushLeft(node.right);
+      return node.chunk;
+    }
+
+    private void pushLeft(Node node) {
+      for (; node != null; node = node.left) {
+        stack.push(node);
+      }
+    }
+  }
+
+  private static final class ChunkReader extends Reader {
+    private final ChunkIterator chunks;
+    private String chunk = "";
+    private int position;
+
+    ChunkReader(Node root) {
+      this.chunks = new ChunkIterator(root);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      while (position == chunk.length()) {
+        if (!chunks.hasNext()) {
+          return -1;
+        }
+        chunk = chunks.next();
+        position = 0;
+      }
+      int read = Math.min(length, chunk.length() - position);
+      chunk.getChars(position, position + read, buffer, offset);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -11,37 +11,113 @@
  */
 package org.eclipse.che.api.fs.server.impl;
 
-import static java.nio.file.Files.createTempFile;
-import static java.nio.file.Files.newInputStream;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.fs.server.PathTransformer;
 import org.eclipse.che.api.fs.server.WsPathUtils;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Zips and unzips file system items.
+ *
+ * <p>Archive is streamed to the client while it is being created, there is no intermediate file.
+ * Unzipped files are written to the disk by a bounded pool of threads while the archive is read.
+ */
 @Singleton
 class ZipArchiver {
 
+  private static final Logger LOG = LoggerFactory.getLogger(ZipArchiver.class);
+
+  private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+  /** Entries smaller than that are written to the disk asynchronously. */
+  private static final int MAX_ASYNC_ENTRY_SIZE = 1024 * 1024;
+
+  /** Limits the amount of memory taken by entries waiting to be written to the disk. */
+  private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+  private static final Set<String> COMPRESSED_EXTENSIONS =
+      newHashSet(
+          "zip", "jar", "war", "ear", "gz", "tgz", "bz2", "xz", "7z", "rar", "png", "jpg", "jpeg",
+          "gif", "mp3", "mp4", "avi", "mov");
+
   private final Path root;
+  private final Set<PathMatcher> excludes;
+  private final int compressionLevel;
+  private final ExecutorService zipExecutor;
+  private final ExecutorService unzipExecutor;
 
   @Inject
-  ZipArchiver(PathTransformer pathTransformer) {
+  ZipArchiver(
+      PathTransformer pathTransformer,
+      @Named("che.fs.zip.excludes") Set<PathMatcher> excludes,
+      @Named("che.fs.zip.compression_level") int compressionLevel,
+      @Named("che.fs.unzip.threads") int unzipThreads) {
     this.root = pathTransformer.transform(WsPathUtils.ROOT);
+    this.excludes = excludes;
+    this.compressionLevel = compressionLevel;
+    this.zipExecutor =
+        newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("ZipArchiver-zip-%d")
+                .setDaemon(true)
+                .build());
+    this.unzipExecutor =
+        newFixedThreadPool(
+            unzipThreads,
+            new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("ZipArchiver-unzip-%d")
+                .setDaemon(true)
+                .build());
   }
 
-  private static void zip(Path zipRoot, File zipInFile, ZipOutputStream zos) throws IOException {
+  @PreDestroy
+  void shutdown() {
+    zipExecutor.shutdownNow();
+    unzipExecutor.shutdownNow();
+  }
+
+  private void zip(Path zipRoot, File zipInFile, ZipOutputStream zos) throws IOException {
+    for (PathMatcher matcher : excludes) {
+      if (matcher.matches(zipInFile.toPath())) {
+        return;
+      }
+    }
+
     if (zipInFile.isDirectory()) {
       File[] files = zipInFile.listFiles();
       for (File file : files == null ? new File[0] : files) {
@@ -53,30 +129,60 @@ class ZipArchiver {
     try (FileInputStream fis = new FileInputStream(zipInFile); ) {
       String zipEntryName = zipRoot.relativize(zipInFile.toPath()).toString();
       ZipEntry zipEntry = new ZipEntry(zipEntryName);
+      zos.setLevel(isCompressed(zipInFile) ? Deflater.NO_COMPRESSION : compressionLevel);
       zos.putNextEntry(zipEntry);
       IOUtils.copy(fis, zos);
     }
   }
 
-  InputStream zip(Path fsPath) throws ServerException {
-    try {
-      File inFile = fsPath.toFile();
-      File outFile = createTempFile(fsPath.getFileName().toString(), ".zip").toFile();
+  private static boolean isCompressed(File file) {
+    String name = file.getName();
+    int dot = name.lastIndexOf('.');
+    return dot != -1 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+  }
 
-      try (FileOutputStream fos = new FileOutputStream(outFile);
-          ZipOutputStream zos = new ZipOutputStream(fos)) {
-        zip(fsPath, inFile, zos);
-      }
+  /**
+   * Returns stream of zipped item, the archive is created concurrently while the stream is read. If
+   * zipping fails, reading of the stream fails with corresponding exception.
+   */
+  InputStream zip(Path fsPath) throws ServerException {
+    if (!fsPath.toFile().exists()) {
+      throw new ServerException("Failed to zip item: " + fsPath + ", it does not exist");
+    }
 
-      return newInputStream(outFile.toPath());
+    ZipInputPipe pipe = new ZipInputPipe();
+    PipedOutputStream out;
+    try {
+      out = new PipedOutputStream(pipe);
     } catch (IOException e) {
       throw new ServerException("Failed to zip item: " + fsPath, e);
     }
+
+    zipExecutor.execute(
+        () -> {
+          try {
+            ZipOutputStream zos = new ZipOutputStream(out);
+            zip(fsPath, fsPath.toFile(), zos);
+            zos.close();
+          } catch (IOException | RuntimeException e) {
+            if (!pipe.closed) {
+              LOG.error("Failed to zip item: {}", fsPath, e);
+              // failure must be set before the pipe is closed, otherwise reader may treat
+              // truncated archive as a complete one
+              pipe.failure = new IOException("Failed to zip item: " + fsPath, e);
+            }
+            IOUtils.closeQuietly(out);
+          }
+        });
+
+    return pipe;
   }
 
   void unzip(
       Path fsPath, InputStream content, boolean overwrite, boolean withParents, boolean skipRoot)
       throws ServerException {
+    List<Future<?>> writes = new ArrayList<>();
+    Semaphore pendingBytes = new Semaphore(MAX_PENDING_BYTES);
     try {
       if (withParents) {
         Files.createDirectories(fsPath);
@@ -86,7 +192,7 @@ class ZipArchiver {
         ZipEntry zipEntry = zis.getNextEntry();
 
         String prefixToSkip = null;
-        if (zipEntry.isDirectory() && skipRoot) {
+        if (zipEntry != null && zipEntry.isDirectory() && skipRoot) {
           prefixToSkip = zipEntry.getName();
           zipEntry = zis.getNextEntry();
         }
@@ -104,16 +210,78 @@ class ZipArchiver {
           if (zipEntry.isDirectory()) {
             Files.createDirectory(path);
           } else {
-            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
-              IOUtils.copy(zis, fos);
+            // archives may have no entries for directories
+            Files.createDirectories(path.getParent());
+            if (zipEntry.getSize() >= 0 && zipEntry.getSize() <= MAX_ASYNC_ENTRY_SIZE) {
+              int size = (int) zipEntry.getSize();
+              pendingBytes.acquire(size);
+              byte[] bytes = IOUtils.toByteArray(zis, size);
+              writes.add(
+                  unzipExecutor.submit(
+                      () -> {
+                        try {
+                          Files.write(path, bytes);
+                        } finally {
+                          pendingBytes.release(size);
+                        }
+                        return null;
+                      }));
+            } else {
+              try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
+                IOUtils.copy(zis, fos);
+              }
             }
           }
 
           zipEntry = zis.getNextEntry();
         }
       }
+
+      for (Future<?> write : writes) {
+        write.get();
+      }
     } catch (IOException e) {
       throw new ServerException("Failed to unzip item " + fsPath, e);
+    } catch (ExecutionException e) {
+      throw new ServerException("Failed to unzip item " + fsPath, e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServerException("Unzipping of item " + fsPath + " was interrupted");
+    } finally {
+      writes.forEach(it -> it.cancel(false));
+    }
+  }
+
+  /** Pipe which fails reading if the archive can't be created. */
+  private static class ZipInputPipe extends PipedInputStream {
+    volatile IOException failure;
+    volatile boolean closed;
+
+    ZipInputPipe() {
+      super(PIPE_BUFFER_SIZE);
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+      return checkFailure(super.read());
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+      return checkFailure(super.read(b, off, len));
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+
+    private int checkFailure(int read) throws IOException {
+      if (read == -1 && failure != null) {
+        throw failure;
+      }
+      return read;
     }
   }
 }
@@ -34,6 +34,7 @@ public class SearchApiModule extends AbstractModule {
   @Override
   protected void configure() {
     bind(Searcher.class).to(LuceneSearcher.class);
+    bind(SearchJsonRpcServiceConfigurator.class).asEagerSingleton();
 
     Multibinder<PathMatcher> excludeMatcher =
         newSetBinder(binder(), PathMatcher.class, Names.named("vfs.index_filter_matcher"));
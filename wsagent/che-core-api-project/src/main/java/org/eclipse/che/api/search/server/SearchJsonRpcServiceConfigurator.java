@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server;
+
+import static org.eclipse.che.api.project.shared.Constants.Services.SEARCH_INDEXING_PROGRESS;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
+import org.eclipse.che.api.project.shared.dto.SearchIndexingProgressDto;
+import org.eclipse.che.api.search.server.impl.LuceneSearcher;
+
+/** Configures JSON-RPC handlers of the search service. */
+@Singleton
+public class SearchJsonRpcServiceConfigurator {
+
+  private final RequestHandlerConfigurator handlers;
+  private final LuceneSearcher searcher;
+
+  @Inject
+  public SearchJsonRpcServiceConfigurator(
+      RequestHandlerConfigurator handlers, LuceneSearcher searcher) {
+    this.handlers = handlers;
+    this.searcher = searcher;
+  }
+
+  @PostConstruct
+  private void configure() {
+    handlers
+        .newConfiguration()
+        .methodName(SEARCH_INDEXING_PROGRESS)
+        .noParams()
+        .resultAsDto(SearchIndexingProgressDto.class)
+        .withSupplier(searcher::getIndexingProgress);
+  }
+}
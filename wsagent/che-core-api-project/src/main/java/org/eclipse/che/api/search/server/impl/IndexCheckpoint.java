@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persisted manifest of indexed files. Keeps the modification time and size of every file which
+ * content is present in the search index, so that after restart only new or changed files have to
+ * be indexed again.
+ *
+ * <p>The manifest is a plain text file. Its first line describes settings the index was built with,
+ * each following line has the format {@code <mtime>\t<size>\t<wsPath>}.
+ */
+class IndexCheckpoint {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IndexCheckpoint.class);
+
+  private final Path file;
+  private final String header;
+  private final Map<String, long[]> entries = new ConcurrentHashMap<>();
+  private final AtomicBoolean modified = new AtomicBoolean();
+
+  /**
+   * @param file file the manifest is stored in
+   * @param storeText whether text of the indexed files is stored in the index
+   */
+  IndexCheckpoint(Path file, boolean storeText) {
+    this.file = file;
+    this.header = "# store_text=" + storeText;
+  }
+
+  /**
+   * Loads previously stored manifest. If there is no manifest, it is broken or it describes an
+   * index built with other settings nothing is loaded.
+   *
+   * @return true when the manifest is loaded, false otherwise
+   */
+  boolean load() {
+    entries.clear();
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+      String line = reader.readLine();
+      if (!header.equals(line)) {
+        LOG.info("Search index checkpoint {} was stored with other index settings", file);
+        return false;
+      }
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split("\t", 3);
+        if (parts.length != 3) {
+          throw new IOException("Malformed line '" + line + "'");
+        }
+        entries.put(parts[2], new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1])});
+      }
+    } catch (IOException | NumberFormatException e) {
+      LOG.warn("Can't read search index checkpoint {} because {}", file, e.getMessage());
+      entries.clear();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns copy of the manifest entries if manifest was modified since the previous snapshot,
+   * otherwise returns {@code null}.
+   */
+  Map<String, long[]> snapshotIfModified() {
+    if (!modified.getAndSet(false)) {
+      return null;
+    }
+    return new HashMap<>(entries);
+  }
+
+  /** Stores given snapshot of the manifest, previously stored manifest is replaced atomically. */
+  void store(Map<String, long[]> snapshot) throws IOException {
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(tmp, UTF_8)) {
+      writer.write(header);
+      writer.newLine();
+      for (Map.Entry<String, long[]> entry : snapshot.entrySet()) {
+        long[] stamp = entry.getValue();
+        writer.write(Long.toString(stamp[0]));
+        writer.write('\t');
+        writer.write(Long.toString(stamp[1]));
+        writer.write('\t');
+        writer.write(entry.getKey());
+        writer.newLine();
+      }
+    }
+    Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+  }
+
+  /** Removes all entries of the manifest together with the stored manifest file. */
+  void clear() throws IOException {
+    entries.clear();
+    modified.set(false);
+    Files.deleteIfExists(file);
+  }
+
+  /** Returns true when file is present in the manifest with the same modification time and size. */
+  boolean isUpToDate(String wsPath, long lastModified, long size) {
+    long[] stamp = entries.get(wsPath);
+    return stamp != null && stamp[0] == lastModified && stamp[1] == size;
+  }
+
+  void put(String wsPath, long lastModified, long size) {
+    entries.put(wsPath, new long[] {lastModified, size});
+    modified.set(true);
+  }
+
+  /** Removes single file from the manifest. */
+  void remove(String wsPath) {
+    if (entries.remove(wsPath) != null) {
+      modified.set(true);
+    }
+  }
+
+  /** Removes file or directory with all its descendants from the manifest. */
+  void removeTree(String wsPath) {
+    remove(wsPath);
+    String prefix = wsPath + "/";
+    if (entries.keySet().removeIf(it -> it.startsWith(prefix))) {
+      modified.set(true);
+    }
+  }
+
+  /** Returns live view on the paths present in the manifest. */
+  Set<String> paths() {
+    return entries.keySet();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Table of line start offsets of a text. Allows to resolve offset of a character to the line that
+ * contains it with binary search instead of scanning the text from the beginning.
+ *
+ * <p>Line terminators are {@code \n}, {@code \r\n} and {@code \r}. Offsets are stored in the index
+ * as variable length encoded deltas between starts of the consecutive lines, which usually takes
+ * one or two bytes per line.
+ */
+final class LineOffsets {
+
+  private final int[] starts;
+
+  private LineOffsets(int[] starts) {
+    this.starts = starts;
+  }
+
+  /** Computes line offsets of the given text. */
+  static LineOffsets compute(CharSequence text) {
+    int[] starts = new int[16];
+    int count = 1;
+    int length = text.length();
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+      if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+        i++;
+      } else if (c != '\n' && c != '\r') {
+        continue;
+      }
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count << 1);
+      }
+      starts[count++] = i + 1;
+    }
+    return new LineOffsets(Arrays.copyOf(starts, count));
+  }
+
+  /** Decodes line offsets previously encoded with {@link #encode()}. */
+  static LineOffsets decode(BytesRef bytes) {
+    ByteArrayDataInput input = new ByteArrayDataInput(bytes.bytes, bytes.offset, bytes.length);
+    int[] starts = new int[input.readVInt() + 1];
+    for (int i = 1; i < starts.length; i++) {
+      starts[i] = starts[i - 1] + input.readVInt();
+    }
+    return new LineOffsets(starts);
+  }
+
+  /** Encodes line offsets to the compact binary form suitable for storing in the index. */
+  BytesRef encode() throws IOException {
+    // count and every delta take at most 5 bytes
+    byte[] buffer = new byte[5 * starts.length];
+    ByteArrayDataOutput output = new ByteArrayDataOutput(buffer);
+    output.writeVInt(starts.length - 1);
+    for (int i = 1; i < starts.length; i++) {
+      output.writeVInt(starts[i] - starts[i - 1]);
+    }
+    return new BytesRef(buffer, 0, output.getPosition());
+  }
+
+  /** Returns number of the line (starting from 1) which contains character with given offset. */
+  int lineNumber(int offset) {
+    int idx = Arrays.binarySearch(starts, offset);
+    return idx >= 0 ? idx + 1 : -idx - 1;
+  }
+
+  /** Returns content of the line with given number (starting from 1) without line terminator. */
+  String line(String text, int lineNumber) {
+    int start = starts[lineNumber - 1];
+    int end = lineNumber < starts.length ? starts[lineNumber] : text.length();
+    while (end > start && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+      end--;
+    }
+    return text.substring(start, end);
+  }
+}
@@ -12,10 +12,12 @@
 package org.eclipse.che.api.search.server.impl;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.eclipse.che.api.fs.server.WsPathUtils.nameOf;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
@@ -32,11 +34,18 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -47,14 +56,18 @@ import org.apache.lucene.analysis.core.WhitespaceTokenizerFactory;
 import org.apache.lucene.analysis.custom.CustomAnalyzer;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -78,6 +91,7 @@ import org.apache.lucene.store.SingleInstanceLockFactory;
 import org.apache.lucene.util.BytesRef;
 import org.eclipse.che.api.fs.server.PathTransformer;
 import org.eclipse.che.api.project.server.impl.RootDirPathProvider;
+import org.eclipse.che.api.project.shared.dto.SearchIndexingProgressDto;
 import org.eclipse.che.api.search.server.InvalidQueryException;
 import org.eclipse.che.api.search.server.OffsetData;
 import org.eclipse.che.api.search.server.QueryExecutionException;
@@ -85,6 +99,7 @@ import org.eclipse.che.api.search.server.QueryExpression;
 import org.eclipse.che.api.search.server.SearchResult;
 import org.eclipse.che.api.search.server.Searcher;
 import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.che.dto.server.DtoFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -103,9 +118,17 @@ public class LuceneSearcher implements Searcher {
   private static final String PATH_FIELD = "path";
   private static final String NAME_FIELD = "name";
   private static final String TEXT_FIELD = "text";
+  private static final String LINE_OFFSETS_FIELD = "lineOffsets";
+
+  private static final int INDEXING_THREADS =
+      Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+  private static final int INDEXING_QUEUE_CAPACITY = 1000;
+  private static final Path INDEXING_POISON_PILL = Paths.get("");
+  private static final String CHECKPOINT_FILE_SUFFIX = ".checkpoint";
 
   private final Set<PathMatcher> excludePatterns;
   private final PathTransformer pathTransformer;
+  private final boolean storeText;
 
   private final Path root;
   private final IndexWriter luceneIndexWriter;
@@ -113,13 +136,26 @@ public class LuceneSearcher implements Searcher {
   private final Analyzer analyzer;
   private final CountDownLatch initialIndexingLatch = new CountDownLatch(1);
   private final Sort sort;
+  private final IndexCheckpoint checkpoint;
+  private final ExecutorService indexingExecutor;
+
+  private volatile boolean closed;
+  private volatile boolean initialIndexingStarted;
+
+  private final AtomicLong discoveredFiles = new AtomicLong();
+  private final AtomicLong indexedFiles = new AtomicLong();
+  private final AtomicLong skippedFiles = new AtomicLong();
+  private final AtomicLong removedFiles = new AtomicLong();
+  private volatile long initialIndexingStartTime;
+  private volatile long initialIndexingEndTime;
 
   @Inject
   public LuceneSearcher(
       @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
       @Named("vfs.local.fs_index_root_dir") File indexDirectory,
       RootDirPathProvider pathProvider,
-      PathTransformer pathTransformer)
+      PathTransformer pathTransformer,
+      @Named("che.search.index.store_text") boolean storeText)
       throws IOException {
 
     if (indexDirectory.exists()) {
@@ -133,6 +169,7 @@ public class LuceneSearcher implements Searcher {
     this.root = Paths.get(pathProvider.get());
     this.excludePatterns = excludePatterns;
     this.pathTransformer = pathTransformer;
+    this.storeText = storeText;
     this.analyzer =
         CustomAnalyzer.builder()
             .withTokenizer(WhitespaceTokenizerFactory.class)
@@ -145,20 +182,40 @@ public class LuceneSearcher implements Searcher {
     this.searcherManager =
         new SearcherManager(luceneIndexWriter, true, true, new SearcherFactory());
     this.sort = new Sort(SortField.FIELD_SCORE, new SortField(PATH_FIELD, SortField.Type.STRING));
+    this.checkpoint =
+        new IndexCheckpoint(
+            indexDirectory
+                .toPath()
+                .toAbsolutePath()
+                .resolveSibling(indexDirectory.getName() + CHECKPOINT_FILE_SUFFIX),
+            storeText);
+    this.indexingExecutor =
+        newFixedThreadPool(
+            INDEXING_THREADS,
+            new ThreadFactoryBuilder()
+                .setNameFormat("LuceneSearcherIndexer-%d")
+                .setDaemon(true)
+                .build());
   }
 
   @PostConstruct
   @VisibleForTesting
   void initialize() {
+    initialIndexingStarted = true;
     Thread initializer =
         new Thread(
             () -> {
+              initialIndexingStartTime = System.currentTimeMillis();
               try {
-                long start = System.currentTimeMillis();
-                add(root);
+                indexRoot();
                 LOG.info(
-                    "Initial indexing complete after {} msec ", System.currentTimeMillis() - start);
+                    "Initial indexing complete after {} msec, indexed {} files, skipped {} unchanged files, removed {} files",
+                    System.currentTimeMillis() - initialIndexingStartTime,
+                    indexedFiles.get(),
+                    skippedFiles.get(),
+                    removedFiles.get());
               } finally {
+                initialIndexingEndTime = System.currentTimeMillis();
                 initialIndexingLatch.countDown();
               }
             });
@@ -167,14 +224,162 @@ public class LuceneSearcher implements Searcher {
     initializer.start();
   }
 
+  /**
+   * Indexes the whole root with the pipeline: the calling thread walks the file tree and queues new
+   * or changed files, {@link #INDEXING_THREADS} workers read, analyze and add them to the index.
+   * Files which are unchanged according to the persisted {@link IndexCheckpoint} are skipped, index
+   * entries of files which disappeared since the checkpoint was stored are removed. When the index
+   * was built with another {@code che.search.index.store_text} setting it is rebuilt from scratch.
+   */
+  private void indexRoot() {
+    try {
+      // checkpoint is meaningful only while the index it describes is still in place
+      if (luceneIndexWriter.numDocs() == 0) {
+        checkpoint.clear();
+      } else if (!checkpoint.load()) {
+        LOG.info("Search index checkpoint is missing or outdated, rebuilding the whole index");
+        luceneIndexWriter.deleteAll();
+        checkpoint.clear();
+      }
+    } catch (IOException e) {
+      LOG.warn("Can't clean up search index checkpoint because {}", e.getMessage());
+    }
+
+    Set<String> notVisited = new HashSet<>(checkpoint.paths());
+
+    BlockingQueue<Path> queue = new ArrayBlockingQueue<>(INDEXING_QUEUE_CAPACITY);
+    for (int i = 0; i < INDEXING_THREADS; i++) {
+      indexingExecutor.execute(
+          () -> {
+            try {
+              for (Path file = queue.take(); file != INDEXING_POISON_PILL; file = queue.take()) {
+                // queue is drained without indexing after close, so the walker never blocks
+                if (!closed && addFile(file)) {
+                  indexedFiles.incrementAndGet();
+                }
+              }
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+    }
+
+    try {
+      Files.walkFileTree(
+          root,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              if (closed) {
+                return FileVisitResult.TERMINATE;
+              }
+              discoveredFiles.incrementAndGet();
+              String wsPath = pathTransformer.transform(file);
+              notVisited.remove(wsPath);
+              if (checkpoint.isUpToDate(
+                  wsPath, attrs.lastModifiedTime().toMillis(), attrs.size())) {
+                skippedFiles.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+              }
+              try {
+                queue.put(file);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return FileVisitResult.TERMINATE;
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+              LOG.warn("Not able to index {} because {} ", file, exc.getMessage());
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    } catch (IOException e) {
+      LOG.warn("Not able to index {} because {} ", root, e.getMessage());
+    } finally {
+      indexingExecutor.shutdown();
+      try {
+        for (int i = 0; i < INDEXING_THREADS; i++) {
+          queue.put(INDEXING_POISON_PILL);
+        }
+        indexingExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        indexingExecutor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (closed) {
+      // index is committed on close, stale entries are removed on the next start
+      return;
+    }
+
+    for (String wsPath : notVisited) {
+      try {
+        luceneIndexWriter.deleteDocuments(new Term(PATH_FIELD, wsPath));
+        checkpoint.remove(wsPath);
+        removedFiles.incrementAndGet();
+      } catch (IOException e) {
+        LOG.warn("Can't delete index for file: {}", wsPath);
+      }
+    }
+
+    try {
+      commitIndex();
+    } catch (IOException e) {
+      LOG.warn("Can't commit initial search index because {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  @VisibleForTesting
+  void close() throws IOException {
+    closed = true;
+    // indexing workers add documents to the writer, so they have to finish before it is closed
+    try {
+      if (initialIndexingStarted) {
+        initialIndexingLatch.await();
+      }
+      indexingExecutor.shutdown();
+      indexingExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    commitIndex();
+    searcherManager.close();
+    luceneIndexWriter.close();
+  }
+
   @VisibleForTesting
   CountDownLatch getInitialIndexingLatch() {
     return initialIndexingLatch;
   }
 
+  /** Returns progress of the initial indexing of the root. */
+  public SearchIndexingProgressDto getIndexingProgress() {
+    long startTime = initialIndexingStartTime;
+    long endTime = initialIndexingEndTime;
+    boolean completed = initialIndexingLatch.getCount() == 0;
+    return DtoFactory.newDto(SearchIndexingProgressDto.class)
+        .withDiscovered(discoveredFiles.get())
+        .withIndexed(indexedFiles.get())
+        .withSkipped(skippedFiles.get())
+        .withRemoved(removedFiles.get())
+        .withElapsedTimeMillis(
+            startTime == 0 ? 0 : (completed ? endTime : System.currentTimeMillis()) - startTime)
+        .withCompleted(completed);
+  }
+
   @ScheduleRate(period = 30, initialDelay = 30)
   private void commitIndex() throws IOException {
+    // checkpoint is taken before commit, so it never describes documents which aren't committed
+    Map<String, long[]> checkpointSnapshot = checkpoint.snapshotIfModified();
     luceneIndexWriter.commit();
+    if (checkpointSnapshot != null) {
+      checkpoint.store(checkpointSnapshot);
+    }
   }
 
   @Override
@@ -205,11 +410,21 @@ public class LuceneSearcher implements Searcher {
         ScoreDoc scoreDoc = topDocs.scoreDocs[i];
         int docId = scoreDoc.doc;
         Document doc = luceneSearcher.doc(docId);
+        String filePath = doc.getField(PATH_FIELD).stringValue();
         if (query.isIncludePositions()) {
           offsetData = new ArrayList<>();
+          IndexReader reader = luceneSearcher.getIndexReader();
           String txt = doc.get(TEXT_FIELD);
+          LineOffsets lineOffsets = null;
           if (txt != null) {
-            IndexReader reader = luceneSearcher.getIndexReader();
+            lineOffsets = readLineOffsets(reader, docId);
+          } else if (!storeText) {
+            txt = readText(filePath);
+          }
+          if (txt != null) {
+            if (lineOffsets == null) {
+              lineOffsets = LineOffsets.compute(txt);
+            }
 
             TokenStream tokenStream =
                 TokenSources.getTokenStream(
@@ -242,6 +457,10 @@ public class LuceneSearcher implements Searcher {
               endOffset = offsetAtt.endOffset();
 
               if ((endOffset > txt.length()) || (startOffset > txt.length())) {
+                if (!storeText) {
+                  // file was changed after the search had been started
+                  break;
+                }
                 throw new QueryExecutionException(
                     "Token "
                         + termAtt.toString()
@@ -252,19 +471,8 @@ public class LuceneSearcher implements Searcher {
               float res = queryScorer.getTokenScore();
               if (res > 0.0F && startOffset <= endOffset) {
                 String tokenText = txt.substring(startOffset, endOffset);
-                Scanner sc = new Scanner(txt);
-                int lineNum = 1;
-                long len = 0;
-                String foundLine = "";
-                while (sc.hasNextLine()) {
-                  foundLine = sc.nextLine();
-
-                  len += foundLine.length();
-                  if (len > startOffset) {
-                    break;
-                  }
-                  lineNum++;
-                }
+                int lineNum = lineOffsets.lineNumber(startOffset);
+                String foundLine = lineOffsets.line(txt, lineNum);
                 offsetData.add(
                     new OffsetData(tokenText, startOffset, endOffset, res, lineNum, foundLine));
               }
@@ -272,7 +480,6 @@ public class LuceneSearcher implements Searcher {
           }
         }
 
-        String filePath = doc.getField(PATH_FIELD).stringValue();
         LOG.debug("Doc {} path {} score {} ", docId, filePath, scoreDoc.score);
         results.add(new SearchResultEntry(filePath, offsetData));
       }
@@ -305,6 +512,29 @@ public class LuceneSearcher implements Searcher {
     }
   }
 
+  /** Returns line offsets table stored in the index or null if the document doesn't have one. */
+  private LineOffsets readLineOffsets(IndexReader reader, int docId) throws IOException {
+    List<LeafReaderContext> leaves = reader.leaves();
+    LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+    BinaryDocValues lineOffsets = leaf.reader().getBinaryDocValues(LINE_OFFSETS_FIELD);
+    if (lineOffsets != null && lineOffsets.advanceExact(docId - leaf.docBase)) {
+      return LineOffsets.decode(lineOffsets.binaryValue());
+    }
+    return null;
+  }
+
+  /** Reads content of the file when it isn't stored in the index, returns null if file is gone. */
+  private String readText(String wsPath) {
+    Path fsPath = pathTransformer.transform(wsPath);
+    try (Reader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(fsPath.toFile()), "utf-8"))) {
+      return CharStreams.toString(reader);
+    } catch (IOException e) {
+      LOG.debug("Can't read content of file {} because {}", wsPath, e.getMessage());
+      return null;
+    }
+  }
+
   private Query createLuceneQuery(QueryExpression query) throws ParseException, IOException {
     BooleanQuery.Builder luceneQueryBuilder = new BooleanQuery.Builder();
     final String name = query.getName();
@@ -387,17 +617,30 @@ public class LuceneSearcher implements Searcher {
     }
   }
 
-  private void addFile(Path fsPath) {
+  private boolean addFile(Path fsPath) {
     if (!fsPath.toFile().exists()) {
-      return;
+      return false;
     }
 
     if (!isNotExcluded(fsPath)) {
-      return;
+      return false;
     }
     String wsPath = pathTransformer.transform(fsPath);
     LOG.debug("Adding file {} ", wsPath);
 
+    try {
+      // attributes are read before the content, so concurrent modification causes re-indexing
+      BasicFileAttributes attrs = Files.readAttributes(fsPath, BasicFileAttributes.class);
+      addFile(fsPath, wsPath);
+      checkpoint.put(wsPath, attrs.lastModifiedTime().toMillis(), attrs.size());
+      return true;
+    } catch (IOException e) {
+      LOG.warn("Can't index file: {}", wsPath);
+      return false;
+    }
+  }
+
+  private void addFile(Path fsPath, String wsPath) throws IOException {
     try (Reader reader =
         new BufferedReader(new InputStreamReader(new FileInputStream(fsPath.toFile()), "utf-8"))) {
       String name = nameOf(wsPath);
@@ -406,14 +649,17 @@ public class LuceneSearcher implements Searcher {
       doc.add(new SortedDocValuesField(PATH_FIELD, new BytesRef(wsPath)));
       doc.add(new TextField(NAME_FIELD, name, Field.Store.YES));
       try {
-        doc.add(new TextField(TEXT_FIELD, CharStreams.toString(reader), Field.Store.YES));
+        String text = CharStreams.toString(reader);
+        if (storeText) {
+          doc.add(new TextField(TEXT_FIELD, text, Field.Store.YES));
+          doc.add(new BinaryDocValuesField(LINE_OFFSETS_FIELD, LineOffsets.compute(text).encode()));
+        } else {
+          doc.add(new TextField(TEXT_FIELD, text, Field.Store.NO));
+        }
       } catch (MalformedInputException e) {
         LOG.warn("Can't index file: {}", wsPath);
       }
       luceneIndexWriter.updateDocument(new Term(PATH_FIELD, wsPath), doc);
-
-    } catch (IOException oome) {
-      LOG.warn("Can't index file: {}", wsPath);
     }
   }
 
@@ -430,6 +676,7 @@ public class LuceneSearcher implements Searcher {
       deleteFileOrFolder.add(new TermQuery(new Term(PATH_FIELD, wsPath)), Occur.SHOULD);
       deleteFileOrFolder.add(new PrefixQuery(new Term(PATH_FIELD, wsPath + "/")), Occur.SHOULD);
       luceneIndexWriter.deleteDocuments(deleteFileOrFolder.build());
+      checkpoint.removeTree(wsPath);
       printStatistic();
     } catch (IOException e) {
       LOG.warn("Can't delete index for file: {}", wsPath);
@@ -14,9 +14,18 @@ package org.eclipse.che.api.watcher.server.impl;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.readAttributes;
 import static java.nio.file.Files.walkFileTree;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.stream.Collectors.toSet;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
@@ -25,15 +34,20 @@ import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent.Kind;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.project.server.impl.RootDirPathProvider;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +55,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Walks a file system tree, register addition, update and removal of file system items. On events
  * runs corresponding consumers that can be registered in DI configuration modules.
+ *
+ * <p>In event driven mode ({@code che.fs.tree_walker.event_driven}) the tree is walked only once on
+ * start, all the directories are registered in {@link FileWatcherService} and then file system
+ * events are used to keep the tree up to date, a subtree is walked again only when its directory is
+ * created or its events are lost because of overflowing. Events delivered during the initial walk
+ * are handled when the walk is finished. If directories can't be registered (e.g. watches limit is
+ * reached) walker releases the directories registered so far and falls back to periodic walking of
+ * the whole tree.
  */
 @Singleton
 public class FileTreeWalker {
@@ -58,14 +80,23 @@ public class FileTreeWalker {
   private final Set<Consumer<Path>> fileDeleteConsumers;
   private final Set<PathMatcher> fileExcludes;
 
-  private final Map<Path, Long> files = new HashMap<>();
-  private final Map<Path, Long> directories = new HashMap<>();
+  private final PathTable files;
+  private final PathTable directories;
+
+  private final FileWatcherService watcherService;
+  private final BiConsumer<Path, Kind<?>> watcherListener = this::onWatcherEvent;
+  private final boolean eventDriven;
 
+  private ExecutorService eventExecutor;
+  private volatile boolean watching;
+  /** Guarded by this. */
   private boolean initialized;
 
   @Inject
   public FileTreeWalker(
       RootDirPathProvider pathProvider,
+      FileWatcherService watcherService,
+      @Named("che.fs.tree_walker.event_driven") boolean eventDriven,
       @Named("che.fs.directory.update") Set<Consumer<Path>> directoryUpdateConsumers,
       @Named("che.fs.directory.create") Set<Consumer<Path>> directoryCreateConsumers,
       @Named("che.fs.directory.delete") Set<Consumer<Path>> directoryDeleteConsumers,
@@ -75,6 +106,10 @@ public class FileTreeWalker {
       @Named("che.fs.file.delete") Set<Consumer<Path>> fileDeleteConsumers,
       @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes) {
     this.root = Paths.get(pathProvider.get());
+    this.files = new PathTable(root);
+    this.directories = new PathTable(root);
+    this.watcherService = watcherService;
+    this.eventDriven = eventDriven;
 
     this.directoryUpdateConsumers = directoryUpdateConsumers;
     this.directoryCreateConsumers = directoryCreateConsumers;
@@ -88,8 +123,24 @@ public class FileTreeWalker {
     this.fileExcludes = fileExcludes;
   }
 
+  /**
+   * Walks the tree for the first time. Events are handled under the same lock, so events delivered
+   * during the walk wait for it to finish instead of being lost.
+   */
   @PostConstruct
-  void initialize() {
+  synchronized void initialize() {
+    if (eventDriven) {
+      eventExecutor =
+          newSingleThreadExecutor(
+              new ThreadFactoryBuilder()
+                  .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                  .setNameFormat(FileTreeWalker.class.getSimpleName())
+                  .setDaemon(true)
+                  .build());
+      watcherService.addListener(watcherListener);
+      watching = true;
+    }
+
     try {
       walkFileTree(
           root,
@@ -102,6 +153,7 @@ public class FileTreeWalker {
                 }
               }
 
+              watch(dir);
               directories.put(dir, attrs.lastModifiedTime().toMillis());
 
               return CONTINUE;
@@ -127,23 +179,32 @@ public class FileTreeWalker {
     initialized = true;
   }
 
+  @PreDestroy
+  void stop() {
+    if (eventExecutor != null) {
+      watcherService.removeListener(watcherListener);
+      eventExecutor.shutdownNow();
+      unwatch();
+    }
+  }
+
   @ScheduleRate(period = 10)
-  void walk() {
-    if (!initialized) {
+  synchronized void walk() {
+    if (!initialized || watching) {
       return;
     }
 
     try {
       LOG.debug("Tree walk started");
 
-      Set<Path> deletedFiles = files.keySet().stream().filter(it -> !exists(it)).collect(toSet());
+      Set<Path> deletedFiles = files.paths().stream().filter(it -> !exists(it)).collect(toSet());
       fileDeleteConsumers.forEach(deletedFiles::forEach);
-      files.keySet().removeAll(deletedFiles);
+      deletedFiles.forEach(files::remove);
 
       Set<Path> deletedDirectories =
-          directories.keySet().stream().filter(it -> !exists(it)).collect(toSet());
+          directories.paths().stream().filter(it -> !exists(it)).collect(toSet());
       directoryDeleteConsumers.forEach(deletedDirectories::forEach);
-      directories.keySet().removeAll(deletedDirectories);
+      deletedDirectories.forEach(directories::remove);
 
       walkFileTree(
           root,
@@ -187,17 +248,206 @@ public class FileTreeWalker {
     }
   }
 
+  /**
+   * Registers directory in watcher service, falls back to periodic walking if it is failed. The
+   * directory must not be in the directories table yet, so while walker is watching the table
+   * contains exactly the registered directories.
+   */
+  private void watch(Path dir) {
+    if (watching && !watcherService.register(dir)) {
+      LOG.warn(
+          "Can't watch directory '{}', falling back to periodic walking of the file tree", dir);
+      unwatch();
+    }
+  }
+
+  /** Stops watching and releases the directories registered in watcher service. */
+  private synchronized void unwatch() {
+    if (watching) {
+      watching = false;
+      directories.paths().forEach(watcherService::unRegister);
+    }
+  }
+
+  private void onWatcherEvent(Path path, Kind<?> kind) {
+    if (watching && path.startsWith(root)) {
+      eventExecutor.execute(() -> handle(path, kind));
+    }
+  }
+
+  @VisibleForTesting
+  synchronized void handle(Path path, Kind<?> kind) {
+    if (!initialized || !watching) {
+      return;
+    }
+
+    try {
+      if (kind == OVERFLOW) {
+        LOG.debug("Events of '{}' are lost, walking its subtree", path);
+        walkSubtree(path);
+      } else if (kind == ENTRY_DELETE) {
+        delete(path);
+        updateParent(path);
+      } else if (kind == ENTRY_CREATE || kind == ENTRY_MODIFY) {
+        BasicFileAttributes attrs;
+        try {
+          attrs = readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+          LOG.debug("Item '{}' is already not present", path);
+          return;
+        }
+
+        if (attrs.isDirectory()) {
+          if (directories.contains(path)) {
+            update(path, attrs, directories, directoryExcludes, directoryUpdateConsumers, null);
+          } else {
+            // entries may be created before the directory is registered, so walk it
+            walkSubtree(path);
+          }
+        } else {
+          update(path, attrs, files, fileExcludes, fileUpdateConsumers, fileCreateConsumers);
+        }
+
+        if (kind == ENTRY_CREATE) {
+          updateParent(path);
+        }
+      }
+    } catch (Exception e) {
+      LOG.error("Error while handling file system event", e);
+    }
+  }
+
+  private void update(
+      Path path,
+      BasicFileAttributes attrs,
+      PathTable items,
+      Set<PathMatcher> excludes,
+      Set<Consumer<Path>> updateConsumers,
+      Set<Consumer<Path>> createConsumers) {
+    for (PathMatcher matcher : excludes) {
+      if (matcher.matches(path)) {
+        return;
+      }
+    }
+
+    if (createConsumers == null && !items.contains(path)) {
+      return;
+    }
+
+    updateFsTreeAndAcceptConsumables(items, updateConsumers, createConsumers, path, attrs);
+  }
+
+  /** Updates modification time of the parent directory after its entry is created or deleted. */
+  private void updateParent(Path path) throws IOException {
+    Path parent = path.getParent();
+    if (parent != null && directories.contains(parent) && exists(parent)) {
+      updateFsTreeAndAcceptConsumables(
+          directories,
+          directoryUpdateConsumers,
+          directoryCreateConsumers,
+          parent,
+          readAttributes(parent, BasicFileAttributes.class));
+    }
+  }
+
+  /** Removes item and, if it is a directory, all its descendants running delete consumers. */
+  private void delete(Path path) {
+    if (files.remove(path)) {
+      fileDeleteConsumers.forEach(it -> it.accept(path));
+      return;
+    }
+
+    if (!directories.contains(path)) {
+      return;
+    }
+
+    List<Path> deletedFiles = files.subtree(path);
+    fileDeleteConsumers.forEach(deletedFiles::forEach);
+    deletedFiles.forEach(files::remove);
+
+    List<Path> deletedDirectories = directories.subtree(path);
+    directoryDeleteConsumers.forEach(deletedDirectories::forEach);
+    deletedDirectories.forEach(directories::remove);
+    deletedDirectories.forEach(watcherService::unRegister);
+  }
+
+  /**
+   * Walks the subtree registering new directories in watcher service, runs create and update
+   * consumers for new and modified items and delete consumers for items that are gone.
+   */
+  private void walkSubtree(Path dir) throws IOException {
+    if (!exists(dir)) {
+      delete(dir);
+      return;
+    }
+
+    Set<Path> visited = new HashSet<>();
+    walkFileTree(
+        dir,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            for (PathMatcher matcher : directoryExcludes) {
+              if (matcher.matches(dir)) {
+                return SKIP_SUBTREE;
+              }
+            }
+
+            if (!directories.contains(dir)) {
+              watch(dir);
+            }
+            visited.add(dir);
+            updateFsTreeAndAcceptConsumables(
+                directories, directoryUpdateConsumers, directoryCreateConsumers, dir, attrs);
+
+            return CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            for (PathMatcher matcher : fileExcludes) {
+              if (matcher.matches(file)) {
+                return CONTINUE;
+              }
+            }
+
+            visited.add(file);
+            updateFsTreeAndAcceptConsumables(
+                files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
+
+            return CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            LOG.debug("Can't visit '{}': {}", file, exc.getMessage());
+            return CONTINUE;
+          }
+        });
+
+    List<Path> deletedFiles = files.subtree(dir);
+    deletedFiles.removeAll(visited);
+    fileDeleteConsumers.forEach(deletedFiles::forEach);
+    deletedFiles.forEach(files::remove);
+
+    List<Path> deletedDirectories = directories.subtree(dir);
+    deletedDirectories.removeAll(visited);
+    directoryDeleteConsumers.forEach(deletedDirectories::forEach);
+    deletedDirectories.forEach(directories::remove);
+    deletedDirectories.forEach(watcherService::unRegister);
+  }
+
   private void updateFsTreeAndAcceptConsumables(
-      Map<Path, Long> items,
+      PathTable items,
       Set<Consumer<Path>> updateConsumer,
       Set<Consumer<Path>> createConsumer,
       Path path,
       BasicFileAttributes attrs) {
-    Long lastModifiedActual = attrs.lastModifiedTime().toMillis();
+    long lastModifiedActual = attrs.lastModifiedTime().toMillis();
+    long lastModifiedStored = items.get(path);
 
-    if (items.containsKey(path)) {
-      Long lastModifiedStored = items.get(path);
-      if (!lastModifiedActual.equals(lastModifiedStored)) {
+    if (lastModifiedStored != PathTable.MISSING) {
+      if (lastModifiedActual != lastModifiedStored) {
         items.put(path, lastModifiedActual);
         updateConsumer.forEach(it -> it.accept(path));
       }
@@ -11,6 +11,7 @@
  */
 package org.eclipse.che.api.watcher.server.impl;
 
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.lang.Thread.currentThread;
 import static java.nio.file.Files.exists;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
@@ -34,10 +35,12 @@ import java.nio.file.WatchService;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -64,6 +67,7 @@ public class FileWatcherService {
 
   private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
   private final Map<Path, Integer> registrations = new ConcurrentHashMap<>();
+  private final Set<BiConsumer<Path, Kind<?>>> listeners = newConcurrentHashSet();
 
   private final FileWatcherExcludePatternsRegistry excludePatternsRegistry;
   private final FileWatcherEventHandler handler;
@@ -176,11 +180,12 @@ public class FileWatcherService {
    * registration watch key is canceled and no further directory watching is being performed.
    *
    * @param dir directory
+   * @return true if directory is being watched after the call, false otherwise
    */
-  public void register(Path dir) {
+  public boolean register(Path dir) {
     if (!Files.exists(dir)) {
       LOG.debug("Trying to register directory '{}' but it does not exist", dir);
-      return;
+      return false;
     }
     LOG.debug("Registering directory '{}'", dir);
     if (keys.values().contains(dir)) {
@@ -199,8 +204,32 @@ public class FileWatcherService {
         }
       } catch (IOException e) {
         LOG.error("Can't register dir {} in file watch service", dir, e);
+        return false;
       }
     }
+    return true;
+  }
+
+  /**
+   * Adds listener which is notified about every event of the registered directories entries
+   * regardless of exclude patterns. When events of a directory are lost because of overflowing
+   * listener is called with the directory path and {@link
+   * java.nio.file.StandardWatchEventKinds#OVERFLOW} kind. Listeners are called from the watcher
+   * thread, so they must not perform any long running operations.
+   *
+   * @param listener consumer of the path and kind of an event
+   */
+  public void addListener(BiConsumer<Path, Kind<?>> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes listener previously added by {@link #addListener(BiConsumer)}.
+   *
+   * @param listener listener to remove
+   */
+  public void removeListener(BiConsumer<Path, Kind<?>> listener) {
+    listeners.remove(listener);
   }
 
   /**
@@ -283,6 +312,8 @@ public class FileWatcherService {
 
           if (kind == OVERFLOW) {
             LOG.warn("Detected file system events overflowing");
+            Path overflowed = dir.toAbsolutePath();
+            listeners.forEach(it -> it.accept(overflowed, OVERFLOW));
             continue;
           }
 
@@ -290,6 +321,8 @@ public class FileWatcherService {
           Path item = ev.context();
           Path path = dir.resolve(item).toAbsolutePath();
 
+          listeners.forEach(it -> it.accept(path, kind));
+
           if (excludePatternsRegistry.isExcluded(path)) {
             LOG.debug("Path is within exclude list, skipping...");
             continue;
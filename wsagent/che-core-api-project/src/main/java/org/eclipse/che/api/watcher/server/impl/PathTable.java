@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.watcher.server.impl;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact map of paths located under the root to their modification times.
+ *
+ * <p>Paths are stored as a tree of nodes where every node keeps only the name of its path element
+ * and an index of its parent, so common prefixes are stored once. Node data is kept in primitive
+ * arrays indexed by node id, nodes are looked up by (parent, name) pair in an open addressing hash
+ * table, so there is no per entry object overhead except the name itself. Nodes of removed paths
+ * are reused.
+ *
+ * <p>The table is not thread safe.
+ */
+class PathTable {
+
+  /** Value returned by {@link #get(Path)} when there is no such path in the table. */
+  static final long MISSING = Long.MIN_VALUE;
+
+  private static final int ROOT = 0;
+  private static final int NONE = -1;
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Path root;
+  private final int rootNameCount;
+
+  private String[] names;
+  private int[] parents;
+  private long[] values;
+  private int[] firstChildren;
+  private int[] nextSiblings;
+  private int[] prevSiblings;
+
+  /** Open addressing hash table of node ids shifted by one, zero marks a free slot. */
+  private int[] slots;
+
+  private int nodes;
+  private int freeNodes;
+  private int freeHead = NONE;
+  private int size;
+
+  PathTable(Path root) {
+    this.root = root;
+    this.rootNameCount = root.getNameCount();
+    names = new String[INITIAL_CAPACITY];
+    parents = new int[INITIAL_CAPACITY];
+    values = new long[INITIAL_CAPACITY];
+    firstChildren = new int[INITIAL_CAPACITY];
+    nextSiblings = new int[INITIAL_CAPACITY];
+    prevSiblings = new int[INITIAL_CAPACITY];
+    slots = new int[INITIAL_CAPACITY * 2];
+    newNode(NONE, "");
+  }
+
+  /** Returns the number of paths in the table. */
+  int size() {
+    return size;
+  }
+
+  boolean contains(Path path) {
+    return get(path) != MISSING;
+  }
+
+  /** Returns modification time of the path or {@link #MISSING} if there is no such path. */
+  long get(Path path) {
+    int node = find(path);
+    return node == NONE ? MISSING : values[node];
+  }
+
+  /** Adds the path or updates its modification time. */
+  void put(Path path, long value) {
+    if (value == MISSING) {
+      throw new IllegalArgumentException("Illegal value " + value);
+    }
+    int node = ROOT;
+    for (int i = checkedStart(path), count = path.getNameCount(); i < count; i++) {
+      String name = path.getName(i).toString();
+      int child = findChild(node, name);
+      node = child == NONE ? newNode(node, name) : child;
+    }
+    if (values[node] == MISSING) {
+      size++;
+    }
+    values[node] = value;
+  }
+
+  /** Removes the path, returns {@code true} if the path was in the table. */
+  boolean remove(Path path) {
+    int node = find(path);
+    if (node == NONE) {
+      return false;
+    }
+    values[node] = MISSING;
+    size--;
+    prune(node);
+    return true;
+  }
+
+  /** Returns all the paths of the table. */
+  List<Path> paths() {
+    List<Path> result = new ArrayList<>(size);
+    collect(ROOT, result);
+    return result;
+  }
+
+  /** Returns the path and all the paths of the table located under it. */
+  List<Path> subtree(Path path) {
+    List<Path> result = new ArrayList<>();
+    int node = path.startsWith(root) ? findNode(path) : NONE;
+    if (node != NONE) {
+      collect(node, result);
+    }
+    return result;
+  }
+
+  private int find(Path path) {
+    if (!path.startsWith(root)) {
+      return NONE;
+    }
+    int node = findNode(path);
+    return node == NONE || values[node] == MISSING ? NONE : node;
+  }
+
+  private int findNode(Path path) {
+    int node = ROOT;
+    for (int i = rootNameCount, count = path.getNameCount(); i < count && node != NONE; i++) {
+      node = findChild(node, path.getName(i).toString());
+    }
+    return node;
+  }
+
+  private int checkedStart(Path path) {
+    if (!path.startsWith(root)) {
+      throw new IllegalArgumentException("Path '" + path + "' is not located under " + root);
+    }
+    return rootNameCount;
+  }
+
+  private void collect(int node, List<Path> result) {
+    if (values[node] != MISSING) {
+      result.add(toPath(node));
+    }
+    for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+      collect(child, result);
+    }
+  }
+
+  private Path toPath(int node) {
+    int depth = 0;
+    for (int it = node; it != ROOT; it = parents[it]) {
+      depth++;
+    }
+    if (depth == 0) {
+      return root;
+    }
+    String[] elements = new String[depth];
+    for (int it = node; it != ROOT; it = parents[it]) {
+      elements[--depth] = names[it];
+    }
+    return root.getFileSystem().getPath(root.toString(), elements);
+  }
+
+  /** Releases the node and its ancestors while they have neither value nor children. */
+  private void prune(int node) {
+    while (node != ROOT && values[node] == MISSING && firstChildren[node] == NONE) {
+      int parent = parents[node];
+      releaseNode(node);
+      node = parent;
+    }
+  }
+
+  private int findChild(int parent, String name) {
+    int mask = slots.length - 1;
+    for (int i = hash(parent, name) & mask; slots[i] != 0; i = (i + 1) & mask) {
+      int node = slots[i] - 1;
+      if (parents[node] == parent && names[node].equals(name)) {
+        return node;
+      }
+    }
+    return NONE;
+  }
+
+  private int newNode(int parent, String name) {
+    int node;
+    if (freeHead != NONE) {
+      node = freeHead;
+      freeHead = nextSiblings[node];
+      freeNodes--;
+    } else {
+      if (nodes == names.length) {
+        grow();
+      }
+      node = nodes++;
+    }
+    names[node] = name;
+    parents[node] = parent;
+    values[node] = MISSING;
+    firstChildren[node] = NONE;
+    prevSiblings[node] = NONE;
+    nextSiblings[node] = NONE;
+    if (parent != NONE) {
+      int first = firstChildren[parent];
+      nextSiblings[node] = first;
+      if (first != NONE) {
+        prevSiblings[first] = node;
+      }
+      firstChildren[parent] = node;
+      insertSlot(node);
+    }
+    return node;
+  }
+
+  private void releaseNode(int node) {
+    removeSlot(node);
+    int parent = parents[node];
+    int prev = prevSiblings[node];
+    int next = nextSiblings[node];
+    if (prev == NONE) {
+      firstChildren[parent] = next;
+    } else {
+      nextSiblings[prev] = next;
+    }
+    if (next != NONE) {
+      prevSiblings[next] = prev;
+    }
+    names[node] = null;
+    parents[node] = NONE;
+    nextSiblings[node] = freeHead;
+    freeHead = node;
+    freeNodes++;
+  }
+
+  private void insertSlot(int node) {
+    if ((nodes - freeNodes) * 2 > slots.length) {
+      rehash(slots.length * 2);
+    }
+    int mask = slots.length - 1;
+    int i = hash(parents[node], names[node]) & mask;
+    while (slots[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    slots[i] = node + 1;
+  }
+
+  /** Removes node from the hash table shifting back the entries of its probe sequence. */
+  private void removeSlot(int node) {
+    int mask = slots.length - 1;
+    int i = hash(parents[node], names[node]) & mask;
+    while (slots[i] != node + 1) {
+      i = (i + 1) & mask;
+    }
+    int free = i;
+    for (i = (i + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+      int home = hash(parents[slots[i] - 1], names[slots[i] - 1]) & mask;
+      if (((i - home) & mask) >= ((i - free) & mask)) {
+        slots[free] = slots[i];
+        free = i;
+      }
+    }
+    slots[free] = 0;
+  }
+
+  private void rehash(int capacity) {
+    int[] old = slots;
+    slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int entry : old) {
+      if (entry != 0) {
+        int i = hash(parents[entry - 1], names[entry - 1]) & mask;
+        while (slots[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        slots[i] = entry;
+      }
+    }
+  }
+
+  private void grow() {
+    int capacity = names.length * 2;
+    names = Arrays.copyOf(names, capacity);
+    parents = Arrays.copyOf(parents, capacity);
+    values = Arrays.copyOf(values, capacity);
+    firstChildren = Arrays.copyOf(firstChildren, capacity);
+    nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    prevSiblings = Arrays.copyOf(prevSiblings, capacity);
+  }
+
+  private static int hash(int parent, String name) {
+    int h = (parent * 31 + name.hashCode()) * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.editor.server.impl;
+
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import com.google.common.io.ByteStreams;
+import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.testng.annotations.Test;
+
+/** Tests for {@link EditorWorkingCopy} */
+public class EditorWorkingCopyTest {
+
+  @Test
+  public void shouldApplyEditorChanges() throws Exception {
+    EditorWorkingCopy workingCopy =
+        new EditorWorkingCopy("/project/file.txt", "/project", "hello world".getBytes());
+
+    workingCopy.applyChanges(newChanges(INSERT, 5, ",", 0));
+    workingCopy.applyChanges(newChanges(REMOVE, 6, "", 6));
+    workingCopy.applyChanges(newChanges(INSERT, 6, " there", 0));
+
+    assertEquals(workingCopy.getContentAsString(), "hello, there");
+    assertEquals(workingCopy.getContentAsBytes(), "hello, there".getBytes());
+    assertEquals(ByteStreams.toByteArray(workingCopy.getContent()), "hello, there".getBytes());
+    assertEquals(workingCopy.getLength(), "hello, there".length());
+  }
+
+  @Test
+  public void shouldReplaceChangedContentOnUpdate() {
+    EditorWorkingCopy workingCopy =
+        new EditorWorkingCopy("/project/file.txt", "/project", "hello".getBytes());
+    workingCopy.applyChanges(newChanges(INSERT, 0, "x", 0));
+
+    workingCopy.updateContent("new content");
+
+    assertEquals(workingCopy.getContentAsString(), "new content");
+  }
+
+  @Test
+  public void shouldCacheContentUntilNextChange() {
+    EditorWorkingCopy workingCopy =
+        new EditorWorkingCopy("/project/file.txt", "/project", "hello".getBytes());
+    workingCopy.applyChanges(newChanges(INSERT, 5, "!", 0));
+
+    String content = workingCopy.getContentAsString();
+    assertSame(workingCopy.getContentAsString(), content);
+
+    workingCopy.applyChanges(newChanges(INSERT, 6, "!", 0));
+    assertNotSame(workingCopy.getContentAsString(), content);
+    assertEquals(workingCopy.getContentAsString(), "hello!!");
+  }
+
+  @Test
+  public void shouldIncrementVersionOnEveryUpdate() {
+    EditorWorkingCopy workingCopy =
+        new EditorWorkingCopy("/project/file.txt", "/project", "hello".getBytes());
+    assertEquals(workingCopy.getLength(), 5);
+    assertEquals(workingCopy.getVersion(), 0);
+
+    workingCopy.applyChanges(newChanges(INSERT, 5, "!", 0));
+    assertEquals(workingCopy.getVersion(), 1);
+
+    workingCopy.updateContent("new content");
+    assertEquals(workingCopy.getVersion(), 2);
+    assertEquals(workingCopy.getLength(), "new content".length());
+  }
+
+  private static EditorChangesDto newChanges(
+      EditorChangesDto.Type type, int offset, String text, int removedCharCount) {
+    return DtoFactory.newDto(EditorChangesDto.class)
+        .withType(type)
+        .withOffset(offset)
+        .withText(text)
+        .withRemovedCharCount(removedCharCount);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.editor.server.impl;
+
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.io.CharStreams;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/** Tests for {@link TextRope} */
+public class TextRopeTest {
+
+  @Test
+  public void shouldInsertAndRemoveText() {
+    TextRope rope = TextRope.of("hello world");
+
+    rope = rope.insert(5, ",");
+    rope = rope.insert(rope.length(), "!");
+    rope = rope.insert(0, ">> ");
+    rope = rope.remove(9, 6);
+
+    assertEquals(rope.toString(), ">> hello,!");
+    assertEquals(rope.length(), 10);
+  }
+
+  @Test
+  public void shouldRemoveUpToTheEndOfText() {
+    assertEquals(TextRope.of("hello").remove(2, 10).toString(), "he");
+  }
+
+  @Test
+  public void shouldNotModifyOriginalRope() {
+    TextRope original = TextRope.of("abc");
+
+    original.insert(1, "x").remove(0, 2);
+
+    assertEquals(original.toString(), "abc");
+  }
+
+  @Test(expectedExceptions = IndexOutOfBoundsException.class)
+  public void shouldNotInsertOutOfBounds() {
+    TextRope.of("abc").insert(4, "x");
+  }
+
+  @Test
+  public void shouldReadTextWithReader() throws Exception {
+    String text = randomText(new Random(1), 10 * TextRope.MAX_CHUNK_LENGTH);
+
+    assertEquals(CharStreams.toString(TextRope.of(text).newReader()), text);
+  }
+
+  @Test
+  public void shouldApplyRandomChangesAsStringBuilder() throws Exception {
+    Random random = new Random(42);
+    StringBuilder expected = new StringBuilder(randomText(random, 5000));
+    TextRope rope = TextRope.of(expected);
+
+    for (int i = 0; i < 20_000; i++) {
+      int offset = random.nextInt(expected.length() + 1);
+      if (random.nextInt(3) == 0) {
+        int count = random.nextInt(random.nextInt(10) == 0 ? 3000 : 3);
+        rope = rope.remove(offset, count);
+        expected.delete(offset, Math.min(offset + count, expected.length()));
+      } else {
+        String text = randomText(random, random.nextInt(10) == 0 ? 2000 : 2);
+        rope = rope.insert(offset, text);
+        expected.insert(offset, text);
+      }
+      assertEquals(rope.length(), expected.length());
+    }
+
+    assertEquals(rope.toString(), expected.toString());
+    assertEquals(CharStreams.toString(rope.newReader()), expected.toString());
+  }
+
+  private static String randomText(Random random, int length) {
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append((char) ('a' + random.nextInt(26)));
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.fs.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Set;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ZipArchiver} */
+public class ZipArchiverTest {
+
+  private Path root;
+  private ZipArchiver zipArchiver;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("zip-archiver");
+    zipArchiver = createZipArchiver(emptySet());
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    zipArchiver.shutdown();
+    IoUtil.deleteRecursive(root.toFile());
+  }
+
+  @Test
+  public void shouldZipAndUnzipDirectory() throws Exception {
+    Path src = Files.createDirectories(root.resolve("src/a/b"));
+    Files.write(src.resolve("file.txt"), "text".getBytes(UTF_8));
+    Files.write(src.resolve("image.png"), new byte[] {1, 2, 3});
+    for (int i = 0; i < 20; i++) {
+      Files.write(root.resolve("src/a/file" + i + ".txt"), ("content" + i).getBytes(UTF_8));
+    }
+    Path dst = root.resolve("dst");
+
+    byte[] zipped = ByteStreams.toByteArray(zipArchiver.zip(root.resolve("src")));
+    zipArchiver.unzip(dst, new ByteArrayInputStream(zipped), false, true, false);
+
+    assertEquals(Files.readAllBytes(dst.resolve("a/b/file.txt")), "text".getBytes(UTF_8));
+    assertEquals(Files.readAllBytes(dst.resolve("a/b/image.png")), new byte[] {1, 2, 3});
+    for (int i = 0; i < 20; i++) {
+      assertEquals(
+          Files.readAllBytes(dst.resolve("a/file" + i + ".txt")), ("content" + i).getBytes(UTF_8));
+    }
+  }
+
+  @Test
+  public void shouldNotZipExcludedItems() throws Exception {
+    zipArchiver.shutdown();
+    zipArchiver = createZipArchiver(singleton(path -> path.endsWith("excluded")));
+    Path src = Files.createDirectories(root.resolve("src/excluded"));
+    Files.write(src.resolve("file.txt"), "text".getBytes(UTF_8));
+    Files.write(root.resolve("src/file.txt"), "text".getBytes(UTF_8));
+    Path dst = Files.createDirectories(root.resolve("dst"));
+
+    zipArchiver.unzip(dst, zipArchiver.zip(root.resolve("src")), false, false, false);
+
+    assertTrue(Files.exists(dst.resolve("file.txt")));
+    assertFalse(Files.exists(dst.resolve("excluded")));
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void shouldFailReadingOfZipStreamWhenZippingFails() throws Exception {
+    zipArchiver.shutdown();
+    zipArchiver =
+        createZipArchiver(
+            singleton(
+                path -> {
+                  throw new IllegalStateException("failure");
+                }));
+    Files.write(Files.createDirectories(root.resolve("src")).resolve("a.txt"), new byte[1]);
+
+    try (InputStream zipped = zipArchiver.zip(root.resolve("src"))) {
+      ByteStreams.exhaust(zipped);
+    }
+  }
+
+  private ZipArchiver createZipArchiver(Set<PathMatcher> excludes) {
+    PathTransformer pathTransformer = mock(PathTransformer.class);
+    when(pathTransformer.transform(anyString())).thenReturn(root);
+    return new ZipArchiver(pathTransformer, excludes, -1, 2);
+  }
+}
@@ -68,7 +68,8 @@ public class SearcherTest {
     excludePatterns = Collections.emptySet();
     DummyProvider rootProvider = new DummyProvider(workspaceStorage);
     pathTransformer = new RootAwarePathTransformer(rootProvider);
-    searcher = new LuceneSearcher(excludePatterns, indexDirectory, rootProvider, pathTransformer);
+    searcher =
+        new LuceneSearcher(excludePatterns, indexDirectory, rootProvider, pathTransformer, true);
     contentBuilder = new ContentBuilder(workspaceStorage.toPath());
   }
 
@@ -12,8 +12,10 @@
 package org.eclipse.che.api.search.server.impl;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 import static org.eclipse.che.api.search.SearcherTest.TEST_CONTENT;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import com.google.common.io.Files;
 import java.io.File;
@@ -23,7 +25,9 @@ import java.util.List;
 import java.util.Set;
 import org.eclipse.che.api.fs.server.impl.RootAwarePathTransformer;
 import org.eclipse.che.api.project.server.impl.RootDirPathProvider;
+import org.eclipse.che.api.project.shared.dto.SearchIndexingProgressDto;
 import org.eclipse.che.api.search.SearcherTest.ContentBuilder;
+import org.eclipse.che.api.search.server.OffsetData;
 import org.eclipse.che.api.search.server.QueryExpression;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.testng.annotations.AfterMethod;
@@ -37,6 +41,7 @@ public class FSLuceneSearcherTest {
   File workspaceStorage;
   Set<PathMatcher> excludePatterns;
   LuceneSearcher searcher;
+  DummyProvider dummyRootProvider;
   RootAwarePathTransformer pathTransformer;
   ContentBuilder contentBuilder;
 
@@ -45,16 +50,18 @@ public class FSLuceneSearcherTest {
     indexDirectory = Files.createTempDir();
     workspaceStorage = Files.createTempDir();
     excludePatterns = new HashSet<>();
-    DummyProvider dummyRootProvider = new DummyProvider(workspaceStorage);
+    dummyRootProvider = new DummyProvider(workspaceStorage);
     pathTransformer = new RootAwarePathTransformer(dummyRootProvider);
     searcher =
-        new LuceneSearcher(excludePatterns, indexDirectory, dummyRootProvider, pathTransformer);
+        new LuceneSearcher(
+            excludePatterns, indexDirectory, dummyRootProvider, pathTransformer, true);
     contentBuilder = new ContentBuilder(workspaceStorage.toPath());
   }
 
   @AfterMethod
   public void tearDown() throws Exception {
     IoUtil.deleteRecursive(indexDirectory);
+    new File(indexDirectory.getParentFile(), indexDirectory.getName() + ".checkpoint").delete();
     IoUtil.deleteRecursive(workspaceStorage);
   }
 
@@ -75,6 +82,125 @@ public class FSLuceneSearcherTest {
     assertEquals(newArrayList("/folder/zzz.txt"), paths);
   }
 
+  @Test
+  public void shouldReportInitialIndexingProgress() throws Exception {
+    // given
+    contentBuilder
+        .createFolder("folder")
+        .createFile("xxx.txt", TEST_CONTENT[2])
+        .createFile("zzz.txt", TEST_CONTENT[1]);
+
+    // when
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+
+    // then
+    SearchIndexingProgressDto progress = searcher.getIndexingProgress();
+    assertTrue(progress.isCompleted());
+    assertEquals(progress.getDiscovered(), 2);
+    assertEquals(progress.getIndexed(), 2);
+    assertEquals(progress.getSkipped(), 0);
+    assertEquals(progress.getRemoved(), 0);
+  }
+
+  @Test
+  public void shouldReindexOnlyChangedFilesAfterRestart() throws Exception {
+    // given
+    contentBuilder
+        .createFolder("folder")
+        .createFile("xxx.txt", TEST_CONTENT[2])
+        .createFile("yyy.txt", TEST_CONTENT[0])
+        .createFile("zzz.txt", TEST_CONTENT[1]);
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+    searcher.close();
+
+    contentBuilder.createFile("xxx.txt", TEST_CONTENT[4]).deleteFileInCurrentFolder("yyy.txt");
+
+    // when
+    searcher =
+        new LuceneSearcher(
+            excludePatterns, indexDirectory, dummyRootProvider, pathTransformer, true);
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+
+    // then
+    SearchIndexingProgressDto progress = searcher.getIndexingProgress();
+    assertEquals(progress.getDiscovered(), 2);
+    assertEquals(progress.getIndexed(), 1);
+    assertEquals(progress.getSkipped(), 1);
+    assertEquals(progress.getRemoved(), 1);
+    List<String> paths = searcher.search(new QueryExpression().setText("think")).getFilePaths();
+    assertEquals(newHashSet(paths), newHashSet("/folder/xxx.txt", "/folder/zzz.txt"));
+    assertEquals(searcher.search(new QueryExpression().setText("spaceflight")).getTotalHits(), 0);
+  }
+
+  @Test
+  public void shouldReindexAllFilesAfterRestartWithOtherStoreTextSetting() throws Exception {
+    // given
+    contentBuilder
+        .createFolder("folder")
+        .createFile("xxx.txt", TEST_CONTENT[2])
+        .createFile("zzz.txt", TEST_CONTENT[1]);
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+    searcher.close();
+
+    // when
+    searcher =
+        new LuceneSearcher(
+            excludePatterns, indexDirectory, dummyRootProvider, pathTransformer, false);
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+
+    // then
+    SearchIndexingProgressDto progress = searcher.getIndexingProgress();
+    assertEquals(progress.getIndexed(), 2);
+    assertEquals(progress.getSkipped(), 0);
+    List<String> paths = searcher.search(new QueryExpression().setText("think")).getFilePaths();
+    assertEquals(paths, newArrayList("/folder/zzz.txt"));
+  }
+
+  @Test
+  public void shouldStopInitialIndexingOnClose() throws Exception {
+    // given
+    contentBuilder.createFolder("folder");
+    for (int i = 0; i < 100; i++) {
+      contentBuilder.createFile("file" + i + ".txt", TEST_CONTENT[i % TEST_CONTENT.length]);
+    }
+    searcher.initialize();
+
+    // when
+    searcher.close();
+
+    // then
+    assertEquals(searcher.getInitialIndexingLatch().getCount(), 0);
+  }
+
+  @Test
+  public void shouldResolvePositionsWhenTextIsNotStoredInIndex() throws Exception {
+    // given
+    searcher =
+        new LuceneSearcher(
+            excludePatterns, indexDirectory, dummyRootProvider, pathTransformer, false);
+    contentBuilder.createFolder("folder").createFile("xxx.txt", TEST_CONTENT[2]);
+    searcher.add(contentBuilder.getCurrentFolder());
+
+    // when
+    List<SearchResultEntry> results =
+        searcher
+            .search(new QueryExpression().setText("may").setIncludePositions(true))
+            .getResults();
+
+    // then
+    assertEquals(
+        results,
+        newArrayList(
+            new SearchResultEntry(
+                "/folder/xxx.txt",
+                newArrayList(new OffsetData("may", 43, 46, 1.0f, 2, " or may be not to be ")))));
+  }
+
   @Test
   public void shouldBeAbleToExcludesFilesFromIndexWithFilter() throws Exception {
     // given
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import java.io.File;
+import java.nio.file.Path;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class IndexCheckpointTest {
+
+  private File directory;
+  private Path file;
+  private IndexCheckpoint checkpoint;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    directory = Files.createTempDir();
+    file = directory.toPath().resolve("index.checkpoint");
+    checkpoint = new IndexCheckpoint(file, true);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    IoUtil.deleteRecursive(directory);
+  }
+
+  @Test
+  public void shouldStoreAndLoadEntries() throws Exception {
+    checkpoint.put("/project/a.txt", 100L, 10L);
+    checkpoint.put("/project/dir/b\tc.txt", 200L, 20L);
+    checkpoint.store(checkpoint.snapshotIfModified());
+
+    IndexCheckpoint loaded = new IndexCheckpoint(file, true);
+
+    assertTrue(loaded.load());
+    assertEquals(loaded.paths(), ImmutableSet.of("/project/a.txt", "/project/dir/b\tc.txt"));
+    assertTrue(loaded.isUpToDate("/project/a.txt", 100L, 10L));
+    assertTrue(loaded.isUpToDate("/project/dir/b\tc.txt", 200L, 20L));
+  }
+
+  @Test
+  public void shouldDetectChangedFiles() throws Exception {
+    checkpoint.put("/project/a.txt", 100L, 10L);
+
+    assertFalse(checkpoint.isUpToDate("/project/a.txt", 101L, 10L));
+    assertFalse(checkpoint.isUpToDate("/project/a.txt", 100L, 11L));
+    assertFalse(checkpoint.isUpToDate("/project/b.txt", 100L, 10L));
+  }
+
+  @Test
+  public void shouldRemoveDirectoryWithDescendants() throws Exception {
+    checkpoint.put("/project/dir/a.txt", 100L, 10L);
+    checkpoint.put("/project/dir/sub/b.txt", 100L, 10L);
+    checkpoint.put("/project/directory.txt", 100L, 10L);
+
+    checkpoint.removeTree("/project/dir");
+
+    assertEquals(checkpoint.paths(), ImmutableSet.of("/project/directory.txt"));
+  }
+
+  @Test
+  public void shouldReturnSnapshotOnlyWhenModified() throws Exception {
+    assertNull(checkpoint.snapshotIfModified());
+
+    checkpoint.put("/project/a.txt", 100L, 10L);
+
+    assertEquals(checkpoint.snapshotIfModified().size(), 1);
+    assertNull(checkpoint.snapshotIfModified());
+  }
+
+  @Test
+  public void shouldIgnoreMalformedCheckpoint() throws Exception {
+    java.nio.file.Files.write(file, "not a checkpoint".getBytes());
+
+    assertFalse(checkpoint.load());
+    assertTrue(checkpoint.paths().isEmpty());
+  }
+
+  @Test
+  public void shouldNotLoadCheckpointStoredWithOtherSettings() throws Exception {
+    checkpoint.put("/project/a.txt", 100L, 10L);
+    checkpoint.store(checkpoint.snapshotIfModified());
+
+    IndexCheckpoint loaded = new IndexCheckpoint(file, false);
+
+    assertFalse(loaded.load());
+    assertTrue(loaded.paths().isEmpty());
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class LineOffsetsTest {
+
+  private static final String TEXT = "first\nsecond\r\nthird\rfourth\n\nsixth";
+
+  @DataProvider
+  public Object[][] offsets() {
+    return new Object[][] {
+      {0, 1, "first"},
+      {5, 1, "first"},
+      {6, 2, "second"},
+      {12, 2, "second"},
+      {14, 3, "third"},
+      {20, 4, "fourth"},
+      {27, 5, ""},
+      {28, 6, "sixth"},
+      {32, 6, "sixth"}
+    };
+  }
+
+  @Test(dataProvider = "offsets")
+  public void shouldResolveLineOfOffset(int offset, int lineNumber, String line) {
+    LineOffsets lineOffsets = LineOffsets.compute(TEXT);
+
+    assertEquals(lineOffsets.lineNumber(offset), lineNumber);
+    assertEquals(lineOffsets.line(TEXT, lineNumber), line);
+  }
+
+  @Test(dataProvider = "offsets")
+  public void shouldResolveLineOfOffsetAfterEncoding(int offset, int lineNumber, String line)
+      throws Exception {
+    LineOffsets lineOffsets = LineOffsets.decode(LineOffsets.compute(TEXT).encode());
+
+    assertEquals(lineOffsets.lineNumber(offset), lineNumber);
+    assertEquals(lineOffsets.line(TEXT, lineNumber), line);
+  }
+
+  @Test
+  public void shouldHandleTextWithoutLineTerminators() throws Exception {
+    LineOffsets lineOffsets = LineOffsets.decode(LineOffsets.compute("single").encode());
+
+    assertEquals(lineOffsets.lineNumber(3), 1);
+    assertEquals(lineOffsets.line("single", 1), "single");
+  }
+}
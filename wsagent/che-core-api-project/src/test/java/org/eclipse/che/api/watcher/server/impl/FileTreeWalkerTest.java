@@ -13,15 +13,27 @@ package org.eclipse.che.api.watcher.server.impl;
 
 import static java.io.File.createTempFile;
 import static java.lang.Thread.sleep;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
 import static org.apache.commons.io.FileUtils.write;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.WatchEvent.Kind;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import org.eclipse.che.api.project.server.impl.RootDirPathProvider;
 import org.junit.After;
@@ -64,23 +76,31 @@ public class FileTreeWalkerTest {
 
   @Mock Consumer<Path> directoryDeleteConsumerMock;
 
+  @Mock FileWatcherService fileWatcherService;
+
   @Before
   public void setUp() throws Exception {
-    fileTreeWalker =
-        new FileTreeWalker(
-            new DummyRootProvider(rootFolder.getRoot()),
-            directoryUpdateConsumers,
-            directoryCreateConsumers,
-            directoryDeleteConsumers,
-            directoryExcludes,
-            fileUpdateConsumers,
-            fileCreateConsumers,
-            fileDeleteConsumers,
-            fileExcludes);
+    fileTreeWalker = createFileTreeWalker(false);
+  }
+
+  private FileTreeWalker createFileTreeWalker(boolean eventDriven) {
+    return new FileTreeWalker(
+        new DummyRootProvider(rootFolder.getRoot()),
+        fileWatcherService,
+        eventDriven,
+        directoryUpdateConsumers,
+        directoryCreateConsumers,
+        directoryDeleteConsumers,
+        directoryExcludes,
+        fileUpdateConsumers,
+        fileCreateConsumers,
+        fileDeleteConsumers,
+        fileExcludes);
   }
 
   @After
   public void tearDown() throws Exception {
+    fileTreeWalker.stop();
     directoryUpdateConsumers.clear();
     directoryCreateConsumers.clear();
     directoryDeleteConsumers.clear();
@@ -223,6 +243,184 @@ public class FileTreeWalkerTest {
     verify(fileCreatedConsumerMock, never()).accept(file.toPath());
   }
 
+  @Test
+  public void shouldRegisterDirectoriesInWatcherServiceInEventDrivenMode() throws Exception {
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker = createEventDrivenFileTreeWalker();
+
+    fileTreeWalker.initialize();
+
+    verify(fileWatcherService).register(rootFolder.getRoot().toPath());
+    verify(fileWatcherService).register(folder.toPath());
+  }
+
+  @Test
+  public void shouldNotWalkPeriodicallyInEventDrivenMode() throws Exception {
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    fileTreeWalker = createEventDrivenFileTreeWalker();
+    fileTreeWalker.initialize();
+
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+
+    fileTreeWalker.walk();
+    verify(fileCreatedConsumerMock, never()).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldRunFileCreatedConsumerOnEvent() throws Exception {
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    fileTreeWalker = createEventDrivenFileTreeWalker();
+    fileTreeWalker.initialize();
+
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+
+    fileTreeWalker.handle(file.toPath(), ENTRY_CREATE);
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldRunFileUpdateConsumerOnEvent() throws Exception {
+    fileUpdateConsumers.add(fileUpdateConsumerMock);
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    fileTreeWalker = createEventDrivenFileTreeWalker();
+    fileTreeWalker.initialize();
+
+    sleep(FS_LATENCY_DELAY);
+    write(file, TEST_FILE_CONTENT);
+
+    fileTreeWalker.handle(file.toPath(), ENTRY_MODIFY);
+    verify(fileUpdateConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldWalkCreatedDirectoryOnEvent() throws Exception {
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    directoryCreateConsumers.add(directoryCreatedConsumerMock);
+    fileTreeWalker = createEventDrivenFileTreeWalker();
+    fileTreeWalker.initialize();
+
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+
+    fileTreeWalker.handle(folder.toPath(), ENTRY_CREATE);
+    verify(directoryCreatedConsumerMock).accept(folder.toPath());
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+    verify(fileWatcherService).register(folder.toPath());
+  }
+
+  @Test
+  public void shouldRunDeleteConsumersForDescendantsOfDeletedDirectoryOnEvent() throws Exception {
+    fileDeleteConsumers.add(fileDeleteConsumerMock);
+    directoryDeleteConsumers.add(directoryDeleteConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+    fileTreeWalker = createEventDrivenFileTreeWalker();
+    fileTreeWalker.initialize();
+
+    deleteDirectory(folder);
+
+    fileTreeWalker.handle(folder.toPath(), ENTRY_DELETE);
+    verify(fileDeleteConsumerMock).accept(file.toPath());
+    verify(directoryDeleteConsumerMock).accept(folder.toPath());
+    verify(fileWatcherService).unRegister(folder.toPath());
+  }
+
+  @Test
+  public void shouldWalkSubtreeOnOverflow() throws Exception {
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    fileDeleteConsumers.add(fileDeleteConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File deleted = new File(folder, TEST_FILE_NAME);
+    write(deleted, TEST_FILE_CONTENT);
+    fileTreeWalker = createEventDrivenFileTreeWalker();
+    fileTreeWalker.initialize();
+
+    deleted.delete();
+    File created = new File(folder, TEST_FILE_NAME + "-new");
+    write(created, TEST_FILE_CONTENT);
+
+    fileTreeWalker.handle(folder.toPath(), OVERFLOW);
+    verify(fileCreatedConsumerMock).accept(created.toPath());
+    verify(fileDeleteConsumerMock).accept(deleted.toPath());
+  }
+
+  @Test
+  public void shouldFallBackToPeriodicWalkingIfDirectoryCanNotBeWatched() throws Exception {
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    when(fileWatcherService.register(any())).thenReturn(false);
+    fileTreeWalker = createFileTreeWalker(true);
+    fileTreeWalker.initialize();
+
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+
+    fileTreeWalker.walk();
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldUnregisterWatchedDirectoriesWhenFallingBackToPeriodicWalking()
+      throws Exception {
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    Path root = rootFolder.getRoot().toPath();
+    when(fileWatcherService.register(root)).thenReturn(true);
+    when(fileWatcherService.register(folder.toPath())).thenReturn(false);
+    fileTreeWalker = createFileTreeWalker(true);
+
+    fileTreeWalker.initialize();
+
+    verify(fileWatcherService).unRegister(root);
+    verify(fileWatcherService, never()).unRegister(folder.toPath());
+  }
+
+  @Test
+  public void shouldUnregisterWatchedDirectoriesOnStop() throws Exception {
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    Path root = rootFolder.getRoot().toPath();
+    when(fileWatcherService.register(any())).thenReturn(true);
+    fileTreeWalker = createFileTreeWalker(true);
+    fileTreeWalker.initialize();
+
+    fileTreeWalker.stop();
+
+    verify(fileWatcherService).unRegister(root);
+    verify(fileWatcherService).unRegister(folder.toPath());
+  }
+
+  @Test
+  public void shouldHandleEventsDeliveredDuringInitialWalk() throws Exception {
+    directoryUpdateConsumers.add(directoryUpdateConsumerMock);
+    Path root = rootFolder.getRoot().toPath();
+    root.toFile().setLastModified(System.currentTimeMillis() - 10_000);
+    AtomicReference<BiConsumer<Path, Kind<?>>> listener = new AtomicReference<>();
+    doAnswer(
+            invocation -> {
+              listener.set(invocation.getArgument(0));
+              return null;
+            })
+        .when(fileWatcherService)
+        .addListener(any());
+    when(fileWatcherService.register(root))
+        .thenAnswer(
+            invocation -> {
+              // the attributes of the root are already read by the walk
+              File file = rootFolder.newFile(TEST_FILE_NAME);
+              listener.get().accept(file.toPath(), ENTRY_CREATE);
+              return true;
+            });
+    fileTreeWalker = createFileTreeWalker(true);
+
+    fileTreeWalker.initialize();
+
+    verify(directoryUpdateConsumerMock, timeout(FS_LATENCY_DELAY)).accept(root);
+  }
+
+  private FileTreeWalker createEventDrivenFileTreeWalker() {
+    when(fileWatcherService.register(any())).thenReturn(true);
+    return createFileTreeWalker(true);
+  }
+
   private static class DummyRootProvider extends RootDirPathProvider {
 
     public DummyRootProvider(File folder) {
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.watcher.server.impl;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link PathTable} */
+public class PathTableTest {
+
+  private Path root;
+  private PathTable table;
+
+  @BeforeMethod
+  public void setUp() {
+    root = Paths.get("/", "projects");
+    table = new PathTable(root);
+  }
+
+  @Test
+  public void shouldPutAndGetPaths() {
+    table.put(root.resolve("a/b/c.txt"), 1);
+    table.put(root.resolve("a/b"), 2);
+    table.put(root.resolve("a/d.txt"), 3);
+
+    assertEquals(table.size(), 3);
+    assertEquals(table.get(root.resolve("a/b/c.txt")), 1);
+    assertEquals(table.get(root.resolve("a/b")), 2);
+    assertEquals(table.get(root.resolve("a/d.txt")), 3);
+    assertEquals(table.get(root.resolve("a")), PathTable.MISSING);
+    assertFalse(table.contains(root.resolve("a")));
+    assertFalse(table.contains(Paths.get("/", "other", "a")));
+  }
+
+  @Test
+  public void shouldUpdateValueOfExistingPath() {
+    table.put(root.resolve("a.txt"), 1);
+    table.put(root.resolve("a.txt"), 5);
+
+    assertEquals(table.size(), 1);
+    assertEquals(table.get(root.resolve("a.txt")), 5);
+  }
+
+  @Test
+  public void shouldStoreRoot() {
+    table.put(root, 7);
+
+    assertEquals(table.get(root), 7);
+    assertEquals(table.paths(), singletonList(root));
+  }
+
+  @Test
+  public void shouldRemovePathsKeepingOthers() {
+    table.put(root.resolve("a/b/c.txt"), 1);
+    table.put(root.resolve("a/b/d.txt"), 2);
+
+    assertTrue(table.remove(root.resolve("a/b/c.txt")));
+    assertFalse(table.remove(root.resolve("a/b/c.txt")));
+    assertFalse(table.remove(root.resolve("a/b")));
+
+    assertEquals(table.size(), 1);
+    assertFalse(table.contains(root.resolve("a/b/c.txt")));
+    assertEquals(table.get(root.resolve("a/b/d.txt")), 2);
+  }
+
+  @Test
+  public void shouldReturnSubtree() {
+    table.put(root.resolve("a"), 1);
+    table.put(root.resolve("a/b.txt"), 2);
+    table.put(root.resolve("a/c/d.txt"), 3);
+    table.put(root.resolve("ab.txt"), 4);
+
+    assertEquals(
+        new HashSet<>(table.subtree(root.resolve("a"))),
+        new HashSet<>(
+            asList(root.resolve("a"), root.resolve("a/b.txt"), root.resolve("a/c/d.txt"))));
+    assertEquals(
+        new HashSet<>(table.subtree(root.resolve("a/c"))),
+        new HashSet<>(asList(root.resolve("a/c/d.txt"))));
+    assertTrue(table.subtree(root.resolve("x")).isEmpty());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldNotPutPathOutsideOfRoot() {
+    table.put(Paths.get("/", "other", "a.txt"), 1);
+  }
+
+  @Test
+  public void shouldBehaveAsMapOnRandomOperations() {
+    Random random = new Random(42);
+    Map<Path, Long> expected = new HashMap<>();
+
+    for (int i = 0; i < 20_000; i++) {
+      Path path =
+          root.resolve("d" + random.nextInt(8))
+              .resolve("d" + random.nextInt(8))
+              .resolve("f" + random.nextInt(64));
+      if (random.nextInt(3) == 0) {
+        assertEquals(table.remove(path), expected.remove(path) != null);
+      } else {
+        long value = random.nextLong() & Long.MAX_VALUE;
+        table.put(path, value);
+        expected.put(path, value);
+      }
+    }
+
+    assertEquals(table.size(), expected.size());
+    assertEquals(new HashSet<>(table.paths()), expected.keySet());
+    expected.forEach((path, value) -> assertEquals(table.get(path), (long) value));
+  }
+}
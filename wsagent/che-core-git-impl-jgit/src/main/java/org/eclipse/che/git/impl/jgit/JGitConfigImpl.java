@@ -102,11 +102,14 @@ class JGitConfigImpl extends Config {
   @Override
   public Config set(String name, String value) throws GitException {
     ConfigKey key = parseName(name);
-    repository.getConfig().setString(key.section, key.subsection, key.name, value);
-    try {
-      this.repository.getConfig().save();
-    } catch (IOException e) {
-      throw new GitException(e.getMessage(), e);
+    StoredConfig config = repository.getConfig();
+    synchronized (config) {
+      config.setString(key.section, key.subsection, key.name, value);
+      try {
+        config.save();
+      } catch (IOException e) {
+        throw new GitException(e.getMessage(), e);
+      }
     }
     return this;
   }
@@ -119,11 +122,14 @@ class JGitConfigImpl extends Config {
   @Override
   public Config unset(String name) throws GitException {
     ConfigKey key = parseName(name);
-    repository.getConfig().unset(key.section, key.subsection, key.name);
-    try {
-      this.repository.getConfig().save();
-    } catch (IOException e) {
-      throw new GitException(e.getMessage(), e);
+    StoredConfig config = repository.getConfig();
+    synchronized (config) {
+      config.unset(key.section, key.subsection, key.name);
+      try {
+        config.save();
+      } catch (IOException e) {
+        throw new GitException(e.getMessage(), e);
+      }
     }
     return this;
   }
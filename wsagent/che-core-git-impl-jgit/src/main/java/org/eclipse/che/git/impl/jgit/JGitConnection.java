@@ -622,21 +622,24 @@ class JGitConnection implements GitConnection {
                   remoteUri, cloneCommand, params.getUsername(), params.getPassword()))
           .close();
 
+      // the config is shared by all the connections of the pooled repository
       StoredConfig repositoryConfig = getRepository().getConfig();
       GitUser gitUser = getUser();
-      if (gitUser != null) {
-        repositoryConfig.setString(
-            ConfigConstants.CONFIG_USER_SECTION,
-            null,
-            ConfigConstants.CONFIG_KEY_NAME,
-            gitUser.getName());
-        repositoryConfig.setString(
-            ConfigConstants.CONFIG_USER_SECTION,
-            null,
-            ConfigConstants.CONFIG_KEY_EMAIL,
-            gitUser.getEmail());
-      }
-      repositoryConfig.save();
+      synchronized (repositoryConfig) {
+        if (gitUser != null) {
+          repositoryConfig.setString(
+              ConfigConstants.CONFIG_USER_SECTION,
+              null,
+              ConfigConstants.CONFIG_KEY_NAME,
+              gitUser.getName());
+          repositoryConfig.setString(
+              ConfigConstants.CONFIG_USER_SECTION,
+              null,
+              ConfigConstants.CONFIG_KEY_EMAIL,
+              gitUser.getEmail());
+        }
+        repositoryConfig.save();
+      }
     } catch (IOException | GitAPIException exception) {
       // Delete .git directory in case it was created
       if (removeIfFailed) {
@@ -1563,84 +1566,88 @@ class JGitConnection implements GitConnection {
     }
 
     StoredConfig config = repository.getConfig();
-    Set<String> remoteNames = config.getSubsections("remote");
-    if (remoteNames.contains(remoteName)) {
-      throw new GitException(format(ERROR_ADD_REMOTE_NAME_ALREADY_EXISTS, remoteName));
-    }
+    synchronized (config) {
+      Set<String> remoteNames = config.getSubsections("remote");
+      if (remoteNames.contains(remoteName)) {
+        throw new GitException(format(ERROR_ADD_REMOTE_NAME_ALREADY_EXISTS, remoteName));
+      }
 
-    String url = params.getUrl();
-    if (isNullOrEmpty(url)) {
-      throw new GitException(ERROR_ADD_REMOTE_URL_MISSING);
-    }
+      String url = params.getUrl();
+      if (isNullOrEmpty(url)) {
+        throw new GitException(ERROR_ADD_REMOTE_URL_MISSING);
+      }
 
-    RemoteConfig remoteConfig;
-    try {
-      remoteConfig = new RemoteConfig(config, remoteName);
-    } catch (URISyntaxException exception) {
-      // Not happen since it is newly created remote.
-      throw new GitException(exception.getMessage(), exception);
-    }
+      RemoteConfig remoteConfig;
+      try {
+        remoteConfig = new RemoteConfig(config, remoteName);
+      } catch (URISyntaxException exception) {
+        // Not happen since it is newly created remote.
+        throw new GitException(exception.getMessage(), exception);
+      }
 
-    try {
-      remoteConfig.addURI(new URIish(url));
-    } catch (URISyntaxException exception) {
-      throw new GitException("Remote url " + url + " is invalid. ");
-    }
+      try {
+        remoteConfig.addURI(new URIish(url));
+      } catch (URISyntaxException exception) {
+        throw new GitException("Remote url " + url + " is invalid. ");
+      }
 
-    List<String> branches = params.getBranches();
-    if (branches.isEmpty()) {
-      remoteConfig.addFetchRefSpec(
-          new RefSpec(R_HEADS + "*" + ":" + R_REMOTES + remoteName + "/*").setForceUpdate(true));
-    } else {
-      for (String branch : branches) {
+      List<String> branches = params.getBranches();
+      if (branches.isEmpty()) {
         remoteConfig.addFetchRefSpec(
-            new RefSpec(R_HEADS + branch + ":" + R_REMOTES + remoteName + "/" + branch)
-                .setForceUpdate(true));
+            new RefSpec(R_HEADS + "*" + ":" + R_REMOTES + remoteName + "/*").setForceUpdate(true));
+      } else {
+        for (String branch : branches) {
+          remoteConfig.addFetchRefSpec(
+              new RefSpec(R_HEADS + branch + ":" + R_REMOTES + remoteName + "/" + branch)
+                  .setForceUpdate(true));
+        }
       }
-    }
 
-    remoteConfig.update(config);
+      remoteConfig.update(config);
 
-    try {
-      config.save();
-    } catch (IOException exception) {
-      throw new GitException(exception.getMessage(), exception);
+      try {
+        config.save();
+      } catch (IOException exception) {
+        throw new GitException(exception.getMessage(), exception);
+      }
     }
   }
 
   @Override
   public void remoteDelete(String name) throws GitException {
     StoredConfig config = repository.getConfig();
-    Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
-    if (!remoteNames.contains(name)) {
-      throw new GitException("error: Could not remove config section 'remote." + name + "'");
-    }
+    synchronized (config) {
+      Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
+      if (!remoteNames.contains(name)) {
+        throw new GitException("error: Could not remove config section 'remote." + name + "'");
+      }
 
-    config.unsetSection(ConfigConstants.CONFIG_REMOTE_SECTION, name);
-    Set<String> branches = config.getSubsections(ConfigConstants.CONFIG_BRANCH_SECTION);
+      config.unsetSection(ConfigConstants.CONFIG_REMOTE_SECTION, name);
+      Set<String> branches = config.getSubsections(ConfigConstants.CONFIG_BRANCH_SECTION);
 
-    for (String branch : branches) {
-      String r =
-          config.getString(
+      for (String branch : branches) {
+        String r =
+            config.getString(
+                ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_REMOTE);
+        if (name.equals(r)) {
+          config.unset(
               ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_REMOTE);
-      if (name.equals(r)) {
-        config.unset(
-            ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_REMOTE);
-        config.unset(
-            ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_MERGE);
-        List<Branch> remoteBranches = branchList(LIST_REMOTE);
-        for (Branch remoteBranch : remoteBranches) {
-          if (remoteBranch.getDisplayName().startsWith(name)) {
-            branchDelete(remoteBranch.getName(), true);
+          config.unset(
+              ConfigConstants.CONFIG_BRANCH_SECTION, branch, ConfigConstants.CONFIG_KEY_MERGE);
+          List<Branch> remoteBranches = branchList(LIST_REMOTE);
+          for (Branch remoteBranch : remoteBranches) {
+            if (remoteBranch.getDisplayName().startsWith(name)) {
+              branchDelete(remoteBranch.getName(), true);
+            }
           }
         }
       }
-    }
 
-    try {
-      config.save();
-    } catch (IOException exception) {
-      throw new GitException(exception.getMessage(), exception);
+      try {
+        config.save();
+      } catch (IOException exception) {
+        throw new GitException(exception.getMessage(), exception);
+      }
     }
   }
 
@@ -1678,81 +1685,84 @@ class JGitConnection implements GitConnection {
     }
 
     StoredConfig config = repository.getConfig();
-    Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
-    if (!remoteNames.contains(remoteName)) {
-      throw new GitException("Remote " + remoteName + " not found. ");
-    }
-
-    RemoteConfig remoteConfig;
-    try {
-      remoteConfig = new RemoteConfig(config, remoteName);
-    } catch (URISyntaxException e) {
-      throw new GitException(e.getMessage(), e);
-    }
+    synchronized (config) {
+      Set<String> remoteNames = config.getSubsections(ConfigConstants.CONFIG_KEY_REMOTE);
+      if (!remoteNames.contains(remoteName)) {
+        throw new GitException("Remote " + remoteName + " not found. ");
+      }
 
-    List<String> branches = params.getBranches();
-    if (!branches.isEmpty()) {
-      if (!params.isAddBranches()) {
-        remoteConfig.setFetchRefSpecs(emptyList());
-        remoteConfig.setPushRefSpecs(emptyList());
-      } else {
-        // Replace wildcard refSpec if any.
-        remoteConfig.removeFetchRefSpec(
-            new RefSpec(R_HEADS + "*" + ":" + R_REMOTES + remoteName + "/*").setForceUpdate(true));
-        remoteConfig.removeFetchRefSpec(
-            new RefSpec(R_HEADS + "*" + ":" + R_REMOTES + remoteName + "/*"));
+      RemoteConfig remoteConfig;
+      try {
+        remoteConfig = new RemoteConfig(config, remoteName);
+      } catch (URISyntaxException e) {
+        throw new GitException(e.getMessage(), e);
       }
 
-      // Add new refSpec.
-      for (String branch : branches) {
-        remoteConfig.addFetchRefSpec(
-            new RefSpec(R_HEADS + branch + ":" + R_REMOTES + remoteName + "/" + branch)
-                .setForceUpdate(true));
+      List<String> branches = params.getBranches();
+      if (!branches.isEmpty()) {
+        if (!params.isAddBranches()) {
+          remoteConfig.setFetchRefSpecs(emptyList());
+          remoteConfig.setPushRefSpecs(emptyList());
+        } else {
+          // Replace wildcard refSpec if any.
+          remoteConfig.removeFetchRefSpec(
+              new RefSpec(R_HEADS + "*" + ":" + R_REMOTES + remoteName + "/*")
+                  .setForceUpdate(true));
+          remoteConfig.removeFetchRefSpec(
+              new RefSpec(R_HEADS + "*" + ":" + R_REMOTES + remoteName + "/*"));
+        }
+
+        // Add new refSpec.
+        for (String branch : branches) {
+          remoteConfig.addFetchRefSpec(
+              new RefSpec(R_HEADS + branch + ":" + R_REMOTES + remoteName + "/" + branch)
+                  .setForceUpdate(true));
+        }
       }
-    }
 
-    // Remove URLs first.
-    for (String url : params.getRemoveUrl()) {
-      try {
-        remoteConfig.removeURI(new URIish(url));
-      } catch (URISyntaxException e) {
-        LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+      // Remove URLs first.
+      for (String url : params.getRemoveUrl()) {
+        try {
+          remoteConfig.removeURI(new URIish(url));
+        } catch (URISyntaxException e) {
+          LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+        }
       }
-    }
 
-    // Add new URLs.
-    for (String url : params.getAddUrl()) {
-      try {
-        remoteConfig.addURI(new URIish(url));
-      } catch (URISyntaxException e) {
-        throw new GitException("Remote url " + url + " is invalid. ");
+      // Add new URLs.
+      for (String url : params.getAddUrl()) {
+        try {
+          remoteConfig.addURI(new URIish(url));
+        } catch (URISyntaxException e) {
+          throw new GitException("Remote url " + url + " is invalid. ");
+        }
       }
-    }
 
-    // Remove URLs for pushing.
-    for (String url : params.getRemovePushUrl()) {
-      try {
-        remoteConfig.removePushURI(new URIish(url));
-      } catch (URISyntaxException e) {
-        LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+      // Remove URLs for pushing.
+      for (String url : params.getRemovePushUrl()) {
+        try {
+          remoteConfig.removePushURI(new URIish(url));
+        } catch (URISyntaxException e) {
+          LOG.debug(ERROR_UPDATE_REMOTE_REMOVE_INVALID_URL);
+        }
       }
-    }
 
-    // Add URLs for pushing.
-    for (String url : params.getAddPushUrl()) {
-      try {
-        remoteConfig.addPushURI(new URIish(url));
-      } catch (URISyntaxException e) {
-        throw new GitException("Remote push url " + url + " is invalid. ");
+      // Add URLs for pushing.
+      for (String url : params.getAddPushUrl()) {
+        try {
+          remoteConfig.addPushURI(new URIish(url));
+        } catch (URISyntaxException e) {
+          throw new GitException("Remote push url " + url + " is invalid. ");
+        }
       }
-    }
 
-    remoteConfig.update(config);
+      remoteConfig.update(config);
 
-    try {
-      config.save();
-    } catch (IOException exception) {
-      throw new GitException(exception.getMessage(), exception);
+      try {
+        config.save();
+      } catch (IOException exception) {
+        throw new GitException(exception.getMessage(), exception);
+      }
     }
   }
 
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *   SAP           - implementation
+ */
+package org.eclipse.che.git.impl.jgit;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps repositories open between git operations, so configuration, references and pack indexes of
+ * a repository are read once and its pack files are shared by all the connections instead of being
+ * read again by every operation. JGit checks the snapshots of the files it reads, so a long-lived
+ * repository sees the changes made by other processes.
+ *
+ * <p>Repositories are reference counted. The pool holds one reference, every {@link #acquire} takes
+ * another one which is released by {@link Repository#close()}, so the repository is closed when it
+ * is evicted from the pool and released by all its users. Repositories are evicted when they are
+ * not acquired longer than the idle timeout or when the pool exceeds its memory budget, in which
+ * case the repository is weighed by the size of its pack indexes. A repository whose {@code .git}
+ * directory is deleted or replaced, e.g. by cloning the project again, is evicted when it is
+ * acquired next time.
+ */
+@Singleton
+public class JGitRepositoryPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JGitRepositoryPool.class);
+
+  /** Approximate size of a repository without pack indexes in kilobytes. */
+  private static final int REPOSITORY_WEIGHT_KB = 64;
+
+  private static final String OBJECTS_DIR = "objects";
+  private static final String PACK_DIR = "pack";
+  private static final String PACK_INDEXES = "*.idx";
+
+  private final Cache<File, PooledRepository> repositories;
+
+  @Inject
+  public JGitRepositoryPool(
+      @Named("che.git.repository_pool.idle_timeout_s") long idleTimeoutSec,
+      @Named("che.git.repository_pool.memory_budget_mb") long memoryBudgetMb,
+      @Named("che.git.window_cache.limit_mb") int windowCacheLimitMb) {
+    WindowCacheConfig windowCacheConfig = new WindowCacheConfig();
+    windowCacheConfig.setPackedGitLimit(windowCacheLimitMb * (long) WindowCacheConfig.MB);
+    windowCacheConfig.install();
+
+    this.repositories =
+        CacheBuilder.newBuilder()
+            .expireAfterAccess(idleTimeoutSec, SECONDS)
+            .maximumWeight(memoryBudgetMb * 1024)
+            .weigher((File gitDir, PooledRepository pooled) -> pooled.weightKb)
+            .removalListener(this::onRemoval)
+            .build();
+  }
+
+  /**
+   * Returns repository of the given working tree, the caller must close the repository when it is
+   * not needed anymore. Repository which is not created yet is not pooled.
+   *
+   * @param workDir working tree of the repository
+   * @throws IOException when repository can't be opened
+   */
+  public Repository acquire(File workDir) throws IOException {
+    File gitDir = new File(workDir, Constants.DOT_GIT).getAbsoluteFile();
+    List<Object> identity = identityOf(gitDir);
+    if (identity == null) {
+      repositories.invalidate(gitDir);
+      return new FileRepository(gitDir);
+    }
+    for (; ; ) {
+      PooledRepository pooled;
+      try {
+        pooled =
+            repositories.get(
+                gitDir, () -> new PooledRepository(new FileRepository(gitDir), identity));
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(e.getCause().getMessage(), e.getCause());
+      }
+      if (!pooled.identity.equals(identity)) {
+        repositories.asMap().remove(gitDir, pooled);
+      } else if (pooled.open()) {
+        return pooled.repository;
+      }
+    }
+  }
+
+  /** Returns the number of pooled repositories. */
+  @VisibleForTesting
+  long size() {
+    return repositories.size();
+  }
+
+  /** Evicts idle repositories, even if the pool is not accessed. */
+  @ScheduleRate(period = 60)
+  void evictIdle() {
+    repositories.cleanUp();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    repositories.invalidateAll();
+    repositories.cleanUp();
+  }
+
+  private void onRemoval(RemovalNotification<File, PooledRepository> notification) {
+    LOG.debug("Closing repository '{}', cause: {}", notification.getKey(), notification.getCause());
+    notification.getValue().evict();
+  }
+
+  /**
+   * Returns identifiers of the git directory and its objects directory which change when the
+   * repository is created again, or null if there is no repository yet.
+   */
+  private static List<Object> identityOf(File gitDir) {
+    try {
+      BasicFileAttributes gitDirAttributes =
+          Files.readAttributes(gitDir.toPath(), BasicFileAttributes.class);
+      BasicFileAttributes objectsAttributes =
+          Files.readAttributes(gitDir.toPath().resolve(OBJECTS_DIR), BasicFileAttributes.class);
+      if (!gitDirAttributes.isDirectory() || !objectsAttributes.isDirectory()) {
+        return null;
+      }
+      return Arrays.asList(identifierOf(gitDirAttributes), identifierOf(objectsAttributes));
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static Object identifierOf(BasicFileAttributes attributes) {
+    Object fileKey = attributes.fileKey();
+    return fileKey != null ? fileKey : attributes.creationTime();
+  }
+
+  /** Returns the weight of the repository, which is mostly the size of its pack indexes. */
+  private static int weightKbOf(File gitDir) {
+    long weight = REPOSITORY_WEIGHT_KB * 1024L;
+    Path packDir = gitDir.toPath().resolve(OBJECTS_DIR).resolve(PACK_DIR);
+    if (Files.isDirectory(packDir)) {
+      try (DirectoryStream<Path> indexes = Files.newDirectoryStream(packDir, PACK_INDEXES)) {
+        for (Path index : indexes) {
+          weight += Files.size(index);
+        }
+      } catch (IOException e) {
+        LOG.debug("Failed to weigh repository '{}'. Cause: {}", gitDir, e.getMessage());
+      }
+    }
+    return (int) Math.min(Integer.MAX_VALUE, weight / 1024);
+  }
+
+  private static class PooledRepository {
+    final Repository repository;
+    final List<Object> identity;
+    final int weightKb;
+
+    /** Guarded by this, whether the pool's reference to the repository is released. */
+    boolean evicted;
+
+    PooledRepository(Repository repository, List<Object> identity) {
+      this.repository = repository;
+      this.identity = identity;
+      this.weightKb = weightKbOf(repository.getDirectory());
+    }
+
+    /** Takes a reference to the repository, returns false if the repository is evicted. */
+    synchronized boolean open() {
+      if (evicted) {
+        return false;
+      }
+      repository.incrementOpen();
+      return true;
+    }
+
+    synchronized void evict() {
+      if (!evicted) {
+        evicted = true;
+        repository.close();
+      }
+    }
+  }
+}
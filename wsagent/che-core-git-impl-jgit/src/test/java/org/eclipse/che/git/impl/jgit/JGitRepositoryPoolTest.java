@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ *   SAP           - implementation
+ */
+package org.eclipse.che.git.impl.jgit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link JGitRepositoryPool}. */
+public class JGitRepositoryPoolTest {
+
+  private File workDir;
+  private JGitRepositoryPool pool;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    workDir = Files.createTempDirectory("repository-pool").toFile();
+    pool = new JGitRepositoryPool(60, 64, 10);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    pool.shutdown();
+    IoUtil.deleteRecursive(workDir);
+  }
+
+  @Test
+  public void shouldShareRepositoryOfTheSameWorkingTree() throws Exception {
+    initRepository();
+
+    Repository first = pool.acquire(workDir);
+    first.close();
+    Repository second = pool.acquire(workDir);
+    second.close();
+
+    assertSame(second, first);
+    assertEquals(pool.size(), 1);
+  }
+
+  @Test
+  public void shouldNotPoolRepositoryWhichIsNotCreatedYet() throws Exception {
+    Repository first = pool.acquire(workDir);
+    Repository second = pool.acquire(workDir);
+
+    assertNotSame(second, first);
+    assertFalse(first.getDirectory().exists());
+    assertEquals(pool.size(), 0);
+  }
+
+  @Test
+  public void shouldEvictRepositoryWhenItIsDeleted() throws Exception {
+    initRepository();
+    pool.acquire(workDir).close();
+
+    IoUtil.deleteRecursive(new File(workDir, Constants.DOT_GIT));
+    pool.acquire(workDir).close();
+
+    assertEquals(pool.size(), 0);
+  }
+
+  @Test
+  public void shouldOpenNewRepositoryWhenItIsCreatedAgain() throws Exception {
+    initRepository();
+    Repository first = pool.acquire(workDir);
+    first.close();
+    File gitDir = new File(workDir, Constants.DOT_GIT);
+    File movedGitDir = new File(workDir, "moved");
+    // the moved directory keeps its identifier, so the new one can't get the same one
+    assertTrue(gitDir.renameTo(movedGitDir));
+    initRepository();
+
+    Repository second = pool.acquire(workDir);
+    second.close();
+
+    assertNotSame(second, first);
+    assertEquals(pool.size(), 1);
+  }
+
+  @Test
+  public void shouldOpenNewRepositoryWhenPreviousOneIsEvicted() throws Exception {
+    initRepository();
+    Repository first = pool.acquire(workDir);
+
+    pool.shutdown();
+    Repository second = pool.acquire(workDir);
+    first.close();
+    second.close();
+
+    assertNotSame(second, first);
+    assertEquals(pool.size(), 1);
+  }
+
+  private void initRepository() throws Exception {
+    Git.init().setDirectory(workDir).call().close();
+  }
+}
@@ -33,6 +33,11 @@ public class InmemoryWorkspaceActivityDao implements WorkspaceActivityDao {
     activeWorkspaces.put(expiration.getWorkspaceId(), expiration.getExpiration());
   }
 
+  @Override
+  public void setExpirations(List<WorkspaceExpiration> expirations) {
+    expirations.forEach(this::setExpiration);
+  }
+
   @Override
   public void removeExpiration(String workspaceId) {
     activeWorkspaces.remove(workspaceId);
@@ -47,4 +52,13 @@ public class InmemoryWorkspaceActivityDao implements WorkspaceActivityDao {
         .map(Entry::getKey)
         .collect(Collectors.toList());
   }
+
+  @Override
+  public List<WorkspaceExpiration> getAll() {
+    return activeWorkspaces
+        .entrySet()
+        .stream()
+        .map(e -> new WorkspaceExpiration(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
 }
@@ -21,6 +21,7 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.event.BeforeWorkspaceRemovedEvent;
@@ -46,6 +47,16 @@ public class JpaWorkspaceActivityDao implements WorkspaceActivityDao {
     }
   }
 
+  @Override
+  public void setExpirations(List<WorkspaceExpiration> expirations) throws ServerException {
+    requireNonNull(expirations, "Required non-null expirations");
+    try {
+      doCreateOrUpdate(expirations);
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
   @Override
   public void removeExpiration(String workspaceId) throws ServerException {
     requireNonNull(workspaceId, "Required non-null id");
@@ -65,6 +76,23 @@ public class JpaWorkspaceActivityDao implements WorkspaceActivityDao {
     }
   }
 
+  @Override
+  public List<WorkspaceExpiration> getAll() throws ServerException {
+    try {
+      return doGetAll();
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
+  @Transactional
+  protected List<WorkspaceExpiration> doGetAll() {
+    return managerProvider
+        .get()
+        .createNamedQuery("WorkspaceExpiration.getAll", WorkspaceExpiration.class)
+        .getResultList();
+  }
+
   @Transactional
   protected List<String> doFindExpired(long timestamp) {
     return managerProvider
@@ -88,6 +116,27 @@ public class JpaWorkspaceActivityDao implements WorkspaceActivityDao {
     manager.flush();
   }
 
+  /**
+   * Stores all the expirations in a single transaction. Existing expirations are updated by bulk
+   * update statements without loading them, the missing ones are persisted and flushed together.
+   */
+  @Transactional
+  protected void doCreateOrUpdate(List<WorkspaceExpiration> expirations) {
+    final EntityManager manager = managerProvider.get();
+    final Query update = manager.createNamedQuery("WorkspaceExpiration.updateExpiration");
+    for (WorkspaceExpiration expiration : expirations) {
+      final int updated =
+          update
+              .setParameter("workspaceId", expiration.getWorkspaceId())
+              .setParameter("expiration", expiration.getExpiration())
+              .executeUpdate();
+      if (updated == 0) {
+        manager.persist(expiration);
+      }
+    }
+    manager.flush();
+  }
+
   @Transactional
   protected void doRemove(String workspaceId) {
     final EntityManager manager = managerProvider.get();
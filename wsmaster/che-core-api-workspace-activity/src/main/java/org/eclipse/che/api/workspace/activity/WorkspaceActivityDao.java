@@ -30,6 +30,14 @@ public interface WorkspaceActivityDao {
    */
   void setExpiration(WorkspaceExpiration expiration) throws ServerException;
 
+  /**
+   * Sets expiration times of multiple workspaces at once, existing expiration times are overridden.
+   *
+   * @param expirations expiration objects to store
+   * @throws ServerException when operation failed
+   */
+  void setExpirations(List<WorkspaceExpiration> expirations) throws ServerException;
+
   /**
    * Removes workspace expiration time (basically used on ws stop).
    *
@@ -46,4 +54,12 @@ public interface WorkspaceActivityDao {
    * @throws ServerException when operation failed
    */
   List<String> findExpired(long timestamp) throws ServerException;
+
+  /**
+   * Gets expiration times of all the workspaces.
+   *
+   * @return list of all the stored expiration times
+   * @throws ServerException when operation failed
+   */
+  List<WorkspaceExpiration> getAll() throws ServerException;
 }
@@ -12,10 +12,21 @@
 package org.eclipse.che.api.workspace.activity;
 
 import static java.util.Collections.emptyMap;
+import static java.util.Comparator.comparingLong;
 import static org.eclipse.che.api.workspace.shared.Constants.WORKSPACE_STOPPED_BY;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -40,6 +51,14 @@ import org.slf4j.LoggerFactory;
  * one minute rate. If workspace idle timeout is negative, then workspace would not be stopped
  * automatically.
  *
+ * <p>Activity updates are applied to an in-memory index of expiration times and written to the
+ * storage in batches once per flush period, so frequent activity notifications of the same
+ * workspace result in a single write which stores the latest expiration time. Expired workspaces
+ * are looked up in the index, the storage is queried only to make sure that the found workspaces
+ * were not prolonged by other Che masters. If the flush period is not positive, every update is
+ * written to the storage immediately. Workspaces missing in the index, e.g. the ones tracked by a
+ * Che master which is gone, are found by a less frequent sweep of the storage.
+ *
  * @author Anton Korneta
  */
 @Singleton
@@ -50,9 +69,13 @@ public class WorkspaceActivityManager {
   private static final String ACTIVITY_CHECKER = "activity-checker";
 
   private final long defaultTimeout;
+  private final boolean writeBehind;
   private final WorkspaceActivityDao activityDao;
   private final EventService eventService;
   private final EventSubscriber<?> workspaceEventsSubscriber;
+  private final Map<String, Long> timeouts;
+  private final ExpirationIndex expirations;
+  private final Object flushLock = new Object();
 
   protected final WorkspaceManager workspaceManager;
 
@@ -61,11 +84,15 @@ public class WorkspaceActivityManager {
       WorkspaceManager workspaceManager,
       WorkspaceActivityDao activityDao,
       EventService eventService,
-      @Named("che.limits.workspace.idle.timeout") long timeout) {
+      @Named("che.limits.workspace.idle.timeout") long timeout,
+      @Named("che.workspace.activity_flush_period_s") long flushPeriod) {
     this.workspaceManager = workspaceManager;
     this.eventService = eventService;
     this.activityDao = activityDao;
     this.defaultTimeout = timeout;
+    this.writeBehind = flushPeriod > 0;
+    this.timeouts = new ConcurrentHashMap<>();
+    this.expirations = new ExpirationIndex();
     this.workspaceEventsSubscriber =
         new EventSubscriber<WorkspaceStatusEvent>() {
           @Override
@@ -82,14 +109,13 @@ public class WorkspaceActivityManager {
                       "Failed to remove stopped information attribute for workspace "
                           + event.getWorkspaceId());
                 }
+                // idle timeout may differ from the one of the previous run
+                timeouts.remove(event.getWorkspaceId());
                 update(event.getWorkspaceId(), System.currentTimeMillis());
                 break;
               case STOPPED:
-                try {
-                  activityDao.removeExpiration(event.getWorkspaceId());
-                } catch (ServerException e) {
-                  LOG.error(e.getLocalizedMessage(), e);
-                }
+                timeouts.remove(event.getWorkspaceId());
+                removeExpiration(event.getWorkspaceId());
                 break;
               default:
                 // do nothing
@@ -105,28 +131,106 @@ public class WorkspaceActivityManager {
    * @param activityTime moment in which the activity occurred
    */
   public void update(String wsId, long activityTime) {
-    try {
-      long timeout = getIdleTimeout(wsId);
-      if (timeout > 0) {
+    long timeout = timeouts.computeIfAbsent(wsId, this::getIdleTimeout);
+    if (timeout <= 0) {
+      return;
+    }
+    if (!writeBehind) {
+      try {
         activityDao.setExpiration(new WorkspaceExpiration(wsId, activityTime + timeout));
+      } catch (ServerException e) {
+        LOG.error(e.getLocalizedMessage(), e);
       }
-    } catch (ServerException e) {
-      LOG.error(e.getLocalizedMessage(), e);
     }
+    expirations.update(wsId, activityTime + timeout, writeBehind);
   }
 
   protected long getIdleTimeout(String wsId) {
     return defaultTimeout;
   }
 
+  /** Writes expiration times updated since the previous flush to the storage. */
+  @ScheduleDelay(
+      initialDelayParameterName = "che.workspace.activity_flush_period_s",
+      delayParameterName = "che.workspace.activity_flush_period_s")
+  @VisibleForTesting
+  @PreDestroy
+  void flush() {
+    synchronized (flushLock) {
+      final List<WorkspaceExpiration> updated = expirations.drainUpdated();
+      if (updated.isEmpty()) {
+        return;
+      }
+      try {
+        activityDao.setExpirations(updated);
+        LOG.debug("Stored expiration times of {} workspaces", updated.size());
+      } catch (ServerException e) {
+        // batch fails entirely if one of the workspaces is removed meanwhile, store one by one
+        LOG.debug("Failed to store expiration times in batch. Cause: {}", e.getMessage());
+        for (WorkspaceExpiration expiration : updated) {
+          try {
+            activityDao.setExpiration(expiration);
+          } catch (ServerException x) {
+            LOG.warn(
+                "Failed to store expiration time of workspace '{}'. Cause: {}",
+                expiration.getWorkspaceId(),
+                x.getMessage());
+          }
+        }
+      }
+    }
+  }
+
   @ScheduleDelay(
       initialDelayParameterName = "che.workspace.activity_check_scheduler_delay_s",
       delayParameterName = "che.workspace.activity_check_scheduler_period_s")
-  private void invalidate() {
+  @VisibleForTesting
+  void invalidate() {
+    final long now = System.currentTimeMillis();
+    final List<String> expired = expirations.findExpired(now);
+    if (expired.isEmpty()) {
+      return;
+    }
+    final Set<String> confirmed;
+    try {
+      // expiration time might have been prolonged by another Che master
+      confirmed = new HashSet<>(activityDao.findExpired(now));
+    } catch (ServerException e) {
+      LOG.error(e.getLocalizedMessage(), e);
+      return;
+    }
+    for (String workspaceId : expired) {
+      if (confirmed.contains(workspaceId)) {
+        stopExpired(workspaceId);
+      } else {
+        expirations.remove(workspaceId);
+      }
+    }
+  }
+
+  /**
+   * Stops workspaces which are expired according to the storage, so the ones which are not in the
+   * local index are stopped too.
+   */
+  @ScheduleDelay(
+      initialDelayParameterName = "che.workspace.activity_check_scheduler_delay_s",
+      delayParameterName = "che.workspace.activity_sweep_period_s")
+  @VisibleForTesting
+  void sweep() {
+    final long now = System.currentTimeMillis();
+    final List<String> expired;
     try {
-      activityDao.findExpired(System.currentTimeMillis()).forEach(this::stopExpired);
+      expired = activityDao.findExpired(now);
     } catch (ServerException e) {
       LOG.error(e.getLocalizedMessage(), e);
+      return;
+    }
+    for (String workspaceId : expired) {
+      // expiration time might have been prolonged locally but not stored yet
+      final Long localExpiration = expirations.get(workspaceId);
+      if (localExpiration == null || localExpiration < now) {
+        stopExpired(workspaceId);
+      }
     }
   }
 
@@ -144,6 +248,14 @@ public class WorkspaceActivityManager {
       LOG.error(ex.getLocalizedMessage());
       LOG.debug(ex.getLocalizedMessage(), ex);
     } finally {
+      removeExpiration(workspaceId);
+    }
+  }
+
+  private void removeExpiration(String workspaceId) {
+    // prevents pending flush from storing the removed expiration time again
+    synchronized (flushLock) {
+      expirations.remove(workspaceId);
       try {
         activityDao.removeExpiration(workspaceId);
       } catch (ServerException e) {
@@ -155,6 +267,66 @@ public class WorkspaceActivityManager {
   @VisibleForTesting
   @PostConstruct
   public void subscribe() {
+    try {
+      for (WorkspaceExpiration expiration : activityDao.getAll()) {
+        expirations.update(expiration.getWorkspaceId(), expiration.getExpiration(), false);
+      }
+    } catch (ServerException e) {
+      LOG.error("Failed to load workspaces expiration times. Cause: " + e.getMessage(), e);
+    }
     eventService.subscribe(workspaceEventsSubscriber);
   }
+
+  /** Expiration times of workspaces ordered by time, along with the ones not stored yet. */
+  private static class ExpirationIndex {
+    private final Map<String, WorkspaceExpiration> byWorkspace = new HashMap<>();
+    private final NavigableSet<WorkspaceExpiration> byTime =
+        new TreeSet<>(
+            comparingLong(WorkspaceExpiration::getExpiration)
+                .thenComparing(WorkspaceExpiration::getWorkspaceId));
+    private final Map<String, WorkspaceExpiration> updated = new HashMap<>();
+
+    synchronized void update(String workspaceId, long expirationTime, boolean toStore) {
+      final WorkspaceExpiration previous = byWorkspace.get(workspaceId);
+      if (previous != null) {
+        byTime.remove(previous);
+      }
+      final WorkspaceExpiration expiration = new WorkspaceExpiration(workspaceId, expirationTime);
+      byWorkspace.put(workspaceId, expiration);
+      byTime.add(expiration);
+      if (toStore) {
+        updated.put(workspaceId, expiration);
+      }
+    }
+
+    synchronized void remove(String workspaceId) {
+      final WorkspaceExpiration expiration = byWorkspace.remove(workspaceId);
+      if (expiration != null) {
+        byTime.remove(expiration);
+      }
+      updated.remove(workspaceId);
+    }
+
+    synchronized Long get(String workspaceId) {
+      final WorkspaceExpiration expiration = byWorkspace.get(workspaceId);
+      return expiration != null ? expiration.getExpiration() : null;
+    }
+
+    synchronized List<String> findExpired(long timestamp) {
+      final List<String> expired = new ArrayList<>();
+      for (WorkspaceExpiration expiration : byTime) {
+        if (expiration.getExpiration() >= timestamp) {
+          break;
+        }
+        expired.add(expiration.getWorkspaceId());
+      }
+      return expired;
+    }
+
+    synchronized List<WorkspaceExpiration> drainUpdated() {
+      final List<WorkspaceExpiration> drained = new ArrayList<>(updated.values());
+      updated.clear();
+      return drained;
+    }
+  }
 }
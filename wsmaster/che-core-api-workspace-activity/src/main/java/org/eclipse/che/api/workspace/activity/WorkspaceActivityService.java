@@ -22,18 +22,21 @@ import javax.inject.Singleton;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
-import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.rest.Service;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
-import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Service for accessing API for updating activity timestamp of running workspaces.
  *
+ * <p>Workspace status is taken from the runtimes status cache, so frequent activity notifications
+ * of running workspaces don't load workspaces from the database. Workspaces which are not running
+ * are still looked up, to respond with 404 when the workspace doesn't exist.
+ *
  * @author Anton Korneta
  */
 @Singleton
@@ -44,12 +47,16 @@ public class WorkspaceActivityService extends Service {
 
   private final WorkspaceActivityManager workspaceActivityManager;
   private final WorkspaceManager workspaceManager;
+  private final WorkspaceRuntimes workspaceRuntimes;
 
   @Inject
   public WorkspaceActivityService(
-      WorkspaceActivityManager workspaceActivityManager, WorkspaceManager wsManager) {
+      WorkspaceActivityManager workspaceActivityManager,
+      WorkspaceManager workspaceManager,
+      WorkspaceRuntimes workspaceRuntimes) {
     this.workspaceActivityManager = workspaceActivityManager;
-    this.workspaceManager = wsManager;
+    this.workspaceManager = workspaceManager;
+    this.workspaceRuntimes = workspaceRuntimes;
   }
 
   @PUT
@@ -57,13 +64,19 @@ public class WorkspaceActivityService extends Service {
   @ApiOperation(
       value = "Notifies workspace activity",
       notes = "Notifies workspace activity to prevent stop by timeout when workspace is used.")
-  @ApiResponses(@ApiResponse(code = 204, message = "Activity counted"))
+  @ApiResponses({
+    @ApiResponse(code = 204, message = "Activity counted"),
+    @ApiResponse(code = 404, message = "The workspace with specified id doesn't exist"),
+    @ApiResponse(code = 500, message = "Internal server error occurred")
+  })
   public void active(@ApiParam(value = "Workspace id") @PathParam("wsId") String wsId)
-      throws ForbiddenException, NotFoundException, ServerException {
-    final WorkspaceImpl workspace = workspaceManager.getWorkspace(wsId);
-    if (workspace.getStatus() == RUNNING) {
+      throws NotFoundException, ServerException {
+    if (workspaceRuntimes.getStatus(wsId) == RUNNING) {
       workspaceActivityManager.update(wsId, System.currentTimeMillis());
       LOG.debug("Updated activity on workspace {}", wsId);
+    } else {
+      // not running workspace may not exist at all
+      workspaceManager.getWorkspace(wsId);
     }
   }
 }
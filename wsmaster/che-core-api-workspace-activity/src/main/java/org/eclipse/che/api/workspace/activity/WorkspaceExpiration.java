@@ -30,7 +30,14 @@ import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 @NamedQueries({
   @NamedQuery(
       name = "WorkspaceExpiration.getExpired",
-      query = "SELECT e FROM WorkspaceExpiration e WHERE e.expiration < :expiration")
+      query = "SELECT e FROM WorkspaceExpiration e WHERE e.expiration < :expiration"),
+  @NamedQuery(name = "WorkspaceExpiration.getAll", query = "SELECT e FROM WorkspaceExpiration e"),
+  @NamedQuery(
+      name = "WorkspaceExpiration.updateExpiration",
+      query =
+          "UPDATE WorkspaceExpiration e "
+              + "SET e.expiration = :expiration "
+              + "WHERE e.workspaceId = :workspaceId")
 })
 @Table(name = "che_workspace_expiration")
 public class WorkspaceExpiration {
@@ -11,14 +11,26 @@
  */
 package org.eclipse.che.api.workspace.activity;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
@@ -38,6 +50,7 @@ import org.testng.annotations.Test;
 /** Tests for {@link WorkspaceActivityNotifier} */
 public class WorkspaceActivityManagerTest {
   private static final long DEFAULT_TIMEOUT = 60_000L; // 1 minute
+  private static final long FLUSH_PERIOD = 5;
 
   @Mock private WorkspaceManager workspaceManager;
 
@@ -55,13 +68,14 @@ public class WorkspaceActivityManagerTest {
   private void setUp() throws Exception {
     activityManager =
         new WorkspaceActivityManager(
-            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT);
+            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT, FLUSH_PERIOD);
 
     when(account.getName()).thenReturn("accountName");
     when(account.getId()).thenReturn("account123");
 
     when(workspaceManager.getWorkspace(anyString())).thenReturn(workspace);
     when(workspace.getNamespace()).thenReturn("accountName");
+    when(workspace.getAttributes()).thenReturn(new HashMap<>());
   }
 
   @Test
@@ -70,9 +84,108 @@ public class WorkspaceActivityManagerTest {
     final long activityTime = 1000L;
 
     activityManager.update(wsId, activityTime);
+    activityManager.flush();
 
     WorkspaceExpiration expected = new WorkspaceExpiration(wsId, activityTime + DEFAULT_TIMEOUT);
-    verify(workspaceActivityDao, times(1)).setExpiration(eq(expected));
+    verify(workspaceActivityDao, times(1)).setExpirations(eq(singletonList(expected)));
+  }
+
+  @Test
+  public void shouldStoreOnlyTheLatestExpirationOfWorkspaceOnFlush() throws Exception {
+    activityManager.update("ws1", 1000L);
+    activityManager.update("ws2", 1500L);
+    activityManager.update("ws1", 2000L);
+    activityManager.update("ws1", 3000L);
+
+    verify(workspaceActivityDao, never()).setExpiration(any());
+    verify(workspaceActivityDao, never()).setExpirations(anyList());
+
+    activityManager.flush();
+    activityManager.flush();
+
+    ArgumentCaptor<List<WorkspaceExpiration>> captor = ArgumentCaptor.forClass(List.class);
+    verify(workspaceActivityDao, times(1)).setExpirations(captor.capture());
+    assertEquals(
+        new HashSet<>(captor.getValue()),
+        new HashSet<>(
+            asList(
+                new WorkspaceExpiration("ws1", 3000L + DEFAULT_TIMEOUT),
+                new WorkspaceExpiration("ws2", 1500L + DEFAULT_TIMEOUT))));
+  }
+
+  @Test
+  public void shouldStoreExpirationsOneByOneIfBatchFails() throws Exception {
+    doThrow(new ServerException("workspace removed"))
+        .when(workspaceActivityDao)
+        .setExpirations(anyList());
+    activityManager.update("ws1", 1000L);
+    activityManager.update("ws2", 1000L);
+
+    activityManager.flush();
+
+    verify(workspaceActivityDao)
+        .setExpiration(new WorkspaceExpiration("ws1", 1000L + DEFAULT_TIMEOUT));
+    verify(workspaceActivityDao)
+        .setExpiration(new WorkspaceExpiration("ws2", 1000L + DEFAULT_TIMEOUT));
+  }
+
+  @Test
+  public void shouldStoreExpirationImmediatelyIfFlushIsDisabled() throws Exception {
+    activityManager =
+        new WorkspaceActivityManager(
+            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT, -1);
+
+    activityManager.update("ws1", 1000L);
+    activityManager.flush();
+
+    verify(workspaceActivityDao)
+        .setExpiration(new WorkspaceExpiration("ws1", 1000L + DEFAULT_TIMEOUT));
+    verify(workspaceActivityDao, never()).setExpirations(anyList());
+  }
+
+  @Test
+  public void shouldStopWorkspacesExpiredInIndexIfStorageConfirmsExpiration() throws Exception {
+    final long now = System.currentTimeMillis();
+    when(workspaceActivityDao.getAll())
+        .thenReturn(
+            asList(
+                new WorkspaceExpiration("expired", now - 1000),
+                new WorkspaceExpiration("prolonged", now - 1000),
+                new WorkspaceExpiration("active", now + DEFAULT_TIMEOUT)));
+    // 'prolonged' was updated by another Che master
+    when(workspaceActivityDao.findExpired(anyLong())).thenReturn(singletonList("expired"));
+    activityManager.subscribe();
+
+    activityManager.invalidate();
+
+    verify(workspaceManager).stopWorkspace(eq("expired"), anyMap());
+    verify(workspaceManager, never()).stopWorkspace(eq("prolonged"), anyMap());
+    verify(workspaceManager, never()).stopWorkspace(eq("active"), anyMap());
+    verify(workspaceActivityDao).removeExpiration("expired");
+  }
+
+  @Test
+  public void shouldNotQueryStorageIfThereAreNoExpiredWorkspacesInIndex() throws Exception {
+    activityManager.update("ws1", System.currentTimeMillis());
+
+    activityManager.invalidate();
+
+    verify(workspaceActivityDao, never()).findExpired(anyLong());
+    verify(workspaceManager, never()).stopWorkspace(anyString(), anyMap());
+  }
+
+  @Test
+  public void shouldStopWorkspacesExpiredInStorageOnSweep() throws Exception {
+    final long now = System.currentTimeMillis();
+    activityManager.update("prolonged", now);
+    // 'unknown' was tracked by another Che master
+    when(workspaceActivityDao.findExpired(anyLong())).thenReturn(asList("unknown", "prolonged"));
+
+    activityManager.sweep();
+
+    verify(workspaceManager).stopWorkspace(eq("unknown"), anyMap());
+    verify(workspaceManager, never()).stopWorkspace(eq("prolonged"), anyMap());
+    verify(workspaceActivityDao).removeExpiration("unknown");
   }
 
   @Test
@@ -85,9 +198,10 @@ public class WorkspaceActivityManagerTest {
         DtoFactory.newDto(WorkspaceStatusEvent.class)
             .withStatus(WorkspaceStatus.RUNNING)
             .withWorkspaceId(wsId));
-    ArgumentCaptor<WorkspaceExpiration> captor = ArgumentCaptor.forClass(WorkspaceExpiration.class);
-    verify(workspaceActivityDao, times(1)).setExpiration(captor.capture());
-    assertEquals(captor.getValue().getWorkspaceId(), wsId);
+    activityManager.flush();
+    ArgumentCaptor<List<WorkspaceExpiration>> captor = ArgumentCaptor.forClass(List.class);
+    verify(workspaceActivityDao, times(1)).setExpirations(captor.capture());
+    assertEquals(captor.getValue().get(0).getWorkspaceId(), wsId);
   }
 
   @Test
@@ -105,5 +219,7 @@ public class WorkspaceActivityManagerTest {
             .withWorkspaceId(wsId));
 
     verify(workspaceActivityDao, times(1)).removeExpiration(eq(wsId));
+    activityManager.flush();
+    verify(workspaceActivityDao, never()).setExpirations(anyList());
   }
 }
@@ -14,20 +14,18 @@ package org.eclipse.che.api.workspace.activity;
 import static com.jayway.restassured.RestAssured.given;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
 import com.jayway.restassured.response.Response;
-import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.rest.ApiExceptionMapper;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
-import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
-import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.subject.Subject;
 import org.eclipse.che.commons.subject.SubjectImpl;
@@ -64,20 +62,20 @@ public class WorkspaceActivityServiceTest {
 
   @Mock private WorkspaceManager workspaceManager;
 
+  @Mock private WorkspaceRuntimes workspaceRuntimes;
+
   private WorkspaceActivityService workspaceActivityService;
 
   @BeforeMethod
   public void setUp() {
     workspaceActivityService =
-        new WorkspaceActivityService(workspaceActivityManager, workspaceManager);
+        new WorkspaceActivityService(workspaceActivityManager, workspaceManager, workspaceRuntimes);
   }
 
   @Test
-  public void shouldUpdateWorkspaceActivityOfRunningWorkspace()
-      throws NotFoundException, ServerException {
+  public void shouldUpdateWorkspaceActivityOfRunningWorkspace() throws Exception {
     // given
-    final WorkspaceImpl workspace = createWorkspace(USER_ID, WorkspaceStatus.RUNNING);
-    when(workspaceManager.getWorkspace(WORKSPACE_ID)).thenReturn(workspace);
+    when(workspaceRuntimes.getStatus(WORKSPACE_ID)).thenReturn(WorkspaceStatus.RUNNING);
 
     // when
     Response response = given().when().put(SERVICE_PATH + '/' + WORKSPACE_ID);
@@ -85,14 +83,27 @@ public class WorkspaceActivityServiceTest {
     // then
     assertEquals(response.getStatusCode(), 204);
     verify(workspaceActivityManager).update(eq(WORKSPACE_ID), anyLong());
+    verify(workspaceManager, never()).getWorkspace(WORKSPACE_ID);
+  }
+
+  @Test
+  public void shouldRespondWithNotFoundWhenWorkspaceDoesNotExist() throws Exception {
+    // given
+    when(workspaceRuntimes.getStatus(WORKSPACE_ID)).thenReturn(WorkspaceStatus.STOPPED);
+    when(workspaceManager.getWorkspace(WORKSPACE_ID)).thenThrow(new NotFoundException("not found"));
+
+    // when
+    Response response = given().when().put(SERVICE_PATH + '/' + WORKSPACE_ID);
+
+    // then
+    assertEquals(response.getStatusCode(), 404);
+    verifyZeroInteractions(workspaceActivityManager);
   }
 
   @Test(dataProvider = "wsStatus")
-  public void shouldNotUpdateWorkspaceActivityOfStartingWorkspace(WorkspaceStatus status)
-      throws NotFoundException, ServerException {
+  public void shouldNotUpdateWorkspaceActivityOfStartingWorkspace(WorkspaceStatus status) {
     // given
-    final WorkspaceImpl workspace = createWorkspace(USER_ID, status);
-    when(workspaceManager.getWorkspace(WORKSPACE_ID)).thenReturn(workspace);
+    when(workspaceRuntimes.getStatus(WORKSPACE_ID)).thenReturn(status);
     // when
     Response response = given().when().put(SERVICE_PATH + '/' + WORKSPACE_ID);
 
@@ -114,16 +125,4 @@ public class WorkspaceActivityServiceTest {
       EnvironmentContext.getCurrent().setSubject(TEST_USER);
     }
   }
-
-  private WorkspaceImpl createWorkspace(String namespace, WorkspaceStatus status) {
-    final WorkspaceConfigImpl config =
-        WorkspaceConfigImpl.builder().setName("dev-workspace").setDefaultEnv("dev-env").build();
-
-    return WorkspaceImpl.builder()
-        .setConfig(config)
-        .generateId()
-        .setAccount(new AccountImpl("accountId", namespace, "test"))
-        .setStatus(status)
-        .build();
-  }
 }
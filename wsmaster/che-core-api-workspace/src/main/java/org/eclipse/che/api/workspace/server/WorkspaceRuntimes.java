@@ -198,6 +198,21 @@ public class WorkspaceRuntimes {
    * @param workspace the workspace to inject runtime into
    */
   public void injectRuntime(WorkspaceImpl workspace) throws ServerException {
+    try (Unlocker ignored = lockService.readLock(workspace.getId())) {
+      WorkspaceStatus workspaceStatus = statuses.get(workspace.getId());
+      if (workspaceStatus == null) {
+        workspace.setStatus(STOPPED);
+        return;
+      }
+      InternalRuntime<?> internalRuntime = runtimes.get(workspace.getId());
+      if (internalRuntime != null) {
+        workspace.setRuntime(asRuntime(internalRuntime));
+        workspace.setStatus(workspaceStatus);
+        return;
+      }
+    }
+
+    // runtime is not known locally, so it should be recovered under the write lock
     try (Unlocker ignored = lockService.writeLock(workspace.getId())) {
       WorkspaceStatus workspaceStatus = statuses.get(workspace.getId());
 
@@ -16,6 +16,8 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Probes a HTTP(s) URL for a response with code >=200 and <400
@@ -31,7 +33,8 @@ public class HttpProbe extends Probe {
   private final int timeout;
   private final Map<String, String> headers;
 
-  private HttpURLConnection httpURLConnection;
+  private volatile HttpURLConnection httpURLConnection;
+  private volatile boolean nonBlocking;
 
   /**
    * Creates probe
@@ -46,7 +49,16 @@ public class HttpProbe extends Probe {
     if (headers != null) {
       this.headers.putAll(headers);
     }
-    this.headers.put(CONNECTION_HEADER, CONNECTION_CLOSE);
+  }
+
+  /** Probes plain HTTP servers without blocking, HTTPS servers are probed by the executor. */
+  @Override
+  CompletableFuture<Boolean> start(Executor executor, NioProbeClient client) {
+    if ("http".equals(url.getProtocol())) {
+      nonBlocking = true;
+      return client.get(url, headers, timeout);
+    }
+    return super.start(executor, client);
   }
 
   @Override
@@ -56,6 +68,8 @@ public class HttpProbe extends Probe {
       httpURLConnection.setConnectTimeout(timeout);
       httpURLConnection.setReadTimeout(timeout);
       headers.forEach((name, value) -> httpURLConnection.setRequestProperty(name, value));
+      // blocking connections are not reused, probes period is longer than keep-alive time of JDK
+      httpURLConnection.setRequestProperty(CONNECTION_HEADER, CONNECTION_CLOSE);
       return isConnectionSuccessful(httpURLConnection);
     } catch (IOException e) {
       return false;
@@ -67,13 +81,22 @@ public class HttpProbe extends Probe {
   }
 
   /**
-   * More effectively cancels the probe than cancellation inherited from {@link Probe}.
+   * More effectively cancels the probe than cancellation inherited from {@link Probe}. Non-blocking
+   * probe is finished by {@link NioProbeClient} when its timeout is reached.
    *
    * @see Probe#cancel()
    */
   @Override
   public void cancel() {
-    httpURLConnection.disconnect();
+    if (nonBlocking) {
+      return;
+    }
+    HttpURLConnection connection = httpURLConnection;
+    if (connection != null) {
+      connection.disconnect();
+    } else {
+      super.cancel();
+    }
   }
 
   private boolean isConnectionSuccessful(HttpURLConnection conn) {
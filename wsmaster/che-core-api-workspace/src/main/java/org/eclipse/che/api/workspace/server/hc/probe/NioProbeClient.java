@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks availability of servers over non-blocking sockets. All the checks are performed by a
+ * single selector thread, so the number of simultaneous checks is not limited by the number of
+ * threads and a hanging server doesn't occupy a thread.
+ *
+ * <p>HTTP checks are performed with HTTP/1.1 GET requests. Connections are kept alive and reused by
+ * following checks of the same host and port when a response has a known length. HTTPS is not
+ * supported, such servers should be checked with blocking {@link HttpProbe#doProbe()}.
+ */
+class NioProbeClient {
+  private static final Logger LOG = LoggerFactory.getLogger(NioProbeClient.class);
+
+  private static final long SWEEP_PERIOD_MILLIS = 500;
+  private static final long IDLE_CONNECTION_TIMEOUT_NANOS = SECONDS.toNanos(15);
+  private static final int MAX_IDLE_CONNECTIONS_PER_ADDRESS = 2;
+  private static final int MAX_RESPONSE_HEAD_SIZE = 16 * 1024;
+  private static final int MAX_DRAINED_BODY_SIZE = 64 * 1024;
+
+  private final Executor resolveExecutor;
+  private final Selector selector;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+  // the fields below are accessed only by the selector thread
+  private final Set<Exchange> active = new HashSet<>();
+  private final Map<String, Deque<IdleConnection>> idleConnections = new HashMap<>();
+
+  private volatile boolean closed;
+
+  /**
+   * Creates client and starts its selector thread.
+   *
+   * @param resolveExecutor executor for resolution of host names which may block
+   * @throws IOException when selector can't be opened
+   */
+  NioProbeClient(Executor resolveExecutor) throws IOException {
+    this.resolveExecutor = resolveExecutor;
+    this.selector = Selector.open();
+    new ThreadFactoryBuilder()
+        .setNameFormat("ServerProbesSelector")
+        .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+        .setDaemon(true)
+        .build()
+        .newThread(this::run)
+        .start();
+  }
+
+  /** Checks whether given HTTP URL responds with code >=200 and <400 within given time. */
+  CompletableFuture<Boolean> get(URL url, Map<String, String> headers, long timeoutMillis) {
+    int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+    StringBuilder request =
+        new StringBuilder("GET ")
+            .append(url.getFile().isEmpty() ? "/" : url.getFile())
+            .append(" HTTP/1.1\r\nHost: ")
+            .append(url.getHost());
+    if (url.getPort() != -1) {
+      request.append(':').append(url.getPort());
+    }
+    request.append("\r\n");
+    headers.forEach(
+        (name, value) -> request.append(name).append(": ").append(value).append("\r\n"));
+    request.append("\r\n");
+
+    Exchange exchange =
+        new Exchange(
+            url.getHost(),
+            port,
+            ByteBuffer.wrap(request.toString().getBytes(ISO_8859_1)),
+            timeoutMillis);
+    execute(() -> start(exchange));
+    return exchange.result;
+  }
+
+  /** Stops the selector thread, checks in progress are finished unsuccessfully. */
+  void shutdown() {
+    closed = true;
+    selector.wakeup();
+  }
+
+  private void execute(Runnable task) {
+    tasks.add(task);
+    selector.wakeup();
+  }
+
+  private void run() {
+    long nextSweep = System.nanoTime();
+    while (!closed) {
+      try {
+        selector.select(SWEEP_PERIOD_MILLIS);
+      } catch (IOException e) {
+        LOG.error("Servers probes selection failed. Error: {}", e.getMessage(), e);
+      }
+
+      runTasks();
+
+      for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+        SelectionKey key = it.next();
+        it.remove();
+        if (!key.isValid()) {
+          continue;
+        }
+        if (key.attachment() instanceof Exchange) {
+          ((Exchange) key.attachment()).handle(key);
+        } else {
+          // idle connection is either closed by server or has unexpected data, can't be reused
+          ((IdleConnection) key.attachment()).close();
+        }
+      }
+
+      if (System.nanoTime() - nextSweep >= 0) {
+        sweep();
+        nextSweep = System.nanoTime() + MILLISECONDS.toNanos(SWEEP_PERIOD_MILLIS);
+      }
+    }
+
+    runTasks();
+    new ArrayList<>(active).forEach(exchange -> exchange.finish(false));
+    List<IdleConnection> idle = new ArrayList<>();
+    idleConnections.values().forEach(idle::addAll);
+    idle.forEach(IdleConnection::close);
+    try {
+      selector.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close servers probes selector. Error: {}", e.getMessage());
+    }
+  }
+
+  private void runTasks() {
+    for (Runnable task; (task = tasks.poll()) != null; ) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        LOG.error("Servers probe failed. Error: {}", e.getMessage(), e);
+      }
+    }
+  }
+
+  /** Finishes expired checks and closes connections which are idle for too long. */
+  private void sweep() {
+    long now = System.nanoTime();
+    for (Exchange exchange : new ArrayList<>(active)) {
+      if (now - exchange.deadline >= 0) {
+        exchange.expire();
+      }
+    }
+    for (Deque<IdleConnection> connections : new ArrayList<>(idleConnections.values())) {
+      for (IdleConnection idle : new ArrayList<>(connections)) {
+        if (now - idle.since >= IDLE_CONNECTION_TIMEOUT_NANOS) {
+          idle.close();
+        }
+      }
+    }
+  }
+
+  private void start(Exchange exchange) {
+    if (closed) {
+      exchange.result.complete(false);
+      return;
+    }
+    active.add(exchange);
+
+    Deque<IdleConnection> connections = idleConnections.get(exchange.address);
+    IdleConnection idle = connections == null ? null : connections.pollFirst();
+    if (idle != null) {
+      if (connections.isEmpty()) {
+        idleConnections.remove(exchange.address);
+      }
+      exchange.reuse(idle.key);
+    } else {
+      resolve(exchange);
+    }
+  }
+
+  /** Resolves the address of the exchange by the executor and connects back in selector thread. */
+  private void resolve(Exchange exchange) {
+    try {
+      CompletableFuture.supplyAsync(
+              () -> new InetSocketAddress(exchange.host, exchange.port), resolveExecutor)
+          .whenComplete(
+              (address, error) ->
+                  execute(
+                      () -> {
+                        if (error != null || address.isUnresolved()) {
+                          exchange.finish(false);
+                        } else {
+                          exchange.connect(address);
+                        }
+                      }));
+    } catch (RejectedExecutionException e) {
+      exchange.finish(false);
+    }
+  }
+
+  /** Check of a single server, the state is accessed only by the selector thread. */
+  private class Exchange {
+    final String host;
+    final int port;
+    final String address;
+    final ByteBuffer request;
+    final long deadline;
+    final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    SelectionKey key;
+    boolean reused;
+    ByteBuffer response;
+    long bodyRemaining = -1;
+    boolean success;
+
+    Exchange(String host, int port, ByteBuffer request, long timeoutMillis) {
+      this.host = host;
+      this.port = port;
+      this.address = host + ':' + port;
+      this.request = request;
+      this.deadline = System.nanoTime() + MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    void reuse(SelectionKey idleKey) {
+      reused = true;
+      key = idleKey;
+      key.attach(this);
+      key.interestOps(SelectionKey.OP_WRITE);
+    }
+
+    void connect(InetSocketAddress address) {
+      if (result.isDone()) {
+        return;
+      }
+      try {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        key = channel.register(selector, 0, this);
+        key.interestOps(channel.connect(address) ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT);
+      } catch (IOException e) {
+        onFailure();
+      }
+    }
+
+    void handle(SelectionKey selected) {
+      try {
+        if (selected.isConnectable()) {
+          if (((SocketChannel) key.channel()).finishConnect()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+          }
+        } else if (selected.isWritable()) {
+          ((SocketChannel) key.channel()).write(request);
+          if (!request.hasRemaining()) {
+            response = ByteBuffer.allocate(1024);
+            key.interestOps(SelectionKey.OP_READ);
+          }
+        } else if (selected.isReadable()) {
+          read();
+        }
+      } catch (IOException | RuntimeException e) {
+        onFailure();
+      }
+    }
+
+    private void read() throws IOException {
+      SocketChannel channel = (SocketChannel) key.channel();
+      if (bodyRemaining >= 0) {
+        response.clear();
+        int read = channel.read(response);
+        if (read == -1) {
+          finish(success);
+          return;
+        }
+        bodyRemaining -= read;
+        if (bodyRemaining <= 0) {
+          release(bodyRemaining == 0);
+        }
+        return;
+      }
+
+      if (!response.hasRemaining()) {
+        if (response.capacity() >= MAX_RESPONSE_HEAD_SIZE) {
+          finish(parseStatus(new String(response.array(), 0, response.position(), ISO_8859_1)));
+          return;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(response.capacity() * 2);
+        response.flip();
+        response = grown.put(response);
+      }
+      int read = channel.read(response);
+      if (read == -1) {
+        if (response.position() == 0) {
+          onFailure();
+        } else {
+          finish(parseStatus(new String(response.array(), 0, response.position(), ISO_8859_1)));
+        }
+        return;
+      }
+
+      String received = new String(response.array(), 0, response.position(), ISO_8859_1);
+      int headEnd = received.indexOf("\r\n\r\n");
+      if (headEnd == -1) {
+        return;
+      }
+      String[] lines = received.substring(0, headEnd).split("\r\n");
+      success = parseStatus(lines[0]);
+
+      long contentLength = -1;
+      boolean keepAlive = lines[0].startsWith("HTTP/1.1");
+      for (int i = 1; i < lines.length; i++) {
+        int colon = lines[i].indexOf(':');
+        if (colon == -1) {
+          continue;
+        }
+        String name = lines[i].substring(0, colon).trim();
+        String value = lines[i].substring(colon + 1).trim();
+        if ("Content-Length".equalsIgnoreCase(name)) {
+          try {
+            contentLength = Long.parseLong(value);
+          } catch (NumberFormatException e) {
+            keepAlive = false;
+          }
+        } else if ("Transfer-Encoding".equalsIgnoreCase(name)) {
+          keepAlive = false;
+        } else if ("Connection".equalsIgnoreCase(name) && "close".equalsIgnoreCase(value)) {
+          keepAlive = false;
+        }
+      }
+      if (!keepAlive || contentLength < 0 || contentLength > MAX_DRAINED_BODY_SIZE) {
+        finish(success);
+        return;
+      }
+      // rest of the body is drained to make the connection reusable
+      bodyRemaining = contentLength - (response.position() - headEnd - 4);
+      if (bodyRemaining <= 0) {
+        release(bodyRemaining == 0);
+      }
+    }
+
+    /** Retries the check with a new connection if a kept alive one is closed by the server. */
+    private void onFailure() {
+      if (reused && (response == null || response.position() == 0) && !result.isDone()) {
+        closeChannel();
+        reused = false;
+        response = null;
+        request.rewind();
+        resolve(this);
+      } else {
+        finish(false);
+      }
+    }
+
+    /** Completes the check and closes its connection if it is not released for reuse. */
+    void finish(boolean success) {
+      result.complete(success);
+      active.remove(this);
+      closeChannel();
+    }
+
+    /** Finishes the check which is not completed in time. */
+    void expire() {
+      // response status is already known if the body is being drained
+      finish(bodyRemaining >= 0 && success);
+    }
+
+    /** Completes the check and makes its connection available for following checks. */
+    private void release(boolean reusable) {
+      Deque<IdleConnection> connections =
+          idleConnections.computeIfAbsent(address, k -> new ArrayDeque<>());
+      if (!reusable || connections.size() >= MAX_IDLE_CONNECTIONS_PER_ADDRESS) {
+        finish(success);
+        return;
+      }
+      active.remove(this);
+      IdleConnection idle = new IdleConnection(address, key);
+      key.attach(idle);
+      key.interestOps(SelectionKey.OP_READ);
+      connections.addFirst(idle);
+      result.complete(success);
+    }
+
+    private void closeChannel() {
+      if (key != null) {
+        key.cancel();
+        try {
+          key.channel().close();
+        } catch (IOException ignored) {
+        }
+        key = null;
+      }
+    }
+
+    private boolean parseStatus(String statusLine) {
+      String[] parts = statusLine.split(" ", 3);
+      if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+        return false;
+      }
+      try {
+        int code = Integer.parseInt(parts[1]);
+        return code >= 200 && code < 400;
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
+  }
+
+  /** Kept alive connection waiting for a next check of the same address. */
+  private class IdleConnection {
+    final String address;
+    final SelectionKey key;
+    final long since = System.nanoTime();
+
+    IdleConnection(String address, SelectionKey key) {
+      this.address = address;
+      this.key = key;
+    }
+
+    void close() {
+      Deque<IdleConnection> connections = idleConnections.get(address);
+      if (connections != null) {
+        connections.remove(this);
+        if (connections.isEmpty()) {
+          idleConnections.remove(address);
+        }
+      }
+      key.cancel();
+      try {
+        key.channel().close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+}
@@ -11,6 +11,9 @@
  */
 package org.eclipse.che.api.workspace.server.hc.probe;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * One-time probe for a server. Should not be used directly but rather by a probe scheduling
  * framework.
@@ -20,6 +23,8 @@ package org.eclipse.che.api.workspace.server.hc.probe;
 public abstract class Probe {
 
   private Thread probeThread;
+  private boolean cancelled;
+  private boolean finished;
 
   /**
    * Checks {@link Probe}. Note that it must not be called more than one time.
@@ -28,19 +33,36 @@ public abstract class Probe {
    * @throws IllegalStateException if called second time
    */
   final boolean probe() {
-    if (probeThread != null) {
-      throw new IllegalStateException(
-          "This probe can be used only once, but second usage is detected!");
+    synchronized (this) {
+      if (probeThread != null) {
+        throw new IllegalStateException(
+            "This probe can be used only once, but second usage is detected!");
+      }
+      probeThread = Thread.currentThread();
+      if (cancelled) {
+        return false;
+      }
     }
-    probeThread = Thread.currentThread();
     try {
       return doProbe();
     } finally {
+      synchronized (this) {
+        finished = true;
+      }
       // clear interrupted state
       Thread.interrupted();
     }
   }
 
+  /**
+   * Starts the probe and returns its future result. By default {@link #probe()} is called in a
+   * thread of the given executor, probes that can check a server without blocking a thread use the
+   * given non-blocking client instead.
+   */
+  CompletableFuture<Boolean> start(Executor executor, NioProbeClient client) {
+    return CompletableFuture.supplyAsync(this::probe, executor);
+  }
+
   /**
    * Returns {@code true} if probe finishes successfully, {@code false} otherwise. Must return false
    * when probe is interrupted even if interruption is not respected by probe implementation.
@@ -53,6 +75,11 @@ public abstract class Probe {
    * usage of a thread where {@link #probe()} is called.
    */
   public void cancel() {
-    probeThread.interrupt();
+    synchronized (this) {
+      cancelled = true;
+      if (probeThread != null && !finished) {
+        probeThread.interrupt();
+      }
+    }
   }
 }
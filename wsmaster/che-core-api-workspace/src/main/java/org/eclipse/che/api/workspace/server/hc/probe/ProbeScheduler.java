@@ -11,18 +11,24 @@
  */
 package org.eclipse.che.api.workspace.server.hc.probe;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.inject.Inject;
@@ -30,12 +36,20 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.workspace.server.hc.probe.ProbeResult.ProbeStatus;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Schedules workspace servers probes checks asynchronously.
  *
+ * <p>Probes are triggered by a single timer thread which never performs checks itself. Plain HTTP
+ * probes are performed by {@link NioProbeClient} without blocking any thread, while probes which
+ * need blocking I/O (e.g. HTTPS) are performed by a pool of {@code che.workspace.probe_pool_size}
+ * threads. The same pool passes probes results to consumers. First check of a probe is shifted by a
+ * random part of the probe period, so probes of workspaces started at the same time (e.g. after
+ * restart of Che server) don't hit servers simultaneously.
+ *
  * @author Alexander Garagatyi
  * @author Sergii Leshchenko
  */
@@ -43,25 +57,44 @@ import org.slf4j.LoggerFactory;
 public class ProbeScheduler {
   private static final Logger LOG = LoggerFactory.getLogger(ProbeScheduler.class);
 
-  private final ScheduledThreadPoolExecutor probesExecutor;
+  private final ExecutorService probesExecutor;
   /**
-   * Use single thread for a scheduling of tasks interruption by timeout. Single thread can be used
-   * since it is supposed that interruption is a very quick call. Separate thread is needed to
-   * prevent a situation when executor is full of jobs and current ones are hanging but we need to
-   * time them out.
+   * Use single thread for triggering of probes and their interruption by timeout. Single thread can
+   * be used since it is supposed that both of them are very quick calls. Separate thread is needed
+   * to prevent a situation when executor is full of jobs and current ones are hanging but we need
+   * to time them out.
    */
-  private final Timer timeouts;
-  /** Mapping of workspaceId to a list of futures with probes of a workspace. */
-  private final Map<String, List<ScheduledFuture>> probesFutures;
+  private final ScheduledThreadPoolExecutor timer;
+
+  private final NioProbeClient nioClient;
+  /** Mapping of workspaceId to a list of scheduled probes of a workspace. */
+  private final Map<String, List<Cancellable>> probesTasks;
 
   @Inject
   public ProbeScheduler(@Named("che.workspace.probe_pool_size") int probeSchedulerPoolSize) {
     probesExecutor =
-        new ScheduledThreadPoolExecutor(
+        Executors.newFixedThreadPool(
             probeSchedulerPoolSize,
-            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ServerProbes-%s").build());
-    timeouts = new Timer("ServerProbesTimeouts", true);
-    probesFutures = new ConcurrentHashMap<>();
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("ServerProbes-%s")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .build());
+    timer =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("ServerProbesTimer")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .build());
+    timer.setRemoveOnCancelPolicy(true);
+    try {
+      nioClient = new NioProbeClient(probesExecutor);
+    } catch (IOException e) {
+      throw new IllegalStateException("Can't open selector for servers probes", e);
+    }
+    probesTasks = new ConcurrentHashMap<>();
   }
 
   /**
@@ -76,7 +109,10 @@ public class ProbeScheduler {
    * @throws RejectedExecutionException when {@link ProbeScheduler} is terminated
    */
   public void schedule(WorkspaceProbes probes, Consumer<ProbeResult> probeResultConsumer) {
-    probesFutures.putIfAbsent(probes.getWorkspaceId(), new ArrayList<>());
+    if (timer.isShutdown()) {
+      throw new RejectedExecutionException("Probe scheduler is terminated");
+    }
+    probesTasks.putIfAbsent(probes.getWorkspaceId(), new ArrayList<>());
     probes
         .getProbes()
         .forEach(
@@ -104,21 +140,20 @@ public class ProbeScheduler {
     DelayedSchedulingTask task =
         new DelayedSchedulingTask(statusSupplier, probes, probeResultConsumer);
 
-    // scheduleWithFixedDelay is used in favor of scheduleAtFixedRate because in case of big amount
-    // of scheduled probes start time of tasks may shift and this may lead to a situation when
-    // another probeConfig is needed immediately after the previous one is finished which doesn't
-    // seem a good thing
+    // status supplier may block, so the check is performed by the executor
     ScheduledFuture scheduledFuture =
-        probesExecutor.scheduleWithFixedDelay(task, 10L, 10L, TimeUnit.SECONDS);
+        timer.scheduleWithFixedDelay(
+            () -> probesExecutor.execute(task), 10L, 10L, TimeUnit.SECONDS);
+    task.scheduledFuture = scheduledFuture;
 
-    probesFutures.compute(
+    probesTasks.compute(
         probes.getWorkspaceId(),
-        (key, scheduledFutures) -> {
-          List<ScheduledFuture> target = scheduledFutures;
+        (key, scheduledTasks) -> {
+          List<Cancellable> target = scheduledTasks;
           if (target == null) {
             target = new ArrayList<>();
           }
-          target.add(scheduledFuture);
+          target.add(task);
           return target;
         });
   }
@@ -128,15 +163,17 @@ public class ProbeScheduler {
    * specified ID.
    */
   public void cancel(String workspaceId) {
-    List<ScheduledFuture> tasks = probesFutures.remove(workspaceId);
+    List<Cancellable> tasks = probesTasks.remove(workspaceId);
     if (tasks != null) {
-      tasks.forEach(task -> task.cancel(true));
+      tasks.forEach(Cancellable::cancel);
     }
   }
 
   /** Denies starting of new probes and terminates active one if scheduler not terminated yet. */
   public void shutdown() {
     if (!probesExecutor.isShutdown()) {
+      timer.shutdownNow();
+      nioClient.shutdown();
       probesExecutor.shutdown();
       try {
         LOG.info("Shutdown probe scheduler, wait 30s to stop normally");
@@ -162,40 +199,46 @@ public class ProbeScheduler {
       String workspaceId, ProbeFactory probeFactory, Consumer<ProbeResult> probeResultConsumer) {
     ProbeConfig probeConfig = probeFactory.getProbeConfig();
     Task task = new Task(probeFactory, probeResultConsumer);
-    // scheduleWithFixedDelay is used in favor of scheduleAtFixedRate because in case of big amount
-    // of scheduled probes start time of tasks may shift and this may lead to a situation when
-    // another probeConfig is needed immediately after the previous one is finished which doesn't
-    // seem a good thing
-    ScheduledFuture scheduledFuture =
-        probesExecutor.scheduleWithFixedDelay(
-            task,
-            probeConfig.getInitialDelaySeconds(),
-            probeConfig.getPeriodSeconds(),
-            TimeUnit.SECONDS);
-
-    List<ScheduledFuture> workspaceProbes =
-        probesFutures.computeIfPresent(
+
+    List<Cancellable> workspaceProbes =
+        probesTasks.computeIfPresent(
             workspaceId,
-            (key, scheduledFutures) -> {
-              scheduledFutures.add(scheduledFuture);
-              return scheduledFutures;
+            (key, scheduledTasks) -> {
+              scheduledTasks.add(task);
+              return scheduledTasks;
             });
     // check whether workspace probes were cancelled concurrently which led to removal of the value
     // in the map
     if (workspaceProbes == null) {
-      scheduledFuture.cancel(true);
-      task.cancel();
+      return;
     }
+
+    long periodMillis = SECONDS.toMillis(probeConfig.getPeriodSeconds());
+    task.schedule(
+        SECONDS.toMillis(probeConfig.getInitialDelaySeconds())
+            + ThreadLocalRandom.current().nextLong(periodMillis));
   }
 
-  private class Task implements Runnable {
+  private interface Cancellable {
+    void cancel();
+  }
+
+  /**
+   * Performs checks of a probe one by one. Next check is scheduled after the completion of the
+   * previous one, so in case of big amount of probes start time of checks may shift but a check is
+   * never needed immediately after the previous one is finished.
+   */
+  private class Task implements Cancellable {
     private final ProbeFactory probeFactory;
     private final Consumer<ProbeResult> probeResultConsumer;
     private final ProbeConfig probeConfig;
 
     private int failures = 0;
     private int successes = 0;
-    private AtomicBoolean cancelled = new AtomicBoolean(false);
+    private volatile boolean cancelled;
+    private volatile ScheduledFuture<?> next;
+    private volatile Probe current;
+    private volatile long plannedNanos;
 
     public Task(ProbeFactory probeFactory, Consumer<ProbeResult> probeResultConsumer) {
       this.probeFactory = probeFactory;
@@ -203,25 +246,70 @@ public class ProbeScheduler {
       this.probeResultConsumer = probeResultConsumer;
     }
 
-    @Override
-    public void run() {
-      if (cancelled.get()) {
+    void schedule(long delayMillis) {
+      if (cancelled) {
+        return;
+      }
+      plannedNanos = System.nanoTime() + MILLISECONDS.toNanos(delayMillis);
+      try {
+        next = timer.schedule(this::run, delayMillis, MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // scheduler is terminated
+        return;
+      }
+      if (cancelled) {
+        next.cancel(false);
+      }
+    }
+
+    private void run() {
+      if (cancelled) {
         return;
       }
+      long lagMillis = NANOSECONDS.toMillis(System.nanoTime() - plannedNanos);
+      if (lagMillis > SECONDS.toMillis(probeConfig.getPeriodSeconds())) {
+        LOG.warn(
+            "Probe of server '{}' of workspace '{}' is started {}ms later than planned",
+            probeFactory.getServerName(),
+            probeFactory.getWorkspaceId(),
+            lagMillis);
+      }
+
       Probe probe = probeFactory.get();
-      timeouts.schedule(
-          new TimeoutProbeTask(probe), TimeUnit.SECONDS.toMillis(probeConfig.getTimeoutSeconds()));
-      boolean success = probe.probe();
+      current = probe;
+      try {
+        CompletableFuture<Boolean> result = probe.start(probesExecutor, nioClient);
+        ScheduledFuture<?> timeout =
+            timer.schedule(probe::cancel, probeConfig.getTimeoutSeconds(), SECONDS);
+        result.whenCompleteAsync(
+            (success, error) -> {
+              timeout.cancel(false);
+              current = null;
+              if (error != null) {
+                LOG.error(
+                    "Probe of server '{}' of workspace '{}' failed. Error: {}",
+                    probeFactory.getServerName(),
+                    probeFactory.getWorkspaceId(),
+                    error.getMessage(),
+                    error);
+              }
+              onResult(Boolean.TRUE.equals(success));
+              schedule(SECONDS.toMillis(probeConfig.getPeriodSeconds()));
+            },
+            probesExecutor);
+      } catch (RejectedExecutionException e) {
+        // scheduler is terminated
+      }
+    }
+
+    private void onResult(boolean success) {
       if (success) {
         // current success increases successes count and clears failures count
         successes++;
         failures = 0;
 
         if (successes >= probeConfig.getSuccessThreshold()) {
-          // TODO make them completable futures? Then we should ensure that
-          // consecutive calls won't use executors thread time but rather use common thread
-          // pool to perform processing of passed probe result
-          if (cancelled.get()) {
+          if (cancelled) {
             return;
           }
           // Health check satisfies probeConfig health conditions
@@ -238,7 +326,7 @@ public class ProbeScheduler {
         successes = 0;
 
         if (failures >= probeConfig.getFailureThreshold()) {
-          if (cancelled.get()) {
+          if (cancelled) {
             return;
           }
           // Health check satisfies probeConfig failure conditions
@@ -252,17 +340,28 @@ public class ProbeScheduler {
       }
     }
 
+    @Override
     public void cancel() {
-      cancelled.set(true);
+      cancelled = true;
+      ScheduledFuture<?> scheduled = next;
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+      Probe probe = current;
+      if (probe != null) {
+        probe.cancel();
+      }
     }
   }
 
-  private class DelayedSchedulingTask implements Runnable {
+  private class DelayedSchedulingTask implements Runnable, Cancellable {
     private final String workspaceId;
     private final Supplier<WorkspaceStatus> statusSupplier;
     private final WorkspaceProbes probes;
     private final Consumer<ProbeResult> probeResultConsumer;
 
+    private volatile ScheduledFuture scheduledFuture;
+
     DelayedSchedulingTask(
         Supplier<WorkspaceStatus> statusSupplier,
         WorkspaceProbes probes,
@@ -275,6 +374,10 @@ public class ProbeScheduler {
 
     @Override
     public void run() {
+      if (scheduledFuture.isCancelled()) {
+        // status check was queued before the cancellation
+        return;
+      }
       WorkspaceStatus status;
 
       try {
@@ -298,18 +401,10 @@ public class ProbeScheduler {
           ProbeScheduler.this.cancel(workspaceId);
       }
     }
-  }
-
-  private class TimeoutProbeTask extends TimerTask {
-    private final Probe probe;
-
-    public TimeoutProbeTask(Probe probe) {
-      this.probe = probe;
-    }
 
     @Override
-    public void run() {
-      probe.cancel();
+    public void cancel() {
+      scheduledFuture.cancel(false);
     }
   }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link NioProbeClient} */
+public class NioProbeClientTest {
+
+  private ExecutorService executor;
+  private NioProbeClient client;
+  private HttpServer server;
+  private final List<InetSocketAddress> clients = new CopyOnWriteArrayList<>();
+  private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    executor = Executors.newSingleThreadExecutor();
+    client = new NioProbeClient(executor);
+    clients.clear();
+    authorizations.clear();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          clients.add(exchange.getRemoteAddress());
+          authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+          byte[] body = "ok".getBytes(UTF_8);
+          int code = exchange.getRequestURI().getPath().equals("/error") ? 500 : 200;
+          exchange.sendResponseHeaders(code, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.start();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    client.shutdown();
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldSucceedWhenServerRespondsWithSuccessfulCode() throws Exception {
+    assertTrue(
+        client
+            .get(url("/liveness"), singletonMap("Authorization", "token"), 5000)
+            .get(10, SECONDS));
+
+    assertEquals(authorizations, singletonList("token"));
+  }
+
+  @Test
+  public void shouldFailWhenServerRespondsWithErrorCode() throws Exception {
+    assertFalse(client.get(url("/error"), emptyMap(), 5000).get(10, SECONDS));
+  }
+
+  @Test
+  public void shouldReuseConnectionForFollowingChecks() throws Exception {
+    assertTrue(client.get(url("/liveness"), emptyMap(), 5000).get(10, SECONDS));
+    assertTrue(client.get(url("/liveness"), emptyMap(), 5000).get(10, SECONDS));
+
+    assertEquals(clients.size(), 2);
+    assertEquals(clients.get(0), clients.get(1));
+  }
+
+  @Test
+  public void shouldFailWhenServerDoesNotRespondInTime() throws Exception {
+    try (ServerSocket silent = new ServerSocket(0)) {
+      URL url = new URL("http", "localhost", silent.getLocalPort(), "/");
+
+      assertFalse(client.get(url, emptyMap(), 500).get(10, SECONDS));
+    }
+  }
+
+  private URL url(String path) throws Exception {
+    return new URL("http", "localhost", server.getAddress().getPort(), path);
+  }
+}
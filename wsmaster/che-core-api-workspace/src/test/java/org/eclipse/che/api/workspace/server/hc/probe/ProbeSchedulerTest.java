@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.eclipse.che.api.workspace.server.hc.probe.ProbeResult.ProbeStatus;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ProbeScheduler} */
+public class ProbeSchedulerTest {
+  private static final String WORKSPACE_ID = "ws1";
+
+  private ProbeScheduler probeScheduler;
+  private BlockingQueue<ProbeResult> results;
+
+  @BeforeMethod
+  public void setUp() {
+    probeScheduler = new ProbeScheduler(1);
+    results = new ArrayBlockingQueue<>(100);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    probeScheduler.shutdown();
+  }
+
+  @Test
+  public void shouldPassResultsOfProbesUntilCancelled() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          exchange.sendResponseHeaders(200, -1);
+          exchange.close();
+        });
+    server.start();
+    try {
+      probeScheduler.schedule(
+          new WorkspaceProbes(
+              WORKSPACE_ID, singletonList(httpProbe(server.getAddress().getPort()))),
+          results::add);
+
+      ProbeResult result = results.poll(10, SECONDS);
+      assertNotNull(result);
+      assertEquals(result.getWorkspaceId(), WORKSPACE_ID);
+      assertEquals(result.getServerName(), "server");
+      assertEquals(result.getStatus(), ProbeStatus.PASSED);
+
+      probeScheduler.cancel(WORKSPACE_ID);
+      results.clear();
+
+      assertNull(results.poll(2, SECONDS));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void shouldPassFailedResultWhenServerIsNotAvailable() throws Exception {
+    int port;
+    try (ServerSocket server = new ServerSocket(0)) {
+      port = server.getLocalPort();
+    }
+
+    probeScheduler.schedule(
+        new WorkspaceProbes(WORKSPACE_ID, singletonList(httpProbe(port))), results::add);
+
+    ProbeResult result = results.poll(10, SECONDS);
+    assertNotNull(result);
+    assertEquals(result.getStatus(), ProbeStatus.FAILED);
+  }
+
+  private HttpProbeFactory httpProbe(int port) throws Exception {
+    return new HttpProbeFactory(
+        WORKSPACE_ID,
+        "machine",
+        "server",
+        new HttpProbeConfig(port, "localhost", "http", "/", null, 1, 1, 1, 1, 0));
+  }
+}